@@ -0,0 +1,20 @@
+package com.edinarobotics.utils.common;
+
+/**
+ * This interface supplies the current time to classes whose behavior
+ * depends on the time between calls.
+ *
+ * Such classes read the time from a Clock given to them rather than from
+ * the FPGA directly, so that they can be driven by recorded or simulated
+ * time. {@link FPGAClock} reads the FPGA timer and is the usual choice on
+ * a robot.
+ */
+public interface Clock {
+
+    /**
+     * Returns the current time. Only differences between the values
+     * returned by this method are meaningful.
+     * @return The current time in seconds.
+     */
+    public double getTime();
+}
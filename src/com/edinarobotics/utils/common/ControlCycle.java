@@ -0,0 +1,84 @@
+package com.edinarobotics.utils.common;
+
+import edu.wpi.first.wpilibj.Timer;
+
+/**
+ * This class keeps a global tick counter identifying the current pass
+ * through the robot's control loop.
+ *
+ * Classes which cache values once per control cycle compare the current
+ * tick with the tick at which their values were computed. The robot should
+ * call {@link #advance()} once at the start of each control loop, for
+ * example from {@code robotPeriodic()}.
+ *
+ * Until {@link #advance()} is called for the first time, ticks are derived
+ * from the FPGA timestamp instead: time is divided into slots of the
+ * quantization period, and each slot is one tick. Once {@link #advance()}
+ * has been called, the counter takes over, continuing from the last
+ * time-derived tick.
+ */
+public final class ControlCycle {
+    /**
+     * The default quantization period in seconds, the length of a standard
+     * 20 millisecond control loop.
+     */
+    public static final double DEFAULT_PERIOD = 0.02;
+
+    private static volatile long tick = -1;
+    private static volatile double period = DEFAULT_PERIOD;
+
+    private ControlCycle(){
+        //Static utility class
+    }
+
+    /**
+     * Starts a new control cycle by incrementing the tick counter.
+     */
+    public static synchronized void advance(){
+        tick = getTick() + 1;
+    }
+
+    /**
+     * Returns the tick identifying the current control cycle.
+     * @return The value of the tick counter, or the time-derived tick if
+     * {@link #advance()} has never been called.
+     */
+    public static long getTick(){
+        long current = tick;
+        if(current >= 0){
+            return current;
+        }
+        return (long)Math.floor(Timer.getFPGATimestamp() / period);
+    }
+
+    /**
+     * Indicates whether ticks are counted by calls to {@link #advance()}
+     * rather than derived from the FPGA timestamp.
+     * @return {@code true} if {@link #advance()} has been called,
+     * {@code false} otherwise.
+     */
+    public static boolean isCounting(){
+        return tick >= 0;
+    }
+
+    /**
+     * Sets the length of the time slots used to derive ticks before
+     * {@link #advance()} is first called.
+     * @param seconds The quantization period in seconds.
+     */
+    public static void setQuantizationPeriod(double seconds){
+        if(!(seconds > 0)){
+            throw new IllegalArgumentException("Quantization period must be positive (received: "+seconds+")");
+        }
+        period = seconds;
+    }
+
+    /**
+     * Returns the length of the time slots used to derive ticks before
+     * {@link #advance()} is first called.
+     * @return The quantization period in seconds.
+     */
+    public static double getQuantizationPeriod(){
+        return period;
+    }
+}
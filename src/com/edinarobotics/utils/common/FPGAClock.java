@@ -0,0 +1,38 @@
+package com.edinarobotics.utils.common;
+
+import edu.wpi.first.wpilibj.Timer;
+
+/**
+ * This class implements a Clock which reads the FPGA timer.
+ */
+public final class FPGAClock implements Clock {
+    private static final FPGAClock instance = new FPGAClock();
+
+    private FPGAClock(){
+        //Hide constructor
+    }
+
+    /**
+     * Returns the shared FPGAClock.
+     * @return The FPGAClock.
+     */
+    public static FPGAClock getInstance(){
+        return instance;
+    }
+
+    /**
+     * Returns the current value of the FPGA timer.
+     * @return The FPGA timestamp in seconds.
+     */
+    public double getTime(){
+        return Timer.getFPGATimestamp();
+    }
+
+    /**
+     * Returns a String representation of this FPGAClock.
+     * @return A String representation of this FPGAClock.
+     */
+    public String toString(){
+        return "<FPGAClock>";
+    }
+}
@@ -0,0 +1,85 @@
+package com.edinarobotics.utils.gamepad;
+
+import com.edinarobotics.utils.common.ControlCycle;
+import edu.wpi.first.wpilibj.Timer;
+
+/**
+ * This class tracks when the cached axis values of a filtered gamepad or
+ * joystick were last sampled and decides, according to an
+ * AxisSnapshotMode, whether they must be sampled again.
+ *
+ * An AxisSnapshot is not thread-safe. Its owner must guard it with the
+ * same lock that guards the cached axis values.
+ */
+final class AxisSnapshot {
+    private AxisSnapshotMode mode;
+    private boolean sampled;
+    private long tick;
+    private double timestamp;
+
+    /**
+     * Constructs a new AxisSnapshot in {@link AxisSnapshotMode#LIVE} mode
+     * that has not yet been sampled.
+     */
+    AxisSnapshot(){
+        this.mode = AxisSnapshotMode.LIVE;
+        this.sampled = false;
+        this.timestamp = Double.NaN;
+    }
+
+    /**
+     * Determines whether the cached axis values must be sampled before they
+     * are read.
+     * @return {@code true} if the axes must be sampled again, {@code false}
+     * if the cached values are current.
+     */
+    boolean isStale(){
+        if(!sampled || mode == AxisSnapshotMode.LIVE){
+            return true;
+        }
+        if(mode == AxisSnapshotMode.PER_CYCLE){
+            return ControlCycle.getTick() != tick;
+        }
+        return false;
+    }
+
+    /**
+     * Records that the axes are being sampled now. This method should be
+     * called immediately before the axes are read.
+     */
+    void markSampled(){
+        sampled = true;
+        tick = mode == AxisSnapshotMode.PER_CYCLE ? ControlCycle.getTick() : 0;
+        timestamp = Timer.getFPGATimestamp();
+    }
+
+    /**
+     * Returns the mode of this AxisSnapshot.
+     * @return The current AxisSnapshotMode.
+     */
+    AxisSnapshotMode getMode(){
+        return mode;
+    }
+
+    /**
+     * Changes the mode of this AxisSnapshot. The cached axis values are
+     * sampled again by the next read.
+     * @param mode The new AxisSnapshotMode.
+     */
+    void setMode(AxisSnapshotMode mode){
+        if(mode == null){
+            throw new IllegalArgumentException("Provided AxisSnapshotMode must not be null");
+        }
+        this.mode = mode;
+        this.sampled = false;
+    }
+
+    /**
+     * Returns the FPGA timestamp at which the axes were last sampled.
+     * @return The time of the last sample in seconds, or {@code NaN} if
+     * the axes have never been sampled.
+     */
+    double getTimestamp(){
+        return timestamp;
+    }
+}
@@ -0,0 +1,59 @@
+package com.edinarobotics.utils.gamepad;
+
+/**
+ * Represents the ways in which a filtered gamepad or joystick decides when
+ * to read and filter its axes again.
+ */
+public enum AxisSnapshotMode {
+
+	/**
+	 * Every axis read samples and filters all axes again.
+	 */
+	LIVE("live"),
+
+	/**
+	 * Axes are sampled and filtered only by calls to {@code update()}.
+	 * Reads before the first update sample the axes once.
+	 */
+	MANUAL("manual"),
+
+	/**
+	 * Axes are sampled and filtered by the first read in each control cycle,
+	 * as identified by {@link com.edinarobotics.utils.common.ControlCycle},
+	 * and by calls to {@code update()}. Unless the robot program calls
+	 * {@link com.edinarobotics.utils.common.ControlCycle#advance()} once per
+	 * loop, cycles are fixed slots of FPGA time that are not aligned with
+	 * the loop, so some loops reuse the values of the previous loop.
+	 */
+	PER_CYCLE("per cycle");
+
+	private final String name;
+
+	/**
+	 * Internal constructor used to create an AxisSnapshotMode value.
+	 *
+	 * @param name
+	 *            The name of this AxisSnapshotMode.
+	 */
+	AxisSnapshotMode(String name) {
+		this.name = name;
+	}
+
+	/**
+	 * Returns the name of this AxisSnapshotMode.
+	 *
+	 * @return The name of this AxisSnapshotMode.
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * Returns a String representation of this AxisSnapshotMode.
+	 *
+	 * @return A String representation of this AxisSnapshotMode.
+	 */
+	public String toString() {
+		return "<AxisSnapshotMode: " + name + ">";
+	}
+}
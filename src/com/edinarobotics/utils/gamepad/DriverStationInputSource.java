@@ -0,0 +1,76 @@
+package com.edinarobotics.utils.gamepad;
+
+import edu.wpi.first.wpilibj.DriverStation;
+
+/**
+ * This class reads controller inputs directly from the driver station.
+ * It is the InputSource used by every Gamepad and Joystick unless another
+ * one is given.
+ */
+public final class DriverStationInputSource implements InputSource {
+    private static final DriverStationInputSource instance = new DriverStationInputSource();
+
+    private DriverStationInputSource(){
+        //Hide constructor
+    }
+
+    /**
+     * Returns the shared DriverStationInputSource.
+     * @return The DriverStationInputSource.
+     */
+    public static DriverStationInputSource getInstance(){
+        return instance;
+    }
+
+    /**
+     * Returns the state of every raw button of a controller, read from the
+     * driver station in a single call.
+     * @param port The port of the controller.
+     * @return A bitmask in which bit {@code n - 1} is set if raw button
+     * {@code n} is held.
+     */
+    public int getButtons(int port){
+        return DriverStation.getInstance().getStickButtons(port);
+    }
+
+    /**
+     * Returns the angle of the first POV of a controller, as reported by
+     * the driver station.
+     * @param port The port of the controller.
+     * @return The angle of the POV in degrees clockwise from up, or
+     * {@code -1} if it is not pressed.
+     */
+    public int getPOV(int port){
+        return DriverStation.getInstance().getStickPOV(port, 0);
+    }
+
+    /**
+     * Returns the value of a raw axis of a controller, as reported by the
+     * driver station.
+     * @param port The port of the controller.
+     * @param axis The driver station index of the axis.
+     * @return The value of the axis, from {@code -1} to {@code 1}.
+     */
+    public double getRawAxis(int port, int axis){
+        return DriverStation.getInstance().getStickAxis(port, axis);
+    }
+
+    /**
+     * Returns the number of axes of a controller, as reported by the driver
+     * station.
+     * @param port The port of the controller.
+     * @return The number of axes, or {@code 0} if no controller is attached
+     * to the port.
+     */
+    public int getAxisCount(int port){
+        return DriverStation.getInstance().getStickAxisCount(port);
+    }
+
+    /**
+     * Returns a String representation of this DriverStationInputSource.
+     * @return A String representation of this DriverStationInputSource.
+     */
+    public String toString(){
+        return "<DriverStationInputSource>";
+    }
+}
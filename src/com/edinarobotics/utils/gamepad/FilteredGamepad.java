@@ -1,14 +1,32 @@
 package com.edinarobotics.utils.gamepad;
 
+import com.edinarobotics.utils.common.Updatable;
 import com.edinarobotics.utils.gamepad.gamepadfilters.GamepadFilterSet;
 import com.edinarobotics.utils.math.Vector2;
 
 /**
  * Implements a Gamepad that filters all of its joystick axis values through
  * a given GamepadFilterSet.
+ *
+ * The values of individual axes are filtered in place in a reusable
+ * GamepadAxisBuffer, so reading them does not create any objects if every
+ * filter in the set is an
+ * {@link com.edinarobotics.utils.gamepad.gamepadfilters.InPlaceGamepadFilter}.
+ *
+ * By default every read samples and filters the axes again. In
+ * {@link AxisSnapshotMode#MANUAL} or {@link AxisSnapshotMode#PER_CYCLE}
+ * mode the axes are sampled and filtered once, by {@link #update()} or by
+ * the first read in each control cycle, and every getter returns the
+ * cached values until the next sample. If the filter set is
+ * {@link com.edinarobotics.utils.gamepad.gamepadfilters.StatefulGamepadJoystickFilter
+ * stateful}, the default is MANUAL instead, so that its state advances
+ * once per call to {@link #update()} rather than once per getter call.
+ * Call {@link #update()} once per control loop, before reading any axis.
  */
-public class FilteredGamepad extends Gamepad {
+public class FilteredGamepad extends Gamepad implements Updatable {
     private GamepadFilterSet filters;
+    private final GamepadAxisBuffer axes;
+    private final AxisSnapshot snapshot;
     
     /**
      * Constructs a new FilteredGamepad that will send the axis results
@@ -21,6 +39,11 @@ public class FilteredGamepad extends Gamepad {
     public FilteredGamepad(int port, GamepadFilterSet filterSet){
         super(port);
         this.filters = filterSet;
+        this.axes = new GamepadAxisBuffer();
+        this.snapshot = new AxisSnapshot();
+        if(filterSet != null && filterSet.isStateful()){
+            snapshot.setMode(AxisSnapshotMode.MANUAL);
+        }
     }
     
     /**
@@ -30,7 +53,10 @@ public class FilteredGamepad extends Gamepad {
      * being filtered by the given GamepadFilterSet.
      */
     public Vector2 getLeftJoystick(){
-        return getGamepadAxisState().getLeftJoystick();
+        synchronized(axes){
+            readAxes();
+            return new Vector2(axes.getLeftX(), axes.getLeftY());
+        }
     }
     
     /**
@@ -40,7 +66,10 @@ public class FilteredGamepad extends Gamepad {
      * being filtered by the given GamepadFilterSet.
      */
     public Vector2 getRightJoystick(){
-        return getGamepadAxisState().getRightJoystick();
+        synchronized(axes){
+            readAxes();
+            return new Vector2(axes.getRightX(), axes.getRightY());
+        }
     }
     
     /**
@@ -51,16 +80,81 @@ public class FilteredGamepad extends Gamepad {
      * joystick axes on this Gamepad.
      */
     public GamepadAxisState getGamepadAxisState(){
-        //This method recomputes values so we avoid infinite loops
+        synchronized(axes){
+            return readAxes().toGamepadAxisState();
+        }
+    }
+    
+    /**
+     * Internal method that returns the axis buffer, first sampling and
+     * filtering the axes if the snapshot mode requires it. Callers must
+     * hold the lock on the axis buffer.
+     * @return The axis buffer holding the filtered values.
+     */
+    private GamepadAxisBuffer readAxes(){
+        if(snapshot.isStale()){
+            sampleAxes();
+        }
+        return axes;
+    }
+    
+    /**
+     * Internal method that reads the raw values of the gamepad's joystick
+     * axes into the axis buffer and filters them in place. Callers must
+     * hold the lock on the axis buffer.
+     */
+    private void sampleAxes(){
+        //This method reads the raw values so we avoid infinite loops
         //in FilteredGamepad.
-        double leftx = super.getLeftX();
-        double lefty = super.getLeftY();
-        double rightx = super.getRightX();
-        double righty = super.getRightY();
-        Vector2 left = new Vector2(leftx, lefty);
-        Vector2 right = new Vector2(rightx, righty);
-        GamepadAxisState state = new GamepadAxisState(left, right);
-        return filters.filter(state);
+        snapshot.markSampled();
+        axes.set(super.getLeftX(), super.getLeftY(), super.getRightX(), super.getRightY());
+        filters.filterInPlace(axes);
+    }
+    
+    /**
+     * Samples the gamepad's joystick axes and filters them through the
+     * given GamepadFilterSet now, replacing the cached values in every
+     * snapshot mode. Call this method once per control loop, before reading
+     * any axis, when using {@link AxisSnapshotMode#MANUAL} mode.
+     */
+    public void update(){
+        synchronized(axes){
+            sampleAxes();
+        }
+    }
+    
+    /**
+     * Changes when the axes are sampled and filtered.
+     * @param mode The new AxisSnapshotMode.
+     * @see AxisSnapshotMode
+     */
+    public void setSnapshotMode(AxisSnapshotMode mode){
+        synchronized(axes){
+            snapshot.setMode(mode);
+        }
+    }
+    
+    /**
+     * Returns the mode which decides when the axes are sampled and filtered.
+     * @return The current AxisSnapshotMode.
+     */
+    public AxisSnapshotMode getSnapshotMode(){
+        synchronized(axes){
+            return snapshot.getMode();
+        }
+    }
+    
+    /**
+     * Returns the FPGA timestamp at which the raw axis values were last
+     * read. Subtracting it from the current FPGA timestamp gives the age of
+     * the values returned by the getters.
+     * @return The time of the last sample in seconds, or {@code NaN} if the
+     * axes have never been sampled.
+     */
+    public double getSnapshotTimestamp(){
+        synchronized(axes){
+            return snapshot.getTimestamp();
+        }
     }
     
     /**
@@ -71,7 +165,9 @@ public class FilteredGamepad extends Gamepad {
      * being sent through the given GamepadFilterSet.
      */
     public double getLeftX(){
-        return getLeftJoystick().getX();
+        synchronized(axes){
+            return readAxes().getLeftX();
+        }
     }
     
     /**
@@ -82,7 +178,9 @@ public class FilteredGamepad extends Gamepad {
      * being sent through the given GamepadFilterSet.
      */
     public double getLeftY(){
-        return getLeftJoystick().getY();
+        synchronized(axes){
+            return readAxes().getLeftY();
+        }
     }
     
     /**
@@ -93,7 +191,9 @@ public class FilteredGamepad extends Gamepad {
      * being sent through the given GamepadFilterSet.
      */
     public double getRightX(){
-        return getRightJoystick().getX();
+        synchronized(axes){
+            return readAxes().getRightX();
+        }
     }
     
     /**
@@ -104,6 +204,8 @@ public class FilteredGamepad extends Gamepad {
      * being sent through the given GamepadFilterSet.
      */
     public double getRightY(){
-        return getRightJoystick().getY();
+        synchronized(axes){
+            return readAxes().getRightY();
+        }
     }
 }
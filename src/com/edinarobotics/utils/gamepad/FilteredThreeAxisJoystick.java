@@ -1,14 +1,32 @@
 package com.edinarobotics.utils.gamepad;
 
+import com.edinarobotics.utils.common.Updatable;
 import com.edinarobotics.utils.gamepad.gamepadfilters.JoystickFilterSet;
 import com.edinarobotics.utils.math.Vector2;
 
 /**
  * Implements a Joystick that filters all of its axis values through a given
  * JoystickFilterSet.
+ *
+ * The values of individual axes are filtered in place in a reusable
+ * JoystickAxisBuffer, so reading them does not create any objects if every
+ * filter in the set is an
+ * {@link com.edinarobotics.utils.gamepad.gamepadfilters.InPlaceJoystickFilter}.
+ *
+ * By default every read samples and filters the axes again. In
+ * {@link AxisSnapshotMode#MANUAL} or {@link AxisSnapshotMode#PER_CYCLE}
+ * mode the axes are sampled and filtered once, by {@link #update()} or by
+ * the first read in each control cycle, and every getter returns the
+ * cached values until the next sample. If the filter set is
+ * {@link com.edinarobotics.utils.gamepad.gamepadfilters.StatefulGamepadJoystickFilter
+ * stateful}, the default is MANUAL instead, so that its state advances
+ * once per call to {@link #update()} rather than once per getter call.
+ * Call {@link #update()} once per control loop, before reading any axis.
  */
-public class FilteredThreeAxisJoystick extends ThreeAxisJoystick {
+public class FilteredThreeAxisJoystick extends ThreeAxisJoystick implements Updatable {
     private JoystickFilterSet filters;
+    private final JoystickAxisBuffer axes;
+    private final AxisSnapshot snapshot;
     
     /**
      * Constructs a new FilteredJoystick that will send the axis values of
@@ -21,6 +39,11 @@ public class FilteredThreeAxisJoystick extends ThreeAxisJoystick {
     public FilteredThreeAxisJoystick(int port, JoystickFilterSet filters){
         super(port);
         this.filters = filters;
+        this.axes = new JoystickAxisBuffer();
+        this.snapshot = new AxisSnapshot();
+        if(filters != null && filters.isStateful()){
+            snapshot.setMode(AxisSnapshotMode.MANUAL);
+        }
     }
     
     /**
@@ -30,12 +53,79 @@ public class FilteredThreeAxisJoystick extends ThreeAxisJoystick {
      * joystick axes on this Gamepad.
      */
     public JoystickAxisState getJoystickAxisState(){
-        double x = super.getX();
-        double y = super.getY();
-        double twist = super.getTwist();
-        double throttle = super.getThrottle();
-        Vector2 joystick = new Vector2(x, y);
-        return filters.filter(new JoystickAxisState(joystick, twist, throttle));
+        synchronized(axes){
+            return readAxes().toJoystickAxisState();
+        }
+    }
+    
+    /**
+     * Internal method that returns the axis buffer, first sampling and
+     * filtering the axes if the snapshot mode requires it. Callers must
+     * hold the lock on the axis buffer.
+     * @return The axis buffer holding the filtered values.
+     */
+    private JoystickAxisBuffer readAxes(){
+        if(snapshot.isStale()){
+            sampleAxes();
+        }
+        return axes;
+    }
+    
+    /**
+     * Internal method that reads the raw values of the joystick's axes into
+     * the axis buffer and filters them in place. Callers must hold the lock
+     * on the axis buffer.
+     */
+    private void sampleAxes(){
+        snapshot.markSampled();
+        axes.set(super.getX(), super.getY(), super.getTwist(), super.getThrottle());
+        filters.filterInPlace(axes);
+    }
+    
+    /**
+     * Samples the joystick's axes and filters them through the given
+     * JoystickFilterSet now, replacing the cached values in every snapshot
+     * mode. Call this method once per control loop, before reading any
+     * axis, when using {@link AxisSnapshotMode#MANUAL} mode.
+     */
+    public void update(){
+        synchronized(axes){
+            sampleAxes();
+        }
+    }
+    
+    /**
+     * Changes when the axes are sampled and filtered.
+     * @param mode The new AxisSnapshotMode.
+     * @see AxisSnapshotMode
+     */
+    public void setSnapshotMode(AxisSnapshotMode mode){
+        synchronized(axes){
+            snapshot.setMode(mode);
+        }
+    }
+    
+    /**
+     * Returns the mode which decides when the axes are sampled and filtered.
+     * @return The current AxisSnapshotMode.
+     */
+    public AxisSnapshotMode getSnapshotMode(){
+        synchronized(axes){
+            return snapshot.getMode();
+        }
+    }
+    
+    /**
+     * Returns the FPGA timestamp at which the raw axis values were last
+     * read. Subtracting it from the current FPGA timestamp gives the age of
+     * the values returned by the getters.
+     * @return The time of the last sample in seconds, or {@code NaN} if the
+     * axes have never been sampled.
+     */
+    public double getSnapshotTimestamp(){
+        synchronized(axes){
+            return snapshot.getTimestamp();
+        }
     }
     
     /**
@@ -43,7 +133,9 @@ public class FilteredThreeAxisJoystick extends ThreeAxisJoystick {
      * @return The filtered value of the joystick's x-axis.
      */
     public double getX(){
-        return getJoystickAxisState().getX();
+        synchronized(axes){
+            return readAxes().getX();
+        }
     }
     
     /**
@@ -51,7 +143,9 @@ public class FilteredThreeAxisJoystick extends ThreeAxisJoystick {
      * @return The filtered value of the joystick's y-axis.
      */
     public double getY(){
-        return getJoystickAxisState().getY();
+        synchronized(axes){
+            return readAxes().getY();
+        }
     }
     
     /**
@@ -59,7 +153,9 @@ public class FilteredThreeAxisJoystick extends ThreeAxisJoystick {
      * @return The filtered value of the joystick's twist axis.
      */
     public double getTwist(){
-        return getJoystickAxisState().getTwist();
+        synchronized(axes){
+            return readAxes().getTwist();
+        }
     }
     
     /**
@@ -68,7 +164,9 @@ public class FilteredThreeAxisJoystick extends ThreeAxisJoystick {
      * @return The filtered value of the joystick's throttle axis.
      */
     public double getThrottle(){
-        return getJoystickAxisState().getThrottle();
+        synchronized(axes){
+            return readAxes().getThrottle();
+        }
     }
     
     /**
@@ -76,6 +174,9 @@ public class FilteredThreeAxisJoystick extends ThreeAxisJoystick {
      * @return The filtered state of the axes of the main joystick as a Vector2.
      */
     public Vector2 getJoystick(){
-        return getJoystickAxisState().getJoystick();
+        synchronized(axes){
+            readAxes();
+            return new Vector2(axes.getX(), axes.getY());
+        }
     }
 }
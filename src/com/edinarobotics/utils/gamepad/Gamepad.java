@@ -1,38 +1,67 @@
 package com.edinarobotics.utils.gamepad;
 
+import com.edinarobotics.utils.gamepad.buttons.ButtonSnapshot;
 import com.edinarobotics.utils.gamepad.buttons.DPadButton;
+import com.edinarobotics.utils.gamepad.buttons.DirectionDecoder;
+import com.edinarobotics.utils.gamepad.buttons.GamepadButtons;
+import com.edinarobotics.utils.gamepad.buttons.MaskButton;
 import com.edinarobotics.utils.math.Vector2;
 
 import edu.wpi.first.wpilibj.buttons.Button;
-import edu.wpi.first.wpilibj.buttons.JoystickButton;
-import edu.wpi.first.wpilibj.Joystick;
 
 
 public class Gamepad {
 	
-	private Joystick joystick;
+	private final int port;
+	private volatile InputSource source;
+	private final ButtonSnapshot buttons;
 	private Button leftBumper, rightBumper;
 	private Button leftTrigger, rightTrigger;
     private Button diamondLeft, diamondDown, diamondRight, diamondUp;
     private Button middleLeft, middleRight;
     private Button leftJoystickButton, rightJoystickButton;
     private Button dPadLeft, dPadDown, dPadRight, dPadUp;
+    
+    private static final int[] BUTTON_MASKS = {
+        GamepadButtons.DIAMOND_LEFT.getMask(),
+        GamepadButtons.DIAMOND_DOWN.getMask(),
+        GamepadButtons.DIAMOND_RIGHT.getMask(),
+        GamepadButtons.DIAMOND_UP.getMask(),
+        GamepadButtons.LEFT_BUMPER.getMask(),
+        GamepadButtons.RIGHT_BUMPER.getMask(),
+        GamepadButtons.LEFT_TRIGGER.getMask(),
+        GamepadButtons.RIGHT_TRIGGER.getMask(),
+        GamepadButtons.MIDDLE_LEFT.getMask(),
+        GamepadButtons.MIDDLE_RIGHT.getMask(),
+        GamepadButtons.LEFT_JOYSTICK_BUTTON.getMask(),
+        GamepadButtons.RIGHT_JOYSTICK_BUTTON.getMask()
+    };
+    
+    private static final DirectionDecoder DPAD = new DirectionDecoder(GamepadButtons.DPAD_UP.getMask(),
+            GamepadButtons.DPAD_DOWN.getMask(), GamepadButtons.DPAD_LEFT.getMask(),
+            GamepadButtons.DPAD_RIGHT.getMask());
 	
 	public Gamepad(int port) {
-		joystick = new Joystick(port);
+		this.port = port;
+		this.source = DriverStationInputSource.getInstance();
+		this.buttons = new ButtonSnapshot() {
+			protected int readMask() {
+				return readButtonMask();
+			}
+		};
 
-		leftBumper = new JoystickButton(joystick, 5);
-		rightBumper = new JoystickButton(joystick, 6);
-        leftTrigger = new JoystickButton(joystick, 7);
-        rightTrigger = new JoystickButton(joystick, 8);
-        diamondLeft = new JoystickButton(joystick, 1);
-        diamondDown = new JoystickButton(joystick, 2);
-        diamondRight = new JoystickButton(joystick, 3);
-        diamondUp = new JoystickButton(joystick, 4);
-        middleLeft = new JoystickButton(joystick, 9);
-        middleRight = new JoystickButton(joystick, 10);
-        leftJoystickButton = new JoystickButton(joystick, 11);
-        rightJoystickButton = new JoystickButton(joystick, 12);
+		leftBumper = new MaskButton(buttons, GamepadButtons.LEFT_BUMPER.getMask());
+		rightBumper = new MaskButton(buttons, GamepadButtons.RIGHT_BUMPER.getMask());
+        leftTrigger = new MaskButton(buttons, GamepadButtons.LEFT_TRIGGER.getMask());
+        rightTrigger = new MaskButton(buttons, GamepadButtons.RIGHT_TRIGGER.getMask());
+        diamondLeft = new MaskButton(buttons, GamepadButtons.DIAMOND_LEFT.getMask());
+        diamondDown = new MaskButton(buttons, GamepadButtons.DIAMOND_DOWN.getMask());
+        diamondRight = new MaskButton(buttons, GamepadButtons.DIAMOND_RIGHT.getMask());
+        diamondUp = new MaskButton(buttons, GamepadButtons.DIAMOND_UP.getMask());
+        middleLeft = new MaskButton(buttons, GamepadButtons.MIDDLE_LEFT.getMask());
+        middleRight = new MaskButton(buttons, GamepadButtons.MIDDLE_RIGHT.getMask());
+        leftJoystickButton = new MaskButton(buttons, GamepadButtons.LEFT_JOYSTICK_BUTTON.getMask());
+        rightJoystickButton = new MaskButton(buttons, GamepadButtons.RIGHT_JOYSTICK_BUTTON.getMask());
 		
         dPadLeft = new DPadButton(this, DPadButton.DPadButtonType.LEFT);
         dPadRight = new DPadButton(this, DPadButton.DPadButtonType.RIGHT);
@@ -41,6 +70,91 @@ public class Gamepad {
 
 	} 
 	
+	/**
+     * Reads the state of every button of this gamepad, including the
+     * directions of the d-pad, into a bitmask indexed by
+     * {@link GamepadButtons}. All raw buttons are read from the
+     * InputSource in a single call, and the d-pad in one more.
+     * @return A bitmask in which the bits of the held buttons are set.
+     */
+    protected int readButtonMask(){
+        InputSource source = this.source;
+        int mask = ButtonSnapshot.translate(source.getButtons(port), BUTTON_MASKS);
+        return mask | DPAD.getMask(DirectionDecoder.decodeAngle(source.getPOV(port)));
+    }
+    
+    /**
+     * Returns the InputSource from which this gamepad reads its buttons and
+     * axes.
+     * @return The InputSource of this gamepad.
+     */
+    public InputSource getInputSource(){
+        return source;
+    }
+    
+    /**
+     * Changes the InputSource from which this gamepad reads its buttons and
+     * axes. The new source is used from the next read onward.
+     * @param source The new InputSource.
+     */
+    public void setInputSource(InputSource source){
+        if(source == null){
+            throw new IllegalArgumentException("Provided InputSource must not be null");
+        }
+        this.source = source;
+    }
+    
+    /**
+     * Returns the port number of this gamepad.
+     * @return The port number of this gamepad.
+     */
+    public int getPort(){
+        return port;
+    }
+    
+    /**
+     * Returns the ButtonSnapshot from which the buttons of this gamepad read
+     * their state.
+     * @return The ButtonSnapshot of this gamepad.
+     */
+    public ButtonSnapshot getButtonSnapshot(){
+        return buttons;
+    }
+    
+    /**
+     * Indicates whether the given button is held during the current control
+     * cycle.
+     * @param button The button to be tested.
+     * @return {@code true} if the button is held, {@code false} otherwise.
+     */
+    public boolean isHeld(GamepadButtons button){
+        return buttons.isHeld(button.getMask());
+    }
+    
+    /**
+     * Indicates whether the given button was pressed since the previous
+     * control cycle, or since it was last tested if control cycles are not
+     * counted.
+     * @param button The button to be tested.
+     * @return {@code true} if the button was pressed, {@code false}
+     * otherwise.
+     */
+    public boolean wasPressed(GamepadButtons button){
+        return buttons.wasPressed(button.getMask());
+    }
+    
+    /**
+     * Indicates whether the given button was released since the previous
+     * control cycle, or since it was last tested if control cycles are not
+     * counted.
+     * @param button The button to be tested.
+     * @return {@code true} if the button was released, {@code false}
+     * otherwise.
+     */
+    public boolean wasReleased(GamepadButtons button){
+        return buttons.wasReleased(button.getMask());
+    }
+	
 	/**
      * Returns a Button object representing the left bumper of the gamepad. <br/>
      * The bumper is the button that is on the front face of the gamepad
@@ -200,7 +314,7 @@ public class Gamepad {
      * @return The current value of the x-axis of the left joystick.
      */
     public double getLeftX(){
-        return joystick.getRawAxis(0);
+        return source.getRawAxis(port, 0);
     }
     
     /**
@@ -210,7 +324,7 @@ public class Gamepad {
      * @return The current value of the y-axis of the left joystick.
      */
     public double getLeftY(){
-        return -joystick.getRawAxis(1);
+        return -source.getRawAxis(port, 1);
     }
     
     /**
@@ -220,7 +334,7 @@ public class Gamepad {
      * @return The current value of the x-axis of the right joystick.
      */
     public double getRightX(){
-        return joystick.getRawAxis(2);
+        return source.getRawAxis(port, 2);
     }
     
     /**
@@ -230,7 +344,7 @@ public class Gamepad {
      * @return The current value of the y-axis of the right joystick.
      */
     public double getRightY(){
-        return -joystick.getRawAxis(3);
+        return -source.getRawAxis(port, 3);
     }
     
     /**
@@ -263,28 +377,26 @@ public class Gamepad {
         return new GamepadAxisState(left, right);
     }
 
+	/**
+	 * Returns the value of the y-axis of the d-pad during the current
+	 * control cycle.
+	 * 
+	 * @return {@code 1} if the d-pad is pressed up, {@code -1} if it is
+	 *         pressed down and {@code 0} otherwise.
+	 */
 	public int getDPadY() {
-		int povValue = joystick.getPOV();
-		
-		if (povValue == 0 || povValue == 45 || povValue == 315){
-			return 1;
-		} else if (povValue == 90 || povValue == 270 || povValue == -1){
-			return 0;
-		} else {
-			return -1;
-		}
+		return DPAD.getYOfMask(buttons.getMask());
 	}
 	
+	/**
+	 * Returns the value of the x-axis of the d-pad during the current
+	 * control cycle.
+	 * 
+	 * @return {@code 1} if the d-pad is pressed right, {@code -1} if it is
+	 *         pressed left and {@code 0} otherwise.
+	 */
 	public int getDPadX() {
-		int povValue = joystick.getPOV();
-		
-		if (povValue == 0 || povValue == 180 || povValue == -1){
-			return 0;
-		} else if (povValue == 270 || povValue == 315 || povValue == 225){
-			return -1;
-		} else {
-			return 1;
-		}
+		return DPAD.getXOfMask(buttons.getMask());
 	}
 
 }
@@ -0,0 +1,150 @@
+package com.edinarobotics.utils.gamepad;
+
+import com.edinarobotics.utils.math.Vector2;
+
+/**
+ * This class holds the values of all joystick axes of a Gamepad in a
+ * mutable {@code double[]}.
+ *
+ * Unlike GamepadAxisState, a GamepadAxisBuffer is meant to be reused:
+ * filters implementing
+ * {@link com.edinarobotics.utils.gamepad.gamepadfilters.InPlaceGamepadFilter}
+ * overwrite its values directly, so a chain of filters can run without
+ * creating any objects. A GamepadAxisBuffer is not thread-safe.
+ */
+public class GamepadAxisBuffer {
+    /**
+     * The index of the x-axis of the left joystick in the axis array.
+     */
+    public static final int LEFT_X = 0;
+
+    /**
+     * The index of the y-axis of the left joystick in the axis array.
+     */
+    public static final int LEFT_Y = 1;
+
+    /**
+     * The index of the x-axis of the right joystick in the axis array.
+     */
+    public static final int RIGHT_X = 2;
+
+    /**
+     * The index of the y-axis of the right joystick in the axis array.
+     */
+    public static final int RIGHT_Y = 3;
+
+    /**
+     * The number of axes held by a GamepadAxisBuffer.
+     */
+    public static final int AXIS_COUNT = 4;
+
+    private final double[] axes;
+
+    /**
+     * Constructs a new GamepadAxisBuffer with every axis set to zero.
+     */
+    public GamepadAxisBuffer(){
+        this(new double[AXIS_COUNT]);
+    }
+
+    /**
+     * Constructs a new GamepadAxisBuffer that stores its values in the
+     * given array. Changes to the array are visible through this buffer
+     * and changes to this buffer are written to the array.
+     * @param axes The array holding the axis values, indexed by
+     * {@link #LEFT_X}, {@link #LEFT_Y}, {@link #RIGHT_X} and
+     * {@link #RIGHT_Y}.
+     */
+    public GamepadAxisBuffer(double[] axes){
+        if(axes == null){
+            throw new IllegalArgumentException("Provided axis array must not be null");
+        }
+        if(axes.length < AXIS_COUNT){
+            throw new IllegalArgumentException("Axis array must hold at least "+AXIS_COUNT+" values (received: "+axes.length+")");
+        }
+        this.axes = axes;
+    }
+
+    /**
+     * Returns the array in which this buffer stores its values.
+     * @return The axis array of this buffer, indexed by {@link #LEFT_X},
+     * {@link #LEFT_Y}, {@link #RIGHT_X} and {@link #RIGHT_Y}.
+     */
+    public double[] getAxes(){
+        return axes;
+    }
+
+    /**
+     * Sets the values of all axes.
+     * @param leftX The value of the x-axis of the left joystick.
+     * @param leftY The value of the y-axis of the left joystick.
+     * @param rightX The value of the x-axis of the right joystick.
+     * @param rightY The value of the y-axis of the right joystick.
+     */
+    public void set(double leftX, double leftY, double rightX, double rightY){
+        axes[LEFT_X] = leftX;
+        axes[LEFT_Y] = leftY;
+        axes[RIGHT_X] = rightX;
+        axes[RIGHT_Y] = rightY;
+    }
+
+    /**
+     * Sets the values of all axes from a GamepadAxisState.
+     * @param state The GamepadAxisState whose values are copied.
+     */
+    public void set(GamepadAxisState state){
+        set(state.getLeftJoystick().getX(), state.getLeftJoystick().getY(),
+                state.getRightJoystick().getX(), state.getRightJoystick().getY());
+    }
+
+    /**
+     * Returns the value of the x-axis of the left joystick.
+     * @return The value of the x-axis of the left joystick.
+     */
+    public double getLeftX(){
+        return axes[LEFT_X];
+    }
+
+    /**
+     * Returns the value of the y-axis of the left joystick.
+     * @return The value of the y-axis of the left joystick.
+     */
+    public double getLeftY(){
+        return axes[LEFT_Y];
+    }
+
+    /**
+     * Returns the value of the x-axis of the right joystick.
+     * @return The value of the x-axis of the right joystick.
+     */
+    public double getRightX(){
+        return axes[RIGHT_X];
+    }
+
+    /**
+     * Returns the value of the y-axis of the right joystick.
+     * @return The value of the y-axis of the right joystick.
+     */
+    public double getRightY(){
+        return axes[RIGHT_Y];
+    }
+
+    /**
+     * Creates a new immutable GamepadAxisState holding the current values
+     * of this buffer.
+     * @return A new GamepadAxisState with the values of this buffer.
+     */
+    public GamepadAxisState toGamepadAxisState(){
+        Vector2 left = new Vector2(axes[LEFT_X], axes[LEFT_Y]);
+        Vector2 right = new Vector2(axes[RIGHT_X], axes[RIGHT_Y]);
+        return new GamepadAxisState(left, right);
+    }
+
+    /**
+     * Returns a String representation of this GamepadAxisBuffer.
+     * @return A String representation of this GamepadAxisBuffer.
+     */
+    public String toString(){
+        return "<GamepadAxisBuffer: ("+axes[LEFT_X]+", "+axes[LEFT_Y]+"), ("+axes[RIGHT_X]+", "+axes[RIGHT_Y]+")>";
+    }
+}
@@ -0,0 +1,362 @@
+package com.edinarobotics.utils.gamepad;
+
+import com.edinarobotics.utils.common.Updatable;
+import com.edinarobotics.utils.gamepad.buttons.ButtonSnapshot;
+import com.edinarobotics.utils.gamepad.buttons.GamepadButtons;
+import com.edinarobotics.utils.gamepad.buttons.JoystickButtons;
+import edu.wpi.first.wpilibj.command.Command;
+
+/**
+ * This class starts and cancels Commands in response to button presses and
+ * releases, without registering a polled trigger with the scheduler for
+ * each binding.
+ *
+ * Each call to {@link #update()} reads the pressed and released masks of
+ * every controller's {@link ButtonSnapshot} once and dispatches events only
+ * for the bits that changed, so the cost of a cycle grows with the number
+ * of buttons that changed state rather than with the number of bindings.
+ * Bindings of type {@link BindingType#REPEAT_WHILE_HELD} are also visited
+ * during each sample in which their button is held.
+ * {@link #update()} should be called once per control loop, for example
+ * from {@code robotPeriodic()} after {@link
+ * com.edinarobotics.utils.common.ControlCycle#advance()}. The bus remembers
+ * the {@link ButtonSnapshot#getSampleCount() sample} and the button mask
+ * of each controller it has handled, and finds edges by comparing each new
+ * sample with that mask, so calling {@link #update()} again before the
+ * controller is sampled again dispatches nothing and no edge is dispatched
+ * twice.
+ *
+ * Bindings are kept in flat arrays. Each button of each controller has a
+ * slot, indexed by its {@link GamepadButtons} or {@link JoystickButtons}
+ * bit, which holds the first of a chain of bindings.
+ */
+public class InputEventBus implements Updatable {
+    private static final int BITS = 32;
+    private static final int INITIAL_BINDINGS = 16;
+    private static final int PRESSED = 0;
+    private static final int RELEASED = 1;
+    private static final int HELD = 2;
+
+    private ButtonSnapshot[] snapshots;
+    private int[] boundMasks;
+    private int[] heldMasks;
+    private long[] handledSamples;
+    private int[] handledMasks;
+    private final int[] state;
+    private int deviceCount;
+    private int[] heads;
+    private Command[] commands;
+    private BindingType[] types;
+    private int[] next;
+    private int bindingCount;
+
+    /**
+     * Constructs a new InputEventBus with no bindings.
+     */
+    public InputEventBus(){
+        this.snapshots = new ButtonSnapshot[2];
+        this.boundMasks = new int[2];
+        this.heldMasks = new int[2];
+        this.handledSamples = new long[2];
+        this.handledMasks = new int[2];
+        this.state = new int[2];
+        this.deviceCount = 0;
+        this.heads = new int[2 * BITS];
+        this.commands = new Command[INITIAL_BINDINGS];
+        this.types = new BindingType[INITIAL_BINDINGS];
+        this.next = new int[INITIAL_BINDINGS];
+        this.bindingCount = 0;
+    }
+
+    /**
+     * Binds a Command to a button of a Gamepad.
+     * @param gamepad The Gamepad whose button is bound.
+     * @param button The button which triggers the binding.
+     * @param type When the Command is started or cancelled.
+     * @param command The Command to be started or cancelled.
+     */
+    public void bind(Gamepad gamepad, GamepadButtons button, BindingType type, Command command){
+        bind(gamepad.getButtonSnapshot(), button.getMask(), type, command);
+    }
+
+    /**
+     * Binds a Command to a button of a Joystick.
+     * @param joystick The Joystick whose button is bound.
+     * @param button The button which triggers the binding.
+     * @param type When the Command is started or cancelled.
+     * @param command The Command to be started or cancelled.
+     */
+    public void bind(Joystick joystick, JoystickButtons button, BindingType type, Command command){
+        bind(joystick.getButtonSnapshot(), button.getMask(), type, command);
+    }
+
+    /**
+     * Binds a Command to one bit of a ButtonSnapshot.
+     * @param snapshot The ButtonSnapshot of the controller whose button is
+     * bound.
+     * @param mask The mask of the button, with exactly one bit set.
+     * @param type When the Command is started or cancelled.
+     * @param command The Command to be started or cancelled.
+     */
+    public synchronized void bind(ButtonSnapshot snapshot, int mask, BindingType type, Command command){
+        if(snapshot == null){
+            throw new IllegalArgumentException("Provided ButtonSnapshot must not be null");
+        }
+        if(Integer.bitCount(mask) != 1){
+            throw new IllegalArgumentException("Mask must have exactly one bit set (received: "+Integer.toBinaryString(mask)+")");
+        }
+        if(type == null){
+            throw new IllegalArgumentException("Provided BindingType must not be null");
+        }
+        if(command == null){
+            throw new IllegalArgumentException("Provided Command must not be null");
+        }
+        int device = getDevice(snapshot);
+        int slot = device * BITS + Integer.numberOfTrailingZeros(mask);
+        if(bindingCount == commands.length){
+            Command[] newCommands = new Command[bindingCount * 2];
+            BindingType[] newTypes = new BindingType[bindingCount * 2];
+            int[] newNext = new int[bindingCount * 2];
+            System.arraycopy(commands, 0, newCommands, 0, bindingCount);
+            System.arraycopy(types, 0, newTypes, 0, bindingCount);
+            System.arraycopy(next, 0, newNext, 0, bindingCount);
+            commands = newCommands;
+            types = newTypes;
+            next = newNext;
+        }
+        //Binding indices are stored plus one so that zero ends a chain
+        commands[bindingCount] = command;
+        types[bindingCount] = type;
+        next[bindingCount] = heads[slot];
+        bindingCount++;
+        heads[slot] = bindingCount;
+        boundMasks[device] |= mask;
+        if(type == BindingType.REPEAT_WHILE_HELD){
+            heldMasks[device] |= mask;
+        }
+    }
+
+    /**
+     * Internal method that returns the index of a controller's
+     * ButtonSnapshot, adding it if it is new.
+     * @param snapshot The ButtonSnapshot of the controller.
+     * @return The index of the controller in this bus.
+     */
+    private int getDevice(ButtonSnapshot snapshot){
+        for(int i = 0; i < deviceCount; i++){
+            if(snapshots[i] == snapshot){
+                return i;
+            }
+        }
+        if(deviceCount == snapshots.length){
+            ButtonSnapshot[] newSnapshots = new ButtonSnapshot[deviceCount * 2];
+            int[] newMasks = new int[deviceCount * 2];
+            int[] newHeldMasks = new int[deviceCount * 2];
+            long[] newHandledSamples = new long[deviceCount * 2];
+            int[] newHandledMasks = new int[deviceCount * 2];
+            int[] newHeads = new int[deviceCount * 2 * BITS];
+            System.arraycopy(snapshots, 0, newSnapshots, 0, deviceCount);
+            System.arraycopy(boundMasks, 0, newMasks, 0, deviceCount);
+            System.arraycopy(heldMasks, 0, newHeldMasks, 0, deviceCount);
+            System.arraycopy(handledSamples, 0, newHandledSamples, 0, deviceCount);
+            System.arraycopy(handledMasks, 0, newHandledMasks, 0, deviceCount);
+            System.arraycopy(heads, 0, newHeads, 0, deviceCount * BITS);
+            snapshots = newSnapshots;
+            boundMasks = newMasks;
+            heldMasks = newHeldMasks;
+            handledSamples = newHandledSamples;
+            handledMasks = newHandledMasks;
+            heads = newHeads;
+        }
+        snapshots[deviceCount] = snapshot;
+        return deviceCount++;
+    }
+
+    /**
+     * Reads the button edges of every bound controller and dispatches the
+     * bindings of the buttons that were pressed, released or held.
+     * Controllers whose current sample has already been handled by this
+     * bus are skipped.
+     */
+    public synchronized void update(){
+        for(int device = 0; device < deviceCount; device++){
+            long sample = snapshots[device].getState(state);
+            if(sample == handledSamples[device]){
+                continue;
+            }
+            handledSamples[device] = sample;
+            int current = state[0];
+            //Edges are found against the last mask this bus handled, so
+            //samples taken by other readers in between are not missed
+            int changed = (current ^ handledMasks[device]) & boundMasks[device];
+            handledMasks[device] = current;
+            int pressed = changed & current;
+            int released = changed & ~current;
+            //Buttons pressed during this sample are started by their press
+            int held = current & heldMasks[device] & ~pressed;
+            while(pressed != 0){
+                int bit = Integer.numberOfTrailingZeros(pressed);
+                dispatch(heads[device * BITS + bit], PRESSED);
+                pressed &= pressed - 1;
+            }
+            while(released != 0){
+                int bit = Integer.numberOfTrailingZeros(released);
+                dispatch(heads[device * BITS + bit], RELEASED);
+                released &= released - 1;
+            }
+            while(held != 0){
+                int bit = Integer.numberOfTrailingZeros(held);
+                dispatch(heads[device * BITS + bit], HELD);
+                held &= held - 1;
+            }
+        }
+    }
+
+    /**
+     * Internal method that runs a chain of bindings for one button event.
+     * @param head The first binding of the chain, plus one, or {@code 0} if
+     * the chain is empty.
+     * @param event {@link #PRESSED}, {@link #RELEASED} or {@link #HELD}.
+     */
+    private void dispatch(int head, int event){
+        boolean pressed = event == PRESSED;
+        for(int binding = head; binding != 0; binding = next[binding - 1]){
+            Command command = commands[binding - 1];
+            BindingType type = types[binding - 1];
+            if(type == BindingType.REPEAT_WHILE_HELD){
+                if(event == RELEASED){
+                    command.cancel();
+                }
+                else if(!command.isRunning()){
+                    command.start();
+                }
+            }
+            else if(event == HELD){
+                //Only bindings that repeat while held handle held buttons
+                continue;
+            }
+            else if(type == BindingType.WHEN_PRESSED && pressed){
+                command.start();
+            }
+            else if(type == BindingType.WHEN_RELEASED && !pressed){
+                command.start();
+            }
+            else if(type == BindingType.WHILE_HELD){
+                if(pressed){
+                    command.start();
+                }
+                else{
+                    command.cancel();
+                }
+            }
+            else if(type == BindingType.TOGGLE_WHEN_PRESSED && pressed){
+                if(command.isRunning()){
+                    command.cancel();
+                }
+                else{
+                    command.start();
+                }
+            }
+            else if(type == BindingType.CANCEL_WHEN_PRESSED && pressed){
+                command.cancel();
+            }
+        }
+    }
+
+    /**
+     * Returns the number of bindings in this bus.
+     * @return The number of bindings.
+     */
+    public synchronized int getBindingCount(){
+        return bindingCount;
+    }
+
+    /**
+     * Removes every binding and controller from this bus. Running Commands
+     * are not cancelled.
+     */
+    public synchronized void clear(){
+        for(int i = 0; i < bindingCount; i++){
+            commands[i] = null;
+        }
+        for(int i = 0; i < deviceCount; i++){
+            snapshots[i] = null;
+            boundMasks[i] = 0;
+            heldMasks[i] = 0;
+            handledSamples[i] = 0;
+            handledMasks[i] = 0;
+        }
+        for(int i = 0; i < heads.length; i++){
+            heads[i] = 0;
+        }
+        bindingCount = 0;
+        deviceCount = 0;
+    }
+
+    /**
+     * Returns a String representation of this InputEventBus.
+     * @return A String representation of this InputEventBus.
+     */
+    public synchronized String toString(){
+        return "<InputEventBus: "+bindingCount+" bindings, "+deviceCount+" controllers>";
+    }
+
+    /**
+     * Selects when a bound Command is started or cancelled.
+     */
+    public enum BindingType {
+
+        /**
+         * Starts the Command when the button is pressed.
+         */
+        WHEN_PRESSED("when pressed"),
+
+        /**
+         * Starts the Command when the button is released.
+         */
+        WHEN_RELEASED("when released"),
+
+        /**
+         * Starts the Command when the button is pressed and cancels it when
+         * the button is released. Unlike a scheduler trigger, the Command is
+         * not restarted if it finishes while the button is still held; use
+         * {@link #REPEAT_WHILE_HELD} for that.
+         */
+        WHILE_HELD("while held"),
+
+        /**
+         * Starts the Command during each sample in which the button is held
+         * and the Command is not running, and cancels it when the button is
+         * released. This matches a scheduler's while-held trigger, which
+         * restarts a Command that finishes while the button is still held.
+         */
+        REPEAT_WHILE_HELD("repeat while held"),
+
+        /**
+         * Starts the Command when the button is pressed if it is not
+         * running, and cancels it otherwise.
+         */
+        TOGGLE_WHEN_PRESSED("toggle when pressed"),
+
+        /**
+         * Cancels the Command when the button is pressed.
+         */
+        CANCEL_WHEN_PRESSED("cancel when pressed");
+
+        private final String name;
+
+        BindingType(String name){
+            this.name = name;
+        }
+
+        /**
+         * Returns a human-readable String representation of this
+         * BindingType.
+         * @return A human-readable String representation of this
+         * BindingType.
+         */
+        public String toString(){
+            return name;
+        }
+    }
+}
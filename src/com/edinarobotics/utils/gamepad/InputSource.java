@@ -0,0 +1,45 @@
+package com.edinarobotics.utils.gamepad;
+
+/**
+ * This interface supplies the raw inputs of the controllers attached to the
+ * driver station.
+ *
+ * Gamepads and Joysticks read every button, POV and axis value through an
+ * InputSource. By default this is the {@link DriverStationInputSource},
+ * but a controller can be given another source with
+ * {@code setInputSource()}, for example to replay a recorded drive.
+ */
+public interface InputSource {
+
+    /**
+     * Returns the state of every raw button of a controller.
+     * @param port The port of the controller.
+     * @return A bitmask in which bit {@code n - 1} is set if raw button
+     * {@code n} is held.
+     */
+    public int getButtons(int port);
+
+    /**
+     * Returns the angle of the first POV (d-pad) of a controller.
+     * @param port The port of the controller.
+     * @return The angle of the POV in degrees clockwise from up, or
+     * {@code -1} if it is not pressed.
+     */
+    public int getPOV(int port);
+
+    /**
+     * Returns the value of a raw axis of a controller.
+     * @param port The port of the controller.
+     * @param axis The driver station index of the axis.
+     * @return The value of the axis, from {@code -1} to {@code 1}.
+     */
+    public double getRawAxis(int port, int axis);
+
+    /**
+     * Returns the number of axes of a controller.
+     * @param port The port of the controller.
+     * @return The number of axes, or {@code 0} if no controller is attached
+     * to the port.
+     */
+    public int getAxisCount(int port);
+}
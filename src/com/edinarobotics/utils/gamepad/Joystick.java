@@ -1,20 +1,30 @@
 package com.edinarobotics.utils.gamepad;
 
+import com.edinarobotics.utils.gamepad.buttons.ButtonSnapshot;
+import com.edinarobotics.utils.gamepad.buttons.JoystickButtons;
+import com.edinarobotics.utils.gamepad.buttons.MaskButton;
 import com.edinarobotics.utils.math.Vector2;
 import edu.wpi.first.wpilibj.buttons.Button;
-import edu.wpi.first.wpilibj.buttons.JoystickButton;
 
 /**
  * This class implements a simple interface for interacting with a typical
  * joystick.
  * 
  * The buttons have been given names to avoid depending on their printed labels.
+ * All buttons are read together, once per control cycle, into a
+ * {@link ButtonSnapshot} indexed by {@link JoystickButtons}.
  */
 public class Joystick {
     protected final edu.wpi.first.wpilibj.Joystick joystick;
     protected final int port;
+    private volatile InputSource source;
+    private final ButtonSnapshot buttons;
     private Button trigger;
     
+    private static final int[] BUTTON_MASKS = {
+        JoystickButtons.TRIGGER.getMask()
+    };
+    
     /**
      * Constructs a new Joystick given its port number.
      * @param port The port number of the joystick to be read.
@@ -22,8 +32,115 @@ public class Joystick {
     public Joystick(int port){
         this.port = port;
         this.joystick = new edu.wpi.first.wpilibj.Joystick(port);
+        this.source = DriverStationInputSource.getInstance();
+        this.buttons = new ButtonSnapshot(){
+            protected int readMask(){
+                return readButtonMask();
+            }
+        };
         //Set up trigger
-        trigger = new JoystickButton(joystick, 1);
+        trigger = new MaskButton(buttons, JoystickButtons.TRIGGER.getMask());
+    }
+    
+    /**
+     * Reads the state of every button of this joystick into a bitmask
+     * indexed by {@link JoystickButtons}. Subclasses with more buttons
+     * override this method to map their buttons.
+     * @return A bitmask in which the bits of the held buttons are set.
+     */
+    protected int readButtonMask(){
+        return ButtonSnapshot.translate(readRawButtons(), BUTTON_MASKS);
+    }
+    
+    /**
+     * Reads the state of every raw button of this joystick from its
+     * InputSource in a single call.
+     * @return A bitmask in which bit {@code n - 1} is set if raw button
+     * {@code n} is held.
+     */
+    protected int readRawButtons(){
+        return source.getButtons(port);
+    }
+    
+    /**
+     * Reads the value of a raw axis of this joystick from its InputSource.
+     * @param axis The driver station index of the axis.
+     * @return The value of the axis, from {@code -1} to {@code 1}.
+     */
+    protected double readRawAxis(int axis){
+        return source.getRawAxis(port, axis);
+    }
+    
+    /**
+     * Returns the InputSource from which this joystick reads its buttons
+     * and axes.
+     * @return The InputSource of this joystick.
+     */
+    public InputSource getInputSource(){
+        return source;
+    }
+    
+    /**
+     * Changes the InputSource from which this joystick reads its buttons
+     * and axes. The new source is used from the next read onward.
+     * @param source The new InputSource.
+     */
+    public void setInputSource(InputSource source){
+        if(source == null){
+            throw new IllegalArgumentException("Provided InputSource must not be null");
+        }
+        this.source = source;
+    }
+    
+    /**
+     * Returns the port number of this joystick.
+     * @return The port number of this joystick.
+     */
+    public int getPort(){
+        return port;
+    }
+    
+    /**
+     * Returns the ButtonSnapshot from which the buttons of this joystick
+     * read their state.
+     * @return The ButtonSnapshot of this joystick.
+     */
+    public ButtonSnapshot getButtonSnapshot(){
+        return buttons;
+    }
+    
+    /**
+     * Indicates whether the given button is held during the current control
+     * cycle.
+     * @param button The button to be tested.
+     * @return {@code true} if the button is held, {@code false} otherwise.
+     */
+    public boolean isHeld(JoystickButtons button){
+        return buttons.isHeld(button.getMask());
+    }
+    
+    /**
+     * Indicates whether the given button was pressed since the previous
+     * control cycle, or since it was last tested if control cycles are not
+     * counted.
+     * @param button The button to be tested.
+     * @return {@code true} if the button was pressed, {@code false}
+     * otherwise.
+     */
+    public boolean wasPressed(JoystickButtons button){
+        return buttons.wasPressed(button.getMask());
+    }
+    
+    /**
+     * Indicates whether the given button was released since the previous
+     * control cycle, or since it was last tested if control cycles are not
+     * counted.
+     * @param button The button to be tested.
+     * @return {@code true} if the button was released, {@code false}
+     * otherwise.
+     */
+    public boolean wasReleased(JoystickButtons button){
+        return buttons.wasReleased(button.getMask());
     }
     
     /**
@@ -33,7 +150,7 @@ public class Joystick {
      * @return The current value of the x-axis of the joystick.
      */
     public double getX(){
-        return joystick.getRawAxis(1);
+        return readRawAxis(1);
     }
     
     /**
@@ -43,7 +160,7 @@ public class Joystick {
      * @return The current value of the y-axis of the joystick.
      */
     public double getY(){
-        return -1.0*joystick.getRawAxis(2);
+        return -1.0*readRawAxis(2);
     }
     
     /**
@@ -0,0 +1,148 @@
+package com.edinarobotics.utils.gamepad;
+
+import com.edinarobotics.utils.math.Vector2;
+
+/**
+ * This class holds the values of all axes of a Joystick in a mutable
+ * {@code double[]}. These axes are: x- and y- axes of the main joystick,
+ * the twist axis and the throttle lever.
+ *
+ * Unlike JoystickAxisState, a JoystickAxisBuffer is meant to be reused:
+ * filters implementing
+ * {@link com.edinarobotics.utils.gamepad.gamepadfilters.InPlaceJoystickFilter}
+ * overwrite its values directly, so a chain of filters can run without
+ * creating any objects. A JoystickAxisBuffer is not thread-safe.
+ */
+public class JoystickAxisBuffer {
+    /**
+     * The index of the x-axis of the main joystick in the axis array.
+     */
+    public static final int X = 0;
+
+    /**
+     * The index of the y-axis of the main joystick in the axis array.
+     */
+    public static final int Y = 1;
+
+    /**
+     * The index of the twist axis in the axis array.
+     */
+    public static final int TWIST = 2;
+
+    /**
+     * The index of the throttle lever in the axis array.
+     */
+    public static final int THROTTLE = 3;
+
+    /**
+     * The number of axes held by a JoystickAxisBuffer.
+     */
+    public static final int AXIS_COUNT = 4;
+
+    private final double[] axes;
+
+    /**
+     * Constructs a new JoystickAxisBuffer with every axis set to zero.
+     */
+    public JoystickAxisBuffer(){
+        this(new double[AXIS_COUNT]);
+    }
+
+    /**
+     * Constructs a new JoystickAxisBuffer that stores its values in the
+     * given array. Changes to the array are visible through this buffer
+     * and changes to this buffer are written to the array.
+     * @param axes The array holding the axis values, indexed by {@link #X},
+     * {@link #Y}, {@link #TWIST} and {@link #THROTTLE}.
+     */
+    public JoystickAxisBuffer(double[] axes){
+        if(axes == null){
+            throw new IllegalArgumentException("Provided axis array must not be null");
+        }
+        if(axes.length < AXIS_COUNT){
+            throw new IllegalArgumentException("Axis array must hold at least "+AXIS_COUNT+" values (received: "+axes.length+")");
+        }
+        this.axes = axes;
+    }
+
+    /**
+     * Returns the array in which this buffer stores its values.
+     * @return The axis array of this buffer, indexed by {@link #X},
+     * {@link #Y}, {@link #TWIST} and {@link #THROTTLE}.
+     */
+    public double[] getAxes(){
+        return axes;
+    }
+
+    /**
+     * Sets the values of all axes.
+     * @param x The value of the x-axis of the main joystick.
+     * @param y The value of the y-axis of the main joystick.
+     * @param twist The value of the twist axis.
+     * @param throttle The value of the throttle lever.
+     */
+    public void set(double x, double y, double twist, double throttle){
+        axes[X] = x;
+        axes[Y] = y;
+        axes[TWIST] = twist;
+        axes[THROTTLE] = throttle;
+    }
+
+    /**
+     * Sets the values of all axes from a JoystickAxisState.
+     * @param state The JoystickAxisState whose values are copied.
+     */
+    public void set(JoystickAxisState state){
+        set(state.getX(), state.getY(), state.getTwist(), state.getThrottle());
+    }
+
+    /**
+     * Returns the value of the x-axis of the main joystick.
+     * @return The value of the x-axis of the main joystick.
+     */
+    public double getX(){
+        return axes[X];
+    }
+
+    /**
+     * Returns the value of the y-axis of the main joystick.
+     * @return The value of the y-axis of the main joystick.
+     */
+    public double getY(){
+        return axes[Y];
+    }
+
+    /**
+     * Returns the value of the twist axis.
+     * @return The value of the twist axis.
+     */
+    public double getTwist(){
+        return axes[TWIST];
+    }
+
+    /**
+     * Returns the value of the throttle lever.
+     * @return The value of the throttle lever.
+     */
+    public double getThrottle(){
+        return axes[THROTTLE];
+    }
+
+    /**
+     * Creates a new immutable JoystickAxisState holding the current values
+     * of this buffer.
+     * @return A new JoystickAxisState with the values of this buffer.
+     */
+    public JoystickAxisState toJoystickAxisState(){
+        Vector2 joystick = new Vector2(axes[X], axes[Y]);
+        return new JoystickAxisState(joystick, axes[TWIST], axes[THROTTLE]);
+    }
+
+    /**
+     * Returns a String representation of this JoystickAxisBuffer.
+     * @return A String representation of this JoystickAxisBuffer.
+     */
+    public String toString(){
+        return "<JoystickAxisBuffer: ("+axes[X]+", "+axes[Y]+"), twist: "+axes[TWIST]+", throttle: "+axes[THROTTLE]+">";
+    }
+}
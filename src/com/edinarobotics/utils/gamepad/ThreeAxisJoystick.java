@@ -1,8 +1,11 @@
 package com.edinarobotics.utils.gamepad;
 
+import com.edinarobotics.utils.gamepad.buttons.ButtonSnapshot;
+import com.edinarobotics.utils.gamepad.buttons.DirectionDecoder;
 import com.edinarobotics.utils.gamepad.buttons.HatSwitchButton;
+import com.edinarobotics.utils.gamepad.buttons.JoystickButtons;
+import com.edinarobotics.utils.gamepad.buttons.MaskButton;
 import edu.wpi.first.wpilibj.buttons.Button;
-import edu.wpi.first.wpilibj.buttons.JoystickButton;
 
 /**
  * This class implements a simple interface for interacting with a 3-axis
@@ -22,6 +25,25 @@ public class ThreeAxisJoystick extends Joystick {
     
     private static final double HAT_SWITCH_THRESHOLD = 0.9;
     
+    private static final int[] BUTTON_MASKS = {
+        JoystickButtons.TRIGGER.getMask(),
+        JoystickButtons.SHOULDER_BUTTON.getMask(),
+        JoystickButtons.HAT_BUTTON_LEFT_BOTTOM.getMask(),
+        JoystickButtons.HAT_BUTTON_RIGHT_BOTTOM.getMask(),
+        JoystickButtons.HAT_BUTTON_LEFT_TOP.getMask(),
+        JoystickButtons.HAT_BUTTON_RIGHT_TOP.getMask(),
+        JoystickButtons.OUTER_RING_TOP.getMask(),
+        JoystickButtons.INNER_RING_TOP.getMask(),
+        JoystickButtons.OUTER_RING_MIDDLE.getMask(),
+        JoystickButtons.INNER_RING_MIDDLE.getMask(),
+        JoystickButtons.OUTER_RING_BOTTOM.getMask(),
+        JoystickButtons.INNER_RING_BOTTOM.getMask()
+    };
+    
+    private static final DirectionDecoder HAT_SWITCH = new DirectionDecoder(JoystickButtons.HAT_SWITCH_UP.getMask(),
+            JoystickButtons.HAT_SWITCH_DOWN.getMask(), JoystickButtons.HAT_SWITCH_LEFT.getMask(),
+            JoystickButtons.HAT_SWITCH_RIGHT.getMask());
+    
     /**
      * Constructs a new Joystick given its port number.
      * @param port The port number of the joystick to be read.
@@ -29,25 +51,39 @@ public class ThreeAxisJoystick extends Joystick {
     public ThreeAxisJoystick(int port){
         super(port);
         
+        ButtonSnapshot buttons = getButtonSnapshot();
         //Set up shoulder button
-        shoulderButton = new JoystickButton(joystick, 2);
+        shoulderButton = new MaskButton(buttons, JoystickButtons.SHOULDER_BUTTON.getMask());
         //Set up top buttons
-        hatButtonLeftTop = new JoystickButton(joystick, 5);
-        hatButtonLeftBottom = new JoystickButton(joystick, 3);
-        hatButtonRightTop = new JoystickButton(joystick, 6);
-        hatButtonRightBottom = new JoystickButton(joystick, 4);
+        hatButtonLeftTop = new MaskButton(buttons, JoystickButtons.HAT_BUTTON_LEFT_TOP.getMask());
+        hatButtonLeftBottom = new MaskButton(buttons, JoystickButtons.HAT_BUTTON_LEFT_BOTTOM.getMask());
+        hatButtonRightTop = new MaskButton(buttons, JoystickButtons.HAT_BUTTON_RIGHT_TOP.getMask());
+        hatButtonRightBottom = new MaskButton(buttons, JoystickButtons.HAT_BUTTON_RIGHT_BOTTOM.getMask());
         //Set up hat switch buttons
         hatSwitchUp = new HatSwitchButton(this, HatSwitchButton.HatSwitchButtonType.UP);
         hatSwitchDown = new HatSwitchButton(this, HatSwitchButton.HatSwitchButtonType.DOWN);
         hatSwitchLeft = new HatSwitchButton(this, HatSwitchButton.HatSwitchButtonType.LEFT);
         hatSwitchRight = new HatSwitchButton(this, HatSwitchButton.HatSwitchButtonType.RIGHT);
         //Set up ring buttons
-        outerRingTop = new JoystickButton(joystick, 7);
-        outerRingMiddle = new JoystickButton(joystick, 9);
-        outerRingBottom = new JoystickButton(joystick, 11);
-        innerRingTop = new JoystickButton(joystick, 8);
-        innerRingMiddle = new JoystickButton(joystick, 10);
-        innerRingBottom = new JoystickButton(joystick, 12);
+        outerRingTop = new MaskButton(buttons, JoystickButtons.OUTER_RING_TOP.getMask());
+        outerRingMiddle = new MaskButton(buttons, JoystickButtons.OUTER_RING_MIDDLE.getMask());
+        outerRingBottom = new MaskButton(buttons, JoystickButtons.OUTER_RING_BOTTOM.getMask());
+        innerRingTop = new MaskButton(buttons, JoystickButtons.INNER_RING_TOP.getMask());
+        innerRingMiddle = new MaskButton(buttons, JoystickButtons.INNER_RING_MIDDLE.getMask());
+        innerRingBottom = new MaskButton(buttons, JoystickButtons.INNER_RING_BOTTOM.getMask());
+    }
+    
+    /**
+     * Reads the state of every button of this joystick, including the
+     * directions of the hat switch, into a bitmask indexed by
+     * {@link JoystickButtons}.
+     * @return A bitmask in which the bits of the held buttons are set.
+     */
+    protected int readButtonMask(){
+        int mask = ButtonSnapshot.translate(readRawButtons(), BUTTON_MASKS);
+        int hatX = hatSwitchToByte(readRawAxis(5));
+        int hatY = hatSwitchToByte(-readRawAxis(6));
+        return mask | HAT_SWITCH.getMask(DirectionDecoder.decodeAxes(hatX, hatY));
     }
     
     /**
@@ -60,7 +96,7 @@ public class ThreeAxisJoystick extends Joystick {
      * @return The current value of the twist axis of the joystick.
      */
     public double getTwist(){
-        return joystick.getRawAxis(3);
+        return readRawAxis(3);
     }
     
     /**
@@ -79,12 +115,13 @@ public class ThreeAxisJoystick extends Joystick {
      * @return The current value of the throttle axis of the joystick.
      */
     public double getThrottle(){
-        return (-1.0*joystick.getRawAxis(4)+1.0)*0.5;
+        return (-1.0*readRawAxis(4)+1.0)*0.5;
     }
     
     /**
-     * Returns the current position of the x-axis of the hat switch that 
-     * is on the head of the joystick (equivalent to a gamepad's D-Pad). <br/>
+     * Returns the position of the x-axis of the hat switch that 
+     * is on the head of the joystick (equivalent to a gamepad's D-Pad)
+     * during the current control cycle. <br/>
      * A value of {@code -1} indicates that the hat switch is being held
      * left.<br/>
      * A value of {@code 1} indicates that the hat switch is being held
@@ -93,12 +130,13 @@ public class ThreeAxisJoystick extends Joystick {
      * @return The value of the hat switch's x-axis as described above.
      */
     public byte getHatSwitchX(){
-        return hatSwitchToByte(joystick.getRawAxis(5));
+        return (byte)HAT_SWITCH.getXOfMask(getButtonSnapshot().getMask());
     }
     
     /**
-     * Returns the current position of the y-axis of the hat switch that 
-     * is on the head of the joystick (equivalent to a gamepad's D-Pad). <br/>
+     * Returns the position of the y-axis of the hat switch that 
+     * is on the head of the joystick (equivalent to a gamepad's D-Pad)
+     * during the current control cycle. <br/>
      * A value of {@code -1} indicates that the hat switch is being held
      * down.<br/>
      * A value of {@code 1} indicates that the hat switch is being held
@@ -107,7 +145,7 @@ public class ThreeAxisJoystick extends Joystick {
      * @return The value of the hat switch's y-axis as described above.
      */
     public byte getHatSwitchY(){
-        return hatSwitchToByte(-joystick.getRawAxis(6));
+        return (byte)HAT_SWITCH.getYOfMask(getButtonSnapshot().getMask());
     }
     
     /**
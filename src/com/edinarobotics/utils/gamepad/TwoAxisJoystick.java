@@ -1,8 +1,10 @@
 package com.edinarobotics.utils.gamepad;
 
+import com.edinarobotics.utils.gamepad.buttons.ButtonSnapshot;
+import com.edinarobotics.utils.gamepad.buttons.JoystickButtons;
+import com.edinarobotics.utils.gamepad.buttons.MaskButton;
 import com.edinarobotics.utils.math.Vector2;
 import edu.wpi.first.wpilibj.buttons.Button;
-import edu.wpi.first.wpilibj.buttons.JoystickButton;
 
 /**
  * This class implements a simple interface for interacting with a 2-axis
@@ -16,25 +18,49 @@ public class TwoAxisJoystick extends Joystick {
     private Button ringLeftUp, ringLeftDown, ringRightUp, ringRightDown;
     private Button auxLeft, auxRight;
     
+    private static final int[] BUTTON_MASKS = {
+        JoystickButtons.TRIGGER.getMask(),
+        JoystickButtons.HAT_BUTTON_DOWN.getMask(),
+        JoystickButtons.HAT_BUTTON_MIDDLE.getMask(),
+        JoystickButtons.HAT_BUTTON_LEFT.getMask(),
+        JoystickButtons.HAT_BUTTON_RIGHT.getMask(),
+        0,
+        JoystickButtons.RING_LEFT_DOWN.getMask(),
+        JoystickButtons.RING_LEFT_UP.getMask() | JoystickButtons.AUX_LEFT.getMask(),
+        JoystickButtons.AUX_RIGHT.getMask(),
+        JoystickButtons.RING_RIGHT_DOWN.getMask(),
+        JoystickButtons.RING_RIGHT_UP.getMask()
+    };
+    
     /**
      * Constructs a new Two-axis Joystick given its port number.
      * @param port The port number of the joystick to be read.
      */
     public TwoAxisJoystick(int port) {
         super(port);
+        ButtonSnapshot buttons = getButtonSnapshot();
         //Set up top buttons
-        hatButtonMiddle = new JoystickButton(joystick, 3);
-        hatButtonLeft = new JoystickButton(joystick, 4);
-        hatButtonRight = new JoystickButton(joystick, 5);
-        hatButtonDown = new JoystickButton(joystick, 2);
+        hatButtonMiddle = new MaskButton(buttons, JoystickButtons.HAT_BUTTON_MIDDLE.getMask());
+        hatButtonLeft = new MaskButton(buttons, JoystickButtons.HAT_BUTTON_LEFT.getMask());
+        hatButtonRight = new MaskButton(buttons, JoystickButtons.HAT_BUTTON_RIGHT.getMask());
+        hatButtonDown = new MaskButton(buttons, JoystickButtons.HAT_BUTTON_DOWN.getMask());
         //Set up ring buttons
-        ringLeftUp = new JoystickButton(joystick, 8);
-        ringLeftDown = new JoystickButton(joystick, 7);
-        ringRightUp = new JoystickButton(joystick, 11);
-        ringRightDown = new JoystickButton(joystick, 10);
+        ringLeftUp = new MaskButton(buttons, JoystickButtons.RING_LEFT_UP.getMask());
+        ringLeftDown = new MaskButton(buttons, JoystickButtons.RING_LEFT_DOWN.getMask());
+        ringRightUp = new MaskButton(buttons, JoystickButtons.RING_RIGHT_UP.getMask());
+        ringRightDown = new MaskButton(buttons, JoystickButtons.RING_RIGHT_DOWN.getMask());
         //Set up auxiliary buttons
-        auxLeft = new JoystickButton(joystick, 8);
-        auxRight = new JoystickButton(joystick, 9);
+        auxLeft = new MaskButton(buttons, JoystickButtons.AUX_LEFT.getMask());
+        auxRight = new MaskButton(buttons, JoystickButtons.AUX_RIGHT.getMask());
+    }
+    
+    /**
+     * Reads the state of every button of this joystick into a bitmask
+     * indexed by {@link JoystickButtons}.
+     * @return A bitmask in which the bits of the held buttons are set.
+     */
+    protected int readButtonMask(){
+        return ButtonSnapshot.translate(readRawButtons(), BUTTON_MASKS);
     }
     
     /**
@@ -63,7 +89,7 @@ public class TwoAxisJoystick extends Joystick {
      * @return The current value of the throttle axis of the joystick.
      */
     public double getThrottle(){
-        return (-1.0*joystick.getRawAxis(3)+1.0)*0.5;
+        return (-1.0*readRawAxis(3)+1.0)*0.5;
     }
     
     /**
@@ -0,0 +1,252 @@
+package com.edinarobotics.utils.gamepad.buttons;
+
+import com.edinarobotics.utils.common.ControlCycle;
+
+/**
+ * This class holds the state of every button of a controller as an
+ * {@code int} bitmask.
+ *
+ * Each bit of the mask belongs to one button, as given by
+ * {@link GamepadButtons#getMask()} or {@link JoystickButtons#getMask()}.
+ * Once the robot program calls {@link ControlCycle#advance()}, the mask is
+ * read by {@link #readMask()} the first time it is needed in each control
+ * cycle, so all of the buttons of a controller cost one read of the driver
+ * station per cycle no matter how many of them are polled. The mask of the
+ * previous cycle is kept as well, so buttons which were pressed or
+ * released since then are found by XOR-ing the two masks.
+ *
+ * Until {@link ControlCycle#advance()} is called, the boundaries of the
+ * control loop are unknown, so every read samples the mask again. Edges
+ * are then found by comparing each button with its state when that button
+ * was last tested for the same kind of edge, so a press is reported once
+ * no matter how the reads fall between loops.
+ */
+public abstract class ButtonSnapshot {
+	private long tick;
+	private long sampleCount;
+	private boolean sampled;
+	private int current;
+	private int previous;
+	private int pressedBase;
+	private int releasedBase;
+
+	/**
+	 * Constructs a new ButtonSnapshot which has not yet been sampled.
+	 */
+	protected ButtonSnapshot() {
+		this.sampled = false;
+	}
+
+	/**
+	 * Reads the current state of every button of the controller.
+	 *
+	 * @return A bitmask in which the bits of the held buttons are set.
+	 */
+	protected abstract int readMask();
+
+	/**
+	 * Samples the buttons now, even if they have already been sampled
+	 * during this control cycle. The current mask becomes the previous
+	 * mask.
+	 */
+	public synchronized void update() {
+		previous = sampled ? current : 0;
+		current = readMask();
+		tick = ControlCycle.getTick();
+		sampled = true;
+		sampleCount++;
+	}
+
+	/**
+	 * Internal method that samples the buttons if they have not been sampled
+	 * during the current control cycle, or on every call if control cycles
+	 * are not counted. Callers must hold the lock on this ButtonSnapshot.
+	 */
+	private void refresh() {
+		if (!sampled || !ControlCycle.isCounting() || ControlCycle.getTick() != tick) {
+			update();
+		}
+	}
+
+	/**
+	 * Internal method that returns which of the given buttons were pressed.
+	 * While control cycles are counted, these are the buttons pressed since
+	 * the previous cycle. Otherwise, they are the buttons pressed since they
+	 * were last tested by this method, and the test is recorded. Callers
+	 * must hold the lock on this ButtonSnapshot.
+	 *
+	 * @param mask
+	 *            The bits of the buttons to be tested.
+	 * @return The bits of {@code mask} whose buttons were pressed.
+	 */
+	private int pressed(int mask) {
+		refresh();
+		if (ControlCycle.isCounting()) {
+			return (current ^ previous) & current & mask;
+		}
+		int pressed = current & ~pressedBase & mask;
+		pressedBase = (pressedBase & ~mask) | (current & mask);
+		return pressed;
+	}
+
+	/**
+	 * Internal method that returns which of the given buttons were
+	 * released, in the same way as {@link #pressed(int)}. Callers must hold
+	 * the lock on this ButtonSnapshot.
+	 *
+	 * @param mask
+	 *            The bits of the buttons to be tested.
+	 * @return The bits of {@code mask} whose buttons were released.
+	 */
+	private int released(int mask) {
+		refresh();
+		if (ControlCycle.isCounting()) {
+			return (current ^ previous) & previous & mask;
+		}
+		int released = releasedBase & ~current & mask;
+		releasedBase = (releasedBase & ~mask) | (current & mask);
+		return released;
+	}
+
+	/**
+	 * Returns the number of times the buttons have been sampled, sampling
+	 * them first if they have not been sampled during the current control
+	 * cycle. Callers that act on the pressed and released masks can compare
+	 * this number with the one they last saw to avoid handling the same
+	 * edges twice.
+	 *
+	 * @return The number of samples taken so far.
+	 */
+	public synchronized long getSampleCount() {
+		refresh();
+		return sampleCount;
+	}
+
+	/**
+	 * Reads the number of samples, the current mask and the previous mask
+	 * together, sampling the buttons at most once, so that the three values
+	 * always belong to the same sample.
+	 *
+	 * @param masks
+	 *            An array of at least two elements, which receives the
+	 *            current mask at index {@code 0} and the previous mask at
+	 *            index {@code 1}.
+	 * @return The number of samples taken so far.
+	 * @see #getSampleCount()
+	 */
+	public synchronized long getState(int[] masks) {
+		refresh();
+		masks[0] = current;
+		masks[1] = previous;
+		return sampleCount;
+	}
+
+	/**
+	 * Returns the mask of the buttons held during the current control cycle.
+	 *
+	 * @return A bitmask in which the bits of the held buttons are set.
+	 */
+	public synchronized int getMask() {
+		refresh();
+		return current;
+	}
+
+	/**
+	 * Returns the mask of the buttons which were pressed since the previous
+	 * control cycle, or, if control cycles are not counted, since they were
+	 * last tested for a press.
+	 *
+	 * @return A bitmask in which the bits of the newly pressed buttons are
+	 *         set.
+	 */
+	public synchronized int getPressedMask() {
+		return pressed(~0);
+	}
+
+	/**
+	 * Returns the mask of the buttons which were released since the
+	 * previous control cycle, or, if control cycles are not counted, since
+	 * they were last tested for a release.
+	 *
+	 * @return A bitmask in which the bits of the newly released buttons are
+	 *         set.
+	 */
+	public synchronized int getReleasedMask() {
+		return released(~0);
+	}
+
+	/**
+	 * Indicates whether any of the given buttons is held.
+	 *
+	 * @param mask
+	 *            The bits of the buttons to be tested.
+	 * @return {@code true} if any of the buttons is held, {@code false}
+	 *         otherwise.
+	 */
+	public boolean isHeld(int mask) {
+		return (getMask() & mask) != 0;
+	}
+
+	/**
+	 * Indicates whether any of the given buttons was pressed since the
+	 * previous control cycle, or, if control cycles are not counted, since
+	 * they were last tested by this method.
+	 *
+	 * @param mask
+	 *            The bits of the buttons to be tested.
+	 * @return {@code true} if any of the buttons was pressed, {@code false}
+	 *         otherwise.
+	 */
+	public synchronized boolean wasPressed(int mask) {
+		return pressed(mask) != 0;
+	}
+
+	/**
+	 * Indicates whether any of the given buttons was released since the
+	 * previous control cycle, or, if control cycles are not counted, since
+	 * they were last tested by this method.
+	 *
+	 * @param mask
+	 *            The bits of the buttons to be tested.
+	 * @return {@code true} if any of the buttons was released, {@code false}
+	 *         otherwise.
+	 */
+	public synchronized boolean wasReleased(int mask) {
+		return released(mask) != 0;
+	}
+
+	/**
+	 * Translates a mask of raw driver station buttons into a mask of named
+	 * buttons.
+	 *
+	 * @param raw
+	 *            The raw button mask, in which bit {@code n - 1} is set if
+	 *            button {@code n} is held.
+	 * @param masks
+	 *            The named button bits for each raw button, indexed by raw
+	 *            button number minus one. Raw buttons past the end of this
+	 *            array are ignored.
+	 * @return The mask of the named buttons which are held.
+	 */
+	public static int translate(int raw, int[] masks) {
+		int translated = 0;
+		while (raw != 0) {
+			int index = Integer.numberOfTrailingZeros(raw);
+			if (index >= masks.length) {
+				break;
+			}
+			translated |= masks[index];
+			raw &= raw - 1;
+		}
+		return translated;
+	}
+
+	/**
+	 * Returns a String representation of this ButtonSnapshot.
+	 *
+	 * @return A String representation of this ButtonSnapshot.
+	 */
+	public synchronized String toString() {
+		return "<ButtonSnapshot: " + Integer.toBinaryString(current) + ">";
+	}
+}
@@ -8,25 +8,53 @@ public class DPadButton extends Button {
 
 	private final Gamepad gamepad;
 	private final DPadButtonType buttonType;
+	private final int mask;
 
+	/**
+	 * Constructs a new DPadButton attached to the given Gamepad, monitoring
+	 * the given direction on the d-pad.
+	 * 
+	 * @param gamepad
+	 *            The Gamepad object to which this button is bound.
+	 * @param buttonType
+	 *            The direction on the d-pad that will be monitored by this
+	 *            DPadButton.
+	 */
 	public DPadButton(Gamepad gamepad, DPadButtonType buttonType) {
 		this.gamepad = gamepad;
 		this.buttonType = buttonType;
-	}
-
-	@Override
-	public boolean get() {
 		if (buttonType == DPadButtonType.UP) {
-			return gamepad.getDPadY() == 1;
+			this.mask = GamepadButtons.DPAD_UP.getMask();
 		} else if (buttonType == DPadButtonType.DOWN) {
-			return gamepad.getDPadY() == -1;
+			this.mask = GamepadButtons.DPAD_DOWN.getMask();
 		} else if (buttonType == DPadButtonType.LEFT) {
-			return gamepad.getDPadX() == -1;
+			this.mask = GamepadButtons.DPAD_LEFT.getMask();
 		} else if (buttonType == DPadButtonType.RIGHT) {
-			return gamepad.getDPadX() == 1;
+			this.mask = GamepadButtons.DPAD_RIGHT.getMask();
+		} else {
+			this.mask = 0;
 		}
+	}
+
+	/**
+	 * Returns the state of this DPadButton during the current control cycle.
+	 * The d-pad is decoded once per cycle into the gamepad's
+	 * ButtonSnapshot, so this method only tests a bit.
+	 * 
+	 * @return The state of this DPadButton.
+	 */
+	@Override
+	public boolean get() {
+		return gamepad.getButtonSnapshot().isHeld(mask);
+	}
 
-		return false;
+	/**
+	 * Indicates the type of this DPadButton.
+	 * 
+	 * @return The direction on the d-pad that is monitored by this button.
+	 */
+	public DPadButtonType getButtonType() {
+		return buttonType;
 	}
 
 	public enum DPadButtonType {
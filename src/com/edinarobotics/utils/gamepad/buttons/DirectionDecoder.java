@@ -0,0 +1,214 @@
+package com.edinarobotics.utils.gamepad.buttons;
+
+/**
+ * This class decodes the position of a d-pad or hat switch into one of
+ * nine directions, and maps each direction to its x- and y- values and to
+ * the button bits of a {@link ButtonSnapshot} through precomputed tables.
+ *
+ * A direction is decoded either from a POV angle, as reported by the driver
+ * station for a d-pad, or from the x- and y- values of a hat switch read as
+ * a pair of axes. Diagonal directions set the bits of both of their
+ * neighbouring buttons.
+ */
+public final class DirectionDecoder {
+
+	/**
+	 * The direction of a d-pad or hat switch which is not pressed.
+	 */
+	public static final int CENTERED = 0;
+
+	/**
+	 * The direction of a d-pad or hat switch pressed up.
+	 */
+	public static final int UP = 1;
+
+	/**
+	 * The direction of a d-pad or hat switch pressed up and right.
+	 */
+	public static final int UP_RIGHT = 2;
+
+	/**
+	 * The direction of a d-pad or hat switch pressed right.
+	 */
+	public static final int RIGHT = 3;
+
+	/**
+	 * The direction of a d-pad or hat switch pressed down and right.
+	 */
+	public static final int DOWN_RIGHT = 4;
+
+	/**
+	 * The direction of a d-pad or hat switch pressed down.
+	 */
+	public static final int DOWN = 5;
+
+	/**
+	 * The direction of a d-pad or hat switch pressed down and left.
+	 */
+	public static final int DOWN_LEFT = 6;
+
+	/**
+	 * The direction of a d-pad or hat switch pressed left.
+	 */
+	public static final int LEFT = 7;
+
+	/**
+	 * The direction of a d-pad or hat switch pressed up and left.
+	 */
+	public static final int UP_LEFT = 8;
+
+	/**
+	 * The number of directions, including {@link #CENTERED}.
+	 */
+	public static final int DIRECTION_COUNT = 9;
+
+	private static final int[] X_VALUES = { 0, 0, 1, 1, 1, 0, -1, -1, -1 };
+	private static final int[] Y_VALUES = { 0, 1, 1, 0, -1, -1, -1, 0, 1 };
+
+	/**
+	 * The direction of each hat switch position, indexed by
+	 * {@code (y + 1) * 3 + (x + 1)}.
+	 */
+	private static final int[] AXIS_DIRECTIONS = {
+		DOWN_LEFT, DOWN, DOWN_RIGHT,
+		LEFT, CENTERED, RIGHT,
+		UP_LEFT, UP, UP_RIGHT
+	};
+
+	private final int upMask, downMask, leftMask, rightMask;
+	private final int[] masks;
+
+	/**
+	 * Constructs a new DirectionDecoder which maps directions to the given
+	 * button bits.
+	 *
+	 * @param upMask
+	 *            The bits set when the d-pad or hat switch is pressed up.
+	 * @param downMask
+	 *            The bits set when the d-pad or hat switch is pressed down.
+	 * @param leftMask
+	 *            The bits set when the d-pad or hat switch is pressed left.
+	 * @param rightMask
+	 *            The bits set when the d-pad or hat switch is pressed right.
+	 */
+	public DirectionDecoder(int upMask, int downMask, int leftMask, int rightMask) {
+		this.upMask = upMask;
+		this.downMask = downMask;
+		this.leftMask = leftMask;
+		this.rightMask = rightMask;
+		this.masks = new int[DIRECTION_COUNT];
+		for (int direction = 0; direction < DIRECTION_COUNT; direction++) {
+			int mask = 0;
+			if (Y_VALUES[direction] == 1) {
+				mask |= upMask;
+			} else if (Y_VALUES[direction] == -1) {
+				mask |= downMask;
+			}
+			if (X_VALUES[direction] == -1) {
+				mask |= leftMask;
+			} else if (X_VALUES[direction] == 1) {
+				mask |= rightMask;
+			}
+			masks[direction] = mask;
+		}
+	}
+
+	/**
+	 * Decodes a POV angle into a direction. Angles between the eight
+	 * directions are rounded to the nearest direction.
+	 *
+	 * @param angle
+	 *            The POV angle in degrees clockwise from up, or a negative
+	 *            value if the d-pad is not pressed.
+	 * @return The direction of the d-pad.
+	 */
+	public static int decodeAngle(int angle) {
+		if (angle < 0) {
+			return CENTERED;
+		}
+		return 1 + ((angle + 22) / 45) % 8;
+	}
+
+	/**
+	 * Decodes the x- and y- values of a hat switch into a direction.
+	 *
+	 * @param x
+	 *            The x-value of the hat switch: {@code -1}, {@code 0} or
+	 *            {@code 1}.
+	 * @param y
+	 *            The y-value of the hat switch: {@code -1}, {@code 0} or
+	 *            {@code 1}.
+	 * @return The direction of the hat switch.
+	 */
+	public static int decodeAxes(int x, int y) {
+		if (x < -1 || x > 1 || y < -1 || y > 1) {
+			throw new IllegalArgumentException("Hat switch values must be -1, 0 or 1 (received: " + x + ", " + y + ")");
+		}
+		return AXIS_DIRECTIONS[(y + 1) * 3 + (x + 1)];
+	}
+
+	/**
+	 * Returns the x-value of a direction.
+	 *
+	 * @param direction
+	 *            The direction, from {@link #CENTERED} to {@link #UP_LEFT}.
+	 * @return {@code -1} for directions to the left, {@code 1} for
+	 *         directions to the right and {@code 0} otherwise.
+	 */
+	public static int getX(int direction) {
+		return X_VALUES[direction];
+	}
+
+	/**
+	 * Returns the y-value of a direction.
+	 *
+	 * @param direction
+	 *            The direction, from {@link #CENTERED} to {@link #UP_LEFT}.
+	 * @return {@code 1} for upward directions, {@code -1} for downward
+	 *         directions and {@code 0} otherwise.
+	 */
+	public static int getY(int direction) {
+		return Y_VALUES[direction];
+	}
+
+	/**
+	 * Returns the button bits set by a direction.
+	 *
+	 * @param direction
+	 *            The direction, from {@link #CENTERED} to {@link #UP_LEFT}.
+	 * @return The bits of the buttons held in the given direction.
+	 */
+	public int getMask(int direction) {
+		return masks[direction];
+	}
+
+	/**
+	 * Returns the x-value encoded by the direction bits of a button mask.
+	 *
+	 * @param buttonMask
+	 *            A button mask containing bits set by this decoder.
+	 * @return {@code -1} if the left bits are set, {@code 1} if the right
+	 *         bits are set and {@code 0} otherwise.
+	 */
+	public int getXOfMask(int buttonMask) {
+		if ((buttonMask & leftMask) != 0) {
+			return -1;
+		}
+		return (buttonMask & rightMask) != 0 ? 1 : 0;
+	}
+
+	/**
+	 * Returns the y-value encoded by the direction bits of a button mask.
+	 *
+	 * @param buttonMask
+	 *            A button mask containing bits set by this decoder.
+	 * @return {@code 1} if the up bits are set, {@code -1} if the down bits
+	 *         are set and {@code 0} otherwise.
+	 */
+	public int getYOfMask(int buttonMask) {
+		if ((buttonMask & upMask) != 0) {
+			return 1;
+		}
+		return (buttonMask & downMask) != 0 ? -1 : 0;
+	}
+}
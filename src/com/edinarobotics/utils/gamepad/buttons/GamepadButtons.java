@@ -44,6 +44,16 @@ public enum GamepadButtons {
 		return name.toLowerCase();
 	}
 
+	/**
+	 * Returns the bit belonging to this button in the masks of a
+	 * {@link ButtonSnapshot}.
+	 * 
+	 * @return An {@code int} with only the bit of this button set.
+	 */
+	public int getMask() {
+		return 1 << value;
+	}
+
 	/**
 	 * Returns the internal byte value used for equality testing.
 	 * 
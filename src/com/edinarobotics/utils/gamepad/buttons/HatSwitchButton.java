@@ -8,6 +8,7 @@ public class HatSwitchButton extends Button {
 
 	private final ThreeAxisJoystick joystick;
 	private final HatSwitchButtonType buttonType;
+	private final int mask;
 
 	/**
 	 * Constructs a new HatSwitchButton attached to the given ThreeAxisJoystick,
@@ -22,26 +23,29 @@ public class HatSwitchButton extends Button {
 	public HatSwitchButton(ThreeAxisJoystick joystick, HatSwitchButtonType buttonType) {
 		this.joystick = joystick;
 		this.buttonType = buttonType;
+		if (buttonType == HatSwitchButtonType.UP) {
+			this.mask = JoystickButtons.HAT_SWITCH_UP.getMask();
+		} else if (buttonType == HatSwitchButtonType.DOWN) {
+			this.mask = JoystickButtons.HAT_SWITCH_DOWN.getMask();
+		} else if (buttonType == HatSwitchButtonType.LEFT) {
+			this.mask = JoystickButtons.HAT_SWITCH_LEFT.getMask();
+		} else if (buttonType == HatSwitchButtonType.RIGHT) {
+			this.mask = JoystickButtons.HAT_SWITCH_RIGHT.getMask();
+		} else {
+			this.mask = 0;
+		}
 	}
 
 	/**
-	 * Returns the current state of this HatSwitchButton.
+	 * Returns the state of this HatSwitchButton during the current control
+	 * cycle. The hat switch is decoded once per cycle into the joystick's
+	 * ButtonSnapshot, so this method only tests a bit.
 	 * 
-	 * @return The current state of this HatSwitchButton.
+	 * @return The state of this HatSwitchButton.
 	 */
 	@Override
 	public boolean get() {
-		if (buttonType == HatSwitchButtonType.UP) {
-			return joystick.getHatSwitchY() == 1;
-		} else if (buttonType == HatSwitchButtonType.DOWN) {
-			return joystick.getHatSwitchY() == -1;
-		} else if (buttonType == HatSwitchButtonType.LEFT) {
-			return joystick.getHatSwitchX() == -1;
-		} else if (buttonType == HatSwitchButtonType.RIGHT) {
-			return joystick.getHatSwitchX() == 1;
-		}
-
-		return false;
+		return joystick.getButtonSnapshot().isHeld(mask);
 	}
 
 	/**
@@ -17,7 +17,17 @@ public enum JoystickButtons {
 	OUTER_RING_BOTTOM((byte) 12, "outer ring bottom"), 
 	INNER_RING_TOP((byte) 13, "inner ring top"), 
 	INNER_RING_MIDDLE((byte) 14, "inner ring middle"), 
-	INNER_RING_BOTTOM((byte) 15, "inner ring bottom");
+	INNER_RING_BOTTOM((byte) 15, "inner ring bottom"), 
+	HAT_BUTTON_MIDDLE((byte) 16, "hat button middle"), 
+	HAT_BUTTON_LEFT((byte) 17, "hat button left"), 
+	HAT_BUTTON_RIGHT((byte) 18, "hat button right"), 
+	HAT_BUTTON_DOWN((byte) 19, "hat button down"), 
+	RING_LEFT_UP((byte) 20, "ring left up"), 
+	RING_LEFT_DOWN((byte) 21, "ring left down"), 
+	RING_RIGHT_UP((byte) 22, "ring right up"), 
+	RING_RIGHT_DOWN((byte) 23, "ring right down"), 
+	AUX_LEFT((byte) 24, "aux left"), 
+	AUX_RIGHT((byte) 25, "aux right");
 
 	private final byte value;
 	private final String name;
@@ -44,6 +54,16 @@ public enum JoystickButtons {
 		return name.toLowerCase();
 	}
 
+	/**
+	 * Returns the bit belonging to this button in the masks of a
+	 * {@link ButtonSnapshot}.
+	 * 
+	 * @return An {@code int} with only the bit of this button set.
+	 */
+	public int getMask() {
+		return 1 << value;
+	}
+
 	/**
 	 * Returns the internal byte value used for equality testing.
 	 * 
@@ -0,0 +1,50 @@
+package com.edinarobotics.utils.gamepad.buttons;
+
+import edu.wpi.first.wpilibj.buttons.Button;
+
+/**
+ * This class implements a Button which reads its state from the bits of a
+ * ButtonSnapshot, instead of polling the driver station itself.
+ */
+public class MaskButton extends Button {
+
+	private final ButtonSnapshot snapshot;
+	private final int mask;
+
+	/**
+	 * Constructs a new MaskButton which is held when any of the given bits
+	 * is set in the given ButtonSnapshot.
+	 *
+	 * @param snapshot
+	 *            The ButtonSnapshot from which the state of this button is
+	 *            read.
+	 * @param mask
+	 *            The bits of the ButtonSnapshot belonging to this button.
+	 */
+	public MaskButton(ButtonSnapshot snapshot, int mask) {
+		if (snapshot == null) {
+			throw new IllegalArgumentException("Provided ButtonSnapshot must not be null");
+		}
+		this.snapshot = snapshot;
+		this.mask = mask;
+	}
+
+	/**
+	 * Returns the current state of this MaskButton.
+	 *
+	 * @return {@code true} if this button is held, {@code false} otherwise.
+	 */
+	@Override
+	public boolean get() {
+		return snapshot.isHeld(mask);
+	}
+
+	/**
+	 * Returns the bits of the ButtonSnapshot belonging to this button.
+	 *
+	 * @return The mask of this button.
+	 */
+	public int getMask() {
+		return mask;
+	}
+}
@@ -0,0 +1,109 @@
+package com.edinarobotics.utils.gamepad.gamepadfilters;
+
+/**
+ * This filter applies a bowtie-shaped deadzone to each stick, which makes
+ * it easy to hold a stick in exactly one of the four cardinal directions.
+ *
+ * A stick whose distance from the center is less than the radius is
+ * zeroed. Outside of that, the stick is first rescaled like a
+ * {@link ScaledRadialDeadzoneFilter}, so its magnitude rises from zero at
+ * the edge of the central deadzone. Then each axis has its own deadzone,
+ * whose width is the slope multiplied by the magnitude of the other axis.
+ * Pushing the stick far along one axis therefore widens the deadzone of
+ * the other, and small sideways drift is ignored. Past its deadzone, each
+ * axis is rescaled so that it still reaches {@code 1} when fully pushed.
+ * Both steps are continuous, so the output never jumps. At most one
+ * square root is taken.
+ */
+public class BowtieDeadzoneFilter extends VectorGamepadJoystickFilter {
+    private final double radius;
+    private final double radiusSquared;
+    private final double scale;
+    private final double slope;
+
+    /**
+     * Constructs a new BowtieDeadzoneFilter.
+     * @param radius The radius of the central deadzone, from {@code 0} up
+     * to but not including {@code 1}.
+     * @param slope The width of the deadzone of each axis when the other
+     * axis is fully pushed, from {@code 0} up to but not including
+     * {@code 1}.
+     */
+    public BowtieDeadzoneFilter(double radius, double slope){
+        checkRadius(radius);
+        if(!(slope >= 0 && slope < 1)){
+            throw new IllegalArgumentException("Slope must be at least 0 and less than 1 (received: "+slope+")");
+        }
+        this.radius = radius;
+        this.radiusSquared = radius * radius;
+        this.scale = 1.0 / (1.0 - radius);
+        this.slope = slope;
+    }
+
+    /**
+     * Internal function that zeroes a stick inside the central deadzone
+     * and otherwise rescales its magnitude from the edge of the central
+     * deadzone and applies the sloped deadzone of each axis.
+     * @param values The axis array holding the stick.
+     * @param x The index of the x-value of the stick.
+     * @param y The index of the y-value of the stick.
+     */
+    protected void applyFilter(double[] values, int x, int y){
+        double magnitudeSquared = values[x] * values[x] + values[y] * values[y];
+        if(magnitudeSquared < radiusSquared || magnitudeSquared == 0.0){
+            values[x] = 0.0;
+            values[y] = 0.0;
+            return;
+        }
+        double magnitude = Math.sqrt(magnitudeSquared);
+        double factor = (Math.min(magnitude, 1.0) - radius) * scale / magnitude;
+        double valueX = values[x] * factor;
+        double valueY = values[y] * factor;
+        double absoluteX = Math.min(Math.abs(valueX), 1.0);
+        double absoluteY = Math.min(Math.abs(valueY), 1.0);
+        values[x] = applyAxisDeadzone(valueX, absoluteX, slope * absoluteY);
+        values[y] = applyAxisDeadzone(valueY, absoluteY, slope * absoluteX);
+    }
+
+    /**
+     * Internal method that applies the deadzone of one axis and rescales the
+     * rest of the axis's travel.
+     * @param value The value of the axis.
+     * @param absolute The absolute value of the axis, at most {@code 1}.
+     * @param width The width of the deadzone of the axis, less than
+     * {@code 1}.
+     * @return The filtered value of the axis.
+     */
+    private static double applyAxisDeadzone(double value, double absolute, double width){
+        if(absolute <= width){
+            return 0.0;
+        }
+        double scaled = (absolute - width) / (1.0 - width);
+        return value < 0 ? -scaled : scaled;
+    }
+
+    /**
+     * Returns the radius of the central deadzone of this filter.
+     * @return The radius of the central deadzone.
+     */
+    public double getRadius(){
+        return radius;
+    }
+
+    /**
+     * Returns the slope of the deadzone of each axis of this filter.
+     * @return The width of the deadzone of an axis when the other axis is
+     * fully pushed.
+     */
+    public double getSlope(){
+        return slope;
+    }
+
+    /**
+     * Returns a String representation of this BowtieDeadzoneFilter.
+     * @return A String representation of this BowtieDeadzoneFilter.
+     */
+    public String toString(){
+        return "<BowtieDeadzoneFilter: "+radius+", slope "+slope+">";
+    }
+}
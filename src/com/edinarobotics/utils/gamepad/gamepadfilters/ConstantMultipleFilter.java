@@ -18,6 +18,15 @@ public class ConstantMultipleFilter extends SimpleGamepadJoystickFilter{
         this.multiplier = multiplier;
     }
 
+    /**
+     * Indicates that this filter is stateless. The filtered value depends
+     * only on the multiplier and the input value.
+     * @return {@code true}.
+     */
+    public boolean isStateless(){
+        return true;
+    }
+
     /**
      * Internal function which applies the multiplier to the gamepad axes.
      * @param value The current value of the gamepad axis.
@@ -17,6 +17,15 @@ public class DeadzoneFilter extends SimpleGamepadJoystickFilter {
         this.radius = radius;
     }
 
+    /**
+     * Indicates that this filter is stateless. The deadzoned value depends
+     * only on the radius and the input value.
+     * @return {@code true}.
+     */
+    public boolean isStateless(){
+        return true;
+    }
+
     /**
      * Internal function that applies the deadzone to the gamepad axis value.
      * @param value The value to which the deadzone is to be applied.
@@ -0,0 +1,90 @@
+package com.edinarobotics.utils.gamepad.gamepadfilters;
+
+import com.edinarobotics.utils.common.Clock;
+import com.edinarobotics.utils.common.FPGAClock;
+
+/**
+ * This filter smooths each axis with an exponential moving average.
+ *
+ * The weight given to each new value depends on the time since the
+ * previous value, {@code 1 - exp(-elapsed / timeConstant)}, so the amount
+ * of smoothing does not change with the rate at which the filter runs.
+ * After one time constant, the output has covered about 63% of a step in
+ * the input.
+ */
+public class ExponentialMovingAverageFilter extends StatefulGamepadJoystickFilter {
+    private final double timeConstant;
+    private final double[] averages;
+    private double cachedElapsed;
+    private double cachedWeight;
+
+    /**
+     * Constructs a new ExponentialMovingAverageFilter which measures time
+     * with the FPGA timer.
+     * @param timeConstant The time constant of the average in seconds.
+     */
+    public ExponentialMovingAverageFilter(double timeConstant){
+        this(timeConstant, FPGAClock.getInstance());
+    }
+
+    /**
+     * Constructs a new ExponentialMovingAverageFilter.
+     * @param timeConstant The time constant of the average in seconds.
+     * @param clock The Clock from which the time between values is
+     * measured.
+     */
+    public ExponentialMovingAverageFilter(double timeConstant, Clock clock){
+        super(clock);
+        if(!(timeConstant > 0)){
+            throw new IllegalArgumentException("Time constant must be positive (received: "+timeConstant+")");
+        }
+        this.timeConstant = timeConstant;
+        this.averages = new double[AXIS_SLOTS];
+        this.cachedElapsed = 0.0;
+        this.cachedWeight = 0.0;
+    }
+
+    /**
+     * Starts the average of an axis at the given value.
+     * @param axis The slot of the axis.
+     * @param value The value of the axis.
+     * @return The value of the axis, unchanged.
+     */
+    protected double initialize(int axis, double value){
+        averages[axis] = value;
+        return value;
+    }
+
+    /**
+     * Moves the average of an axis toward the given value.
+     * @param axis The slot of the axis.
+     * @param value The value of the axis.
+     * @param elapsed The time in seconds since the previous value.
+     * @return The new average of the axis.
+     */
+    protected double applyFilter(int axis, double value, double elapsed){
+        //Every axis of a pass shares the same elapsed time
+        if(elapsed != cachedElapsed){
+            cachedElapsed = elapsed;
+            cachedWeight = 1.0 - Math.exp(-elapsed / timeConstant);
+        }
+        averages[axis] += cachedWeight * (value - averages[axis]);
+        return averages[axis];
+    }
+
+    /**
+     * Returns the time constant of this filter.
+     * @return The time constant in seconds.
+     */
+    public double getTimeConstant(){
+        return timeConstant;
+    }
+
+    /**
+     * Returns a String representation of this ExponentialMovingAverageFilter.
+     * @return A String representation of this ExponentialMovingAverageFilter.
+     */
+    public String toString(){
+        return "<ExponentialMovingAverageFilter: "+timeConstant+" s>";
+    }
+}
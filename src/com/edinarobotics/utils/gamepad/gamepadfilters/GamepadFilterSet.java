@@ -1,22 +1,121 @@
 package com.edinarobotics.utils.gamepad.gamepadfilters;
 
+import java.util.ArrayList;
 import java.util.List;
 
+import com.edinarobotics.utils.gamepad.GamepadAxisBuffer;
 import com.edinarobotics.utils.gamepad.GamepadAxisState;
 
 /**
  * This class applies multiple other GamepadFilters to a Gamepad.
+ *
+ * Filters implementing {@link InPlaceGamepadFilter} are run in place on a
+ * GamepadAxisBuffer, so a chain made only of such filters creates no
+ * objects when run by {@link #filterInPlace(GamepadAxisBuffer)}. Other
+ * filters are adapted by converting the buffer to a GamepadAxisState and
+ * back.
+ *
+ * Runs of two or more consecutive stateless SimpleGamepadJoystickFilters,
+ * such as a DeadzoneFilter followed by a PowerFilter, are compiled into a
+ * single {@link LookupTableFilter} when the set is constructed.
+ *
+ * A set which contains a {@link StatefulGamepadJoystickFilter} must be run
+ * exactly once per control cycle, so it reports itself as
+ * {@link #isStateful() stateful}, and filtered controllers built on it
+ * default to {@link com.edinarobotics.utils.gamepad.AxisSnapshotMode#MANUAL}
+ * mode, in which they are filtered by calls to their {@code update()}
+ * method.
  */
-public class GamepadFilterSet implements GamepadFilter{
-    private List<GamepadFilter> filters;
-    
+public class GamepadFilterSet implements InPlaceGamepadFilter{
+    private GamepadFilter[] filters;
+
     /**
      * Constructs a new GamepadFilterSet that applies the given filters to the
      * gamepad in the order in which they are positioned in the array.
      * @param filters The array of filters to be applied to the gamepad.
      */
+    public GamepadFilterSet(GamepadFilter[] filters){
+        this(filters, LookupTableFilter.DEFAULT_RESOLUTION, LookupTableFilter.DEFAULT_MAXIMUM_ERROR);
+    }
+    
+    /**
+     * Constructs a new GamepadFilterSet that applies the given filters to the
+     * gamepad in the order in which they are positioned in the array, and
+     * compiles runs of stateless filters into lookup tables of the given
+     * resolution.
+     * @param filters The array of filters to be applied to the gamepad.
+     * @param resolution The number of segments in each lookup table, or
+     * {@code 0} to apply every filter directly.
+     * @param maximumError The largest difference allowed between a value
+     * interpolated from a lookup table and the exact value.
+     * @see LookupTableFilter
+     */
+    public GamepadFilterSet(GamepadFilter[] filters, int resolution, double maximumError){
+        if(resolution < 0 || resolution == 1){
+            throw new IllegalArgumentException("Resolution must be 0 or at least 2 (received: "+resolution+")");
+        }
+        LookupTableFilter.checkMaximumError(maximumError);
+        this.filters = compile(filters, resolution, maximumError);
+    }
+
+    /**
+     * Constructs a new GamepadFilterSet that applies the given filters to the
+     * gamepad in the order in which they are positioned in the List.
+     * @param filters The List of filters to be applied to the gamepad.
+     */
     public GamepadFilterSet(List<GamepadFilter> filters){
-        this.filters = filters;
+        this(filters.toArray(new GamepadFilter[filters.size()]));
+    }
+
+    /**
+     * Internal method that replaces each run of two or more consecutive
+     * stateless SimpleGamepadJoystickFilters with a LookupTableFilter.
+     * @param filters The filters to be compiled.
+     * @param resolution The number of segments in each lookup table, or
+     * {@code 0} to copy the filters unchanged.
+     * @param maximumError The maximum interpolation error of each lookup
+     * table.
+     * @return A new array of filters equivalent to {@code filters}.
+     */
+    private static GamepadFilter[] compile(GamepadFilter[] filters, int resolution, double maximumError){
+        List<GamepadFilter> compiled = new ArrayList<GamepadFilter>(filters.length);
+        int start = 0;
+        while(start < filters.length){
+            int end = start;
+            while(resolution > 0 && end < filters.length && LookupTableFilter.isCompilable(filters[end])){
+                end++;
+            }
+            if(end - start >= 2){
+                SimpleGamepadJoystickFilter[] stages = new SimpleGamepadJoystickFilter[end - start];
+                System.arraycopy(filters, start, stages, 0, stages.length);
+                compiled.add(new LookupTableFilter(stages, resolution, maximumError));
+                start = end;
+            }
+            else{
+                compiled.add(filters[start]);
+                start++;
+            }
+        }
+        return compiled.toArray(new GamepadFilter[compiled.size()]);
+    }
+    
+    /**
+     * Indicates whether this set contains a filter whose output depends on
+     * earlier filtering passes, either a StatefulGamepadJoystickFilter or a
+     * stateful GamepadFilterSet.
+     * @return {@code true} if this set is stateful, {@code false}
+     * otherwise.
+     */
+    public boolean isStateful(){
+        for(int i = 0; i < filters.length; i++){
+            if(filters[i] instanceof StatefulGamepadJoystickFilter){
+                return true;
+            }
+            if(filters[i] instanceof GamepadFilterSet && ((GamepadFilterSet)filters[i]).isStateful()){
+                return true;
+            }
+        }
+        return false;
     }
     
     /**
@@ -27,13 +126,26 @@ public class GamepadFilterSet implements GamepadFilter{
      * filtering the input GamepadAxisState object.
      */
     public GamepadAxisState filter(GamepadAxisState toFilter){
-        GamepadAxisState current = toFilter;
-        
-    	for (GamepadFilter filter : filters){
-    		current = filter.filter(current);
-    	}
-    	
-        return current;
-        
+        GamepadAxisBuffer axes = new GamepadAxisBuffer();
+        axes.set(toFilter);
+        filterInPlace(axes);
+        return axes.toGamepadAxisState();
+    }
+
+    /**
+     * Filters the values in the given GamepadAxisBuffer through the given
+     * set of filters, replacing them with the filtered values. The filters
+     * are applied in order.
+     * @param axes The GamepadAxisBuffer to be filtered.
+     */
+    public void filterInPlace(GamepadAxisBuffer axes){
+        for(int i = 0; i < filters.length; i++){
+            if(filters[i] instanceof InPlaceGamepadFilter){
+                ((InPlaceGamepadFilter)filters[i]).filterInPlace(axes);
+            }
+            else{
+                axes.set(filters[i].filter(axes.toGamepadAxisState()));
+            }
+        }
     }
 }
@@ -0,0 +1,21 @@
+package com.edinarobotics.utils.gamepad.gamepadfilters;
+
+import com.edinarobotics.utils.gamepad.GamepadAxisBuffer;
+
+/**
+ * This interface defines a GamepadFilter which can also modify the values
+ * of a gamepad's joystick axes in place.
+ *
+ * {@link GamepadFilterSet} uses {@link #filterInPlace(GamepadAxisBuffer)}
+ * for every filter implementing this interface, so a chain made only of
+ * such filters runs without creating any objects.
+ */
+public interface InPlaceGamepadFilter extends GamepadFilter {
+
+    /**
+     * Filters the values of the gamepad's joystick axes, replacing the
+     * values in the given buffer with the filtered values.
+     * @param axes The buffer holding the axis values to be filtered.
+     */
+    public void filterInPlace(GamepadAxisBuffer axes);
+}
@@ -0,0 +1,21 @@
+package com.edinarobotics.utils.gamepad.gamepadfilters;
+
+import com.edinarobotics.utils.gamepad.JoystickAxisBuffer;
+
+/**
+ * This interface defines a JoystickFilter which can also modify the values
+ * of a joystick's axes in place.
+ *
+ * {@link JoystickFilterSet} uses {@link #filterInPlace(JoystickAxisBuffer)}
+ * for every filter implementing this interface, so a chain made only of
+ * such filters runs without creating any objects.
+ */
+public interface InPlaceJoystickFilter extends JoystickFilter {
+
+    /**
+     * Filters the values of the joystick's axes, replacing the values in
+     * the given buffer with the filtered values.
+     * @param axes The buffer holding the axis values to be filtered.
+     */
+    public void filterInPlace(JoystickAxisBuffer axes);
+}
@@ -1,35 +1,124 @@
 package com.edinarobotics.utils.gamepad.gamepadfilters;
 
+import com.edinarobotics.utils.gamepad.JoystickAxisBuffer;
 import com.edinarobotics.utils.gamepad.JoystickAxisState;
 
+import java.util.ArrayList;
 import java.util.List;
 
 /**
  * This class applies multiple other JoystickFilters to a Joystick.
+ *
+ * Filters implementing {@link InPlaceJoystickFilter} are run in place on a
+ * JoystickAxisBuffer, so a chain made only of such filters creates no
+ * objects when run by {@link #filterInPlace(JoystickAxisBuffer)}. Other
+ * filters are adapted by converting the buffer to a JoystickAxisState and
+ * back.
+ *
+ * Runs of two or more consecutive stateless SimpleGamepadJoystickFilters,
+ * such as a DeadzoneFilter followed by a PowerFilter, are compiled into a
+ * single {@link LookupTableFilter} when the set is constructed.
+ *
+ * A set which contains a {@link StatefulGamepadJoystickFilter} must be run
+ * exactly once per control cycle, so it reports itself as
+ * {@link #isStateful() stateful}, and filtered controllers built on it
+ * default to {@link com.edinarobotics.utils.gamepad.AxisSnapshotMode#MANUAL}
+ * mode, in which they are filtered by calls to their {@code update()}
+ * method.
  */
-public class JoystickFilterSet {
+public class JoystickFilterSet implements InPlaceJoystickFilter {
     private JoystickFilter[] filters;
-    
+
     /**
      * Constructs a new JoystickFilterSet that applies the given filters to the
      * joystick in the order in which they are positioned in the array.
      * @param filters The array of filters to be applied to the joystick.
      */
     public JoystickFilterSet(JoystickFilter[] filters){
-        this.filters = new JoystickFilter[filters.length];
-        System.arraycopy(filters, 0, this.filters, 0, filters.length);
+        this(filters, LookupTableFilter.DEFAULT_RESOLUTION, LookupTableFilter.DEFAULT_MAXIMUM_ERROR);
     }
     
     /**
      * Constructs a new JoystickFilterSet that applies the given filters to the
-     * joystick in the order in which they are positioned in the Vector.
-     * @param filters The Vector of JoystickFilter objects to be applied to
+     * joystick in the order in which they are positioned in the array, and
+     * compiles runs of stateless filters into lookup tables of the given
+     * resolution.
+     * @param filters The array of filters to be applied to the joystick.
+     * @param resolution The number of segments in each lookup table, or
+     * {@code 0} to apply every filter directly.
+     * @param maximumError The largest difference allowed between a value
+     * interpolated from a lookup table and the exact value.
+     * @see LookupTableFilter
+     */
+    public JoystickFilterSet(JoystickFilter[] filters, int resolution, double maximumError){
+        if(resolution < 0 || resolution == 1){
+            throw new IllegalArgumentException("Resolution must be 0 or at least 2 (received: "+resolution+")");
+        }
+        LookupTableFilter.checkMaximumError(maximumError);
+        this.filters = compile(filters, resolution, maximumError);
+    }
+
+    /**
+     * Constructs a new JoystickFilterSet that applies the given filters to the
+     * joystick in the order in which they are positioned in the List.
+     * @param filters The List of JoystickFilter objects to be applied to
      * the Joystick.
      */
     public JoystickFilterSet(List<JoystickFilter> filters){
-        this((JoystickFilter[])filters.toArray());
+        this(filters.toArray(new JoystickFilter[filters.size()]));
     }
 
+    /**
+     * Internal method that replaces each run of two or more consecutive
+     * stateless SimpleGamepadJoystickFilters with a LookupTableFilter.
+     * @param filters The filters to be compiled.
+     * @param resolution The number of segments in each lookup table, or
+     * {@code 0} to copy the filters unchanged.
+     * @param maximumError The maximum interpolation error of each lookup
+     * table.
+     * @return A new array of filters equivalent to {@code filters}.
+     */
+    private static JoystickFilter[] compile(JoystickFilter[] filters, int resolution, double maximumError){
+        List<JoystickFilter> compiled = new ArrayList<JoystickFilter>(filters.length);
+        int start = 0;
+        while(start < filters.length){
+            int end = start;
+            while(resolution > 0 && end < filters.length && LookupTableFilter.isCompilable(filters[end])){
+                end++;
+            }
+            if(end - start >= 2){
+                SimpleGamepadJoystickFilter[] stages = new SimpleGamepadJoystickFilter[end - start];
+                System.arraycopy(filters, start, stages, 0, stages.length);
+                compiled.add(new LookupTableFilter(stages, resolution, maximumError));
+                start = end;
+            }
+            else{
+                compiled.add(filters[start]);
+                start++;
+            }
+        }
+        return compiled.toArray(new JoystickFilter[compiled.size()]);
+    }
+    
+    /**
+     * Indicates whether this set contains a filter whose output depends on
+     * earlier filtering passes, either a StatefulGamepadJoystickFilter or a
+     * stateful JoystickFilterSet.
+     * @return {@code true} if this set is stateful, {@code false}
+     * otherwise.
+     */
+    public boolean isStateful(){
+        for(int i = 0; i < filters.length; i++){
+            if(filters[i] instanceof StatefulGamepadJoystickFilter){
+                return true;
+            }
+            if(filters[i] instanceof JoystickFilterSet && ((JoystickFilterSet)filters[i]).isStateful()){
+                return true;
+            }
+        }
+        return false;
+    }
+    
     /**
      * Filters the given JoystickAxisState object through the given set of
      * filters. The filters are applied in order.
@@ -38,10 +127,26 @@ public class JoystickFilterSet {
      * filtering the input JoystickAxisState object.
      */
     public JoystickAxisState filter(JoystickAxisState toFilter){
-        JoystickAxisState current = toFilter;
-        for(int i = 0; i < this.filters.length; i++){
-            current = this.filters[i].filter(current);
+        JoystickAxisBuffer axes = new JoystickAxisBuffer();
+        axes.set(toFilter);
+        filterInPlace(axes);
+        return axes.toJoystickAxisState();
+    }
+
+    /**
+     * Filters the values in the given JoystickAxisBuffer through the given
+     * set of filters, replacing them with the filtered values. The filters
+     * are applied in order.
+     * @param axes The JoystickAxisBuffer to be filtered.
+     */
+    public void filterInPlace(JoystickAxisBuffer axes){
+        for(int i = 0; i < filters.length; i++){
+            if(filters[i] instanceof InPlaceJoystickFilter){
+                ((InPlaceJoystickFilter)filters[i]).filterInPlace(axes);
+            }
+            else{
+                axes.set(filters[i].filter(axes.toJoystickAxisState()));
+            }
         }
-        return current;
     }
 }
@@ -0,0 +1,232 @@
+package com.edinarobotics.utils.gamepad.gamepadfilters;
+
+/**
+ * This filter replaces a chain of stateless filters with a precomputed
+ * lookup table.
+ *
+ * The composition of the chain is sampled at evenly spaced points across
+ * the range {@code -1} to {@code 1}, and values between two points are
+ * found by linear interpolation. Each segment between two points is
+ * checked when the table is built: if interpolation differs from the
+ * chain by more than the maximum error anywhere it is checked, for
+ * example across the step of a deadzone, values in that segment are
+ * computed by running the chain exactly. Values outside the range
+ * {@code -1} to {@code 1} are also computed exactly.
+ *
+ * Like the filters it replaces, a LookupTableFilter acts on all axes of
+ * gamepads and on the x-, y- and twist axes of joysticks.
+ */
+public class LookupTableFilter extends SimpleGamepadJoystickFilter {
+    /**
+     * The default number of segments in a lookup table.
+     */
+    public static final int DEFAULT_RESOLUTION = 512;
+
+    /**
+     * The default largest difference allowed between an interpolated value
+     * and the exact value of the chain.
+     */
+    public static final double DEFAULT_MAXIMUM_ERROR = 1e-4;
+
+    private static final int CHECKS_PER_SEGMENT = 8;
+
+    private final SimpleGamepadJoystickFilter[] stages;
+    private final int resolution;
+    private final double maximumError;
+    private final double scale;
+    private final double[] table;
+    private final boolean[] exact;
+    private int exactSegments;
+
+    /**
+     * Constructs a new LookupTableFilter for the given chain of filters
+     * with the default resolution and maximum error.
+     * @param stages The stateless filters to be compiled, in the order in
+     * which they are applied.
+     */
+    public LookupTableFilter(SimpleGamepadJoystickFilter[] stages){
+        this(stages, DEFAULT_RESOLUTION, DEFAULT_MAXIMUM_ERROR);
+    }
+
+    /**
+     * Constructs a new LookupTableFilter for the given chain of filters.
+     * @param stages The stateless filters to be compiled, in the order in
+     * which they are applied.
+     * @param resolution The number of segments into which the range
+     * {@code -1} to {@code 1} is divided.
+     * @param maximumError The largest difference allowed between an
+     * interpolated value and the exact value of the chain.
+     */
+    public LookupTableFilter(SimpleGamepadJoystickFilter[] stages, int resolution, double maximumError){
+        if(stages == null || stages.length == 0){
+            throw new IllegalArgumentException("At least one filter must be provided");
+        }
+        if(resolution < 2){
+            throw new IllegalArgumentException("Resolution must be at least 2 (received: "+resolution+")");
+        }
+        checkMaximumError(maximumError);
+        for(int i = 0; i < stages.length; i++){
+            if(stages[i] == null || !stages[i].isStateless()){
+                throw new IllegalArgumentException("Filter must be stateless (received: "+stages[i]+")");
+            }
+        }
+        this.stages = new SimpleGamepadJoystickFilter[stages.length];
+        System.arraycopy(stages, 0, this.stages, 0, stages.length);
+        this.resolution = resolution;
+        this.maximumError = maximumError;
+        this.scale = resolution / 2.0;
+        this.table = new double[resolution + 1];
+        this.exact = new boolean[resolution];
+        buildTable();
+    }
+
+    /**
+     * Internal method that samples the chain at each point of the table and
+     * marks the segments in which interpolation is not accurate enough.
+     */
+    private void buildTable(){
+        for(int i = 0; i <= resolution; i++){
+            table[i] = evaluate(getPoint(i));
+        }
+        exactSegments = 0;
+        for(int i = 0; i < resolution; i++){
+            exact[i] = !isAccurate(i);
+            if(exact[i]){
+                exactSegments++;
+            }
+        }
+    }
+
+    /**
+     * Internal method that checks the interpolated values of a segment
+     * against the exact values of the chain.
+     * @param segment The index of the segment to check.
+     * @return {@code true} if every checked value is within the maximum
+     * error, {@code false} otherwise.
+     */
+    private boolean isAccurate(int segment){
+        double start = table[segment];
+        double end = table[segment + 1];
+        if(Double.isNaN(start) || Double.isInfinite(start) || Double.isNaN(end) || Double.isInfinite(end)){
+            return false;
+        }
+        double left = getPoint(segment);
+        double width = getPoint(segment + 1) - left;
+        for(int check = 1; check <= CHECKS_PER_SEGMENT; check++){
+            double t = check / (CHECKS_PER_SEGMENT + 1.0);
+            double error = Math.abs(evaluate(left + t * width) - (start + t * (end - start)));
+            if(!(error <= maximumError)){
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Internal method that returns the input value of a point of the table.
+     * The middle point of a table with an even resolution is exactly zero.
+     * @param index The index of the point.
+     * @return The input value of the point, from {@code -1} to {@code 1}.
+     */
+    private double getPoint(int index){
+        return (2.0 * index - resolution) / resolution;
+    }
+
+    /**
+     * Internal method that runs a value through every stage of the chain.
+     * @param value The value to be filtered.
+     * @return The exact filtered value.
+     */
+    private double evaluate(double value){
+        for(int i = 0; i < stages.length; i++){
+            value = stages[i].applyFilter(value);
+        }
+        return value;
+    }
+
+    /**
+     * Returns the number of segments into which the range {@code -1} to
+     * {@code 1} is divided.
+     * @return The resolution of the lookup table.
+     */
+    public int getResolution(){
+        return resolution;
+    }
+
+    /**
+     * Returns the largest difference allowed between an interpolated value
+     * and the exact value of the chain.
+     * @return The maximum error of this LookupTableFilter.
+     */
+    public double getMaximumError(){
+        return maximumError;
+    }
+
+    /**
+     * Returns the number of segments whose values are computed exactly
+     * because interpolation was not accurate enough.
+     * @return The number of exactly computed segments.
+     */
+    public int getExactSegmentCount(){
+        return exactSegments;
+    }
+
+    /**
+     * Indicates that this filter is stateless, since every filter it
+     * replaces is stateless.
+     * @return {@code true}.
+     */
+    public boolean isStateless(){
+        return true;
+    }
+
+    /**
+     * Internal method that looks up the filtered value of a gamepad or
+     * joystick axis.
+     * @param value The current value of the axis.
+     * @return The filtered value of the axis.
+     */
+    protected double applyFilter(double value){
+        if(value >= -1.0 && value <= 1.0){
+            double position = (value + 1.0) * scale;
+            int segment = (int)position;
+            if(segment >= resolution){
+                return table[resolution];
+            }
+            if(!exact[segment]){
+                double t = position - segment;
+                return table[segment] + t * (table[segment + 1] - table[segment]);
+            }
+        }
+        return evaluate(value);
+    }
+
+    /**
+     * Checks a maximum interpolation error given to a LookupTableFilter or
+     * to a filter set that compiles LookupTableFilters.
+     * @param maximumError The maximum error to check.
+     */
+    static void checkMaximumError(double maximumError){
+        if(!(maximumError >= 0)){
+            throw new IllegalArgumentException("Maximum error must not be negative (received: "+maximumError+")");
+        }
+    }
+
+    /**
+     * Determines whether a filter can be compiled into a LookupTableFilter.
+     * @param filter The filter to be tested.
+     * @return {@code true} if {@code filter} is a stateless
+     * SimpleGamepadJoystickFilter, {@code false} otherwise.
+     */
+    static boolean isCompilable(Object filter){
+        return filter instanceof SimpleGamepadJoystickFilter && ((SimpleGamepadJoystickFilter)filter).isStateless();
+    }
+
+    /**
+     * Returns a String representation of this LookupTableFilter.
+     * @return A String representation of this LookupTableFilter.
+     */
+    public String toString(){
+        return "<LookupTableFilter: "+stages.length+" stages, "+resolution+" segments, "+exactSegments+" exact>";
+    }
+}
@@ -0,0 +1,152 @@
+package com.edinarobotics.utils.gamepad.gamepadfilters;
+
+import com.edinarobotics.utils.common.Clock;
+import com.edinarobotics.utils.common.FPGAClock;
+
+/**
+ * This filter implements the 1&euro; ("one euro") filter of Casiez, Roussel
+ * and Vogel, an adaptive low-pass filter for noisy human input.
+ *
+ * Each axis passes through a first-order low-pass filter whose cutoff
+ * frequency rises with the speed of the axis. While a stick is held still
+ * the cutoff stays near the minimum cutoff and jitter is removed; when the
+ * stick moves quickly the cutoff rises and the output follows with little
+ * lag. The speed is itself estimated through a low-pass filter with a
+ * fixed derivative cutoff.
+ *
+ * To tune the filter, first set {@code beta} to {@code 0} and lower the
+ * minimum cutoff until the jitter of a still stick is acceptable, then
+ * raise {@code beta} until fast movements no longer lag.
+ */
+public class OneEuroFilter extends StatefulGamepadJoystickFilter {
+
+    /**
+     * The default cutoff frequency, in hertz, of the speed estimate.
+     */
+    public static final double DEFAULT_DERIVATIVE_CUTOFF = 1.0;
+
+    private final double minimumCutoff;
+    private final double beta;
+    private final double derivativeCutoff;
+    private final double[] values;
+    private final double[] speeds;
+
+    /**
+     * Constructs a new OneEuroFilter with a derivative cutoff of
+     * {@link #DEFAULT_DERIVATIVE_CUTOFF} which measures time with the FPGA
+     * timer.
+     * @param minimumCutoff The cutoff frequency in hertz while an axis is
+     * still.
+     * @param beta The increase of the cutoff frequency in hertz for each
+     * unit per second of speed.
+     */
+    public OneEuroFilter(double minimumCutoff, double beta){
+        this(minimumCutoff, beta, DEFAULT_DERIVATIVE_CUTOFF, FPGAClock.getInstance());
+    }
+
+    /**
+     * Constructs a new OneEuroFilter.
+     * @param minimumCutoff The cutoff frequency in hertz while an axis is
+     * still.
+     * @param beta The increase of the cutoff frequency in hertz for each
+     * unit per second of speed.
+     * @param derivativeCutoff The cutoff frequency in hertz of the speed
+     * estimate.
+     * @param clock The Clock from which the time between values is
+     * measured.
+     */
+    public OneEuroFilter(double minimumCutoff, double beta, double derivativeCutoff, Clock clock){
+        super(clock);
+        if(!(minimumCutoff > 0)){
+            throw new IllegalArgumentException("Minimum cutoff must be positive (received: "+minimumCutoff+")");
+        }
+        if(!(beta >= 0)){
+            throw new IllegalArgumentException("Beta must not be negative (received: "+beta+")");
+        }
+        if(!(derivativeCutoff > 0)){
+            throw new IllegalArgumentException("Derivative cutoff must be positive (received: "+derivativeCutoff+")");
+        }
+        this.minimumCutoff = minimumCutoff;
+        this.beta = beta;
+        this.derivativeCutoff = derivativeCutoff;
+        this.values = new double[AXIS_SLOTS];
+        this.speeds = new double[AXIS_SLOTS];
+    }
+
+    /**
+     * Starts the filtered value of an axis at the given value, with no
+     * speed.
+     * @param axis The slot of the axis.
+     * @param value The value of the axis.
+     * @return The value of the axis, unchanged.
+     */
+    protected double initialize(int axis, double value){
+        values[axis] = value;
+        speeds[axis] = 0.0;
+        return value;
+    }
+
+    /**
+     * Updates the speed estimate of an axis and moves its filtered value
+     * toward the given value with a cutoff frequency chosen by that speed.
+     * @param axis The slot of the axis.
+     * @param value The value of the axis.
+     * @param elapsed The time in seconds since the previous value.
+     * @return The new filtered value of the axis.
+     */
+    protected double applyFilter(int axis, double value, double elapsed){
+        if(elapsed <= 0.0){
+            return values[axis];
+        }
+        double speed = (value - values[axis]) / elapsed;
+        speeds[axis] += smoothingFactor(derivativeCutoff, elapsed) * (speed - speeds[axis]);
+        double cutoff = minimumCutoff + beta * Math.abs(speeds[axis]);
+        values[axis] += smoothingFactor(cutoff, elapsed) * (value - values[axis]);
+        return values[axis];
+    }
+
+    /**
+     * Internal method that returns the weight of a new value in a
+     * first-order low-pass filter.
+     * @param cutoff The cutoff frequency of the filter in hertz.
+     * @param elapsed The time in seconds since the previous value.
+     * @return The weight of the new value, between {@code 0} and {@code 1}.
+     */
+    private static double smoothingFactor(double cutoff, double elapsed){
+        double timeConstant = 1.0 / (2.0 * Math.PI * cutoff);
+        return elapsed / (elapsed + timeConstant);
+    }
+
+    /**
+     * Returns the cutoff frequency of this filter while an axis is still.
+     * @return The minimum cutoff frequency in hertz.
+     */
+    public double getMinimumCutoff(){
+        return minimumCutoff;
+    }
+
+    /**
+     * Returns the increase of the cutoff frequency with the speed of an
+     * axis.
+     * @return The increase in hertz for each unit per second of speed.
+     */
+    public double getBeta(){
+        return beta;
+    }
+
+    /**
+     * Returns the cutoff frequency of the speed estimate of this filter.
+     * @return The derivative cutoff frequency in hertz.
+     */
+    public double getDerivativeCutoff(){
+        return derivativeCutoff;
+    }
+
+    /**
+     * Returns a String representation of this OneEuroFilter.
+     * @return A String representation of this OneEuroFilter.
+     */
+    public String toString(){
+        return "<OneEuroFilter: "+minimumCutoff+" Hz, beta "+beta+", "+derivativeCutoff+" Hz>";
+    }
+}
@@ -21,6 +21,15 @@ public class PowerFilter extends SimpleGamepadJoystickFilter{
         this.power = power;
     }
 
+    /**
+     * Indicates that this filter is stateless. The filtered value depends
+     * only on the power and the input value.
+     * @return {@code true}.
+     */
+    public boolean isStateless(){
+        return true;
+    }
+
     /**
      * Internal method used to raise the value of each gamepad axis to the
      * given power while preserving their signs.
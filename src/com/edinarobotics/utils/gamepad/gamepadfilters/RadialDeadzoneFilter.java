@@ -0,0 +1,58 @@
+package com.edinarobotics.utils.gamepad.gamepadfilters;
+
+/**
+ * This filter applies a circular deadzone to each stick.
+ *
+ * Unlike the square deadzone of {@link DeadzoneFilter}, which zeroes each
+ * axis on its own, a stick is zeroed only when its distance from the
+ * center is less than the radius, so diagonal motion is not distorted.
+ * Outside the deadzone the values are passed through unchanged; use a
+ * {@link ScaledRadialDeadzoneFilter} to avoid the jump at the edge of the
+ * deadzone.
+ */
+public class RadialDeadzoneFilter extends VectorGamepadJoystickFilter {
+    private final double radius;
+    private final double radiusSquared;
+
+    /**
+     * Constructs a new RadialDeadzoneFilter with a deadzone of the given
+     * radius.
+     * @param radius The radius of the deadzone, from {@code 0} up to but
+     * not including {@code 1}.
+     */
+    public RadialDeadzoneFilter(double radius){
+        checkRadius(radius);
+        this.radius = radius;
+        this.radiusSquared = radius * radius;
+    }
+
+    /**
+     * Internal function that zeroes a stick inside the deadzone. The
+     * squared distance is compared, so no square root is taken.
+     * @param values The axis array holding the stick.
+     * @param x The index of the x-value of the stick.
+     * @param y The index of the y-value of the stick.
+     */
+    protected void applyFilter(double[] values, int x, int y){
+        if(values[x] * values[x] + values[y] * values[y] < radiusSquared){
+            values[x] = 0.0;
+            values[y] = 0.0;
+        }
+    }
+
+    /**
+     * Returns the radius of the deadzone of this filter.
+     * @return The radius of the deadzone.
+     */
+    public double getRadius(){
+        return radius;
+    }
+
+    /**
+     * Returns a String representation of this RadialDeadzoneFilter.
+     * @return A String representation of this RadialDeadzoneFilter.
+     */
+    public String toString(){
+        return "<RadialDeadzoneFilter: "+radius+">";
+    }
+}
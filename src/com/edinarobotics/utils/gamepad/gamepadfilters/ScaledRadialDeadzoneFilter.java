@@ -0,0 +1,70 @@
+package com.edinarobotics.utils.gamepad.gamepadfilters;
+
+/**
+ * This filter applies a circular deadzone to each stick and rescales the
+ * rest of the stick's travel to the full range.
+ *
+ * A stick whose distance from the center is less than the radius is
+ * zeroed. Outside the deadzone the direction of the stick is kept and its
+ * magnitude is mapped linearly from {@code [radius, 1]} to {@code [0, 1]},
+ * so the output rises smoothly from zero at the edge of the deadzone.
+ * Magnitudes above {@code 1}, which some controllers report on the
+ * diagonals, are limited to {@code 1}, so the output never needs to be
+ * normalized again.
+ */
+public class ScaledRadialDeadzoneFilter extends VectorGamepadJoystickFilter {
+    private final double radius;
+    private final double radiusSquared;
+    private final double scale;
+
+    /**
+     * Constructs a new ScaledRadialDeadzoneFilter with a deadzone of the
+     * given radius.
+     * @param radius The radius of the deadzone, from {@code 0} up to but
+     * not including {@code 1}.
+     */
+    public ScaledRadialDeadzoneFilter(double radius){
+        checkRadius(radius);
+        this.radius = radius;
+        this.radiusSquared = radius * radius;
+        this.scale = 1.0 / (1.0 - radius);
+    }
+
+    /**
+     * Internal function that zeroes a stick inside the deadzone and
+     * rescales its magnitude outside of it. At most one square root is
+     * taken.
+     * @param values The axis array holding the stick.
+     * @param x The index of the x-value of the stick.
+     * @param y The index of the y-value of the stick.
+     */
+    protected void applyFilter(double[] values, int x, int y){
+        double magnitudeSquared = values[x] * values[x] + values[y] * values[y];
+        if(magnitudeSquared < radiusSquared || magnitudeSquared == 0.0){
+            values[x] = 0.0;
+            values[y] = 0.0;
+            return;
+        }
+        double magnitude = Math.sqrt(magnitudeSquared);
+        double scaled = (Math.min(magnitude, 1.0) - radius) * scale;
+        double factor = scaled / magnitude;
+        values[x] *= factor;
+        values[y] *= factor;
+    }
+
+    /**
+     * Returns the radius of the deadzone of this filter.
+     * @return The radius of the deadzone.
+     */
+    public double getRadius(){
+        return radius;
+    }
+
+    /**
+     * Returns a String representation of this ScaledRadialDeadzoneFilter.
+     * @return A String representation of this ScaledRadialDeadzoneFilter.
+     */
+    public String toString(){
+        return "<ScaledRadialDeadzoneFilter: "+radius+">";
+    }
+}
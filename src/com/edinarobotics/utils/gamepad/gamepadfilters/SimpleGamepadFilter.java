@@ -1,5 +1,6 @@
 package com.edinarobotics.utils.gamepad.gamepadfilters;
 
+import com.edinarobotics.utils.gamepad.GamepadAxisBuffer;
 import com.edinarobotics.utils.gamepad.GamepadAxisState;
 import com.edinarobotics.utils.math.Vector2;
 
@@ -9,7 +10,7 @@ import com.edinarobotics.utils.math.Vector2;
  * To implement a full GamepadFilter from SimpleGamepadFilter it is only
  * necessary to override {@link #applyFilter(double)}.
  */
-public abstract class SimpleGamepadFilter implements GamepadFilter {
+public abstract class SimpleGamepadFilter implements InPlaceGamepadFilter {
     
     /**
      * The filter function of SimpleGamepadFilter applies
@@ -28,6 +29,18 @@ public abstract class SimpleGamepadFilter implements GamepadFilter {
         return new GamepadAxisState(left, right);
     }
     
+    /**
+     * Applies {@link #applyFilter(double)} in place to the values of each
+     * axis of the gamepad.
+     * @param axes The GamepadAxisBuffer to be filtered.
+     */
+    public void filterInPlace(GamepadAxisBuffer axes){
+        double[] values = axes.getAxes();
+        for(int i = 0; i < GamepadAxisBuffer.AXIS_COUNT; i++){
+            values[i] = applyFilter(values[i]);
+        }
+    }
+    
     /**
      * This function is called with the values of each gamepad axis in order
      * to produce the new filtered values. This function must be overridden
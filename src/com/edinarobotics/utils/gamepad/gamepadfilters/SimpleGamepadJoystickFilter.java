@@ -1,6 +1,8 @@
 package com.edinarobotics.utils.gamepad.gamepadfilters;
 
+import com.edinarobotics.utils.gamepad.GamepadAxisBuffer;
 import com.edinarobotics.utils.gamepad.GamepadAxisState;
+import com.edinarobotics.utils.gamepad.JoystickAxisBuffer;
 import com.edinarobotics.utils.gamepad.JoystickAxisState;
 import com.edinarobotics.utils.math.Vector2;
 
@@ -9,8 +11,9 @@ import com.edinarobotics.utils.math.Vector2;
  * which act on both joysticks and gamepads.
  * The filters created by subclassing this class act on all axes of gamepads
  * and on the x-, y- and twist axes of joysticks.
+ * They can filter both immutable axis states and reusable axis buffers.
  */
-public abstract class SimpleGamepadJoystickFilter implements JoystickFilter, GamepadFilter {
+public abstract class SimpleGamepadJoystickFilter implements InPlaceJoystickFilter, InPlaceGamepadFilter {
     
     /**
      * The filter function of SimpleGamepadJoystickFilter for gamepads applies
@@ -47,6 +50,47 @@ public abstract class SimpleGamepadJoystickFilter implements JoystickFilter, Gam
         return new JoystickAxisState(joystick, twist, throttle);
     }
     
+    /**
+     * Applies {@link #applyFilter(double)} in place to the values of each
+     * axis of the gamepad.
+     * @param axes The GamepadAxisBuffer to be filtered.
+     */
+    public void filterInPlace(GamepadAxisBuffer axes){
+        double[] values = axes.getAxes();
+        for(int i = 0; i < GamepadAxisBuffer.AXIS_COUNT; i++){
+            values[i] = applyFilter(values[i]);
+        }
+    }
+    
+    /**
+     * Applies {@link #applyFilter(double)} in place to the values of the x-
+     * and y- axes of the main joystick and the twist axis. The throttle
+     * axis is <em>not</em> filtered.
+     * @param axes The JoystickAxisBuffer to be filtered.
+     */
+    public void filterInPlace(JoystickAxisBuffer axes){
+        double[] values = axes.getAxes();
+        values[JoystickAxisBuffer.X] = applyFilter(values[JoystickAxisBuffer.X]);
+        values[JoystickAxisBuffer.Y] = applyFilter(values[JoystickAxisBuffer.Y]);
+        values[JoystickAxisBuffer.TWIST] = applyFilter(values[JoystickAxisBuffer.TWIST]);
+    }
+    
+    /**
+     * Indicates whether {@link #applyFilter(double)} is a pure function of
+     * its argument, with no internal state and no other inputs.
+     *
+     * {@link GamepadFilterSet} and {@link JoystickFilterSet} compile runs of
+     * consecutive stateless filters into a single {@link LookupTableFilter}.
+     * Subclasses should override this method to return {@code true} only if
+     * {@link #applyFilter(double)} always returns the same value for the
+     * same argument.
+     * @return {@code true} if this filter is stateless, {@code false}
+     * otherwise. The default implementation returns {@code false}.
+     */
+    public boolean isStateless(){
+        return false;
+    }
+    
     /**
      * This function is called with the values of each gamepad or joystick axis
      * in order to produce the new filtered values. This function must be
@@ -1,5 +1,6 @@
 package com.edinarobotics.utils.gamepad.gamepadfilters;
 
+import com.edinarobotics.utils.gamepad.JoystickAxisBuffer;
 import com.edinarobotics.utils.gamepad.JoystickAxisState;
 import com.edinarobotics.utils.math.Vector2;
 
@@ -10,7 +11,7 @@ import com.edinarobotics.utils.math.Vector2;
  * To implement a full JoystickFilter from SimpleJoystickFilter it is only
  * necessary to override {@link #applyFilter(double)}.
  */
-public abstract class SimpleJoystickFilter implements JoystickFilter {
+public abstract class SimpleJoystickFilter implements InPlaceJoystickFilter {
     
     /**
      * The filter function of SimpleJoystickFilter applies
@@ -30,6 +31,19 @@ public abstract class SimpleJoystickFilter implements JoystickFilter {
         return new JoystickAxisState(joystick, twist, throttle);
     }
     
+    /**
+     * Applies {@link #applyFilter(double)} in place to the values of the x-
+     * and y- axes of the main joystick and the twist axis. The throttle
+     * axis is <em>not</em> filtered.
+     * @param axes The JoystickAxisBuffer to be filtered.
+     */
+    public void filterInPlace(JoystickAxisBuffer axes){
+        double[] values = axes.getAxes();
+        values[JoystickAxisBuffer.X] = applyFilter(values[JoystickAxisBuffer.X]);
+        values[JoystickAxisBuffer.Y] = applyFilter(values[JoystickAxisBuffer.Y]);
+        values[JoystickAxisBuffer.TWIST] = applyFilter(values[JoystickAxisBuffer.TWIST]);
+    }
+    
     /**
      * This function is called with the values of each joystick axis in order
      * to produce the new filtered values. This function must be overridden
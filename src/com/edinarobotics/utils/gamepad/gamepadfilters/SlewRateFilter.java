@@ -0,0 +1,89 @@
+package com.edinarobotics.utils.gamepad.gamepadfilters;
+
+import com.edinarobotics.utils.common.Clock;
+import com.edinarobotics.utils.common.FPGAClock;
+
+/**
+ * This filter limits how quickly each axis can change.
+ *
+ * The output follows the input, but moves by at most the given rate
+ * multiplied by the time since the previous value. Unlike a
+ * {@link com.edinarobotics.utils.rate.RampRateHelper}, it limits changes
+ * in both directions and keeps a separate output for each axis.
+ */
+public class SlewRateFilter extends StatefulGamepadJoystickFilter {
+    private final double rate;
+    private final double[] outputs;
+
+    /**
+     * Constructs a new SlewRateFilter which measures time with the FPGA
+     * timer.
+     * @param rate The largest change of an axis allowed per second.
+     */
+    public SlewRateFilter(double rate){
+        this(rate, FPGAClock.getInstance());
+    }
+
+    /**
+     * Constructs a new SlewRateFilter.
+     * @param rate The largest change of an axis allowed per second.
+     * @param clock The Clock from which the time between values is
+     * measured.
+     */
+    public SlewRateFilter(double rate, Clock clock){
+        super(clock);
+        if(!(rate > 0)){
+            throw new IllegalArgumentException("Rate must be positive (received: "+rate+")");
+        }
+        this.rate = rate;
+        this.outputs = new double[AXIS_SLOTS];
+    }
+
+    /**
+     * Starts the output of an axis at the given value.
+     * @param axis The slot of the axis.
+     * @param value The value of the axis.
+     * @return The value of the axis, unchanged.
+     */
+    protected double initialize(int axis, double value){
+        outputs[axis] = value;
+        return value;
+    }
+
+    /**
+     * Moves the output of an axis toward the given value by no more than
+     * the rate allows.
+     * @param axis The slot of the axis.
+     * @param value The value of the axis.
+     * @param elapsed The time in seconds since the previous value.
+     * @return The new output of the axis.
+     */
+    protected double applyFilter(int axis, double value, double elapsed){
+        double maximumChange = rate * elapsed;
+        double change = value - outputs[axis];
+        if(change > maximumChange){
+            change = maximumChange;
+        }
+        else if(change < -maximumChange){
+            change = -maximumChange;
+        }
+        outputs[axis] += change;
+        return outputs[axis];
+    }
+
+    /**
+     * Returns the rate limit of this filter.
+     * @return The largest change of an axis allowed per second.
+     */
+    public double getRate(){
+        return rate;
+    }
+
+    /**
+     * Returns a String representation of this SlewRateFilter.
+     * @return A String representation of this SlewRateFilter.
+     */
+    public String toString(){
+        return "<SlewRateFilter: "+rate+" per s>";
+    }
+}
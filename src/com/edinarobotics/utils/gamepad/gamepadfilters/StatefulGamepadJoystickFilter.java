@@ -0,0 +1,171 @@
+package com.edinarobotics.utils.gamepad.gamepadfilters;
+
+import com.edinarobotics.utils.common.Clock;
+import com.edinarobotics.utils.gamepad.GamepadAxisBuffer;
+import com.edinarobotics.utils.gamepad.GamepadAxisState;
+import com.edinarobotics.utils.gamepad.JoystickAxisBuffer;
+import com.edinarobotics.utils.gamepad.JoystickAxisState;
+
+/**
+ * StatefulGamepadJoystickFilter is the base of filters whose output depends
+ * on earlier values of each axis and on the time that has passed since
+ * then, such as smoothing and rate-limiting filters.
+ *
+ * Like {@link SimpleGamepadJoystickFilter}, it acts on all axes of gamepads
+ * and on the x-, y- and twist axes of joysticks. Each of these axes has a
+ * slot, numbered by its index in {@link GamepadAxisBuffer} or
+ * {@link JoystickAxisBuffer}, in which subclasses keep their state as
+ * primitive values. Every filtering pass reads the time once from a
+ * {@link Clock} and passes the time since the previous pass to
+ * {@link #applyFilter(int, double, double)}.
+ *
+ * Every filtering pass advances the state, so the filter must run exactly
+ * once per control cycle. A filtered gamepad or joystick in
+ * {@link com.edinarobotics.utils.gamepad.AxisSnapshotMode#LIVE} mode
+ * filters again on every getter call and would advance the state several
+ * times per cycle. Filtered controllers whose filter set contains a
+ * stateful filter therefore start in
+ * {@link com.edinarobotics.utils.gamepad.AxisSnapshotMode#MANUAL} mode, and
+ * the robot program must call their {@code update()} method once per
+ * control loop. {@link com.edinarobotics.utils.gamepad.AxisSnapshotMode#PER_CYCLE}
+ * mode is only suitable if the program also calls
+ * {@link com.edinarobotics.utils.common.ControlCycle#advance()} once per
+ * loop.
+ *
+ * Because its state belongs to one controller, an instance must not be
+ * shared between controllers. It runs without creating any objects when
+ * filtered in place, for example inside a {@link GamepadFilterSet} or
+ * {@link JoystickFilterSet}.
+ */
+public abstract class StatefulGamepadJoystickFilter implements InPlaceJoystickFilter, InPlaceGamepadFilter {
+
+    /**
+     * The number of axis slots of every StatefulGamepadJoystickFilter.
+     */
+    protected static final int AXIS_SLOTS = GamepadAxisBuffer.AXIS_COUNT;
+
+    private final Clock clock;
+    private double previousTime;
+    private boolean started;
+
+    /**
+     * Constructs a new StatefulGamepadJoystickFilter which reads the time
+     * from the given Clock.
+     * @param clock The Clock from which the time between filtering passes
+     * is measured.
+     */
+    protected StatefulGamepadJoystickFilter(Clock clock){
+        if(clock == null){
+            throw new IllegalArgumentException("Provided Clock must not be null");
+        }
+        this.clock = clock;
+        this.started = false;
+    }
+
+    /**
+     * Filters the given GamepadAxisState. This creates new objects; use
+     * {@link #filterInPlace(GamepadAxisBuffer)} to avoid them.
+     * @param toFilter The GamepadAxisState to be filtered.
+     * @return A new GamepadAxisState representing the filtered values of the
+     * axes.
+     */
+    public GamepadAxisState filter(GamepadAxisState toFilter){
+        GamepadAxisBuffer axes = new GamepadAxisBuffer();
+        axes.set(toFilter);
+        filterInPlace(axes);
+        return axes.toGamepadAxisState();
+    }
+
+    /**
+     * Filters the given JoystickAxisState. The throttle axis is
+     * <em>not</em> filtered. This creates new objects; use
+     * {@link #filterInPlace(JoystickAxisBuffer)} to avoid them.
+     * @param toFilter The JoystickAxisState to be filtered.
+     * @return A new JoystickAxisState representing the filtered values of
+     * the axes.
+     */
+    public JoystickAxisState filter(JoystickAxisState toFilter){
+        JoystickAxisBuffer axes = new JoystickAxisBuffer();
+        axes.set(toFilter);
+        filterInPlace(axes);
+        return axes.toJoystickAxisState();
+    }
+
+    /**
+     * Filters the values of each axis of the gamepad in place.
+     * @param axes The GamepadAxisBuffer to be filtered.
+     */
+    public void filterInPlace(GamepadAxisBuffer axes){
+        double[] values = axes.getAxes();
+        boolean first = !started;
+        double elapsed = advance();
+        for(int i = 0; i < GamepadAxisBuffer.AXIS_COUNT; i++){
+            values[i] = first ? initialize(i, values[i]) : applyFilter(i, values[i], elapsed);
+        }
+    }
+
+    /**
+     * Filters the values of the x- and y- axes of the main joystick and the
+     * twist axis in place. The throttle axis is <em>not</em> filtered.
+     * @param axes The JoystickAxisBuffer to be filtered.
+     */
+    public void filterInPlace(JoystickAxisBuffer axes){
+        double[] values = axes.getAxes();
+        boolean first = !started;
+        double elapsed = advance();
+        for(int i = JoystickAxisBuffer.X; i <= JoystickAxisBuffer.TWIST; i++){
+            values[i] = first ? initialize(i, values[i]) : applyFilter(i, values[i], elapsed);
+        }
+    }
+
+    /**
+     * Internal method that reads the Clock and returns the time since the
+     * previous filtering pass.
+     * @return The elapsed time in seconds, or {@code 0} if it is unknown or
+     * the Clock went backwards.
+     */
+    private double advance(){
+        double now = clock.getTime();
+        double elapsed = started ? now - previousTime : 0.0;
+        previousTime = now;
+        started = true;
+        return elapsed > 0.0 ? elapsed : 0.0;
+    }
+
+    /**
+     * Forgets the state of every axis. The next filtering pass initializes
+     * the state again from its input values.
+     */
+    public void reset(){
+        started = false;
+    }
+
+    /**
+     * Returns the Clock from which this filter measures time.
+     * @return The Clock of this filter.
+     */
+    public Clock getClock(){
+        return clock;
+    }
+
+    /**
+     * This function is called with the value of each axis on the first
+     * filtering pass, and on the first pass after {@link #reset()}. It must
+     * set up the state of the axis slot from the value.
+     * @param axis The slot of the axis, less than {@link #AXIS_SLOTS}.
+     * @param value The value of the axis.
+     * @return The filtered value of the axis.
+     */
+    protected abstract double initialize(int axis, double value);
+
+    /**
+     * This function is called with the value of each axis on every later
+     * filtering pass. It must update the state of the axis slot.
+     * @param axis The slot of the axis, less than {@link #AXIS_SLOTS}.
+     * @param value The value of the axis.
+     * @param elapsed The time in seconds since the previous filtering pass.
+     * It may be {@code 0}.
+     * @return The filtered value of the axis.
+     */
+    protected abstract double applyFilter(int axis, double value, double elapsed);
+}
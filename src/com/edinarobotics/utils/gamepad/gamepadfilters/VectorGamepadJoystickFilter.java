@@ -0,0 +1,90 @@
+package com.edinarobotics.utils.gamepad.gamepadfilters;
+
+import com.edinarobotics.utils.gamepad.GamepadAxisBuffer;
+import com.edinarobotics.utils.gamepad.GamepadAxisState;
+import com.edinarobotics.utils.gamepad.JoystickAxisBuffer;
+import com.edinarobotics.utils.gamepad.JoystickAxisState;
+
+/**
+ * VectorGamepadJoystickFilter is the base of filters which act on the x-
+ * and y- axes of a stick together, as a vector, rather than on each axis
+ * on its own.
+ *
+ * The filters created by subclassing this class act on both sticks of
+ * gamepads and on the main stick of joysticks. The twist and throttle axes
+ * of joysticks are not filtered. Subclasses implement
+ * {@link #applyFilter(double[], int, int)}, which modifies a pair of values
+ * in an axis array, so filtering in place creates no objects.
+ */
+public abstract class VectorGamepadJoystickFilter implements InPlaceJoystickFilter, InPlaceGamepadFilter {
+
+    /**
+     * Filters the given GamepadAxisState. This creates new objects; use
+     * {@link #filterInPlace(GamepadAxisBuffer)} to avoid them.
+     * @param toFilter The GamepadAxisState to be filtered.
+     * @return A new GamepadAxisState representing the filtered values of the
+     * axes.
+     */
+    public GamepadAxisState filter(GamepadAxisState toFilter){
+        GamepadAxisBuffer axes = new GamepadAxisBuffer();
+        axes.set(toFilter);
+        filterInPlace(axes);
+        return axes.toGamepadAxisState();
+    }
+
+    /**
+     * Filters the given JoystickAxisState. The twist and throttle axes are
+     * <em>not</em> filtered. This creates new objects; use
+     * {@link #filterInPlace(JoystickAxisBuffer)} to avoid them.
+     * @param toFilter The JoystickAxisState to be filtered.
+     * @return A new JoystickAxisState representing the filtered values of
+     * the axes.
+     */
+    public JoystickAxisState filter(JoystickAxisState toFilter){
+        JoystickAxisBuffer axes = new JoystickAxisBuffer();
+        axes.set(toFilter);
+        filterInPlace(axes);
+        return axes.toJoystickAxisState();
+    }
+
+    /**
+     * Applies {@link #applyFilter(double[], int, int)} in place to the left
+     * and right sticks of the gamepad.
+     * @param axes The GamepadAxisBuffer to be filtered.
+     */
+    public void filterInPlace(GamepadAxisBuffer axes){
+        double[] values = axes.getAxes();
+        applyFilter(values, GamepadAxisBuffer.LEFT_X, GamepadAxisBuffer.LEFT_Y);
+        applyFilter(values, GamepadAxisBuffer.RIGHT_X, GamepadAxisBuffer.RIGHT_Y);
+    }
+
+    /**
+     * Applies {@link #applyFilter(double[], int, int)} in place to the main
+     * stick of the joystick. The twist and throttle axes are <em>not</em>
+     * filtered.
+     * @param axes The JoystickAxisBuffer to be filtered.
+     */
+    public void filterInPlace(JoystickAxisBuffer axes){
+        applyFilter(axes.getAxes(), JoystickAxisBuffer.X, JoystickAxisBuffer.Y);
+    }
+
+    /**
+     * This function is called with the axis array and the positions of the
+     * x- and y- values of each stick. It must replace both values with the
+     * filtered values.
+     * @param values The axis array holding the stick.
+     * @param x The index of the x-value of the stick in {@code values}.
+     * @param y The index of the y-value of the stick in {@code values}.
+     */
+    protected abstract void applyFilter(double[] values, int x, int y);
+
+    /**
+     * Internal method that checks the radius of a deadzone.
+     * @param radius The radius to be checked.
+     */
+    static void checkRadius(double radius){
+        if(!(radius >= 0 && radius < 1)){
+            throw new IllegalArgumentException("Radius must be at least 0 and less than 1 (received: "+radius+")");
+        }
+    }
+}
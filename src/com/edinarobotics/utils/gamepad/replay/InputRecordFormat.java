@@ -0,0 +1,85 @@
+package com.edinarobotics.utils.gamepad.replay;
+
+/**
+ * Describes the layout of the files written by {@link InputRecorder} and
+ * read by {@link InputReplay}.
+ *
+ * All multi-byte values are big-endian. A file starts with a header:
+ * <pre>
+ * 8 bytes  magic "1816INPT"
+ * 4 bytes  format version
+ * 4 bytes  number of axes recorded for each controller
+ * 4 bytes  number of controllers
+ * for each controller:
+ *   4 bytes  port number
+ * </pre>
+ * The header is followed by one fixed-size record for each control cycle:
+ * <pre>
+ * 4 bytes  sequence number, starting at 1
+ * 8 bytes  FPGA timestamp in seconds, IEEE 754 double
+ * for each controller, in header order:
+ *   4 bytes  raw button bitmask
+ *   4 bytes  POV angle, or -1
+ *   4 bytes  value of each axis, IEEE 754 float
+ * </pre>
+ * A record whose sequence number is not one more than that of the record
+ * before it marks the end of the file. Space mapped past the last record
+ * is zero, and the sequence number of each record is written after the
+ * rest of the record, so a record left half written when the robot
+ * program stops is not read as complete.
+ */
+final class InputRecordFormat {
+
+    private InputRecordFormat(){
+        //Hide constructor
+    }
+
+    /**
+     * The bytes at the start of every file.
+     */
+    static final byte[] MAGIC = {'1', '8', '1', '6', 'I', 'N', 'P', 'T'};
+
+    /**
+     * The version of the format described by this class.
+     */
+    static final int VERSION = 1;
+
+    /**
+     * The number of axes recorded for each controller. Axes with higher
+     * indices read as {@code 0}.
+     */
+    static final int AXIS_COUNT = 8;
+
+    /**
+     * The size in bytes of the part of the header before the port numbers.
+     */
+    static final int FIXED_HEADER_SIZE = MAGIC.length + 12;
+
+    /**
+     * The size in bytes of the part of a record before the controllers.
+     */
+    static final int RECORD_PREFIX_SIZE = 12;
+
+    /**
+     * The size in bytes of the part of a record holding one controller.
+     */
+    static final int CONTROLLER_SIZE = 8 + 4 * AXIS_COUNT;
+
+    /**
+     * Returns the size of the header of a file.
+     * @param controllers The number of controllers recorded.
+     * @return The size of the header in bytes.
+     */
+    static int getHeaderSize(int controllers){
+        return FIXED_HEADER_SIZE + 4 * controllers;
+    }
+
+    /**
+     * Returns the size of every record of a file.
+     * @param controllers The number of controllers recorded.
+     * @return The size of a record in bytes.
+     */
+    static int getRecordSize(int controllers){
+        return RECORD_PREFIX_SIZE + CONTROLLER_SIZE * controllers;
+    }
+}
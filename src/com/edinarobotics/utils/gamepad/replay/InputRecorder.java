@@ -0,0 +1,341 @@
+package com.edinarobotics.utils.gamepad.replay;
+
+import com.edinarobotics.utils.common.Updatable;
+import com.edinarobotics.utils.gamepad.DriverStationInputSource;
+import com.edinarobotics.utils.gamepad.InputSource;
+import edu.wpi.first.wpilibj.Timer;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * The InputRecorder records the raw inputs of a set of controllers once per
+ * control cycle so that they can be played back by an {@link InputReplay}.
+ *
+ * Each call to {@link #update()} samples the buttons, POV and axes of every
+ * recorded controller from an underlying InputSource and appends them to
+ * the file as one fixed-size record, in the format described by
+ * {@link InputRecordFormat}. Records are written into a memory-mapped
+ * window of the file, so recording a cycle never performs a system call
+ * except when a new window is mapped.
+ *
+ * The InputRecorder is itself an InputSource. Controllers given it with
+ * {@code setInputSource()} read exactly the values that were recorded for
+ * the current cycle, so a replay reproduces what the robot program saw.
+ * For this to hold, {@link #update()} must be called once per cycle before
+ * any recorded controller is read. Until the first update, recorded
+ * controllers read as if nothing were pressed. Controllers which are not
+ * recorded are read from the underlying InputSource.
+ */
+public class InputRecorder implements InputSource, Updatable {
+
+    /**
+     * The default number of records mapped into memory at a time.
+     */
+    public static final int DEFAULT_WINDOW_RECORDS = 4096;
+
+    private final File file;
+    private final RandomAccessFile output;
+    private final FileChannel channel;
+    private final InputSource source;
+    private final int[] ports;
+    private final int recordSize;
+    private final int windowRecords;
+
+    private final int[] buttons;
+    private final int[] povs;
+    private final float[] axes;
+
+    private MappedByteBuffer window;
+    private long end;
+    private int recordCount;
+    private boolean failed;
+    private boolean closed;
+
+    /**
+     * Constructs a new InputRecorder which records the given controllers
+     * from the driver station.
+     * @param file The file to be written. An existing file is replaced.
+     * @param ports The ports of the controllers to be recorded.
+     * @throws IOException If the file cannot be created.
+     */
+    public InputRecorder(File file, int[] ports) throws IOException {
+        this(file, ports, DriverStationInputSource.getInstance(), DEFAULT_WINDOW_RECORDS);
+    }
+
+    /**
+     * Constructs a new InputRecorder.
+     * @param file The file to be written. An existing file is replaced.
+     * @param ports The ports of the controllers to be recorded.
+     * @param source The InputSource from which the controllers are read.
+     * @param windowRecords The number of records mapped into memory at a
+     * time.
+     * @throws IOException If the file cannot be created.
+     */
+    public InputRecorder(File file, int[] ports, InputSource source, int windowRecords) throws IOException {
+        if(file == null){
+            throw new IllegalArgumentException("Provided File must not be null");
+        }
+        if(ports == null || ports.length == 0){
+            throw new IllegalArgumentException("At least one port must be recorded");
+        }
+        for(int i = 0; i < ports.length; i++){
+            if(ports[i] < 0){
+                throw new IllegalArgumentException("Port must not be negative (received: "+ports[i]+")");
+            }
+            for(int j = 0; j < i; j++){
+                if(ports[j] == ports[i]){
+                    throw new IllegalArgumentException("Duplicate port "+ports[i]);
+                }
+            }
+        }
+        if(source == null){
+            throw new IllegalArgumentException("Provided InputSource must not be null");
+        }
+        if(windowRecords < 1){
+            throw new IllegalArgumentException("Window records must be positive (received: "+windowRecords+")");
+        }
+        this.file = file;
+        this.source = source;
+        this.ports = ports.clone();
+        this.recordSize = InputRecordFormat.getRecordSize(ports.length);
+        this.windowRecords = windowRecords;
+        this.buttons = new int[ports.length];
+        this.povs = new int[ports.length];
+        this.axes = new float[ports.length * InputRecordFormat.AXIS_COUNT];
+        for(int i = 0; i < ports.length; i++){
+            povs[i] = -1;
+        }
+        this.output = new RandomAccessFile(file, "rw");
+        try{
+            output.setLength(0);
+            this.channel = output.getChannel();
+            writeHeader();
+        }
+        catch(IOException e){
+            output.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Internal method that maps the first window of the file and writes the
+     * header into it.
+     * @throws IOException If the file cannot be mapped.
+     */
+    private void writeHeader() throws IOException {
+        int headerSize = InputRecordFormat.getHeaderSize(ports.length);
+        window = channel.map(FileChannel.MapMode.READ_WRITE, 0, headerSize + (long)recordSize * windowRecords);
+        window.put(InputRecordFormat.MAGIC);
+        window.putInt(InputRecordFormat.VERSION);
+        window.putInt(InputRecordFormat.AXIS_COUNT);
+        window.putInt(ports.length);
+        for(int i = 0; i < ports.length; i++){
+            window.putInt(ports[i]);
+        }
+        end = headerSize;
+    }
+
+    /**
+     * Samples every recorded controller from the underlying InputSource and
+     * appends the samples to the file. This method should be called once
+     * per control cycle, before any recorded controller is read.
+     *
+     * If the file cannot be written, recording stops but the samples are
+     * still served to controllers.
+     */
+    public synchronized void update(){
+        for(int i = 0; i < ports.length; i++){
+            int port = ports[i];
+            int offset = i * InputRecordFormat.AXIS_COUNT;
+            buttons[i] = source.getButtons(port);
+            povs[i] = source.getPOV(port);
+            //Axes the controller does not have are not read, so that the
+            //driver station does not warn about missing axes every cycle
+            int axisCount = Math.min(source.getAxisCount(port), InputRecordFormat.AXIS_COUNT);
+            for(int axis = 0; axis < InputRecordFormat.AXIS_COUNT; axis++){
+                axes[offset + axis] = axis < axisCount ? (float)source.getRawAxis(port, axis) : 0.0f;
+            }
+        }
+        if(!closed && !failed){
+            try{
+                writeRecord(Timer.getFPGATimestamp());
+            }
+            catch(IOException e){
+                failed = true;
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Internal method that appends the current samples to the file as one
+     * record, mapping a new window of the file if the current one is full.
+     * @param timestamp The FPGA timestamp of the record.
+     * @throws IOException If a new window of the file cannot be mapped.
+     */
+    private void writeRecord(double timestamp) throws IOException {
+        if(window.remaining() < recordSize){
+            window = channel.map(FileChannel.MapMode.READ_WRITE, end, (long)recordSize * windowRecords);
+        }
+        //The sequence number is written last, so that a record is not
+        //valid until the rest of it has been written
+        int start = window.position();
+        window.position(start + 4);
+        window.putDouble(timestamp);
+        for(int i = 0; i < ports.length; i++){
+            int offset = i * InputRecordFormat.AXIS_COUNT;
+            window.putInt(buttons[i]);
+            window.putInt(povs[i]);
+            for(int axis = 0; axis < InputRecordFormat.AXIS_COUNT; axis++){
+                window.putFloat(axes[offset + axis]);
+            }
+        }
+        window.putInt(start, recordCount + 1);
+        end += recordSize;
+        recordCount++;
+    }
+
+    /**
+     * Internal method that finds the position of a port in the recorded
+     * controllers.
+     * @param port The port of the controller.
+     * @return The index of the controller, or {@code -1} if it is not
+     * recorded.
+     */
+    private int indexOf(int port){
+        for(int i = 0; i < ports.length; i++){
+            if(ports[i] == port){
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the raw buttons of a controller as sampled by the last
+     * update.
+     * @param port The port of the controller.
+     * @return A bitmask in which bit {@code n - 1} is set if raw button
+     * {@code n} is held.
+     */
+    public synchronized int getButtons(int port){
+        int index = indexOf(port);
+        return index < 0 ? source.getButtons(port) : buttons[index];
+    }
+
+    /**
+     * Returns the POV angle of a controller as sampled by the last update.
+     * @param port The port of the controller.
+     * @return The angle of the POV in degrees clockwise from up, or
+     * {@code -1} if it is not pressed.
+     */
+    public synchronized int getPOV(int port){
+        int index = indexOf(port);
+        return index < 0 ? source.getPOV(port) : povs[index];
+    }
+
+    /**
+     * Returns the value of a raw axis of a controller as sampled by the last
+     * update. Only the first eight axes of a recorded controller are
+     * recorded, so the others read as {@code 0}.
+     * @param port The port of the controller.
+     * @param axis The driver station index of the axis.
+     * @return The value of the axis, from {@code -1} to {@code 1}.
+     */
+    public synchronized double getRawAxis(int port, int axis){
+        int index = indexOf(port);
+        if(index < 0){
+            return source.getRawAxis(port, axis);
+        }
+        if(axis < 0 || axis >= InputRecordFormat.AXIS_COUNT){
+            return 0.0;
+        }
+        return axes[index * InputRecordFormat.AXIS_COUNT + axis];
+    }
+
+    /**
+     * Returns the number of recorded axes of a controller. Recorded
+     * controllers always report eight axes, as they do when replayed.
+     * @param port The port of the controller.
+     * @return The number of axes.
+     */
+    public synchronized int getAxisCount(int port){
+        int index = indexOf(port);
+        return index < 0 ? source.getAxisCount(port) : InputRecordFormat.AXIS_COUNT;
+    }
+
+    /**
+     * Forces the records written so far out to the storage device.
+     */
+    public synchronized void flush(){
+        if(!closed && !failed){
+            window.force();
+        }
+    }
+
+    /**
+     * Stops recording and trims the unused end of the last window from the
+     * file. Samples are still taken and served to controllers by later
+     * updates, but are no longer written.
+     */
+    public synchronized void close(){
+        if(closed){
+            return;
+        }
+        closed = true;
+        try{
+            if(!failed){
+                window.force();
+            }
+            window = null;
+            channel.truncate(end);
+        }
+        catch(IOException e){
+            e.printStackTrace();
+        }
+        finally{
+            try{
+                output.close();
+            }
+            catch(IOException e){
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Returns the number of records written to the file.
+     * @return The number of records written.
+     */
+    public synchronized int getRecordCount(){
+        return recordCount;
+    }
+
+    /**
+     * Indicates whether recording stopped because the file could not be
+     * written.
+     * @return {@code true} if recording failed, {@code false} otherwise.
+     */
+    public synchronized boolean isFailed(){
+        return failed;
+    }
+
+    /**
+     * Returns the file written by this InputRecorder.
+     * @return The file written by this InputRecorder.
+     */
+    public File getFile(){
+        return file;
+    }
+
+    /**
+     * Returns a String representation of this InputRecorder.
+     * @return A String representation of this InputRecorder.
+     */
+    public synchronized String toString(){
+        return "<InputRecorder: "+file.getName()+", "+recordCount+" records>";
+    }
+}
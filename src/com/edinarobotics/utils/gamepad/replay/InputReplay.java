@@ -0,0 +1,361 @@
+package com.edinarobotics.utils.gamepad.replay;
+
+import com.edinarobotics.utils.common.Clock;
+import com.edinarobotics.utils.common.ControlCycle;
+import com.edinarobotics.utils.common.Updatable;
+import com.edinarobotics.utils.gamepad.InputSource;
+import edu.wpi.first.wpilibj.Timer;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * The InputReplay plays back controller inputs recorded by an
+ * {@link InputRecorder}.
+ *
+ * An InputReplay is an InputSource. Gamepads and Joysticks given it with
+ * {@code setInputSource()} read the recorded buttons, POV and axes of their
+ * port instead of the driver station, so the same robot program can be
+ * driven by a recording without a human at the controls. Each call to
+ * {@link #update()} moves the replay forward according to its
+ * {@link ReplayMode}, and should be made once per control cycle before the
+ * controllers are read.
+ *
+ * In {@link ReplayMode#AS_FAST_AS_POSSIBLE} mode, each update that plays a
+ * new record also calls {@link ControlCycle#advance()}. Button snapshots
+ * and per-cycle axis snapshots are refreshed once per tick, so without a
+ * new tick for each record they would keep the values of an earlier
+ * record when updates come faster than the control loop period. The robot
+ * program should therefore not call {@link ControlCycle#advance()} itself
+ * while replaying in this mode.
+ *
+ * Before the first update, after the last record, and for ports which
+ * were not recorded, the InputReplay reads as a controller on which
+ * nothing is pressed and every axis is centered. The recording is mapped
+ * into memory when the InputReplay is constructed and records are read in
+ * place, so replaying a cycle does not copy or allocate.
+ *
+ * An InputReplay is also a Clock which reads the recorded time. Filters
+ * which depend on time, such as a
+ * {@link com.edinarobotics.utils.gamepad.gamepadfilters.OneEuroFilter},
+ * given it as their Clock behave exactly as they did during the recording
+ * even when it is replayed as fast as possible.
+ */
+public class InputReplay implements InputSource, Updatable, Clock {
+    private final File file;
+    private final MappedByteBuffer data;
+    private final ReplayMode mode;
+    private final int[] ports;
+    private final int headerSize;
+    private final int recordSize;
+    private final int recordCount;
+
+    private int current;
+    private double startTime;
+
+    /**
+     * Constructs a new InputReplay which plays back the given recording.
+     * @param file The file written by an InputRecorder.
+     * @param mode How fast the recording is played back.
+     * @throws IOException If the file cannot be read or is not a recording
+     * written by an InputRecorder.
+     */
+    public InputReplay(File file, ReplayMode mode) throws IOException {
+        if(file == null){
+            throw new IllegalArgumentException("Provided File must not be null");
+        }
+        if(mode == null){
+            throw new IllegalArgumentException("Provided ReplayMode must not be null");
+        }
+        this.file = file;
+        this.mode = mode;
+        RandomAccessFile input = new RandomAccessFile(file, "r");
+        try{
+            long size = input.length();
+            if(size < InputRecordFormat.FIXED_HEADER_SIZE){
+                throw new IOException("File is too short to be an input recording");
+            }
+            if(size > Integer.MAX_VALUE){
+                throw new IOException("Input recording is too large to be mapped ("+size+" bytes)");
+            }
+            this.data = input.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+        finally{
+            input.close();
+        }
+        for(int i = 0; i < InputRecordFormat.MAGIC.length; i++){
+            if(data.get(i) != InputRecordFormat.MAGIC[i]){
+                throw new IOException("File does not start with the input recording magic number");
+            }
+        }
+        int position = InputRecordFormat.MAGIC.length;
+        int version = data.getInt(position);
+        if(version != InputRecordFormat.VERSION){
+            throw new IOException("Unsupported input recording version "+version);
+        }
+        int axisCount = data.getInt(position + 4);
+        if(axisCount != InputRecordFormat.AXIS_COUNT){
+            throw new IOException("Unsupported number of axes "+axisCount);
+        }
+        int controllers = data.getInt(position + 8);
+        if(controllers < 1 || InputRecordFormat.getHeaderSize(controllers) > data.capacity()){
+            throw new IOException("Invalid number of controllers "+controllers);
+        }
+        this.headerSize = InputRecordFormat.getHeaderSize(controllers);
+        this.recordSize = InputRecordFormat.getRecordSize(controllers);
+        this.ports = new int[controllers];
+        for(int i = 0; i < controllers; i++){
+            ports[i] = data.getInt(InputRecordFormat.FIXED_HEADER_SIZE + 4 * i);
+        }
+        int count = (data.capacity() - headerSize) / recordSize;
+        for(int i = 0; i < count; i++){
+            if(data.getInt(headerSize + i * recordSize) != i + 1){
+                count = i;
+                break;
+            }
+        }
+        this.recordCount = count;
+        this.current = -1;
+    }
+
+    /**
+     * Moves the replay forward. In {@link ReplayMode#AS_FAST_AS_POSSIBLE}
+     * mode, every update plays the next record. In
+     * {@link ReplayMode#REAL_TIME} mode, the first update plays the first
+     * record and later updates play the last record whose recorded time
+     * has been reached, so records are skipped or repeated to keep pace
+     * with the clock. The last record is played for at least one update.
+     * <br/>
+     * In {@link ReplayMode#AS_FAST_AS_POSSIBLE} mode, a new control cycle is
+     * started with {@link ControlCycle#advance()} whenever a record is
+     * played, so that every record is sampled by the controllers.
+     */
+    public synchronized void update(){
+        if(current >= recordCount){
+            return;
+        }
+        if(mode == ReplayMode.AS_FAST_AS_POSSIBLE){
+            current++;
+            if(current < recordCount){
+                ControlCycle.advance();
+            }
+            return;
+        }
+        if(current < 0){
+            current++;
+            startTime = Timer.getFPGATimestamp();
+            return;
+        }
+        double elapsed = Timer.getFPGATimestamp() - startTime;
+        double first = getTimestamp(0);
+        int target = current;
+        while(target + 1 < recordCount && getTimestamp(target + 1) - first <= elapsed){
+            target++;
+        }
+        if(target == current && current == recordCount - 1){
+            target = recordCount;
+        }
+        current = target;
+    }
+
+    /**
+     * Moves the replay back to before the first record, so that the next
+     * update plays the first record again.
+     */
+    public synchronized void rewind(){
+        current = -1;
+    }
+
+    /**
+     * Internal method that returns the recorded timestamp of a record.
+     * @param record The index of the record.
+     * @return The FPGA timestamp of the record in seconds.
+     */
+    private double getTimestamp(int record){
+        return data.getDouble(headerSize + record * recordSize + 4);
+    }
+
+    /**
+     * Internal method that finds where the current record of a controller
+     * starts.
+     * @param port The port of the controller.
+     * @return The position of the controller in the current record, or
+     * {@code -1} if no record is being played or the port was not
+     * recorded.
+     */
+    private int locate(int port){
+        if(current < 0 || current >= recordCount){
+            return -1;
+        }
+        for(int i = 0; i < ports.length; i++){
+            if(ports[i] == port){
+                return headerSize + current * recordSize + InputRecordFormat.RECORD_PREFIX_SIZE +
+                        i * InputRecordFormat.CONTROLLER_SIZE;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the recorded raw buttons of a controller.
+     * @param port The port of the controller.
+     * @return A bitmask in which bit {@code n - 1} is set if raw button
+     * {@code n} is held.
+     */
+    public synchronized int getButtons(int port){
+        int position = locate(port);
+        return position < 0 ? 0 : data.getInt(position);
+    }
+
+    /**
+     * Returns the recorded POV angle of a controller.
+     * @param port The port of the controller.
+     * @return The angle of the POV in degrees clockwise from up, or
+     * {@code -1} if it is not pressed.
+     */
+    public synchronized int getPOV(int port){
+        int position = locate(port);
+        return position < 0 ? -1 : data.getInt(position + 4);
+    }
+
+    /**
+     * Returns the recorded value of a raw axis of a controller.
+     * @param port The port of the controller.
+     * @param axis The driver station index of the axis.
+     * @return The value of the axis, from {@code -1} to {@code 1}.
+     */
+    public synchronized double getRawAxis(int port, int axis){
+        int position = locate(port);
+        if(position < 0 || axis < 0 || axis >= InputRecordFormat.AXIS_COUNT){
+            return 0.0;
+        }
+        return data.getFloat(position + 8 + 4 * axis);
+    }
+
+    /**
+     * Returns the number of recorded axes of a controller.
+     * @param port The port of the controller.
+     * @return The number of axes, or {@code 0} if the port was not
+     * recorded.
+     */
+    public synchronized int getAxisCount(int port){
+        return locate(port) < 0 ? 0 : InputRecordFormat.AXIS_COUNT;
+    }
+
+    /**
+     * Returns the recorded FPGA timestamp of the record being played.
+     * @return The timestamp in seconds, or {@code NaN} if no record is
+     * being played.
+     */
+    public synchronized double getRecordTimestamp(){
+        if(current < 0 || current >= recordCount){
+            return Double.NaN;
+        }
+        return getTimestamp(current);
+    }
+
+    /**
+     * Returns the recorded time of the record being played. This is the
+     * same as {@link #getRecordTimestamp()}.
+     * @return The timestamp in seconds, or {@code NaN} if no record is
+     * being played.
+     */
+    public double getTime(){
+        return getRecordTimestamp();
+    }
+
+    /**
+     * Returns the index of the record being played.
+     * @return The index of the record, {@code -1} before the first update,
+     * or the number of records once the replay is finished.
+     */
+    public synchronized int getPosition(){
+        return current;
+    }
+
+    /**
+     * Indicates whether every record has been played.
+     * @return {@code true} if the replay is finished, {@code false}
+     * otherwise.
+     */
+    public synchronized boolean isFinished(){
+        return current >= recordCount;
+    }
+
+    /**
+     * Returns the number of complete records in the recording.
+     * @return The number of records.
+     */
+    public int getRecordCount(){
+        return recordCount;
+    }
+
+    /**
+     * Returns the ports of the controllers in the recording.
+     * @return A new array of the recorded ports.
+     */
+    public int[] getPorts(){
+        return ports.clone();
+    }
+
+    /**
+     * Returns the ReplayMode of this InputReplay.
+     * @return The ReplayMode of this InputReplay.
+     */
+    public ReplayMode getMode(){
+        return mode;
+    }
+
+    /**
+     * Returns the file played by this InputReplay.
+     * @return The file played by this InputReplay.
+     */
+    public File getFile(){
+        return file;
+    }
+
+    /**
+     * Returns a String representation of this InputReplay.
+     * @return A String representation of this InputReplay.
+     */
+    public synchronized String toString(){
+        return "<InputReplay: "+file.getName()+", record "+current+" of "+recordCount+", "+mode+">";
+    }
+
+    /**
+     * Selects how fast an InputReplay plays its recording.
+     */
+    public enum ReplayMode {
+
+        /**
+         * Plays each record at the time it was recorded, measured from the
+         * first update.
+         */
+        REAL_TIME("real time"),
+
+        /**
+         * Plays one record per update, regardless of the time between
+         * updates, and starts a new control cycle for each record. This is
+         * meant for batch testing.
+         */
+        AS_FAST_AS_POSSIBLE("as fast as possible");
+
+        private final String name;
+
+        ReplayMode(String name){
+            this.name = name;
+        }
+
+        /**
+         * Returns a human-readable String representation of this
+         * ReplayMode.
+         * @return A human-readable String representation of this
+         * ReplayMode.
+         */
+        public String toString(){
+            return name;
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.edinarobotics.utils.log;
+
+/**
+ * A DeferredMessage produces the message of a log event only when the event
+ * will actually be handled.
+ *
+ * Loggers call {@link #appendTo(StringBuilder)} after they have determined
+ * that some Handler can receive the event. Events at levels that are
+ * filtered out never build their message. To avoid allocating on every log
+ * call, implementations should be created once and reused.
+ */
+public interface DeferredMessage {
+
+    /**
+     * Appends the text of this message to the given StringBuilder.
+     *
+     * The StringBuilder is reused by the logging system, implementations
+     * must not keep a reference to it.
+     * @param message The StringBuilder to which the message is to be
+     * appended.
+     */
+    public void appendTo(StringBuilder message);
+}
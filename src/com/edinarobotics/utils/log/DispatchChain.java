@@ -0,0 +1,250 @@
+package com.edinarobotics.utils.log;
+
+/**
+ * A DispatchChain is the precompiled list of filters and handlers that an
+ * event at one severity level passes through, from the Logger to which it
+ * was submitted up to the root Logger.
+ *
+ * Loggers without a handler and without a filter that must be run for each
+ * event are left out of the chain. Filters whose result is fixed for the
+ * level are evaluated when the chain is compiled. A Level for which no
+ * handler could ever receive an event has no chain at all.
+ */
+final class DispatchChain {
+    private final Filter[] filters;
+    private final Handler[] handlers;
+    private final Logger[] owners;
+
+    /**
+     * Constructs a new DispatchChain from parallel arrays of filters and
+     * handlers. Either entry at an index may be {@code null}.
+     * @param filters The filters to run, in order, before each handler.
+     * @param handlers The handlers to which events are passed.
+     * @param owners The Loggers that use each handler, which hold the
+     * histograms of their handlers.
+     */
+    private DispatchChain(Filter[] filters, Handler[] handlers, Logger[] owners){
+        this.filters = filters;
+        this.handlers = handlers;
+        this.owners = owners;
+    }
+
+    /**
+     * Compiles the DispatchChain for events at the given level submitted to
+     * the given Logger.
+     * @param logger The Logger to which events are submitted.
+     * @param level The severity level of the events.
+     * @return The compiled DispatchChain, or {@code null} if no handler
+     * would receive an event at this level.
+     */
+    static DispatchChain compile(Logger logger, Level level){
+        int depth = 0;
+        for(Logger current = logger; current != null; current = current.getParent()){
+            depth++;
+        }
+        Filter[] filters = new Filter[depth];
+        Handler[] handlers = new Handler[depth];
+        Logger[] owners = new Logger[depth];
+        int length = 0;
+        int usedLength = 0;
+        for(Logger current = logger; current != null; current = current.getParent()){
+            Filter filter = current.getFilter();
+            if(filter instanceof LevelFilter){
+                LevelFilter levelFilter = (LevelFilter)filter;
+                if(!levelFilter.filter(level)){
+                    //No event at this level propagates past this Logger
+                    break;
+                }
+                if(levelFilter.isLevelOnly()){
+                    filter = null;
+                }
+            }
+            Handler handler = current.getHandler();
+            if(filter == null && handler == null){
+                continue;
+            }
+            filters[length] = filter;
+            handlers[length] = handler;
+            owners[length] = current;
+            length++;
+            if(handler != null){
+                usedLength = length;
+            }
+        }
+        if(usedLength == 0){
+            return null;
+        }
+        //Filters after the last handler cannot affect any handler
+        Filter[] usedFilters = new Filter[usedLength];
+        Handler[] usedHandlers = new Handler[usedLength];
+        Logger[] usedOwners = new Logger[usedLength];
+        System.arraycopy(filters, 0, usedFilters, 0, usedLength);
+        System.arraycopy(handlers, 0, usedHandlers, 0, usedLength);
+        System.arraycopy(owners, 0, usedOwners, 0, usedLength);
+        return new DispatchChain(usedFilters, usedHandlers, usedOwners);
+    }
+
+    /**
+     * Runs a new log event through this chain.
+     *
+     * The LogEvent object is only created once the event reaches a handler.
+     * If event pooling is enabled, it is taken from the calling thread's
+     * pool and returned once every handler has finished.
+     * <br/>
+     * If metrics collection is enabled, the event is counted at
+     * {@code origin} and the time spent in each handler is recorded.
+     * @param origin The Logger to which the event was submitted.
+     * @param level The severity level of the event.
+     * @param message The message associated with the event.
+     * @param thrown The optional Throwable associated with the event.
+     */
+    void dispatch(Logger origin, Level level, String message, Throwable thrown){
+        dispatch(origin, level, message, thrown, null);
+    }
+
+    /**
+     * Runs a new log event with named fields through this chain.
+     * @param origin The Logger to which the event was submitted.
+     * @param level The severity level of the event.
+     * @param message The message associated with the event.
+     * @param thrown The optional Throwable associated with the event.
+     * @param fields The EventBuilder holding the fields of the event, or
+     * {@code null} if the event has no fields.
+     * @see #dispatch(Logger, Level, String, Throwable)
+     */
+    void dispatch(Logger origin, Level level, String message, Throwable thrown, EventBuilder fields){
+        LogEvent event = null;
+        LogEventPool pool = null;
+        boolean metrics = LogSystem.isMetricsEnabled();
+        double weight = 1;
+        try{
+            for(int i = 0; i < filters.length; i++){
+                Filter filter = filters[i];
+                if(filter != null){
+                    double filterWeight = weigh(filter, origin, level, message, thrown);
+                    if(filterWeight <= 0){
+                        if(metrics){
+                            origin.getCounters().filtered(level);
+                        }
+                        return;
+                    }
+                    if(filterWeight != 1){
+                        weight *= filterWeight;
+                        if(event != null){
+                            event.setSampleWeight(weight);
+                        }
+                    }
+                }
+                Handler handler = handlers[i];
+                if(handler != null){
+                    if(event == null){
+                        if(LogSystem.isEventPooling()){
+                            pool = LogEventPool.get();
+                            event = pool.acquire(level, message, thrown, origin);
+                        }
+                        else{
+                            event = new LogEvent(level, message, thrown, origin);
+                        }
+                        if(fields != null){
+                            fields.copyFieldsInto(event);
+                        }
+                        event.setSampleWeight(weight);
+                    }
+                    if(metrics){
+                        time(handler, i, event);
+                    }
+                    else{
+                        handler.handle(event);
+                    }
+                }
+            }
+            if(metrics){
+                origin.getCounters().accepted(level);
+            }
+        }
+        finally{
+            if(pool != null){
+                pool.release(event);
+            }
+        }
+    }
+
+    /**
+     * Runs an existing LogEvent through this chain.
+     * @param event The LogEvent to be dispatched.
+     */
+    void dispatch(LogEvent event){
+        boolean metrics = LogSystem.isMetricsEnabled();
+        Logger origin = event.getOriginalLogger();
+        for(int i = 0; i < filters.length; i++){
+            Filter filter = filters[i];
+            if(filter != null){
+                double filterWeight = weigh(filter, origin, event.getLevel(), event.getMessage(), event.getThrowable());
+                if(filterWeight <= 0){
+                    if(metrics){
+                        origin.getCounters().filtered(event.getLevel());
+                    }
+                    return;
+                }
+                if(filterWeight != 1){
+                    event.setSampleWeight(event.getSampleWeight() * filterWeight);
+                }
+            }
+            Handler handler = handlers[i];
+            if(handler != null){
+                if(metrics){
+                    time(handler, i, event);
+                }
+                else{
+                    handler.handle(event);
+                }
+            }
+        }
+        if(metrics){
+            origin.getCounters().accepted(event.getLevel());
+        }
+    }
+
+    /**
+     * Internal method that passes an event to a handler and records the
+     * duration of the call in the histogram held by the Logger that uses
+     * the handler.
+     * @param handler The handler to call.
+     * @param index The index of the handler in this chain.
+     * @param event The LogEvent to be handled.
+     */
+    private void time(Handler handler, int index, LogEvent event){
+        long start = System.nanoTime();
+        handler.handle(event);
+        long nanos = System.nanoTime() - start;
+        //The histogram is null if the handler was removed since this chain
+        //was compiled
+        LatencyHistogram histogram = owners[index].getHandlerHistogram();
+        if(histogram != null){
+            histogram.record(nanos);
+        }
+    }
+
+    /**
+     * Internal method that runs one filter, passing the original Logger to
+     * filters that are {@link LoggerFilter}s and asking
+     * {@link WeightedFilter}s for the weight of the event.
+     * @param filter The filter to run.
+     * @param origin The Logger to which the event was submitted.
+     * @param level The severity level of the event.
+     * @param message The message associated with the event.
+     * @param thrown The optional Throwable associated with the event.
+     * @return {@code 0} if the filter rejects the event, otherwise the
+     * sampling weight of the event, which is {@code 1} for filters that are
+     * not {@link WeightedFilter}s.
+     */
+    private static double weigh(Filter filter, Logger origin, Level level, String message, Throwable thrown){
+        if(filter instanceof WeightedFilter){
+            return ((WeightedFilter)filter).sample(origin, level, message, thrown);
+        }
+        if(filter instanceof LoggerFilter){
+            return ((LoggerFilter)filter).filter(origin, level, message, thrown) ? 1 : 0;
+        }
+        return filter.filter(level, message, thrown) ? 1 : 0;
+    }
+}
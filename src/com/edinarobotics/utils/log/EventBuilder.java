@@ -0,0 +1,205 @@
+package com.edinarobotics.utils.log;
+
+/**
+ * An EventBuilder assembles a log event with named numeric fields.
+ *
+ * EventBuilders are returned by {@link Logger#at(Level)} and used
+ * fluently:
+ * <pre>
+ * logger.at(Level.DEBUG).with("rpm", 1234.5).with("setpoint", 1300).emit();
+ * </pre>
+ * Field values are stored in primitive arrays that each thread reuses, so
+ * adding a field never boxes its value or allocates. If no Handler could
+ * receive an event at the requested level, {@link Logger#at(Level)}
+ * returns a shared EventBuilder that ignores every call, so disabled
+ * structured events cost only the level check.
+ *
+ * Every EventBuilder returned by {@link Logger#at(Level)} should be
+ * finished with {@link #emit()} or {@link #emit(String)} on the same
+ * thread. A builder that is never emitted, for example because computing
+ * a field value threw an exception, is replaced by a new builder at the
+ * next call to {@link Logger#at(Level)} on the thread, so it costs one
+ * allocation rather than disabling reuse. An EventBuilder must not be kept
+ * after it is emitted.
+ */
+public final class EventBuilder {
+    private static final int INITIAL_FIELDS = 8;
+
+    /**
+     * The EventBuilder returned for levels that no Handler could receive.
+     */
+    static final EventBuilder DISABLED = new EventBuilder();
+
+    private static final ThreadLocal<EventBuilder> builders = new ThreadLocal<EventBuilder>(){
+        protected EventBuilder initialValue(){
+            return new EventBuilder();
+        }
+    };
+
+    private Logger logger;
+    private Level level;
+    private DispatchChain chain;
+    private String[] names;
+    private long[] values;
+    private boolean[] doubles;
+    private int count;
+
+    private EventBuilder(){
+        this.names = new String[INITIAL_FIELDS];
+        this.values = new long[INITIAL_FIELDS];
+        this.doubles = new boolean[INITIAL_FIELDS];
+        this.count = 0;
+    }
+
+    /**
+     * Returns an empty EventBuilder for an event that will be dispatched
+     * through the given chain.
+     *
+     * The calling thread's EventBuilder is returned unless it has not been
+     * emitted. That builder may still be in use, because a field value was
+     * computed by code that logs a structured event itself, or it may have
+     * been abandoned. The two cannot be told apart, so a new EventBuilder is
+     * returned in that case and replaces the thread's builder. The old
+     * builder stays usable by its owner but is no longer reused.
+     * @param logger The Logger to which the event is submitted.
+     * @param level The severity level of the event.
+     * @param chain The DispatchChain for the event.
+     * @return An empty EventBuilder.
+     */
+    static EventBuilder begin(Logger logger, Level level, DispatchChain chain){
+        EventBuilder builder = builders.get();
+        if(builder.logger != null){
+            builder = new EventBuilder();
+            builders.set(builder);
+        }
+        builder.logger = logger;
+        builder.level = level;
+        builder.chain = chain;
+        builder.count = 0;
+        return builder;
+    }
+
+    /**
+     * Indicates whether the event being built could reach a Handler.
+     * @return {@code false} if this EventBuilder ignores every call,
+     * {@code true} otherwise.
+     */
+    public boolean isEnabled(){
+        return this != DISABLED;
+    }
+
+    /**
+     * Adds a {@code double} field to the event.
+     * @param name The name of the field.
+     * @param value The value of the field.
+     * @return This EventBuilder.
+     */
+    public EventBuilder with(String name, double value){
+        if(this == DISABLED){
+            return this;
+        }
+        add(name, Double.doubleToRawLongBits(value), true);
+        return this;
+    }
+
+    /**
+     * Adds a {@code long} field to the event. Integer values of every other
+     * type are widened to {@code long}.
+     * @param name The name of the field.
+     * @param value The value of the field.
+     * @return This EventBuilder.
+     */
+    public EventBuilder with(String name, long value){
+        if(this == DISABLED){
+            return this;
+        }
+        add(name, value, false);
+        return this;
+    }
+
+    /**
+     * Submits the event with an empty message.
+     */
+    public void emit(){
+        emit("");
+    }
+
+    /**
+     * Submits the event with the given message.
+     *
+     * This event will be logged as dispatched from the Logger that returned
+     * this EventBuilder and will propagate up the Logger hierarchy through
+     * each logger that approves the event.
+     * @param message The message associated with the submitted event.
+     */
+    public void emit(String message){
+        if(this == DISABLED){
+            return;
+        }
+        if(logger == null){
+            throw new IllegalStateException("EventBuilder has already been emitted");
+        }
+        if(message == null){
+            throw new IllegalArgumentException("Provided String message must not be null");
+        }
+        try{
+            chain.dispatch(logger, level, message, null, this);
+        }
+        finally{
+            //Release this builder for the next event on this thread
+            logger = null;
+            chain = null;
+        }
+    }
+
+    /**
+     * Copies the fields added to this EventBuilder into a LogEvent.
+     * @param event The LogEvent to receive the fields.
+     */
+    void copyFieldsInto(LogEvent event){
+        event.setFields(names, values, doubles, count);
+    }
+
+    /**
+     * Internal method that appends a field, growing the field arrays if
+     * necessary.
+     * @param name The name of the field.
+     * @param value The value of the field, or its raw long bits if it is a
+     * {@code double}.
+     * @param isDouble Whether the field holds a {@code double}.
+     */
+    private void add(String name, long value, boolean isDouble){
+        if(logger == null){
+            throw new IllegalStateException("EventBuilder has already been emitted");
+        }
+        if(name == null){
+            throw new IllegalArgumentException("Provided field name must not be null");
+        }
+        if(count == names.length){
+            String[] newNames = new String[count * 2];
+            long[] newValues = new long[count * 2];
+            boolean[] newDoubles = new boolean[count * 2];
+            System.arraycopy(names, 0, newNames, 0, count);
+            System.arraycopy(values, 0, newValues, 0, count);
+            System.arraycopy(doubles, 0, newDoubles, 0, count);
+            names = newNames;
+            values = newValues;
+            doubles = newDoubles;
+        }
+        names[count] = name;
+        values[count] = value;
+        doubles[count] = isDouble;
+        count++;
+    }
+
+    /**
+     * Returns a String representation of this EventBuilder.
+     * @return A String representation of this EventBuilder.
+     */
+    public String toString(){
+        if(this == DISABLED){
+            return "<EventBuilder: disabled>";
+        }
+        return "<EventBuilder: "+level+", "+count+" fields>";
+    }
+}
@@ -0,0 +1,78 @@
+package com.edinarobotics.utils.log;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongBinaryOperator;
+
+/**
+ * A LatencyHistogram records how long calls to one Handler take.
+ *
+ * Durations are counted in fixed buckets whose bounds are powers of two
+ * nanoseconds, so recording a duration costs one bit count and a few
+ * striped {@link LongAdder} increments.
+ *
+ * Each histogram is owned by the Logger that uses the Handler and is only
+ * created once a call is timed, so histograms are never created while
+ * metrics collection is disabled and are released along with the Logger
+ * or when its Handler is replaced.
+ */
+final class LatencyHistogram {
+
+    /**
+     * The number of buckets. Bucket {@code i} counts durations below
+     * {@code 2^i} nanoseconds that do not fit in a lower bucket; the last
+     * bucket also counts every longer duration.
+     */
+    static final int BUCKETS = 32;
+
+    private static final LongBinaryOperator MAXIMUM = new LongBinaryOperator(){
+        public long applyAsLong(long left, long right){
+            return Math.max(left, right);
+        }
+    };
+
+    private final Handler handler;
+    private final LongAdder[] buckets;
+    private final LongAdder totalNanos;
+    private final LongAccumulator maximumNanos;
+
+    /**
+     * Constructs a new, empty LatencyHistogram for the given Handler.
+     * @param handler The Handler whose calls are measured.
+     */
+    LatencyHistogram(Handler handler){
+        this.handler = handler;
+        this.buckets = new LongAdder[BUCKETS];
+        for(int i = 0; i < BUCKETS; i++){
+            buckets[i] = new LongAdder();
+        }
+        this.totalNanos = new LongAdder();
+        this.maximumNanos = new LongAccumulator(MAXIMUM, 0);
+    }
+
+    /**
+     * Records the duration of one call to the Handler.
+     * @param nanos The duration of the call in nanoseconds.
+     */
+    void record(long nanos){
+        if(nanos < 0){
+            nanos = 0;
+        }
+        int bucket = 64 - Long.numberOfLeadingZeros(nanos);
+        buckets[bucket < BUCKETS ? bucket : BUCKETS - 1].increment();
+        totalNanos.add(nanos);
+        maximumNanos.accumulate(nanos);
+    }
+
+    /**
+     * Reads the current state of this histogram.
+     * @return A snapshot of this histogram.
+     */
+    LogMetrics.HandlerSnapshot snapshot(){
+        long[] counts = new long[BUCKETS];
+        for(int i = 0; i < BUCKETS; i++){
+            counts[i] = buckets[i].sum();
+        }
+        return new LogMetrics.HandlerSnapshot(handler.toString(), counts, totalNanos.sum(), maximumNanos.get());
+    }
+}
@@ -42,6 +42,17 @@ public final class Level {
      * A debugging message with greater detail than {@link #DEBUG}.
      */
     public static final Level TRACE = new Level((byte)0, "trace");
+    
+    /**
+     * All logging levels, indexed by {@link #getIndex()}.
+     */
+    private static final Level[] LEVELS = {TRACE, DEBUG, INFO, WARNING, SEVERE, FATAL};
+    
+    /**
+     * The number of logging levels. Indices returned by {@link #getIndex()}
+     * are less than this value.
+     */
+    public static final int COUNT = LEVELS.length;
 
     private byte value;
     private String name;
@@ -68,6 +79,29 @@ public final class Level {
         return value;
     }
     
+    /**
+     * Returns a small, dense index for this Level, suitable for indexing
+     * per-level arrays or storing the Level in a single byte. Less severe
+     * levels have lower indices; {@link #TRACE} has index {@code 0}.
+     * @return The index of this Level, from {@code 0} to {@code 5}.
+     */
+    public int getIndex(){
+        return value;
+    }
+    
+    /**
+     * Returns the Level with the given index.
+     * @param index The index of the Level to return.
+     * @return The Level whose {@link #getIndex()} is {@code index}.
+     * @throws IllegalArgumentException If no Level has the given index.
+     */
+    public static Level forIndex(int index){
+        if(index < 0 || index >= LEVELS.length){
+            throw new IllegalArgumentException("No log Level has index "+index);
+        }
+        return LEVELS[index];
+    }
+    
     /**
      * Returns a hash code value for this Level as required by
      * {@link Object#hashCode()}.
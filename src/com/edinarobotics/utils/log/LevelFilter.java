@@ -0,0 +1,35 @@
+package com.edinarobotics.utils.log;
+
+/**
+ * LevelFilter implementations are Filters whose decision can be made,
+ * at least in part, from the severity level of an event alone.
+ *
+ * Loggers evaluate these filters once for each Level when their
+ * configuration changes, instead of once for every event. Levels rejected
+ * by a LevelFilter then cost nothing to log.
+ */
+public interface LevelFilter extends Filter {
+
+    /**
+     * Determines whether log events at the given severity level could pass
+     * this filter.
+     *
+     * If this method returns {@code false}, every event at {@code level}
+     * must be rejected by {@link #filter(Level, String, Throwable)}.
+     * @param level The severity level to test.
+     * @return {@code true} if events at {@code level} may pass this filter,
+     * {@code false} if they are always rejected.
+     */
+    public boolean filter(Level level);
+
+    /**
+     * Indicates whether {@link #filter(Level)} fully describes this filter.
+     *
+     * If this method returns {@code true}, events at a level accepted by
+     * {@link #filter(Level)} always pass this filter, and Loggers will not
+     * call {@link #filter(Level, String, Throwable)} for them.
+     * @return {@code true} if this filter's decision depends only on the
+     * severity level, {@code false} otherwise.
+     */
+    public boolean isLevelOnly();
+}
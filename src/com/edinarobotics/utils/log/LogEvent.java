@@ -6,12 +6,46 @@ package com.edinarobotics.utils.log;
  * This class tracks all aspects of a loggable event such as its severity
  * level, the message, the original logger to which it was submitted,
  * and an optional Throwable associated with the event.
+ * 
+ * An event may also carry named numeric fields, added with
+ * {@link Logger#at(Level)}. Field values are stored as primitive
+ * {@code double} and {@code long} values, so that telemetry can be logged
+ * without formatting it into the message and without boxing.
+ * 
+ * When event pooling is enabled with
+ * {@link LogSystem#setEventPooling(boolean)}, a LogEvent passed to a
+ * Handler is reused for another event once every Handler has returned.
+ * The same is true of events passed on by some Handlers, such as
+ * {@link com.edinarobotics.utils.log.handlers.AsyncHandler}. Handlers that
+ * keep a LogEvent after returning must keep a {@link #copy()} of it, or
+ * copy it into a LogEvent they own with {@link #copyInto(LogEvent)}.
  */
 public final class LogEvent {
     private Level level;
     private String message;
     private Throwable thrown;
     private Logger originalLogger;
+    private long timestamp;
+    private String[] fieldNames;
+    private long[] fieldValues;
+    private boolean[] fieldDoubles;
+    private int fieldCount;
+    private double sampleWeight;
+    
+    private static final String[] NO_NAMES = new String[0];
+    private static final long[] NO_VALUES = new long[0];
+    private static final boolean[] NO_DOUBLES = new boolean[0];
+    
+    /**
+     * Constructs an empty LogEvent to be filled in by
+     * {@link #copyInto(LogEvent)}.
+     * 
+     * An empty LogEvent is a {@link Level#TRACE} event with an empty message
+     * that was submitted to the root Logger.
+     */
+    public LogEvent(){
+        this(Level.TRACE, "", null, LogSystem.getRootLogger());
+    }
     
     /**
      * Constructs a new LogEvent with the given severity, and message that
@@ -43,10 +77,96 @@ public final class LogEvent {
         if(originalLogger == null){
             throw new IllegalArgumentException("Provided original logger must not be null");
         }
+        set(level, message, thrown, originalLogger);
+    }
+    
+    /**
+     * Internal method that fills in this LogEvent for a new event, used
+     * when reusing pooled events.
+     * @param level The severity level of this LogEvent.
+     * @param message The message associated with this LogEvent.
+     * @param thrown The optional Throwable associated with this LogEvent.
+     * @param originalLogger The Logger to which this event was originally
+     * submitted.
+     */
+    void set(Level level, String message, Throwable thrown, Logger originalLogger){
         this.level = level;
         this.message = message;
         this.thrown = thrown;
         this.originalLogger = originalLogger;
+        this.timestamp = System.nanoTime();
+        if(fieldNames == null){
+            fieldNames = NO_NAMES;
+            fieldValues = NO_VALUES;
+            fieldDoubles = NO_DOUBLES;
+        }
+        this.fieldCount = 0;
+        this.sampleWeight = 1;
+    }
+    
+    /**
+     * Internal method that sets the sampling weight of this LogEvent.
+     * @param sampleWeight The number of events this LogEvent stands for.
+     */
+    void setSampleWeight(double sampleWeight){
+        this.sampleWeight = sampleWeight;
+    }
+    
+    /**
+     * Internal method that replaces the fields of this LogEvent, reusing its
+     * field arrays if they are large enough.
+     * @param names The names of the fields.
+     * @param values The values of the fields. Values of {@code double}
+     * fields are stored as their raw long bits.
+     * @param doubles Whether each field holds a {@code double}.
+     * @param count The number of fields.
+     */
+    void setFields(String[] names, long[] values, boolean[] doubles, int count){
+        if(fieldNames.length < count){
+            fieldNames = new String[count];
+            fieldValues = new long[count];
+            fieldDoubles = new boolean[count];
+        }
+        System.arraycopy(names, 0, fieldNames, 0, count);
+        System.arraycopy(values, 0, fieldValues, 0, count);
+        System.arraycopy(doubles, 0, fieldDoubles, 0, count);
+        fieldCount = count;
+    }
+    
+    /**
+     * Returns a new LogEvent that is equal to this LogEvent and has the
+     * same timestamp.
+     * 
+     * The copy is never reused by the logging system, so Handlers can
+     * keep it for as long as they need.
+     * @return A copy of this LogEvent.
+     */
+    public LogEvent copy(){
+        LogEvent copy = new LogEvent(level, message, thrown, originalLogger);
+        copy.timestamp = timestamp;
+        copy.sampleWeight = sampleWeight;
+        copy.setFields(fieldNames, fieldValues, fieldDoubles, fieldCount);
+        return copy;
+    }
+    
+    /**
+     * Overwrites another LogEvent with the contents of this LogEvent,
+     * including its timestamp.
+     * 
+     * This allows Handlers that keep events to store them in LogEvents
+     * they allocated in advance. The fields are copied into the target's
+     * own field arrays, which only grow when this event has more fields
+     * than the target has held before.
+     * @param target The LogEvent to be overwritten.
+     */
+    public void copyInto(LogEvent target){
+        target.level = level;
+        target.message = message;
+        target.thrown = thrown;
+        target.originalLogger = originalLogger;
+        target.timestamp = timestamp;
+        target.sampleWeight = sampleWeight;
+        target.setFields(fieldNames, fieldValues, fieldDoubles, fieldCount);
     }
     
     /**
@@ -99,6 +219,119 @@ public final class LogEvent {
         return originalLogger;
     }
     
+    /**
+     * Returns the time at which this LogEvent was created.
+     * 
+     * The timestamp is taken from {@link System#nanoTime()}. It is monotonic
+     * and suitable for measuring the time between events, but it is not
+     * related to the wall-clock time. The timestamp is not considered by
+     * {@link #equals(Object)}, and neither are the fields.
+     * @return The creation time of this LogEvent in nanoseconds.
+     */
+    public long getTimestamp(){
+        return timestamp;
+    }
+    
+    /**
+     * Returns the number of events this LogEvent stands for.
+     * 
+     * Events that passed a {@link WeightedFilter}, such as a
+     * {@link com.edinarobotics.utils.log.filters.SamplingFilter}, on their
+     * way to a Handler represent several similar events that were not
+     * passed. Handlers that count or sum events should scale each event by
+     * this weight. The sampling weight is not considered by
+     * {@link #equals(Object)}.
+     * @return The sampling weight of this LogEvent, which is {@code 1} for
+     * events that were not sampled.
+     */
+    public double getSampleWeight(){
+        return sampleWeight;
+    }
+    
+    /**
+     * Returns the number of named fields carried by this LogEvent.
+     * @return The number of fields, which is {@code 0} for events logged
+     * without {@link Logger#at(Level)}.
+     */
+    public int getFieldCount(){
+        return fieldCount;
+    }
+    
+    /**
+     * Returns the name of a field.
+     * @param index The index of the field, in the order the fields were
+     * added.
+     * @return The name of the field.
+     */
+    public String getFieldName(int index){
+        checkFieldIndex(index);
+        return fieldNames[index];
+    }
+    
+    /**
+     * Indicates whether a field holds a {@code double} or a {@code long}.
+     * @param index The index of the field.
+     * @return {@code true} if the field holds a {@code double},
+     * {@code false} if it holds a {@code long}.
+     */
+    public boolean isDoubleField(int index){
+        checkFieldIndex(index);
+        return fieldDoubles[index];
+    }
+    
+    /**
+     * Returns the value of a field as a {@code double}.
+     * @param index The index of the field.
+     * @return The value of the field, converted to a {@code double} if the
+     * field holds a {@code long}.
+     */
+    public double getDoubleField(int index){
+        checkFieldIndex(index);
+        if(fieldDoubles[index]){
+            return Double.longBitsToDouble(fieldValues[index]);
+        }
+        return fieldValues[index];
+    }
+    
+    /**
+     * Returns the value of a field as a {@code long}.
+     * @param index The index of the field.
+     * @return The value of the field, rounded toward zero if the field holds
+     * a {@code double}.
+     */
+    public long getLongField(int index){
+        checkFieldIndex(index);
+        if(fieldDoubles[index]){
+            return (long)Double.longBitsToDouble(fieldValues[index]);
+        }
+        return fieldValues[index];
+    }
+    
+    /**
+     * Returns the index of the first field with the given name.
+     * @param name The name of the field.
+     * @return The index of the field, or {@code -1} if this LogEvent has no
+     * field with that name.
+     */
+    public int indexOfField(String name){
+        for(int i = 0; i < fieldCount; i++){
+            if(fieldNames[i].equals(name)){
+                return i;
+            }
+        }
+        return -1;
+    }
+    
+    /**
+     * Internal method that checks that a field index is in range.
+     * @param index The index of the field.
+     */
+    private void checkFieldIndex(int index){
+        if(index < 0 || index >= fieldCount){
+            throw new IndexOutOfBoundsException("Field index "+index+" out of range (field count: "+fieldCount+")");
+        }
+    }
+    
     /**
      * Computes a hash code value for this LogEvent as required by
      * {@link Object#hashCode()}.
@@ -142,17 +375,32 @@ public final class LogEvent {
      * The String representation can span either one or two lines depending on
      * whether or not this LogEvent has an associated Throwable.
      * The String has the form:
-     * [-level name-] -original logger name-: -message-
+     * [-level name-] -original logger name-: -message- {-name-=-value-, ...}
      *     -Throwable-
      * If no Throwable is associated with this LogEvent, the second line is
-     * omitted.
+     * omitted. If it has no fields, the braces are omitted.
      * @return A String representation of this LogEvent.
      */
     public String toString() {
-        String stringRepresentation = "["+getLevel()+"] "+getOriginalLogger().getFullNameWithoutRoot()+": \""+message+"\"";
+        StringBuilder stringRepresentation = new StringBuilder();
+        stringRepresentation.append('[').append(getLevel()).append("] ");
+        stringRepresentation.append(getOriginalLogger().getFullNameWithoutRoot());
+        stringRepresentation.append(": \"").append(message).append('"');
+        for(int i = 0; i < fieldCount; i++){
+            stringRepresentation.append(i == 0 ? " {" : ", ").append(fieldNames[i]).append('=');
+            if(fieldDoubles[i]){
+                stringRepresentation.append(Double.longBitsToDouble(fieldValues[i]));
+            }
+            else{
+                stringRepresentation.append(fieldValues[i]);
+            }
+        }
+        if(fieldCount > 0){
+            stringRepresentation.append('}');
+        }
         if(hasThrowable()){
-            stringRepresentation += "\n    "+getThrowable().toString();
+            stringRepresentation.append("\n    ").append(getThrowable().toString());
         }
-        return stringRepresentation;
+        return stringRepresentation.toString();
     }
 }
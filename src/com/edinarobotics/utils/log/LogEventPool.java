@@ -0,0 +1,65 @@
+package com.edinarobotics.utils.log;
+
+/**
+ * A LogEventPool holds LogEvents that a single thread reuses while event
+ * pooling is enabled.
+ *
+ * Events are taken and returned in stack order. A Handler that logs while
+ * handling an event takes the next event from the stack; if the stack runs
+ * out, new events are allocated and discarded when returned.
+ */
+final class LogEventPool {
+    private static final int SIZE = 4;
+
+    private static final ThreadLocal<LogEventPool> pools = new ThreadLocal<LogEventPool>(){
+        protected LogEventPool initialValue(){
+            return new LogEventPool();
+        }
+    };
+
+    private final LogEvent[] events;
+    private int depth;
+
+    private LogEventPool(){
+        events = new LogEvent[SIZE];
+        for(int i = 0; i < SIZE; i++){
+            events[i] = new LogEvent();
+        }
+        depth = 0;
+    }
+
+    /**
+     * Returns the LogEventPool of the calling thread.
+     * @return The calling thread's LogEventPool.
+     */
+    static LogEventPool get(){
+        return pools.get();
+    }
+
+    /**
+     * Takes a LogEvent from this pool and fills it in.
+     * @param level The severity level of the event.
+     * @param message The message associated with the event.
+     * @param thrown The optional Throwable associated with the event.
+     * @param originalLogger The Logger to which the event was submitted.
+     * @return A LogEvent which must be returned with
+     * {@link #release(LogEvent)}.
+     */
+    LogEvent acquire(Level level, String message, Throwable thrown, Logger originalLogger){
+        if(depth >= SIZE){
+            depth++;
+            return new LogEvent(level, message, thrown, originalLogger);
+        }
+        LogEvent event = events[depth++];
+        event.set(level, message, thrown, originalLogger);
+        return event;
+    }
+
+    /**
+     * Returns a LogEvent taken by {@link #acquire(Level, String, Throwable, Logger)}.
+     * @param event The LogEvent to return.
+     */
+    void release(LogEvent event){
+        depth--;
+    }
+}
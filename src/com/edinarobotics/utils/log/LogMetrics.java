@@ -0,0 +1,302 @@
+package com.edinarobotics.utils.log;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A LogMetrics object is a snapshot of the logging system's metrics, taken
+ * by {@link LogSystem#getMetrics()}.
+ *
+ * It holds the number of events accepted and filtered at each Level for
+ * every Logger that has received events, and a histogram of call durations
+ * for every Handler that has been called. All counts are totals since
+ * metrics collection was first enabled. The {@link #toString()} method
+ * renders the snapshot as a table suitable for printing or publishing.
+ */
+public final class LogMetrics {
+    private final long timestamp;
+    private final List<LoggerSnapshot> loggers;
+    private final List<HandlerSnapshot> handlers;
+
+    LogMetrics(List<LoggerSnapshot> loggers, List<HandlerSnapshot> handlers){
+        this.timestamp = System.nanoTime();
+        this.loggers = Collections.unmodifiableList(loggers);
+        this.handlers = Collections.unmodifiableList(handlers);
+    }
+
+    /**
+     * Returns the time at which this snapshot was taken.
+     * @return The value of {@link System#nanoTime()} when this snapshot was
+     * taken.
+     */
+    public long getTimestamp(){
+        return timestamp;
+    }
+
+    /**
+     * Returns the counts of every Logger that has received events.
+     * @return An unmodifiable List of Logger snapshots, ordered by full
+     * name.
+     */
+    public List<LoggerSnapshot> getLoggers(){
+        return loggers;
+    }
+
+    /**
+     * Returns the call durations of every Handler that has been called.
+     * @return An unmodifiable List of Handler snapshots, ordered by the
+     * full name of the Logger that uses each Handler.
+     */
+    public List<HandlerSnapshot> getHandlers(){
+        return handlers;
+    }
+
+    /**
+     * Returns a String representation of this LogMetrics, with one line for
+     * each Logger and one line for each Handler.
+     * @return A human-readable String representation of this LogMetrics.
+     */
+    public String toString(){
+        StringBuilder text = new StringBuilder("<LogMetrics:");
+        for(int i = 0; i < loggers.size(); i++){
+            text.append("\n    ").append(loggers.get(i).toString());
+        }
+        for(int i = 0; i < handlers.size(); i++){
+            text.append("\n    ").append(handlers.get(i).toString());
+        }
+        return text.append(">").toString();
+    }
+
+    /**
+     * The event counts of one Logger. Events are counted at the Logger to
+     * which they were originally submitted.
+     */
+    public static final class LoggerSnapshot {
+        private final String name;
+        private final long[] accepted;
+        private final long[] filtered;
+
+        LoggerSnapshot(String name, long[] accepted, long[] filtered){
+            this.name = name;
+            this.accepted = accepted;
+            this.filtered = filtered;
+        }
+
+        /**
+         * Returns the full name of the Logger, omitting the root Logger.
+         * @return The full name of the Logger.
+         */
+        public String getName(){
+            return name;
+        }
+
+        /**
+         * Returns the number of events at the given level that passed every
+         * filter on their way up the Logger hierarchy.
+         * @param level The severity level of the events.
+         * @return The number of accepted events at {@code level}.
+         */
+        public long getAcceptedCount(Level level){
+            return accepted[level.getIndex()];
+        }
+
+        /**
+         * Returns the number of events at the given level that were
+         * rejected by a filter, or that no Handler could receive.
+         * @param level The severity level of the events.
+         * @return The number of filtered events at {@code level}.
+         */
+        public long getFilteredCount(Level level){
+            return filtered[level.getIndex()];
+        }
+
+        /**
+         * Returns the number of accepted events at every level.
+         * @return The total number of accepted events.
+         */
+        public long getAcceptedCount(){
+            return total(accepted);
+        }
+
+        /**
+         * Returns the number of filtered events at every level.
+         * @return The total number of filtered events.
+         */
+        public long getFilteredCount(){
+            return total(filtered);
+        }
+
+        /**
+         * Internal method that adds up the counts for every level.
+         * @param counts The counts to add up.
+         * @return The sum of {@code counts}.
+         */
+        private static long total(long[] counts){
+            long total = 0;
+            for(int i = 0; i < counts.length; i++){
+                total += counts[i];
+            }
+            return total;
+        }
+
+        /**
+         * Returns a String representation of this LoggerSnapshot, listing
+         * the accepted and filtered counts of each level that has events.
+         * @return A human-readable String representation of this
+         * LoggerSnapshot.
+         */
+        public String toString(){
+            StringBuilder text = new StringBuilder("<LoggerSnapshot: ");
+            text.append(name.equals("") ? "(root)" : name);
+            for(int i = 0; i < accepted.length; i++){
+                if(accepted[i] != 0 || filtered[i] != 0){
+                    text.append(", ").append(Level.forIndex(i).toString()).append(' ');
+                    text.append(accepted[i]).append('/').append(filtered[i]);
+                }
+            }
+            return text.append(">").toString();
+        }
+    }
+
+    /**
+     * The call durations of one Handler.
+     *
+     * Durations are counted in buckets whose bounds are powers of two
+     * nanoseconds, so percentiles are accurate to within a factor of two.
+     */
+    public static final class HandlerSnapshot {
+        private final String handler;
+        private final long[] buckets;
+        private final long count;
+        private final long totalNanos;
+        private final long maximumNanos;
+
+        HandlerSnapshot(String handler, long[] buckets, long totalNanos, long maximumNanos){
+            this.handler = handler;
+            this.buckets = buckets;
+            long sum = 0;
+            for(int i = 0; i < buckets.length; i++){
+                sum += buckets[i];
+            }
+            this.count = sum;
+            this.totalNanos = totalNanos;
+            this.maximumNanos = maximumNanos;
+        }
+
+        /**
+         * Returns the String representation of the Handler.
+         * @return The result of the Handler's {@code toString()} method.
+         */
+        public String getHandler(){
+            return handler;
+        }
+
+        /**
+         * Returns the number of recorded calls to the Handler.
+         * @return The number of calls.
+         */
+        public long getCount(){
+            return count;
+        }
+
+        /**
+         * Returns the total time spent in the Handler.
+         * @return The sum of all call durations in nanoseconds.
+         */
+        public long getTotalNanos(){
+            return totalNanos;
+        }
+
+        /**
+         * Returns the average duration of a call to the Handler.
+         * @return The mean call duration in nanoseconds, or {@code 0} if
+         * there were no calls.
+         */
+        public long getMeanNanos(){
+            return count == 0 ? 0 : totalNanos / count;
+        }
+
+        /**
+         * Returns the longest duration of a call to the Handler.
+         * @return The maximum call duration in nanoseconds.
+         */
+        public long getMaximumNanos(){
+            return maximumNanos;
+        }
+
+        /**
+         * Returns an upper bound on the given percentile of call durations.
+         * @param percentile The percentile, from {@code 0} to {@code 100}.
+         * @return The upper bound, in nanoseconds, of the bucket containing
+         * the percentile, limited to the maximum call duration.
+         */
+        public long getPercentileNanos(double percentile){
+            if(percentile < 0 || percentile > 100){
+                throw new IllegalArgumentException("Percentile must be between 0 and 100 (received: "+percentile+")");
+            }
+            long target = (long)Math.ceil(count * percentile / 100.0);
+            long seen = 0;
+            for(int i = 0; i < buckets.length; i++){
+                seen += buckets[i];
+                if(seen >= target && seen > 0){
+                    return Math.min(getBucketUpperBoundNanos(i), maximumNanos);
+                }
+            }
+            return maximumNanos;
+        }
+
+        /**
+         * Returns the number of buckets in the histogram.
+         * @return The number of buckets.
+         */
+        public int getBucketCount(){
+            return buckets.length;
+        }
+
+        /**
+         * Returns the number of calls counted in a bucket.
+         * @param bucket The index of the bucket.
+         * @return The number of calls whose duration fell in the bucket.
+         * @see #getBucketUpperBoundNanos(int)
+         */
+        public long getBucket(int bucket){
+            return buckets[bucket];
+        }
+
+        /**
+         * Returns the exclusive upper bound of a bucket. Bucket {@code i}
+         * counts durations of at least {@code 2^(i-1)} and less than
+         * {@code 2^i} nanoseconds; the last bucket also counts every longer
+         * duration.
+         * @param bucket The index of the bucket.
+         * @return The upper bound of the bucket in nanoseconds.
+         */
+        public static long getBucketUpperBoundNanos(int bucket){
+            return 1L << bucket;
+        }
+
+        /**
+         * Returns a String representation of this HandlerSnapshot, with the
+         * call count and the mean, median, 99th percentile and maximum
+         * durations in microseconds.
+         * @return A human-readable String representation of this
+         * HandlerSnapshot.
+         */
+        public String toString(){
+            return "<HandlerSnapshot: "+handler+", "+count+" calls, mean "+micros(getMeanNanos())+
+                    " us, p50 "+micros(getPercentileNanos(50))+" us, p99 "+micros(getPercentileNanos(99))+
+                    " us, max "+micros(maximumNanos)+" us>";
+        }
+
+        /**
+         * Internal method that formats a duration in microseconds with one
+         * decimal place.
+         * @param nanos The duration in nanoseconds.
+         * @return The formatted duration.
+         */
+        private static String micros(long nanos){
+            long tenths = (nanos + 50) / 100;
+            return (tenths / 10)+"."+(tenths % 10);
+        }
+    }
+}
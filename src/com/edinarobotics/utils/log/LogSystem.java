@@ -1,6 +1,9 @@
 package com.edinarobotics.utils.log;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.StringTokenizer;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * The LogSystem class provides clients with a method to access the log system
@@ -12,6 +15,9 @@ public final class LogSystem {
     }
     
     private static final Logger rootLogger = new Logger("_root_", null);
+    private static final ConcurrentHashMap<String, Logger> registry = new ConcurrentHashMap<String, Logger>();
+    private static volatile boolean eventPooling = false;
+    private static volatile boolean metricsEnabled = false;
     
     /**
      * This static method returns the root Logger in the Logger hierarchy.
@@ -27,11 +33,18 @@ public final class LogSystem {
      * This method implicitly adds the root Logger's name to the provided name.
      * The provided name should omit the name of the root Logger.
      * If the requested Logger does not exist, it will be created.
+     * <br/>
+     * Loggers that have already been returned by this method are found
+     * by their full name in a concurrent registry without taking any locks.
      * @param fullNameWitoutRoot The name of the Logger to return.
      * @return The Logger with the requested full name.
      * @see Logger#getFullNameWithoutRoot()
      */
     public static Logger getLogger(String fullNameWitoutRoot){
+        Logger logger = registry.get(fullNameWitoutRoot);
+        if(logger != null){
+            return logger;
+        }
         if(fullNameWitoutRoot.indexOf(" ") >= 0){
             throw new IllegalArgumentException("Logger names may not contain \" \" (received: "+fullNameWitoutRoot+")");
         }
@@ -46,6 +59,79 @@ public final class LogSystem {
         for(int a = 0; a < loggerNames.length; a++){
             lastLogger = lastLogger.getChild(loggerNames[a]);
         }
+        //Different names for the same Logger, such as "a..b" and "a.b",
+        //are registered separately and all map to the same Logger.
+        registry.putIfAbsent(fullNameWitoutRoot, lastLogger);
         return lastLogger;
     }
+    
+    /**
+     * Enables or disables event pooling.
+     * 
+     * While event pooling is enabled, each thread reuses a small set of
+     * LogEvent objects instead of allocating a new LogEvent for every
+     * handled event. A LogEvent passed to a Handler is then only valid until
+     * the Handler returns, so every Handler in use must copy events it
+     * keeps, as described in {@link LogEvent}. The Handlers in this library
+     * do so. Event pooling is disabled by default.
+     * @param enabled {@code true} to enable event pooling, {@code false} to
+     * disable it.
+     */
+    public static void setEventPooling(boolean enabled){
+        eventPooling = enabled;
+    }
+    
+    /**
+     * Indicates whether event pooling is enabled.
+     * @return {@code true} if event pooling is enabled, {@code false}
+     * otherwise.
+     * @see #setEventPooling(boolean)
+     */
+    public static boolean isEventPooling(){
+        return eventPooling;
+    }
+    
+    /**
+     * Enables or disables metrics collection.
+     * 
+     * While metrics collection is enabled, every Logger counts the events
+     * submitted to it by Level, separating events that were accepted from
+     * events that were filtered, and the time spent in every Handler is
+     * recorded in a histogram. The counters are striped so that logging
+     * threads do not contend, but each handled event still pays for two
+     * calls to {@link System#nanoTime()} per Handler. Metrics collection is
+     * disabled by default. Disabling it keeps the values counted so far.
+     * @param enabled {@code true} to enable metrics collection,
+     * {@code false} to disable it.
+     * @see #getMetrics()
+     */
+    public static void setMetricsEnabled(boolean enabled){
+        metricsEnabled = enabled;
+    }
+    
+    /**
+     * Indicates whether metrics collection is enabled.
+     * @return {@code true} if metrics collection is enabled, {@code false}
+     * otherwise.
+     * @see #setMetricsEnabled(boolean)
+     */
+    public static boolean isMetricsEnabled(){
+        return metricsEnabled;
+    }
+    
+    /**
+     * Returns a snapshot of the metrics collected so far.
+     * 
+     * Only Loggers that have counted events and Handlers that have been
+     * timed are included. The snapshot can be printed or published
+     * periodically to find noisy Loggers and slow Handlers.
+     * @return A LogMetrics snapshot.
+     * @see #setMetricsEnabled(boolean)
+     */
+    public static LogMetrics getMetrics(){
+        List<LogMetrics.LoggerSnapshot> loggers = new ArrayList<LogMetrics.LoggerSnapshot>();
+        List<LogMetrics.HandlerSnapshot> handlers = new ArrayList<LogMetrics.HandlerSnapshot>();
+        rootLogger.collectMetrics(loggers, handlers);
+        return new LogMetrics(loggers, handlers);
+    }
 }
@@ -1,6 +1,9 @@
 package com.edinarobotics.utils.log;
 
-import java.util.Hashtable;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * The Logger class implements the client's handle to the logging system.
@@ -9,12 +12,18 @@ import java.util.Hashtable;
  * process events as they travel up the logger hierarchy.
  */
 public final class Logger {
-    private String name;
-    private Logger parent;
-    private Hashtable<String, Logger> children;
+    private final String name;
+    private final Logger parent;
+    private final String fullName;
+    private final String fullNameWithoutRoot;
+    private final Map<String, Logger> children;
     private Filter filter;
     private Handler handler;
+    private volatile LatencyHistogram handlerHistogram;
+    private volatile DispatchChain[] chains;
+    private final LoggerCounters counters;
     private static boolean enabled = true;
+    private static final Object configurationLock = new Object();
     
     /**
      * Constructs a new Logger with the given name and the given parent.
@@ -24,7 +33,20 @@ public final class Logger {
     protected Logger(String name, Logger parent){
         this.name = name;
         this.parent = parent;
-        this.children = new Hashtable<String, Logger>();
+        if(parent == null){
+            this.fullName = name;
+            this.fullNameWithoutRoot = "";
+        }
+        else{
+            this.fullName = parent.getFullName()+"."+name;
+            String parentName = parent.getFullNameWithoutRoot();
+            this.fullNameWithoutRoot = parentName.equals("") ? name : parentName+"."+name;
+        }
+        this.children = new ConcurrentHashMap<String, Logger>();
+        this.counters = new LoggerCounters();
+        synchronized(configurationLock){
+            compile();
+        }
     }
     
     /**
@@ -44,10 +66,12 @@ public final class Logger {
      * The name given to this method is <em>not</em> fully-qualified
      * it represents the name of the child logger only and may not contain
      * periods or spaces.
+     * <br/>
+     * Looking up an existing child does not take any locks.
      * @param name The name of the child Logger to return.
      * @return The named child Logger of this Logger.
      */
-    public synchronized Logger getChild(String name){
+    public Logger getChild(String name){
         if(name.indexOf(".") >= 0){
             //Disallow "." in logger names.
             throw new IllegalArgumentException("Given name of child logger must not contain \".\" (received: "+name+")");
@@ -56,28 +80,95 @@ public final class Logger {
             //Disallow " " in logger names.
             throw new IllegalArgumentException("Given name of child logger must not contain \" \" (received: "+name+" )");
         }
-        if(!children.containsKey(name)){
-            Logger newLogger = new Logger(name, this);
-            children.put(name, newLogger);
-            return newLogger;
+        Logger child = children.get(name);
+        if(child != null){
+            return child;
+        }
+        synchronized(configurationLock){
+            //Creating the child under the configuration lock ensures that
+            //a concurrent configuration change also recompiles the child.
+            child = children.get(name);
+            if(child == null){
+                child = new Logger(name, this);
+                children.put(name, child);
+            }
+            return child;
         }
-        return (Logger)children.get(name);
     }
     
     /**
      * Sets this Logger to use the specified Filter to filter log events.
+     * 
+     * The dispatch chains of this Logger and all of its descendants are
+     * recompiled to reflect the new Filter.
      * @param newFilter The new Filter to be used to filter log events.
      */
     public void setFilter(Filter newFilter){
-        this.filter = newFilter;
+        synchronized(configurationLock){
+            this.filter = newFilter;
+            compileTree();
+        }
     }
     
     /**
      * Sets this Logger to use the specified Handler to handle log events.
+     * 
+     * The dispatch chains of this Logger and all of its descendants are
+     * recompiled to reflect the new Handler.
      * @param newHandler The new Handler to be used to handle log events.
      */
     public void setHandler(Handler newHandler){
-        this.handler = newHandler;
+        synchronized(configurationLock){
+            this.handler = newHandler;
+            this.handlerHistogram = null;
+            compileTree();
+        }
+    }
+    
+    /**
+     * Returns the Filter used by this Logger to filter log events.
+     * @return The Filter used by this Logger, or {@code null} if this Logger
+     * has no Filter.
+     */
+    public Filter getFilter(){
+        return filter;
+    }
+    
+    /**
+     * Returns the Handler used by this Logger to handle log events.
+     * @return The Handler used by this Logger, or {@code null} if this
+     * Logger has no Handler.
+     */
+    public Handler getHandler(){
+        return handler;
+    }
+    
+    /**
+     * Internal method that recompiles the dispatch chains of this Logger.
+     * 
+     * Callers must hold the configuration lock.
+     */
+    private void compile(){
+        DispatchChain[] newChains = new DispatchChain[Level.COUNT];
+        if(enabled){
+            for(int i = 0; i < newChains.length; i++){
+                newChains[i] = DispatchChain.compile(this, Level.forIndex(i));
+            }
+        }
+        chains = newChains;
+    }
+    
+    /**
+     * Internal method that recompiles the dispatch chains of this Logger
+     * and of all of its descendants.
+     * 
+     * Callers must hold the configuration lock.
+     */
+    private void compileTree(){
+        compile();
+        for(Logger child : children.values()){
+            child.compileTree();
+        }
     }
     
     /**
@@ -99,10 +190,7 @@ public final class Logger {
      * the root Logger.
      */
     public String getFullName(){
-        if(getParent() == null){
-            return getName();
-        }
-        return getParent().getFullName()+"."+getName();
+        return fullName;
     }
     
     /**
@@ -114,103 +202,305 @@ public final class Logger {
      * @return The fully-qualified name of the Logger without the root Logger.
      */
     public String getFullNameWithoutRoot(){
-        if(getParent() == null){
-            //We are the root Logger
-            return "";
+        return fullNameWithoutRoot;
+    }
+    
+    /**
+     * Submits an event to the logging system.
+     * 
+     * This event will be logged as dispatched from this Logger.
+     * This event will propagate up the Logger hierarchy through each logger
+     * that approves the event.
+     * @param level The severity level of the submitted event.
+     * @param message The message associated with the submitted event.
+     */
+    public void log(Level level, String message){
+        log(level, message, null);
+    }
+    
+    /**
+     * Submits an event to the logging system.
+     * 
+     * This event will be logged as dispatched from this Logger.
+     * This event will propagate up the Logger hierarchy through each logger
+     * @param level The severity level of the submitted event.
+     * @param message The message associated with the submitted event.
+     * @param thrown The optional Throwable associated with this event.
+     */
+    public void log(Level level, String message, Throwable thrown){
+        DispatchChain chain = getChain(level);
+        if(chain == null){
+            return;
         }
-        String parentName = getParent().getFullNameWithoutRoot();
-        if(parentName.equals("")){
-            return getName();
+        chain.dispatch(this, level, message, thrown);
+    }
+    
+    /**
+     * Submits an event with a parameterized message to the logging system.
+     * 
+     * The first {@code "{}"} in {@code pattern} is replaced by {@code arg}.
+     * The message is only built if a Handler could receive the event, so
+     * events at filtered-out levels cost nothing to format.
+     * @param level The severity level of the submitted event.
+     * @param pattern The message pattern of the submitted event.
+     * @param arg The value to be substituted into the pattern.
+     */
+    public void log(Level level, String pattern, double arg){
+        DispatchChain chain = getChain(level);
+        if(chain == null){
+            return;
         }
-        return parentName+"."+getName();
+        chain.dispatch(this, level, MessageFormatter.format(pattern, arg), null);
     }
     
     /**
-     * Internal method that determines whether this Logger should handle
-     * a given LogEvent.
-     * @param event The LogEvent to test.
-     * @return {@code true} if this Logger should handle the event,
-     * {@code false} otherwise.
+     * Submits an event with a parameterized message to the logging system.
+     * 
+     * The first two occurrences of {@code "{}"} in {@code pattern} are
+     * replaced by {@code arg1} and {@code arg2}. The message is only built if
+     * a Handler could receive the event.
+     * @param level The severity level of the submitted event.
+     * @param pattern The message pattern of the submitted event.
+     * @param arg1 The first value to be substituted into the pattern.
+     * @param arg2 The second value to be substituted into the pattern.
      */
-    private boolean shouldHandle(LogEvent event){
-        return shouldHandle(event.getLevel(), event.getMessage(), event.getThrowable());
+    public void log(Level level, String pattern, double arg1, double arg2){
+        DispatchChain chain = getChain(level);
+        if(chain == null){
+            return;
+        }
+        chain.dispatch(this, level, MessageFormatter.format(pattern, arg1, arg2), null);
     }
     
     /**
-     * Internal method that determines whether this Logger should handle
-     * a given log event.
-     * @param level The severity level associated with the event.
-     * @param message The String message associated with the event.
-     * @param thrown The optional Throwable associated with the event.
-     * @return {@code true} if this Logger should handle the event,
-     * {@code false} otherwise.
+     * Submits an event with a parameterized message to the logging system.
+     * 
+     * The first {@code "{}"} in {@code pattern} is replaced by {@code arg}.
+     * The message is only built if a Handler could receive the event.
+     * @param level The severity level of the submitted event.
+     * @param pattern The message pattern of the submitted event.
+     * @param arg The value to be substituted into the pattern.
      */
-    private boolean shouldHandle(Level level, String message, Throwable thrown){
-        if(!enabled) {
-            return false;
+    public void log(Level level, String pattern, long arg){
+        DispatchChain chain = getChain(level);
+        if(chain == null){
+            return;
         }
-        if(filter == null){
-            return true;
+        chain.dispatch(this, level, MessageFormatter.format(pattern, arg), null);
+    }
+    
+    /**
+     * Submits an event with a parameterized message to the logging system.
+     * 
+     * The first two occurrences of {@code "{}"} in {@code pattern} are
+     * replaced by {@code arg1} and {@code arg2}. The message is only built if
+     * a Handler could receive the event.
+     * @param level The severity level of the submitted event.
+     * @param pattern The message pattern of the submitted event.
+     * @param arg1 The first value to be substituted into the pattern.
+     * @param arg2 The second value to be substituted into the pattern.
+     */
+    public void log(Level level, String pattern, long arg1, long arg2){
+        DispatchChain chain = getChain(level);
+        if(chain == null){
+            return;
         }
-        return filter.filter(level, message, thrown);
+        chain.dispatch(this, level, MessageFormatter.format(pattern, arg1, arg2), null);
     }
     
     /**
-     * Internal method that handles the event by passing it to this Logger's
-     * Handler, if one is defined.
-     * @param event The event to be handled.
+     * Submits an event with a parameterized message to the logging system.
+     * 
+     * The first {@code "{}"} in {@code pattern} is replaced by
+     * {@code arg}. The message is only built, and {@code arg} is only
+     * converted to a String, if a Handler could receive the event.
+     * <br/>
+     * Note that if {@code arg} is a Throwable,
+     * {@link #log(Level, String, Throwable)} is called instead.
+     * @param level The severity level of the submitted event.
+     * @param pattern The message pattern of the submitted event.
+     * @param arg The value to be substituted into the pattern.
      */
-    private void handle(LogEvent event){
-        if(handler == null){
+    public void log(Level level, String pattern, Object arg){
+        DispatchChain chain = getChain(level);
+        if(chain == null){
             return;
         }
-        handler.handle(event);
+        chain.dispatch(this, level, MessageFormatter.format(pattern, arg), null);
     }
     
     /**
-     * Submits an event to the logging system.
+     * Submits an event with a parameterized message to the logging system.
      * 
-     * This event will be logged as dispatched from this Logger.
-     * This event will propagate up the Logger hierarchy through each logger
-     * that approves the event.
+     * The first two occurrences of {@code "{}"} in {@code pattern} are
+     * replaced by {@code arg1} and {@code arg2}. The message is only built if
+     * a Handler could receive the event.
      * @param level The severity level of the submitted event.
-     * @param message The message associated with the submitted event.
+     * @param pattern The message pattern of the submitted event.
+     * @param arg1 The first value to be substituted into the pattern.
+     * @param arg2 The second value to be substituted into the pattern.
      */
-    public void log(Level level, String message){
+    public void log(Level level, String pattern, Object arg1, Object arg2){
+        DispatchChain chain = getChain(level);
+        if(chain == null){
+            return;
+        }
+        chain.dispatch(this, level, MessageFormatter.format(pattern, arg1, arg2), null);
+    }
+    
+    /**
+     * Submits an event whose message is only produced if a Handler could
+     * receive it.
+     * @param level The severity level of the submitted event.
+     * @param message The DeferredMessage which produces the message of the
+     * submitted event.
+     */
+    public void log(Level level, DeferredMessage message){
         log(level, message, null);
     }
     
     /**
-     * Submits an event to the logging system.
-     * 
-     * This event will be logged as dispatched from this Logger.
-     * This event will propagate up the Logger hierarchy through each logger
+     * Submits an event whose message is only produced if a Handler could
+     * receive it.
      * @param level The severity level of the submitted event.
-     * @param message The message associated with the submitted event.
+     * @param message The DeferredMessage which produces the message of the
+     * submitted event.
      * @param thrown The optional Throwable associated with this event.
      */
-    public void log(Level level, String message, Throwable thrown){
-        if(!shouldHandle(level, message, thrown)){
+    public void log(Level level, DeferredMessage message, Throwable thrown){
+        DispatchChain chain = getChain(level);
+        if(chain == null){
             return;
         }
-        LogEvent event = new LogEvent(level, message, thrown, this);
-        log(event);
+        chain.dispatch(this, level, MessageFormatter.format(message), thrown);
+    }
+    
+    /**
+     * Starts building an event with named numeric fields.
+     * 
+     * The returned EventBuilder adds fields without boxing or allocating,
+     * and submits the event to this Logger when it is emitted:
+     * <pre>
+     * logger.at(Level.DEBUG).with("rpm", 1234.5).with("setpoint", 1300).emit();
+     * </pre>
+     * If no Handler could receive an event at {@code level}, a shared
+     * EventBuilder that ignores every call is returned.
+     * @param level The severity level of the event.
+     * @return An EventBuilder for the event, which must be finished with
+     * {@link EventBuilder#emit()} or {@link EventBuilder#emit(String)}.
+     */
+    public EventBuilder at(Level level){
+        DispatchChain chain = getChain(level);
+        if(chain == null){
+            return EventBuilder.DISABLED;
+        }
+        return EventBuilder.begin(this, level, chain);
+    }
+    
+    /**
+     * Indicates whether an event at the given level could reach any Handler
+     * if it were submitted to this Logger.
+     * 
+     * A return value of {@code false} means that events at this level are
+     * discarded without being filtered or handled. A return value of
+     * {@code true} does not guarantee that every Filter will approve the
+     * event.
+     * @param level The severity level to test.
+     * @return {@code true} if an event at {@code level} may be handled,
+     * {@code false} otherwise.
+     */
+    public boolean isLoggable(Level level){
+        return chains[level.getIndex()] != null;
+    }
+    
+    /**
+     * Internal method that returns the dispatch chain for events at the
+     * given level, counting the event as filtered if there is no chain and
+     * metrics collection is enabled.
+     * @param level The severity level of the submitted event.
+     * @return The DispatchChain for {@code level}, or {@code null} if no
+     * Handler could receive the event.
+     */
+    private DispatchChain getChain(Level level){
+        DispatchChain chain = chains[level.getIndex()];
+        if(chain == null && LogSystem.isMetricsEnabled()){
+            counters.filtered(level);
+        }
+        return chain;
+    }
+    
+    /**
+     * Returns the event counters of this Logger.
+     * @return The LoggerCounters of this Logger.
+     */
+    LoggerCounters getCounters(){
+        return counters;
+    }
+    
+    /**
+     * Returns the histogram of the durations of calls to the Handler of
+     * this Logger, creating it if necessary.
+     * @return The LatencyHistogram of the Handler, or {@code null} if this
+     * Logger has no Handler.
+     */
+    LatencyHistogram getHandlerHistogram(){
+        LatencyHistogram histogram = handlerHistogram;
+        if(histogram == null){
+            synchronized(configurationLock){
+                histogram = handlerHistogram;
+                if(histogram == null && handler != null){
+                    histogram = new LatencyHistogram(handler);
+                    handlerHistogram = histogram;
+                }
+            }
+        }
+        return histogram;
+    }
+    
+    /**
+     * Adds a snapshot of the counters of this Logger and of each of its
+     * descendants that has counted at least one event to the given List,
+     * and a snapshot of the histogram of each of their Handlers that has
+     * been timed to the other.
+     * @param snapshots The List to which Logger snapshots are added.
+     * @param handlerSnapshots The List to which Handler snapshots are
+     * added.
+     */
+    void collectMetrics(List<LogMetrics.LoggerSnapshot> snapshots, List<LogMetrics.HandlerSnapshot> handlerSnapshots){
+        long[] accepted = counters.getAccepted();
+        long[] filtered = counters.getFiltered();
+        for(int i = 0; i < accepted.length; i++){
+            if(accepted[i] != 0 || filtered[i] != 0){
+                snapshots.add(new LogMetrics.LoggerSnapshot(fullNameWithoutRoot, accepted, filtered));
+                break;
+            }
+        }
+        LatencyHistogram histogram = handlerHistogram;
+        if(histogram != null){
+            LogMetrics.HandlerSnapshot handlerSnapshot = histogram.snapshot();
+            if(handlerSnapshot.getCount() > 0){
+                handlerSnapshots.add(handlerSnapshot);
+            }
+        }
+        String[] names = children.keySet().toArray(new String[0]);
+        Arrays.sort(names);
+        for(int i = 0; i < names.length; i++){
+            children.get(names[i]).collectMetrics(snapshots, handlerSnapshots);
+        }
     }
     
     /**
      * Internal method used to propagate log events up the Logger hierarchy.
      * 
-     * This method handles the log event and passes it up the hierarchy
-     * if this Logger approves the event.
+     * This method passes the event through the precompiled filters and
+     * handlers from this Logger up to the root of the hierarchy.
      * @param event The LogEvent to be logged.
      */
     protected void log(LogEvent event){
-        if(!shouldHandle(event)){
+        DispatchChain chain = getChain(event.getLevel());
+        if(chain == null){
             return;
         }
-        handle(event);
-        if(getParent() != null){
-            getParent().log(event);
-        }
+        chain.dispatch(event);
     }
 }
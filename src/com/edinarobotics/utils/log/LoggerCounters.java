@@ -0,0 +1,71 @@
+package com.edinarobotics.utils.log;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * LoggerCounters count the events submitted to one Logger, by Level and by
+ * whether they were accepted or filtered.
+ *
+ * The counters are striped {@link LongAdder}s, so threads logging to the
+ * same Logger do not contend.
+ */
+final class LoggerCounters {
+    private final LongAdder[] accepted;
+    private final LongAdder[] filtered;
+
+    LoggerCounters(){
+        accepted = new LongAdder[Level.COUNT];
+        filtered = new LongAdder[Level.COUNT];
+        for(int i = 0; i < Level.COUNT; i++){
+            accepted[i] = new LongAdder();
+            filtered[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Counts an event that passed every filter on its way up the Logger
+     * hierarchy.
+     * @param level The severity level of the event.
+     */
+    void accepted(Level level){
+        accepted[level.getIndex()].increment();
+    }
+
+    /**
+     * Counts an event that was rejected by a filter, or whose level no
+     * Handler could receive.
+     * @param level The severity level of the event.
+     */
+    void filtered(Level level){
+        filtered[level.getIndex()].increment();
+    }
+
+    /**
+     * Returns the current number of accepted events at each Level.
+     * @return The accepted counts, indexed by {@link Level#getIndex()}.
+     */
+    long[] getAccepted(){
+        return sum(accepted);
+    }
+
+    /**
+     * Returns the current number of filtered events at each Level.
+     * @return The filtered counts, indexed by {@link Level#getIndex()}.
+     */
+    long[] getFiltered(){
+        return sum(filtered);
+    }
+
+    /**
+     * Internal method that reads a set of counters.
+     * @param counters The counters to read.
+     * @return The current value of each counter.
+     */
+    private static long[] sum(LongAdder[] counters){
+        long[] values = new long[counters.length];
+        for(int i = 0; i < counters.length; i++){
+            values[i] = counters[i].sum();
+        }
+        return values;
+    }
+}
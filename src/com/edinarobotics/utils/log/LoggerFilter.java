@@ -0,0 +1,26 @@
+package com.edinarobotics.utils.log;
+
+/**
+ * LoggerFilter implementations are Filters that also need to know which
+ * Logger an event was originally submitted to.
+ *
+ * Loggers call {@link #filter(Logger, Level, String, Throwable)} instead of
+ * {@link #filter(Level, String, Throwable)} for these filters.
+ */
+public interface LoggerFilter extends Filter {
+
+    /**
+     * Determines whether a loggable event meets this Filter instance's
+     * criteria.
+     *
+     * @param origin The Logger to which the log event was originally
+     * submitted.
+     * @param level The severity level of the log event.
+     * @param message The message associated with the log event.
+     * @param thrown The optional Throwable associated with the log event. Note
+     * that this parameter may be {@code null}.
+     * @return {@code true} if this message passes the filter,
+     * {@code false} otherwise.
+     */
+    public boolean filter(Logger origin, Level level, String message, Throwable thrown);
+}
@@ -3,6 +3,13 @@ package com.edinarobotics.utils.log;
 import java.io.FileNotFoundException;
 import java.io.PrintWriter;
 
+/**
+ * @deprecated Build CSV text by hand on the calling thread. Use
+ * {@link com.edinarobotics.utils.log.telemetry.TelemetryWriter}, which
+ * records typed columns without allocating and writes the file from a
+ * background thread.
+ */
+@Deprecated
 public class Logging {
 
 	private PrintWriter writer;
@@ -0,0 +1,264 @@
+package com.edinarobotics.utils.log;
+
+/**
+ * MessageFormatter builds log messages from patterns and arguments in a
+ * StringBuilder that is reused by each thread.
+ *
+ * Each occurrence of {@code "{}"} in a pattern is replaced, in order, by the
+ * next argument. Placeholders without a matching argument are left as they
+ * are and extra arguments are ignored.
+ */
+final class MessageFormatter {
+    private static final String PLACEHOLDER = "{}";
+    private static final int MAXIMUM_RETAINED_CAPACITY = 4096;
+
+    private static final ThreadLocal<MessageFormatter> formatters = new ThreadLocal<MessageFormatter>(){
+        protected MessageFormatter initialValue(){
+            return new MessageFormatter();
+        }
+    };
+
+    private StringBuilder builder;
+    private boolean inUse;
+
+    private MessageFormatter(){
+        builder = new StringBuilder(128);
+        inUse = false;
+    }
+
+    /**
+     * Internal method that returns an empty StringBuilder for the calling
+     * thread.
+     *
+     * If the thread's reusable StringBuilder is already being used (for
+     * example, because an argument's {@code toString()} method logged a
+     * message), a new StringBuilder is returned instead.
+     * @return An empty StringBuilder.
+     */
+    private StringBuilder begin(){
+        if(inUse){
+            return new StringBuilder(64);
+        }
+        inUse = true;
+        builder.setLength(0);
+        return builder;
+    }
+
+    /**
+     * Internal method that makes a StringBuilder returned by
+     * {@link #begin()} available again.
+     * @param message The StringBuilder returned by {@link #begin()}.
+     */
+    private void release(StringBuilder message){
+        if(message == builder){
+            if(builder.capacity() > MAXIMUM_RETAINED_CAPACITY){
+                builder = new StringBuilder(128);
+            }
+            inUse = false;
+        }
+    }
+
+    /**
+     * Internal method that appends the part of the pattern before the next
+     * placeholder.
+     * @param message The StringBuilder to which to append.
+     * @param pattern The message pattern.
+     * @param start The index in {@code pattern} at which to start.
+     * @return The index in {@code pattern} just after the placeholder, or
+     * {@code -1} if there are no more placeholders, in which case the rest
+     * of the pattern has been appended.
+     */
+    private static int appendUntilPlaceholder(StringBuilder message, String pattern, int start){
+        if(start < 0){
+            return -1;
+        }
+        int placeholder = pattern.indexOf(PLACEHOLDER, start);
+        if(placeholder < 0){
+            message.append(pattern, start, pattern.length());
+            return -1;
+        }
+        message.append(pattern, start, placeholder);
+        return placeholder + PLACEHOLDER.length();
+    }
+
+    /**
+     * Internal method that appends the rest of the pattern once all
+     * arguments have been substituted.
+     * @param message The StringBuilder to which to append.
+     * @param pattern The message pattern.
+     * @param start The index returned by the last call to
+     * {@link #appendUntilPlaceholder(StringBuilder, String, int)}.
+     */
+    private static void appendRemainder(StringBuilder message, String pattern, int start){
+        if(start >= 0){
+            message.append(pattern, start, pattern.length());
+        }
+    }
+
+    /**
+     * Formats a pattern with one {@code double} argument.
+     * @param pattern The message pattern.
+     * @param arg The argument.
+     * @return The formatted message.
+     */
+    static String format(String pattern, double arg){
+        MessageFormatter formatter = formatters.get();
+        StringBuilder message = formatter.begin();
+        try{
+            int index = appendUntilPlaceholder(message, pattern, 0);
+            if(index >= 0){
+                message.append(arg);
+            }
+            appendRemainder(message, pattern, index);
+            return message.toString();
+        }
+        finally{
+            formatter.release(message);
+        }
+    }
+
+    /**
+     * Formats a pattern with two {@code double} arguments.
+     * @param pattern The message pattern.
+     * @param arg1 The first argument.
+     * @param arg2 The second argument.
+     * @return The formatted message.
+     */
+    static String format(String pattern, double arg1, double arg2){
+        MessageFormatter formatter = formatters.get();
+        StringBuilder message = formatter.begin();
+        try{
+            int index = appendUntilPlaceholder(message, pattern, 0);
+            if(index >= 0){
+                message.append(arg1);
+                index = appendUntilPlaceholder(message, pattern, index);
+                if(index >= 0){
+                    message.append(arg2);
+                }
+            }
+            appendRemainder(message, pattern, index);
+            return message.toString();
+        }
+        finally{
+            formatter.release(message);
+        }
+    }
+
+    /**
+     * Formats a pattern with one {@code long} argument.
+     * @param pattern The message pattern.
+     * @param arg The argument.
+     * @return The formatted message.
+     */
+    static String format(String pattern, long arg){
+        MessageFormatter formatter = formatters.get();
+        StringBuilder message = formatter.begin();
+        try{
+            int index = appendUntilPlaceholder(message, pattern, 0);
+            if(index >= 0){
+                message.append(arg);
+            }
+            appendRemainder(message, pattern, index);
+            return message.toString();
+        }
+        finally{
+            formatter.release(message);
+        }
+    }
+
+    /**
+     * Formats a pattern with two {@code long} arguments.
+     * @param pattern The message pattern.
+     * @param arg1 The first argument.
+     * @param arg2 The second argument.
+     * @return The formatted message.
+     */
+    static String format(String pattern, long arg1, long arg2){
+        MessageFormatter formatter = formatters.get();
+        StringBuilder message = formatter.begin();
+        try{
+            int index = appendUntilPlaceholder(message, pattern, 0);
+            if(index >= 0){
+                message.append(arg1);
+                index = appendUntilPlaceholder(message, pattern, index);
+                if(index >= 0){
+                    message.append(arg2);
+                }
+            }
+            appendRemainder(message, pattern, index);
+            return message.toString();
+        }
+        finally{
+            formatter.release(message);
+        }
+    }
+
+    /**
+     * Formats a pattern with one object argument.
+     * @param pattern The message pattern.
+     * @param arg The argument, which is converted with
+     * {@link String#valueOf(Object)}.
+     * @return The formatted message.
+     */
+    static String format(String pattern, Object arg){
+        MessageFormatter formatter = formatters.get();
+        StringBuilder message = formatter.begin();
+        try{
+            int index = appendUntilPlaceholder(message, pattern, 0);
+            if(index >= 0){
+                message.append(String.valueOf(arg));
+            }
+            appendRemainder(message, pattern, index);
+            return message.toString();
+        }
+        finally{
+            formatter.release(message);
+        }
+    }
+
+    /**
+     * Formats a pattern with two object arguments.
+     * @param pattern The message pattern.
+     * @param arg1 The first argument, which is converted with
+     * {@link String#valueOf(Object)}.
+     * @param arg2 The second argument, which is converted with
+     * {@link String#valueOf(Object)}.
+     * @return The formatted message.
+     */
+    static String format(String pattern, Object arg1, Object arg2){
+        MessageFormatter formatter = formatters.get();
+        StringBuilder message = formatter.begin();
+        try{
+            int index = appendUntilPlaceholder(message, pattern, 0);
+            if(index >= 0){
+                message.append(String.valueOf(arg1));
+                index = appendUntilPlaceholder(message, pattern, index);
+                if(index >= 0){
+                    message.append(String.valueOf(arg2));
+                }
+            }
+            appendRemainder(message, pattern, index);
+            return message.toString();
+        }
+        finally{
+            formatter.release(message);
+        }
+    }
+
+    /**
+     * Produces the text of a DeferredMessage.
+     * @param deferred The DeferredMessage to be produced.
+     * @return The text of the message.
+     */
+    static String format(DeferredMessage deferred){
+        MessageFormatter formatter = formatters.get();
+        StringBuilder message = formatter.begin();
+        try{
+            deferred.appendTo(message);
+            return message.toString();
+        }
+        finally{
+            formatter.release(message);
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package com.edinarobotics.utils.log;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A StackTraceCache renders the stack trace of each distinct exception in
+ * full only once.
+ *
+ * Each Throwable is identified by a fingerprint: a 64-bit hash of its
+ * class and stack frames, and of those of its causes. The first time a
+ * fingerprint is seen, the full stack trace is rendered and tagged with a
+ * short id. Later Throwables with the same fingerprint are rendered as only
+ * their class name, the id and the number of times the trace has been
+ * seen:
+ * <pre>
+ * java.lang.IllegalStateException: Sensor unplugged [trace #3]
+ *         at ...
+ * java.lang.IllegalStateException [trace #3, seen 57 times]
+ * </pre>
+ * An exception thrown on every pass through a tight loop therefore costs
+ * one pass over its frames instead of rendering and writing the whole
+ * trace each time.
+ *
+ * The cache holds a bounded number of fingerprints and forgets the least
+ * recently seen one when it is full. A forgotten trace is rendered in full
+ * again, with a new id, the next time it is seen. A StackTraceCache is
+ * thread-safe.
+ */
+public final class StackTraceCache {
+
+    /**
+     * The default number of fingerprints held by a StackTraceCache.
+     */
+    public static final int DEFAULT_CAPACITY = 128;
+
+    private static final int MAXIMUM_CAUSES = 16;
+    private static final String FRAME_PREFIX = "\n        at ";
+    private static final String CAUSE_PREFIX = "\n    Caused by: ";
+
+    private final int capacity;
+    private final LinkedHashMap<Long, int[]> entries;
+    private int nextId;
+
+    /**
+     * Constructs a new StackTraceCache holding up to
+     * {@link #DEFAULT_CAPACITY} fingerprints.
+     */
+    public StackTraceCache(){
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructs a new StackTraceCache.
+     * @param capacity The number of fingerprints held by this cache.
+     */
+    public StackTraceCache(int capacity){
+        if(capacity < 1){
+            throw new IllegalArgumentException("Capacity must be positive (received: "+capacity+")");
+        }
+        this.capacity = capacity;
+        this.entries = new LinkedHashMap<Long, int[]>(16, 0.75f, true){
+            protected boolean removeEldestEntry(Map.Entry<Long, int[]> eldest){
+                return size() > StackTraceCache.this.capacity;
+            }
+        };
+        this.nextId = 1;
+    }
+
+    /**
+     * Computes the fingerprint of a Throwable from its class and stack
+     * frames, and from those of its causes.
+     *
+     * The message of the Throwable is not part of the fingerprint, so
+     * exceptions thrown from the same place with different messages share
+     * a fingerprint.
+     * @param thrown The Throwable to fingerprint.
+     * @return The 64-bit fingerprint of {@code thrown}.
+     */
+    public static long fingerprint(Throwable thrown){
+        long hash = 0xCBF29CE484222325L;
+        Throwable current = thrown;
+        for(int depth = 0; current != null && depth < MAXIMUM_CAUSES; depth++){
+            hash = mix(hash, current.getClass().getName().hashCode());
+            StackTraceElement[] frames = current.getStackTrace();
+            for(int i = 0; i < frames.length; i++){
+                hash = mix(hash, frames[i].getClassName().hashCode());
+                hash = mix(hash, frames[i].getMethodName().hashCode());
+                hash = mix(hash, frames[i].getLineNumber());
+            }
+            current = current.getCause() == current ? null : current.getCause();
+        }
+        return hash;
+    }
+
+    /**
+     * Appends the rendering of a Throwable to the given Appendable: the full
+     * stack trace if its fingerprint is new, or a one-line reference to the
+     * earlier trace otherwise.
+     *
+     * Causes are placed on new lines indented by four spaces, and stack
+     * frames on new lines indented by eight spaces. No line separator is
+     * appended after the last line.
+     * @param thrown The Throwable to render.
+     * @param out The Appendable to which the rendering is appended.
+     * @throws IOException If {@code out} throws an IOException.
+     */
+    public void render(Throwable thrown, Appendable out) throws IOException {
+        Long key = Long.valueOf(fingerprint(thrown));
+        int id;
+        int count;
+        synchronized(entries){
+            int[] entry = entries.get(key);
+            if(entry == null){
+                entry = new int[] {nextId++, 0};
+                entries.put(key, entry);
+            }
+            if(entry[1] < Integer.MAX_VALUE){
+                entry[1]++;
+            }
+            id = entry[0];
+            count = entry[1];
+        }
+        if(count > 1){
+            out.append(thrown.getClass().getName()).append(" [trace #").append(Integer.toString(id));
+            out.append(", seen ").append(Integer.toString(count)).append(" times]");
+            return;
+        }
+        out.append(thrown.toString()).append(" [trace #").append(Integer.toString(id)).append(']');
+        Throwable current = thrown;
+        for(int depth = 0; current != null && depth < MAXIMUM_CAUSES; depth++){
+            if(depth > 0){
+                out.append(CAUSE_PREFIX).append(current.toString());
+            }
+            StackTraceElement[] frames = current.getStackTrace();
+            for(int i = 0; i < frames.length; i++){
+                out.append(FRAME_PREFIX).append(frames[i].toString());
+            }
+            current = current.getCause() == current ? null : current.getCause();
+        }
+    }
+
+    /**
+     * Returns the rendering of a Throwable as a String.
+     * @param thrown The Throwable to render.
+     * @return The full stack trace of {@code thrown} if its fingerprint is
+     * new, or a one-line reference to the earlier trace otherwise.
+     * @see #render(Throwable, Appendable)
+     */
+    public String render(Throwable thrown){
+        StringBuilder rendering = new StringBuilder();
+        try{
+            render(thrown, rendering);
+        }
+        catch(IOException e){
+            //StringBuilder never throws IOException
+        }
+        return rendering.toString();
+    }
+
+    /**
+     * Returns the number of fingerprints currently held by this cache.
+     * @return The number of cached fingerprints.
+     */
+    public int size(){
+        synchronized(entries){
+            return entries.size();
+        }
+    }
+
+    /**
+     * Returns the number of fingerprints this cache can hold.
+     * @return The capacity of this StackTraceCache.
+     */
+    public int getCapacity(){
+        return capacity;
+    }
+
+    /**
+     * Forgets every fingerprint, so that each trace is rendered in full
+     * again the next time it is seen. Ids are not reused.
+     */
+    public void clear(){
+        synchronized(entries){
+            entries.clear();
+        }
+    }
+
+    /**
+     * Internal method that mixes a value into a 64-bit FNV-1a style hash.
+     * @param hash The hash so far.
+     * @param value The value to mix in.
+     * @return The updated hash.
+     */
+    private static long mix(long hash, int value){
+        hash ^= value;
+        hash *= 0x100000001B3L;
+        hash ^= hash >>> 29;
+        return hash;
+    }
+
+    /**
+     * Returns a String representation of this StackTraceCache.
+     * @return A String representation of this StackTraceCache.
+     */
+    public String toString(){
+        return "<StackTraceCache: "+size()+"/"+capacity+">";
+    }
+}
@@ -0,0 +1,27 @@
+package com.edinarobotics.utils.log;
+
+import java.io.IOException;
+
+/**
+ * StreamingFormatter implementations are Formatters that can write a
+ * formatted log event directly into an Appendable, such as a reused
+ * StringBuilder, instead of returning a new String.
+ *
+ * Handlers that write bytes use this method so that formatting an event
+ * does not create intermediate Strings. Formatters that do not implement
+ * this interface can be adapted with
+ * {@link com.edinarobotics.utils.log.formatters.StreamingFormatters#adapt(Formatter)}.
+ */
+public interface StreamingFormatter extends Formatter {
+    
+    /**
+     * Formats the given LogEvent into the given Appendable.
+     * 
+     * The appended text must be the same as the String returned by
+     * {@link #format(LogEvent)}.
+     * @param event The LogEvent to be formatted.
+     * @param out The Appendable to which the formatted event is appended.
+     * @throws IOException If {@code out} throws an IOException.
+     */
+    public void format(LogEvent event, Appendable out) throws IOException;
+}
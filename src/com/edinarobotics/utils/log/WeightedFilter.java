@@ -0,0 +1,29 @@
+package com.edinarobotics.utils.log;
+
+/**
+ * WeightedFilter implementations are Filters that pass a sample of events,
+ * and report how many events each passed event stands for.
+ *
+ * Loggers call {@link #sample(Logger, Level, String, Throwable)} instead of
+ * the other filter methods for these filters. The weights of every
+ * WeightedFilter an event passes on its way up the Logger hierarchy are
+ * multiplied together and made available to Handlers through
+ * {@link LogEvent#getSampleWeight()}, so that counts and sums computed from
+ * the sampled events can be scaled back to the full stream of events.
+ */
+public interface WeightedFilter extends LoggerFilter {
+
+    /**
+     * Determines whether a loggable event is part of this Filter's sample.
+     *
+     * @param origin The Logger to which the log event was originally
+     * submitted.
+     * @param level The severity level of the log event.
+     * @param message The message associated with the log event.
+     * @param thrown The optional Throwable associated with the log event. Note
+     * that this parameter may be {@code null}.
+     * @return {@code 0} if the event is rejected, otherwise the number of
+     * events the passed event stands for, which is at least {@code 1}.
+     */
+    public double sample(Logger origin, Level level, String message, Throwable thrown);
+}
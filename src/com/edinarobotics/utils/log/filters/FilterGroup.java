@@ -2,14 +2,22 @@ package com.edinarobotics.utils.log.filters;
 
 import com.edinarobotics.utils.log.Filter;
 import com.edinarobotics.utils.log.Level;
+import com.edinarobotics.utils.log.LevelFilter;
+import com.edinarobotics.utils.log.Logger;
+import com.edinarobotics.utils.log.LoggerFilter;
+import com.edinarobotics.utils.log.WeightedFilter;
 
 /**
  * This filter implementation only passes a log event if it meets all
  * the criteria of an array of loggers.
  * Each logger in this group must pass the event in order for it to be
  * approved by this filter implementation.
+ * 
+ * If the group contains {@link WeightedFilter}s, such as a
+ * {@link SamplingFilter}, the sampling weight of an approved event is the
+ * product of their weights.
  */
-public class FilterGroup implements Filter{
+public class FilterGroup implements LevelFilter, WeightedFilter {
     private Filter[] filters;
     
     /**
@@ -53,6 +61,98 @@ public class FilterGroup implements Filter{
         return true;
     }
     
+    /**
+     * Determines whether this FilterGroup approves a log event for handling.
+     * 
+     * This method behaves like {@link #filter(Level, String, Throwable)},
+     * but also passes the original Logger to each {@link LoggerFilter} in
+     * this group.
+     * @param origin The Logger to which the log event was originally
+     * submitted.
+     * @param level The severity level associated with the log event.
+     * @param message The String message associated with the log event.
+     * @param thrown The optional Throwable associated with the log event.
+     * @return {@code true} if this FilterGroup approves the log event
+     * for handling, {@code false} otherwise.
+     */
+    public boolean filter(Logger origin, Level level, String message, Throwable thrown){
+        return sample(origin, level, message, thrown) > 0;
+    }
+    
+    /**
+     * Determines whether this FilterGroup approves a log event for handling,
+     * and computes its sampling weight.
+     * 
+     * This method behaves like
+     * {@link #filter(Logger, Level, String, Throwable)}, but also multiplies
+     * together the weights returned by each {@link WeightedFilter} in this
+     * group.
+     * @param origin The Logger to which the log event was originally
+     * submitted.
+     * @param level The severity level associated with the log event.
+     * @param message The String message associated with the log event.
+     * @param thrown The optional Throwable associated with the log event.
+     * @return {@code 0} if this FilterGroup rejects the log event, otherwise
+     * its sampling weight.
+     */
+    public double sample(Logger origin, Level level, String message, Throwable thrown){
+        double weight = 1;
+        for(int i = 0; i < filters.length; i++){
+            Filter filter = filters[i];
+            if(filter instanceof WeightedFilter){
+                double filterWeight = ((WeightedFilter)filter).sample(origin, level, message, thrown);
+                if(filterWeight <= 0){
+                    return 0;
+                }
+                weight *= filterWeight;
+            }
+            else if(filter instanceof LoggerFilter){
+                if(!((LoggerFilter)filter).filter(origin, level, message, thrown)){
+                    return 0;
+                }
+            }
+            else if(!filter.filter(level, message, thrown)){
+                return 0;
+            }
+        }
+        return weight;
+    }
+    
+    /**
+     * Determines whether log events at the given level could be approved by
+     * this FilterGroup.
+     * 
+     * Events at {@code level} are rejected if any {@link LevelFilter} in this
+     * group rejects the level.
+     * @param level The severity level to be tested.
+     * @return {@code false} if every event at {@code level} will be
+     * rejected by this FilterGroup, {@code true} otherwise.
+     */
+    public boolean filter(Level level){
+        for(int i = 0; i < filters.length; i++){
+            if(filters[i] instanceof LevelFilter && !((LevelFilter)filters[i]).filter(level)){
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * Indicates whether this FilterGroup only examines the severity of log
+     * events. This is the case if every filter in the group only examines
+     * the severity of log events.
+     * @return {@code true} if this FilterGroup's decision depends only on
+     * the severity level, {@code false} otherwise.
+     */
+    public boolean isLevelOnly(){
+        for(int i = 0; i < filters.length; i++){
+            if(!(filters[i] instanceof LevelFilter) || !((LevelFilter)filters[i]).isLevelOnly()){
+                return false;
+            }
+        }
+        return true;
+    }
+    
     /**
      * Returns a hash code value for this FilterGroup as required by
      * {@link Object#hashCode()}.
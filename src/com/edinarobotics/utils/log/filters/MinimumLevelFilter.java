@@ -1,13 +1,13 @@
 package com.edinarobotics.utils.log.filters;
 
-import com.edinarobotics.utils.log.Filter;
 import com.edinarobotics.utils.log.Level;
+import com.edinarobotics.utils.log.LevelFilter;
 
 /**
  * This filter implementation only passes log events that are at least as
  * severe as a given severity.
  */
-public class MinimumLevelFilter implements Filter {
+public class MinimumLevelFilter implements LevelFilter {
     private Level minimumLevel;
     
     /**
@@ -41,9 +41,30 @@ public class MinimumLevelFilter implements Filter {
      * acceptable severity for this MinimumLevelFilter, {@code false} otherwise.
      */
     public boolean filter(Level level, String message, Throwable thrown){
+        return filter(level);
+    }
+    
+    /**
+     * Determines whether log events at the given level meet this
+     * MinimumLevelFilter's criteria.
+     * @param level The level to be tested.
+     * @return {@code true} if {@code level} is at least as severe as the
+     * minimum acceptable severity for this MinimumLevelFilter,
+     * {@code false} otherwise.
+     */
+    public boolean filter(Level level){
         return level.compareTo(getMinimumLevel()) >= 0;
     }
     
+    /**
+     * Indicates that this MinimumLevelFilter only examines the severity of
+     * log events.
+     * @return {@code true}, always.
+     */
+    public boolean isLevelOnly(){
+        return true;
+    }
+    
     /**
      * Returns a hash code value for this MinimumLevelFilter, as required
      * by {@link Object#hashCode()}.
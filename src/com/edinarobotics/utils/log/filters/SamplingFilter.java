@@ -0,0 +1,286 @@
+package com.edinarobotics.utils.log.filters;
+
+import com.edinarobotics.utils.log.Level;
+import com.edinarobotics.utils.log.Logger;
+import com.edinarobotics.utils.log.WeightedFilter;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * This filter implementation passes only a sample of frequent, low-severity
+ * log events, such as {@link Level#TRACE} events logged on every control
+ * cycle.
+ *
+ * Events at or below the maximum sampled Level are sampled in one of two
+ * ways:
+ * <ul>
+ * <li>By interval: every {@code interval}-th event from each original
+ * Logger at each Level is passed, starting with the first. Each Logger and
+ * Level has its own counter, so a noisy Logger does not starve a quiet
+ * one.</li>
+ * <li>By probability: each event is passed independently with the given
+ * probability, decided by a xorshift random number generator held by each
+ * thread.</li>
+ * </ul>
+ * More severe events always pass. Each passed event carries a sampling
+ * weight of {@code interval}, or of {@code 1 / probability}, available from
+ * {@link com.edinarobotics.utils.log.LogEvent#getSampleWeight()}, so that
+ * counts and sums computed from the sample can be scaled back up.
+ *
+ * Counters are kept in a fixed-size table indexed by Logger, and are
+ * updated with atomic increments, so passing an event through this filter
+ * never locks or allocates. If the table is crowded, Loggers that do not
+ * fit share one set of counters.
+ */
+public class SamplingFilter implements WeightedFilter {
+
+    /**
+     * The default number of Loggers that get their own counters.
+     */
+    public static final int DEFAULT_CAPACITY = 256;
+
+    private static final int MAXIMUM_PROBES = 8;
+    private static final ThreadLocal<long[]> random = new ThreadLocal<long[]>(){
+        protected long[] initialValue(){
+            long seed = System.nanoTime() ^ (Thread.currentThread().getId() * 0x9E3779B97F4A7C15L);
+            return new long[] {seed == 0 ? 1 : seed};
+        }
+    };
+
+    private final int interval;
+    private final double probability;
+    private final double weight;
+    private final Level maximumLevel;
+    private final int mask;
+    private final AtomicReferenceArray<Logger> loggers;
+    private final AtomicLongArray counters;
+
+    /**
+     * Constructs a new SamplingFilter that passes every
+     * {@code interval}-th {@link Level#TRACE} event from each Logger.
+     * @param interval The number of events represented by each passed
+     * event.
+     */
+    public SamplingFilter(int interval){
+        this(interval, Level.TRACE);
+    }
+
+    /**
+     * Constructs a new SamplingFilter that passes every
+     * {@code interval}-th event from each Logger at each Level up to
+     * {@code maximumLevel}.
+     * @param interval The number of events represented by each passed
+     * event.
+     * @param maximumLevel The most severe Level that is sampled.
+     */
+    public SamplingFilter(int interval, Level maximumLevel){
+        this(true, interval, 0, maximumLevel, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructs a new SamplingFilter that passes each event at a Level up
+     * to {@code maximumLevel} with the given probability.
+     * @param probability The probability, greater than {@code 0} and at
+     * most {@code 1}, that an event is passed.
+     * @param maximumLevel The most severe Level that is sampled.
+     */
+    public SamplingFilter(double probability, Level maximumLevel){
+        this(false, 0, probability, maximumLevel, 0);
+    }
+
+    /**
+     * Constructs a new SamplingFilter that samples by interval and gives
+     * the given number of Loggers their own counters.
+     * @param interval The number of events represented by each passed
+     * event.
+     * @param maximumLevel The most severe Level that is sampled.
+     * @param capacity The number of Loggers that get their own counters.
+     * This value is rounded up to the next power of two.
+     */
+    public SamplingFilter(int interval, Level maximumLevel, int capacity){
+        this(true, interval, 0, maximumLevel, capacity);
+    }
+
+    /**
+     * Internal constructor shared by the public constructors.
+     * @param byInterval {@code true} to sample by interval, {@code false}
+     * to sample by probability.
+     * @param interval The sampling interval, used if {@code byInterval} is
+     * {@code true}.
+     * @param probability The sampling probability, used if
+     * {@code byInterval} is {@code false}.
+     * @param maximumLevel The most severe Level that is sampled.
+     * @param capacity The number of Loggers that get their own counters.
+     */
+    private SamplingFilter(boolean byInterval, int interval, double probability, Level maximumLevel, int capacity){
+        if(maximumLevel == null){
+            throw new IllegalArgumentException("Provided maximum Level must not be null");
+        }
+        if(byInterval){
+            if(interval < 1){
+                throw new IllegalArgumentException("Interval must be positive (received: "+interval+")");
+            }
+            if(capacity < 1 || capacity > (1 << 20)){
+                throw new IllegalArgumentException("Capacity must be between 1 and 2^20 (received: "+capacity+")");
+            }
+        }
+        else if(!(probability > 0 && probability <= 1)){
+            throw new IllegalArgumentException("Probability must be greater than 0 and at most 1 (received: "+probability+")");
+        }
+        this.interval = byInterval ? interval : 0;
+        this.probability = byInterval ? 1.0 / interval : probability;
+        this.weight = byInterval ? interval : 1.0 / probability;
+        this.maximumLevel = maximumLevel;
+        if(byInterval){
+            int size = capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+            this.mask = size - 1;
+            this.loggers = new AtomicReferenceArray<Logger>(size);
+            //One extra row of counters is shared by Loggers that do not fit
+            this.counters = new AtomicLongArray((size + 1) * Level.COUNT);
+        }
+        else{
+            this.mask = 0;
+            this.loggers = null;
+            this.counters = null;
+        }
+    }
+
+    /**
+     * Returns the sampling interval of this SamplingFilter.
+     * @return The number of events represented by each passed event, or
+     * {@code 0} if this SamplingFilter samples by probability.
+     */
+    public int getInterval(){
+        return interval;
+    }
+
+    /**
+     * Returns the probability that a sampled event is passed.
+     * @return The sampling probability, which is {@code 1 / interval} when
+     * sampling by interval.
+     */
+    public double getProbability(){
+        return probability;
+    }
+
+    /**
+     * Returns the most severe Level that is sampled. More severe events
+     * always pass.
+     * @return The maximum sampled Level.
+     */
+    public Level getMaximumLevel(){
+        return maximumLevel;
+    }
+
+    /**
+     * Determines whether a log event is part of the sample.
+     *
+     * When sampling by interval, events from all Loggers share one set of
+     * counters, because the original Logger is unknown.
+     * @param level The severity level of the log event.
+     * @param message The message associated with the log event.
+     * @param thrown The optional throwable associated with the log event.
+     * @return {@code true} if the event is passed, {@code false} otherwise.
+     */
+    public boolean filter(Level level, String message, Throwable thrown){
+        return sample(null, level, message, thrown) > 0;
+    }
+
+    /**
+     * Determines whether a log event is part of the sample.
+     * @param origin The Logger to which the log event was originally
+     * submitted.
+     * @param level The severity level of the log event.
+     * @param message The message associated with the log event.
+     * @param thrown The optional throwable associated with the log event.
+     * @return {@code true} if the event is passed, {@code false} otherwise.
+     */
+    public boolean filter(Logger origin, Level level, String message, Throwable thrown){
+        return sample(origin, level, message, thrown) > 0;
+    }
+
+    /**
+     * Determines whether a log event is part of the sample and returns its
+     * sampling weight.
+     * @param origin The Logger to which the log event was originally
+     * submitted, or {@code null} if it is unknown.
+     * @param level The severity level of the log event.
+     * @param message The message associated with the log event.
+     * @param thrown The optional throwable associated with the log event.
+     * @return {@code 0} if the event is rejected, {@code 1} if it is more
+     * severe than the maximum sampled Level, and the sampling weight
+     * otherwise.
+     */
+    public double sample(Logger origin, Level level, String message, Throwable thrown){
+        if(level.compareTo(maximumLevel) > 0){
+            return 1;
+        }
+        if(interval > 0){
+            int counter = getRow(origin) * Level.COUNT + level.getIndex();
+            return counters.getAndIncrement(counter) % interval == 0 ? weight : 0;
+        }
+        return nextDouble() < probability ? weight : 0;
+    }
+
+    /**
+     * Internal method that finds the row of counters belonging to a
+     * Logger, claiming a free row the first time the Logger is seen.
+     * @param origin The Logger whose counters are needed.
+     * @return The index of the Logger's row, or of the shared row if the
+     * Logger does not fit in the table.
+     */
+    private int getRow(Logger origin){
+        int shared = mask + 1;
+        if(origin == null){
+            return shared;
+        }
+        int hash = System.identityHashCode(origin) * 0x9E3779B9;
+        int start = hash ^ (hash >>> 16);
+        for(int probe = 0; probe < MAXIMUM_PROBES; probe++){
+            int row = (start + probe) & mask;
+            Logger current = loggers.get(row);
+            if(current == origin){
+                return row;
+            }
+            if(current == null && loggers.compareAndSet(row, null, origin)){
+                return row;
+            }
+            if(loggers.get(row) == origin){
+                //Another thread claimed this row for the same Logger
+                return row;
+            }
+        }
+        return shared;
+    }
+
+    /**
+     * Internal method that returns the next value of the calling thread's
+     * xorshift random number generator.
+     * @return A uniformly distributed value at least {@code 0} and less
+     * than {@code 1}.
+     */
+    private static double nextDouble(){
+        long[] state = random.get();
+        long x = state[0];
+        x ^= x << 13;
+        x ^= x >>> 7;
+        x ^= x << 17;
+        state[0] = x;
+        return (x >>> 11) * 0x1.0p-53;
+    }
+
+    /**
+     * Returns a String representation of this SamplingFilter.
+     *
+     * The String representation of this SamplingFilter is intended to be
+     * human-readable.
+     * @return A human-readable String representation of this
+     * SamplingFilter.
+     */
+    public String toString(){
+        if(interval > 0){
+            return "<SamplingFilter: 1/"+interval+", "+maximumLevel+">";
+        }
+        return "<SamplingFilter: p="+probability+", "+maximumLevel+">";
+    }
+}
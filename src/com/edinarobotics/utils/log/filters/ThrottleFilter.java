@@ -0,0 +1,460 @@
+package com.edinarobotics.utils.log.filters;
+
+import com.edinarobotics.utils.log.Level;
+import com.edinarobotics.utils.log.LogSystem;
+import com.edinarobotics.utils.log.Logger;
+import com.edinarobotics.utils.log.LoggerFilter;
+
+/**
+ * This filter implementation suppresses repeated log events and limits the
+ * rate at which each Logger can produce events.
+ *
+ * An event is a repeat if an earlier event had the same original Logger,
+ * level, message and Throwable class, and the earlier event started a
+ * suppression window that has not yet closed. Only the first event of each
+ * window is passed. When a repeat arrives after its window has closed, a
+ * summary line reporting the number of suppressed repeats is logged to the
+ * original Logger before the new event is passed.
+ *
+ * Events that are not repeats are then subject to a token bucket rate limit
+ * for their original Logger. Each Logger may log {@code burst} events at
+ * once, and gains tokens for more at {@code eventsPerSecond}. Once an event
+ * passes again, a summary line reports the number of events dropped by the
+ * rate limit. An event dropped by the rate limit does not start a
+ * suppression window, so its later repeats are not counted as repeats.
+ *
+ * Token buckets are kept for up to 64 Loggers. When another Logger needs a
+ * bucket, the bucket that was least recently used is given to it, after
+ * reporting any events dropped for its previous Logger.
+ *
+ * Repeats are tracked in a fixed-size open-addressed table, so passing an
+ * event through this filter never allocates. When the table is crowded,
+ * the oldest entry in the way is replaced and its summary, if any, is
+ * logged. Both tables are guarded by a lock on the ThrottleFilter, which
+ * every filtered event takes once.
+ */
+public class ThrottleFilter implements LoggerFilter {
+
+    /**
+     * The default number of distinct events tracked for repeats.
+     */
+    public static final int DEFAULT_CAPACITY = 256;
+
+    private static final int MAXIMUM_PROBES = 8;
+    private static final int BUCKET_CAPACITY = 64;
+    private static final ThreadLocal<boolean[]> emitting = new ThreadLocal<boolean[]>(){
+        protected boolean[] initialValue(){
+            return new boolean[1];
+        }
+    };
+
+    private final long windowNanos;
+    private final double eventsPerSecond;
+    private final int burst;
+
+    private final int mask;
+    private final int[] hashes;
+    private final Logger[] loggers;
+    private final Level[] levels;
+    private final String[] messages;
+    private final Class<?>[] thrownClasses;
+    private final long[] windowStarts;
+    private final int[] repeats;
+
+    private final Logger[] bucketLoggers;
+    private final double[] tokens;
+    private final long[] refillTimes;
+    private final int[] rateLimited;
+
+    private long suppressedCount;
+    private long rateLimitedCount;
+
+    /**
+     * Constructs a new ThrottleFilter that only suppresses repeated events,
+     * without a rate limit.
+     * @param windowMillis The length of each suppression window in
+     * milliseconds.
+     */
+    public ThrottleFilter(long windowMillis){
+        this(windowMillis, 0, 0, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructs a new ThrottleFilter that suppresses repeated events and
+     * limits the rate of events from each Logger.
+     * @param windowMillis The length of each suppression window in
+     * milliseconds.
+     * @param eventsPerSecond The sustained number of events each Logger may
+     * log per second, or {@code 0} for no rate limit.
+     * @param burst The number of events each Logger may log at once.
+     */
+    public ThrottleFilter(long windowMillis, double eventsPerSecond, int burst){
+        this(windowMillis, eventsPerSecond, burst, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructs a new ThrottleFilter that suppresses repeated events and
+     * limits the rate of events from each Logger.
+     * @param windowMillis The length of each suppression window in
+     * milliseconds.
+     * @param eventsPerSecond The sustained number of events each Logger may
+     * log per second, or {@code 0} for no rate limit.
+     * @param burst The number of events each Logger may log at once.
+     * @param capacity The number of distinct events tracked for repeats.
+     * This value is rounded up to the next power of two.
+     */
+    public ThrottleFilter(long windowMillis, double eventsPerSecond, int burst, int capacity){
+        if(windowMillis < 0){
+            throw new IllegalArgumentException("Window must not be negative (received: "+windowMillis+")");
+        }
+        if(eventsPerSecond < 0 || Double.isNaN(eventsPerSecond)){
+            throw new IllegalArgumentException("Events per second must not be negative (received: "+eventsPerSecond+")");
+        }
+        if(eventsPerSecond > 0 && burst < 1){
+            throw new IllegalArgumentException("Burst must be positive (received: "+burst+")");
+        }
+        if(capacity < 1 || capacity > (1 << 20)){
+            throw new IllegalArgumentException("Capacity must be between 1 and 2^20 (received: "+capacity+")");
+        }
+        int size = Math.max(MAXIMUM_PROBES, Integer.highestOneBit(capacity - 1) << 1);
+        this.windowNanos = windowMillis * 1000000L;
+        this.eventsPerSecond = eventsPerSecond;
+        this.burst = burst;
+        this.mask = size - 1;
+        this.hashes = new int[size];
+        this.loggers = new Logger[size];
+        this.levels = new Level[size];
+        this.messages = new String[size];
+        this.thrownClasses = new Class<?>[size];
+        this.windowStarts = new long[size];
+        this.repeats = new int[size];
+        this.bucketLoggers = new Logger[BUCKET_CAPACITY];
+        this.tokens = new double[BUCKET_CAPACITY];
+        this.refillTimes = new long[BUCKET_CAPACITY];
+        this.rateLimited = new int[BUCKET_CAPACITY];
+    }
+
+    /**
+     * Determines whether a log event passes this ThrottleFilter.
+     *
+     * Events filtered without their original Logger are tracked as if they
+     * had been submitted to the root Logger.
+     * @param level The severity level associated with the log event.
+     * @param message The String message associated with the log event.
+     * @param thrown The optional Throwable associated with the log event.
+     * @return {@code true} if the event is neither a repeat nor over the
+     * rate limit, {@code false} otherwise.
+     */
+    public boolean filter(Level level, String message, Throwable thrown){
+        return filter(LogSystem.getRootLogger(), level, message, thrown);
+    }
+
+    /**
+     * Determines whether a log event passes this ThrottleFilter.
+     *
+     * Summary lines produced while filtering this event are logged to
+     * their original Logger before this method returns. Summary lines
+     * themselves always pass this filter.
+     * @param origin The Logger to which the log event was originally
+     * submitted.
+     * @param level The severity level associated with the log event.
+     * @param message The String message associated with the log event.
+     * @param thrown The optional Throwable associated with the log event.
+     * @return {@code true} if the event is neither a repeat nor over the
+     * rate limit, {@code false} otherwise.
+     */
+    public boolean filter(Logger origin, Level level, String message, Throwable thrown){
+        boolean[] emittingSummary = emitting.get();
+        if(emittingSummary[0]){
+            return true;
+        }
+        long now = System.nanoTime();
+        Class<?> thrownClass = thrown == null ? null : thrown.getClass();
+        int hash = hash(origin, level, message, thrownClass);
+        Logger repeatLogger = null;
+        Level repeatLevel = null;
+        String repeatSummary = null;
+        Logger rateLogger = null;
+        String rateSummary = null;
+        Logger evictedLogger = null;
+        String evictedSummary = null;
+        synchronized(this){
+            int slot = -1;
+            int free = -1;
+            int oldest = -1;
+            for(int probe = 0; probe < MAXIMUM_PROBES; probe++){
+                int i = (hash + probe) & mask;
+                if(loggers[i] == null){
+                    if(free < 0){
+                        free = i;
+                    }
+                    continue;
+                }
+                if(hashes[i] == hash && loggers[i] == origin && levels[i] == level &&
+                        thrownClasses[i] == thrownClass && messages[i].equals(message)){
+                    slot = i;
+                    break;
+                }
+                if(oldest < 0 || windowStarts[i] - windowStarts[oldest] < 0){
+                    oldest = i;
+                }
+            }
+            if(slot >= 0 && now - windowStarts[slot] < windowNanos){
+                repeats[slot]++;
+                suppressedCount++;
+                return false;
+            }
+            if(eventsPerSecond > 0){
+                //The rate limit is checked before the entry is claimed, so
+                //that a dropped event does not start a suppression window
+                int bucket = findBucket(origin);
+                if(bucket < 0){
+                    bucket = claimBucket(origin, now);
+                    if(rateLimited[bucket] > 0){
+                        evictedLogger = bucketLoggers[bucket];
+                        evictedSummary = getRateSummary(rateLimited[bucket]);
+                    }
+                    bucketLoggers[bucket] = origin;
+                    tokens[bucket] = burst;
+                    rateLimited[bucket] = 0;
+                }
+                else{
+                    double elapsed = (now - refillTimes[bucket]) / 1e9;
+                    tokens[bucket] = Math.min(burst, tokens[bucket] + elapsed * eventsPerSecond);
+                }
+                refillTimes[bucket] = now;
+                if(tokens[bucket] < 1){
+                    rateLimited[bucket]++;
+                    rateLimitedCount++;
+                    return false;
+                }
+                tokens[bucket] -= 1;
+                if(rateLimited[bucket] > 0){
+                    rateLogger = origin;
+                    rateSummary = getRateSummary(rateLimited[bucket]);
+                    rateLimited[bucket] = 0;
+                }
+            }
+            if(slot < 0){
+                //Replace the oldest entry if there is no free slot
+                slot = free >= 0 ? free : oldest;
+            }
+            if(repeats[slot] > 0){
+                //Either this event's window has closed or its entry is
+                //being replaced, so report its repeats
+                repeatLogger = loggers[slot];
+                repeatLevel = levels[slot];
+                repeatSummary = getRepeatSummary(repeats[slot], messages[slot]);
+            }
+            hashes[slot] = hash;
+            messages[slot] = message;
+            thrownClasses[slot] = thrownClass;
+            loggers[slot] = origin;
+            levels[slot] = level;
+            windowStarts[slot] = now;
+            repeats[slot] = 0;
+        }
+        //Summaries are logged without holding the lock, since they pass
+        //through Handlers
+        emit(repeatLogger, repeatLevel, repeatSummary, emittingSummary);
+        emit(rateLogger, Level.WARNING, rateSummary, emittingSummary);
+        emit(evictedLogger, Level.WARNING, evictedSummary, emittingSummary);
+        return true;
+    }
+
+    /**
+     * Logs summary lines for every suppression window that has closed
+     * since its last repeat.
+     *
+     * Summaries are otherwise only logged when the same event occurs again
+     * after its window has closed. Calling this method periodically ensures
+     * that repeats of events that stop occurring are still reported.
+     */
+    public void flush(){
+        boolean[] emittingSummary = emitting.get();
+        long now = System.nanoTime();
+        while(true){
+            Logger logger = null;
+            Level level = null;
+            String summary = null;
+            synchronized(this){
+                for(int i = 0; i <= mask; i++){
+                    if(loggers[i] != null && repeats[i] > 0 && now - windowStarts[i] >= windowNanos){
+                        logger = loggers[i];
+                        level = levels[i];
+                        summary = getRepeatSummary(repeats[i], messages[i]);
+                        repeats[i] = 0;
+                        break;
+                    }
+                }
+            }
+            if(summary == null){
+                return;
+            }
+            emit(logger, level, summary, emittingSummary);
+        }
+    }
+
+    /**
+     * Returns the total number of repeated events suppressed by this
+     * ThrottleFilter.
+     * @return The number of suppressed repeats.
+     */
+    public synchronized long getSuppressedCount(){
+        return suppressedCount;
+    }
+
+    /**
+     * Returns the total number of events dropped by the rate limit of this
+     * ThrottleFilter.
+     * @return The number of rate limited events.
+     */
+    public synchronized long getRateLimitedCount(){
+        return rateLimitedCount;
+    }
+
+    /**
+     * Returns the length of the suppression window of this ThrottleFilter.
+     * @return The length of the suppression window in milliseconds.
+     */
+    public long getWindowMillis(){
+        return windowNanos / 1000000L;
+    }
+
+    /**
+     * Returns the sustained number of events each Logger may log per
+     * second.
+     * @return The rate limit in events per second, or {@code 0} if there is
+     * no rate limit.
+     */
+    public double getEventsPerSecond(){
+        return eventsPerSecond;
+    }
+
+    /**
+     * Returns the number of events each Logger may log at once.
+     * @return The size of each Logger's token bucket.
+     */
+    public int getBurst(){
+        return burst;
+    }
+
+    /**
+     * Internal method that finds the token bucket of a Logger. Callers must
+     * hold the lock on this ThrottleFilter.
+     * @param logger The Logger whose bucket to return.
+     * @return The index of the bucket, or {@code -1} if the Logger has no
+     * bucket.
+     */
+    private int findBucket(Logger logger){
+        int start = System.identityHashCode(logger) & (BUCKET_CAPACITY - 1);
+        for(int probe = 0; probe < BUCKET_CAPACITY; probe++){
+            int i = (start + probe) & (BUCKET_CAPACITY - 1);
+            if(bucketLoggers[i] == logger){
+                return i;
+            }
+            if(bucketLoggers[i] == null){
+                return -1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Internal method that chooses the bucket to give to a Logger which has
+     * none: the first free bucket in its probe sequence, or the least
+     * recently used bucket if every bucket is in use. Buckets are never
+     * emptied, so replacing one in place keeps every probe sequence intact.
+     * Callers must hold the lock on this ThrottleFilter.
+     * @param logger The Logger which needs a bucket.
+     * @param now The current value of {@link System#nanoTime()}.
+     * @return The index of the bucket.
+     */
+    private int claimBucket(Logger logger, long now){
+        int start = System.identityHashCode(logger) & (BUCKET_CAPACITY - 1);
+        int oldest = start;
+        for(int probe = 0; probe < BUCKET_CAPACITY; probe++){
+            int i = (start + probe) & (BUCKET_CAPACITY - 1);
+            if(bucketLoggers[i] == null){
+                return i;
+            }
+            if(refillTimes[i] - refillTimes[oldest] < 0){
+                oldest = i;
+            }
+        }
+        return oldest;
+    }
+
+    /**
+     * Internal method that computes the hash of an event's identity.
+     * @param logger The original Logger of the event.
+     * @param level The severity level of the event.
+     * @param message The message of the event.
+     * @param thrownClass The class of the event's Throwable, or
+     * {@code null}.
+     * @return The hash of the event.
+     */
+    private static int hash(Logger logger, Level level, String message, Class<?> thrownClass){
+        int hash = System.identityHashCode(logger);
+        hash = 31*hash + level.getIndex();
+        hash = 31*hash + message.hashCode();
+        hash = 31*hash + (thrownClass == null ? 0 : thrownClass.hashCode());
+        //Spread the high bits into the low bits used to index the table
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * Internal method that builds the summary line for suppressed repeats.
+     * @param count The number of suppressed repeats.
+     * @param message The message of the repeated event.
+     * @return The summary line.
+     */
+    private String getRepeatSummary(int count, String message){
+        return "Suppressed "+count+" repeats of \""+message+"\"";
+    }
+
+    /**
+     * Internal method that builds the summary line for events dropped by
+     * the rate limit.
+     * @param count The number of dropped events.
+     * @return The summary line.
+     */
+    private String getRateSummary(int count){
+        return "Rate limit dropped "+count+" events";
+    }
+
+    /**
+     * Internal method that logs a summary line without it being filtered
+     * by this ThrottleFilter.
+     * @param logger The Logger to which the summary is logged, or
+     * {@code null} if there is no summary.
+     * @param level The severity level of the summary.
+     * @param summary The summary line.
+     * @param emittingSummary The calling thread's flag that marks summaries
+     * being logged.
+     */
+    private static void emit(Logger logger, Level level, String summary, boolean[] emittingSummary){
+        if(summary == null){
+            return;
+        }
+        emittingSummary[0] = true;
+        try{
+            logger.log(level, summary);
+        }
+        finally{
+            emittingSummary[0] = false;
+        }
+    }
+
+    /**
+     * Returns a String representation of this ThrottleFilter.
+     *
+     * The String representation of this ThrottleFilter is intended
+     * to be human-readable.
+     * @return A human-readable String representation of this
+     * ThrottleFilter.
+     */
+    public String toString(){
+        return "<ThrottleFilter: "+getWindowMillis()+" ms, "+eventsPerSecond+"/s, "+burst+">";
+    }
+}
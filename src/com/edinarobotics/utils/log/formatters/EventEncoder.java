@@ -0,0 +1,245 @@
+package com.edinarobotics.utils.log.formatters;
+
+import com.edinarobotics.utils.log.Formatter;
+import com.edinarobotics.utils.log.LogEvent;
+import com.edinarobotics.utils.log.StreamingFormatter;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+
+/**
+ * An EventEncoder formats LogEvents and encodes the text into bytes,
+ * reusing the same character and byte buffers for every event.
+ *
+ * The Formatter appends directly into a reusable character buffer, which is
+ * then encoded into either a caller-supplied ByteBuffer, with
+ * {@link #format(LogEvent)} and {@link #encodeTo(ByteBuffer)}, or an
+ * internal ByteBuffer, with {@link #encode(LogEvent)}. No intermediate
+ * Strings are created unless the Formatter is not a
+ * {@link StreamingFormatter}. The buffers grow to fit the largest event
+ * seen so far.
+ *
+ * An EventEncoder is not thread-safe. Handlers should use one EventEncoder
+ * per thread or synchronize their use of it.
+ */
+public final class EventEncoder {
+    private static final int INITIAL_SIZE = 256;
+
+    private final StreamingFormatter formatter;
+    private final String lineSeparator;
+    private final CharsetEncoder encoder;
+    private final CharSink chars;
+    private ByteBuffer bytes;
+    private boolean flushed;
+
+    /**
+     * Constructs a new EventEncoder which encodes each formatted event as
+     * UTF-8 followed by {@code "\n"}.
+     * @param formatter The Formatter used to format LogEvents. Formatters
+     * which are not StreamingFormatters are adapted automatically.
+     */
+    public EventEncoder(Formatter formatter){
+        this(formatter, Charset.forName("UTF-8"), "\n");
+    }
+
+    /**
+     * Constructs a new EventEncoder.
+     * @param formatter The Formatter used to format LogEvents. Formatters
+     * which are not StreamingFormatters are adapted automatically.
+     * @param charset The Charset in which the formatted text is encoded.
+     * Characters which cannot be encoded are replaced.
+     * @param lineSeparator The text appended after each formatted event, or
+     * {@code null} to append nothing.
+     */
+    public EventEncoder(Formatter formatter, Charset charset, String lineSeparator){
+        if(charset == null){
+            throw new IllegalArgumentException("Provided Charset must not be null");
+        }
+        this.formatter = StreamingFormatters.adapt(formatter);
+        this.lineSeparator = lineSeparator;
+        this.encoder = charset.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        this.chars = new CharSink();
+        this.bytes = ByteBuffer.allocate(INITIAL_SIZE);
+        this.flushed = true;
+    }
+
+    /**
+     * Formats the given LogEvent into the character buffer, replacing any
+     * text that has not yet been encoded. The text is then encoded by
+     * calling {@link #encodeTo(ByteBuffer)}.
+     * @param event The LogEvent to be formatted.
+     */
+    public void format(LogEvent event){
+        chars.clear();
+        try{
+            formatter.format(event, chars);
+            if(lineSeparator != null){
+                chars.append(lineSeparator);
+            }
+        }
+        catch(IOException e){
+            //CharSink never throws IOException
+            throw new IllegalStateException(e.toString());
+        }
+        chars.flip();
+        encoder.reset();
+        flushed = false;
+    }
+
+    /**
+     * Encodes as much of the formatted text as fits into the given
+     * ByteBuffer.
+     *
+     * If the ByteBuffer fills before all of the text is encoded, this method
+     * returns {@code false}. The caller should then empty the ByteBuffer and
+     * call this method again.
+     * @param out The ByteBuffer into which the text is encoded.
+     * @return {@code true} if all of the formatted text has been encoded,
+     * {@code false} if {@code out} is full.
+     */
+    public boolean encodeTo(ByteBuffer out){
+        if(flushed){
+            return true;
+        }
+        CoderResult result = encoder.encode(chars.view, out, true);
+        if(result.isOverflow()){
+            return false;
+        }
+        if(encoder.flush(out).isOverflow()){
+            return false;
+        }
+        flushed = true;
+        return true;
+    }
+
+    /**
+     * Formats and encodes the given LogEvent into an internal ByteBuffer.
+     *
+     * The returned ByteBuffer is reused by the next call to this method.
+     * Its contents run from its position to its limit, and it is backed by
+     * an accessible array.
+     * @param event The LogEvent to be encoded.
+     * @return The ByteBuffer containing the encoded event.
+     */
+    public ByteBuffer encode(LogEvent event){
+        format(event);
+        bytes.clear();
+        while(!encodeTo(bytes)){
+            ByteBuffer larger = ByteBuffer.allocate(bytes.capacity() * 2);
+            bytes.flip();
+            larger.put(bytes);
+            bytes = larger;
+        }
+        bytes.flip();
+        return bytes;
+    }
+
+    /**
+     * Returns a String representation of this EventEncoder.
+     * @return A String representation of this EventEncoder.
+     */
+    public String toString(){
+        return "<EventEncoder: "+formatter.toString()+", "+encoder.charset().name()+">";
+    }
+
+    /**
+     * A growable character buffer which can be encoded without copying its
+     * contents into a String.
+     */
+    private static final class CharSink implements Appendable {
+        private char[] array;
+        private int length;
+        private CharBuffer view;
+
+        private CharSink(){
+            this.array = new char[INITIAL_SIZE];
+            this.length = 0;
+            this.view = CharBuffer.wrap(array);
+        }
+
+        /**
+         * Discards the contents of this buffer.
+         */
+        void clear(){
+            length = 0;
+        }
+
+        /**
+         * Prepares the view of this buffer for encoding its contents.
+         */
+        void flip(){
+            view.clear();
+            view.limit(length);
+        }
+
+        /**
+         * Appends a character sequence to this buffer.
+         * @param text The characters to append, or {@code null} to append
+         * {@code "null"}.
+         * @return This CharSink.
+         */
+        public Appendable append(CharSequence text){
+            if(text == null){
+                text = "null";
+            }
+            return append(text, 0, text.length());
+        }
+
+        /**
+         * Appends part of a character sequence to this buffer.
+         * @param text The characters to append, or {@code null} to append
+         * part of {@code "null"}.
+         * @param start The index of the first character to append.
+         * @param end The index after the last character to append.
+         * @return This CharSink.
+         */
+        public Appendable append(CharSequence text, int start, int end){
+            if(text == null){
+                text = "null";
+            }
+            ensureCapacity(length + end - start);
+            if(text instanceof String){
+                ((String)text).getChars(start, end, array, length);
+                length += end - start;
+            }
+            else{
+                for(int i = start; i < end; i++){
+                    array[length++] = text.charAt(i);
+                }
+            }
+            return this;
+        }
+
+        /**
+         * Appends a character to this buffer.
+         * @param c The character to append.
+         * @return This CharSink.
+         */
+        public Appendable append(char c){
+            ensureCapacity(length + 1);
+            array[length++] = c;
+            return this;
+        }
+
+        /**
+         * Internal method that grows this buffer to hold at least the given
+         * number of characters.
+         * @param capacity The number of characters needed.
+         */
+        private void ensureCapacity(int capacity){
+            if(capacity <= array.length){
+                return;
+            }
+            char[] larger = new char[Math.max(capacity, array.length * 2)];
+            System.arraycopy(array, 0, larger, 0, length);
+            array = larger;
+            view = CharBuffer.wrap(array);
+        }
+    }
+}
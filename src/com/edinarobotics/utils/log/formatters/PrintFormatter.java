@@ -1,19 +1,63 @@
 package com.edinarobotics.utils.log.formatters;
 
-import com.edinarobotics.utils.log.Formatter;
+import com.edinarobotics.utils.log.Level;
 import com.edinarobotics.utils.log.LogEvent;
+import com.edinarobotics.utils.log.StackTraceCache;
+import com.edinarobotics.utils.log.StreamingFormatter;
+import java.io.IOException;
 
 /**
  * This class implements a Formatter that formats log events into a
  * human-readable String suitable for printing.
+ * 
+ * As a {@link StreamingFormatter}, it can also append the formatted text
+ * directly to an Appendable without building intermediate Strings.
+ * 
+ * By default only the {@code toString()} of an event's Throwable is
+ * printed. A PrintFormatter constructed with a {@link StackTraceCache}
+ * prints the full stack trace the first time each distinct trace is seen,
+ * and a short reference to it afterwards.
  */
-public class PrintFormatter implements Formatter {
+public class PrintFormatter implements StreamingFormatter {
+    private static final String[] LEVEL_TAGS = new String[Level.COUNT];
+    private static final ThreadLocal<StringBuilder> DIGITS = new ThreadLocal<StringBuilder>(){
+        protected StringBuilder initialValue(){
+            return new StringBuilder(32);
+        }
+    };
+    
+    static{
+        for(int i = 0; i < Level.COUNT; i++){
+            LEVEL_TAGS[i] = "["+Level.forIndex(i).toString().toUpperCase()+"]";
+        }
+    }
+    
+    private final StackTraceCache stackTraces;
     
     /**
      * Creates a new PrintFormatter instance.
      */
     public PrintFormatter(){
-        
+        this(null);
+    }
+    
+    /**
+     * Creates a new PrintFormatter instance which prints stack traces
+     * through the given cache.
+     * @param stackTraces The StackTraceCache used to print the Throwables
+     * of events, or {@code null} to print only their {@code toString()}.
+     */
+    public PrintFormatter(StackTraceCache stackTraces){
+        this.stackTraces = stackTraces;
+    }
+    
+    /**
+     * Returns the StackTraceCache used to print the Throwables of events.
+     * @return The StackTraceCache of this PrintFormatter, or {@code null} if
+     * only the {@code toString()} of each Throwable is printed.
+     */
+    public StackTraceCache getStackTraceCache(){
+        return stackTraces;
     }
     
     /**
@@ -24,21 +68,191 @@ public class PrintFormatter implements Formatter {
      * [SEVERE] full.logger.name: An error occurred.
      *     Exception: If there is an exception, it goes here.
      * </pre>
+     * Fields of the event follow the message as {@code name=value} pairs
+     * separated by spaces: <br/>
+     * <pre>
+     * [DEBUG] shooter: Spinning up rpm=1234.5 setpoint=1300
+     * </pre>
      * @param event The LogEvent object to be formatted by this Formatter.
      * @return A human-readable String representing this LogEvent, that
      * is suitable for printing.
      */
     public String format(LogEvent event){
-        String originLogger = event.getOriginalLogger().getFullNameWithoutRoot();
-        String formattedEvent = "["+event.getLevel().toString().toUpperCase()+"]";
-        if(!originLogger.equals("")){
-            formattedEvent += " "+originLogger;
+        StringBuilder formattedEvent = new StringBuilder();
+        try{
+            format(event, formattedEvent);
+        }
+        catch(IOException e){
+            //StringBuilder never throws IOException
+        }
+        return formattedEvent.toString();
+    }
+    
+    /**
+     * Formats a given LogEvent object into a format suitable for printing,
+     * appending the text to the given Appendable.
+     * @param event The LogEvent object to be formatted by this Formatter.
+     * @param out The Appendable to which the formatted event is appended.
+     * @throws IOException If {@code out} throws an IOException.
+     * @see #format(LogEvent)
+     */
+    public void format(LogEvent event, Appendable out) throws IOException {
+        appendMessage(event.getLevel(), event.getOriginalLogger().getFullNameWithoutRoot(),
+                event.getMessage(), out);
+        for(int i = 0; i < event.getFieldCount(); i++){
+            if(event.isDoubleField(i)){
+                appendField(event.getFieldName(i), event.getDoubleField(i), out);
+            }
+            else{
+                appendField(event.getFieldName(i), event.getLongField(i), out);
+            }
         }
-        formattedEvent += ": "+event.getMessage();
         if(event.hasThrowable()){
-            formattedEvent += "\n    "+event.getThrowable().toString();
+            if(stackTraces != null){
+                out.append("\n    ");
+                stackTraces.render(event.getThrowable(), out);
+            }
+            else{
+                appendThrown(event.getThrowable().toString(), out);
+            }
+        }
+    }
+    
+    /**
+     * Formats the parts of a log event into a format suitable for printing.
+     * 
+     * This method produces the same output as {@link #format(LogEvent)}, but
+     * can be used for events that were recorded without their Logger, such
+     * as events read back from a binary log.
+     * @param level The severity level of the event.
+     * @param loggerName The full name of the original Logger, omitting the
+     * root Logger.
+     * @param message The message associated with the event.
+     * @param thrown The String form of the Throwable associated with the
+     * event, or {@code null} if there is none.
+     * @return A human-readable String representing the event, that is
+     * suitable for printing.
+     */
+    public String format(Level level, String loggerName, String message, String thrown){
+        StringBuilder formattedEvent = new StringBuilder();
+        try{
+            format(level, loggerName, message, thrown, formattedEvent);
         }
-        return formattedEvent;
+        catch(IOException e){
+            //StringBuilder never throws IOException
+        }
+        return formattedEvent.toString();
+    }
+    
+    /**
+     * Formats the parts of a log event into a format suitable for printing,
+     * appending the text to the given Appendable.
+     * @param level The severity level of the event.
+     * @param loggerName The full name of the original Logger, omitting the
+     * root Logger.
+     * @param message The message associated with the event.
+     * @param thrown The String form of the Throwable associated with the
+     * event, or {@code null} if there is none.
+     * @param out The Appendable to which the formatted event is appended.
+     * @throws IOException If {@code out} throws an IOException.
+     * @see #format(Level, String, String, String)
+     */
+    public void format(Level level, String loggerName, String message, String thrown, Appendable out) throws IOException {
+        appendMessage(level, loggerName, message, out);
+        if(thrown != null){
+            appendThrown(thrown, out);
+        }
+    }
+    
+    /**
+     * Appends a {@code double} field in the form used by
+     * {@link #format(LogEvent)}, preceded by a space.
+     * @param name The name of the field.
+     * @param value The value of the field.
+     * @param out The Appendable to which the field is appended.
+     * @throws IOException If {@code out} throws an IOException.
+     */
+    public static void appendField(String name, double value, Appendable out) throws IOException {
+        out.append(' ').append(name).append('=');
+        if(out instanceof StringBuilder){
+            ((StringBuilder)out).append(value);
+            return;
+        }
+        StringBuilder digits = getDigits();
+        digits.append(value);
+        appendDigits(digits, out);
+    }
+    
+    /**
+     * Appends a {@code long} field in the form used by
+     * {@link #format(LogEvent)}, preceded by a space.
+     * @param name The name of the field.
+     * @param value The value of the field.
+     * @param out The Appendable to which the field is appended.
+     * @throws IOException If {@code out} throws an IOException.
+     */
+    public static void appendField(String name, long value, Appendable out) throws IOException {
+        out.append(' ').append(name).append('=');
+        if(out instanceof StringBuilder){
+            ((StringBuilder)out).append(value);
+            return;
+        }
+        StringBuilder digits = getDigits();
+        digits.append(value);
+        appendDigits(digits, out);
+    }
+    
+    /**
+     * Internal method that returns the calling thread's empty buffer for
+     * the digits of a field value.
+     * @return The empty digit buffer of the calling thread.
+     */
+    private static StringBuilder getDigits(){
+        StringBuilder digits = DIGITS.get();
+        digits.setLength(0);
+        return digits;
+    }
+    
+    /**
+     * Internal method that copies the digits of a field value one character
+     * at a time, since appending a CharSequence to some Appendables, such as
+     * Writers, creates a String.
+     * @param digits The digits to be copied.
+     * @param out The Appendable to which the digits are appended.
+     * @throws IOException If {@code out} throws an IOException.
+     */
+    private static void appendDigits(StringBuilder digits, Appendable out) throws IOException {
+        for(int i = 0; i < digits.length(); i++){
+            out.append(digits.charAt(i));
+        }
+    }
+    
+    /**
+     * Internal method that appends the level, logger name and message of an
+     * event.
+     * @param level The severity level of the event.
+     * @param loggerName The full name of the original Logger, omitting the
+     * root Logger.
+     * @param message The message associated with the event.
+     * @param out The Appendable to which the text is appended.
+     * @throws IOException If {@code out} throws an IOException.
+     */
+    private static void appendMessage(Level level, String loggerName, String message, Appendable out) throws IOException {
+        out.append(LEVEL_TAGS[level.getIndex()]);
+        if(!loggerName.equals("")){
+            out.append(' ').append(loggerName);
+        }
+        out.append(": ").append(message);
+    }
+    
+    /**
+     * Internal method that appends the indented Throwable line of an event.
+     * @param thrown The String form of the Throwable.
+     * @param out The Appendable to which the text is appended.
+     * @throws IOException If {@code out} throws an IOException.
+     */
+    private static void appendThrown(String thrown, Appendable out) throws IOException {
+        out.append("\n    ").append(thrown);
     }
     
     /**
@@ -48,6 +262,9 @@ public class PrintFormatter implements Formatter {
      * @return A human-readable String representation of this PrintFormatter.
      */
     public String toString(){
+        if(stackTraces != null){
+            return "<PrintFormatter: "+stackTraces.toString()+">";
+        }
         return "<PrintFormatter>";
     }
 }
@@ -0,0 +1,76 @@
+package com.edinarobotics.utils.log.formatters;
+
+import com.edinarobotics.utils.log.Formatter;
+import com.edinarobotics.utils.log.LogEvent;
+import com.edinarobotics.utils.log.StreamingFormatter;
+import java.io.IOException;
+
+/**
+ * StreamingFormatters adapts any Formatter for use where a
+ * {@link StreamingFormatter} is needed.
+ */
+public final class StreamingFormatters {
+    
+    private StreamingFormatters(){
+        //Hide constructor
+    }
+    
+    /**
+     * Returns a StreamingFormatter which produces the same text as the given
+     * Formatter.
+     * 
+     * If {@code formatter} is already a StreamingFormatter, it is returned
+     * unchanged. Otherwise it is wrapped in a StreamingFormatter which
+     * appends the String returned by {@link Formatter#format(LogEvent)}.
+     * @param formatter The Formatter to adapt.
+     * @return A StreamingFormatter for {@code formatter}.
+     */
+    public static StreamingFormatter adapt(Formatter formatter){
+        if(formatter == null){
+            throw new IllegalArgumentException("Provided Formatter must not be null");
+        }
+        if(formatter instanceof StreamingFormatter){
+            return (StreamingFormatter)formatter;
+        }
+        return new Adapter(formatter);
+    }
+    
+    /**
+     * Wraps a Formatter which only produces Strings.
+     */
+    private static final class Adapter implements StreamingFormatter {
+        private final Formatter formatter;
+        
+        private Adapter(Formatter formatter){
+            this.formatter = formatter;
+        }
+        
+        /**
+         * Formats the given LogEvent with the wrapped Formatter.
+         * @param event The LogEvent to be formatted.
+         * @return The String produced by the wrapped Formatter.
+         */
+        public String format(LogEvent event){
+            return formatter.format(event);
+        }
+        
+        /**
+         * Appends the String produced by the wrapped Formatter.
+         * @param event The LogEvent to be formatted.
+         * @param out The Appendable to which the formatted event is
+         * appended.
+         * @throws IOException If {@code out} throws an IOException.
+         */
+        public void format(LogEvent event, Appendable out) throws IOException {
+            out.append(formatter.format(event));
+        }
+        
+        /**
+         * Returns the String representation of the wrapped Formatter.
+         * @return A String representation of the wrapped Formatter.
+         */
+        public String toString(){
+            return formatter.toString();
+        }
+    }
+}
@@ -0,0 +1,440 @@
+package com.edinarobotics.utils.log.handlers;
+
+import com.edinarobotics.utils.log.Handler;
+import com.edinarobotics.utils.log.LogEvent;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * The AsyncHandler moves the work of another Handler off of the logging
+ * thread.
+ *
+ * LogEvents given to this Handler are placed into a preallocated, bounded
+ * ring buffer and are handed to the wrapped Handler by a single background
+ * consumer thread. Submitting an event never takes a lock and never
+ * allocates: each event is copied into a LogEvent preallocated for its slot,
+ * so events taken from the pool enabled by
+ * {@link com.edinarobotics.utils.log.LogSystem#setEventPooling(boolean)}
+ * can be submitted safely. When the ring buffer is full, the {@link OverflowPolicy} given
+ * to the constructor decides what happens to the new event.
+ *
+ * The wrapped Handler is only ever called from the consumer thread, so it
+ * does not need to be thread-safe. Any Handler, including a
+ * {@link HandlerGroup}, can be wrapped. The LogEvent passed to the wrapped
+ * Handler is reused for the next event, so a wrapped Handler that keeps
+ * events must copy them.
+ */
+public class AsyncHandler implements Handler {
+
+    /**
+     * The default number of events the ring buffer can hold.
+     */
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    private static final long IDLE_PARK_NANOS = 1000000L;
+    private static final int IDLE_SPINS = 64;
+
+    private final Handler handler;
+    private final OverflowPolicy policy;
+    private final LogEvent[] events;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final AtomicLong enqueuePosition;
+    private final AtomicLong dequeuePosition;
+    private final AtomicLong droppedNewest;
+    private final AtomicLong droppedOldest;
+    private final Thread consumer;
+    private volatile boolean running;
+    private volatile boolean consuming;
+    private volatile boolean drained;
+
+    /**
+     * Constructs a new AsyncHandler which dispatches to {@code handler}
+     * from a background thread, using a ring buffer of
+     * {@link #DEFAULT_CAPACITY} events and the
+     * {@link OverflowPolicy#DROP_NEWEST} policy.
+     * @param handler The Handler to which events are to be dispatched.
+     */
+    public AsyncHandler(Handler handler){
+        this(handler, DEFAULT_CAPACITY, OverflowPolicy.DROP_NEWEST);
+    }
+
+    /**
+     * Constructs a new AsyncHandler which dispatches to {@code handler}
+     * from a background thread.
+     *
+     * The consumer thread is started immediately and is a daemon thread.
+     * @param handler The Handler to which events are to be dispatched.
+     * @param capacity The number of events the ring buffer can hold. This
+     * value is rounded up to the next power of two.
+     * @param policy The action to take when an event is submitted while
+     * the ring buffer is full.
+     */
+    public AsyncHandler(Handler handler, int capacity, OverflowPolicy policy){
+        if(handler == null){
+            throw new IllegalArgumentException("Provided Handler must not be null");
+        }
+        if(policy == null){
+            throw new IllegalArgumentException("Provided OverflowPolicy must not be null");
+        }
+        if(capacity < 2 || capacity > (1 << 30)){
+            throw new IllegalArgumentException("Capacity must be between 2 and 2^30 (received: "+capacity+")");
+        }
+        int size = Integer.highestOneBit(capacity - 1) << 1;
+        this.handler = handler;
+        this.policy = policy;
+        this.events = new LogEvent[size];
+        this.sequences = new AtomicLongArray(size);
+        for(int i = 0; i < size; i++){
+            events[i] = new LogEvent();
+            sequences.set(i, i);
+        }
+        this.mask = size - 1;
+        this.enqueuePosition = new AtomicLong();
+        this.dequeuePosition = new AtomicLong();
+        this.droppedNewest = new AtomicLong();
+        this.droppedOldest = new AtomicLong();
+        this.running = true;
+        this.consumer = new Thread(new Runnable(){
+            public void run(){
+                consume();
+            }
+        }, "AsyncHandler-"+handler.toString());
+        consumer.setDaemon(true);
+        consumer.start();
+    }
+
+    /**
+     * Places the given LogEvent into the ring buffer to be handled by the
+     * wrapped Handler on the consumer thread.
+     *
+     * If the ring buffer is full, the event is dealt with according to this
+     * AsyncHandler's {@link OverflowPolicy}. Events submitted after
+     * {@link #close()} are dropped. An event submitted while the consumer
+     * thread is finishing is either delivered or counted as dropped.
+     * @param event The LogEvent to be handled asynchronously.
+     */
+    public void handle(LogEvent event){
+        if(event == null){
+            return;
+        }
+        if(!running){
+            droppedNewest.incrementAndGet();
+            return;
+        }
+        long position;
+        while((position = offer(event)) < 0){
+            if(policy == OverflowPolicy.DROP_NEWEST){
+                droppedNewest.incrementAndGet();
+                return;
+            }
+            else if(policy == OverflowPolicy.DROP_OLDEST){
+                if(poll(null)){
+                    droppedOldest.incrementAndGet();
+                }
+            }
+            else{
+                //Block until the consumer frees a slot
+                if(!running || Thread.currentThread() == consumer){
+                    droppedNewest.incrementAndGet();
+                    return;
+                }
+                LockSupport.parkNanos(IDLE_PARK_NANOS / 10);
+            }
+        }
+        if(!running){
+            //close() was called while the event was being stored
+            discardAfterDrain(position);
+        }
+    }
+
+    /**
+     * Internal method called by a producer that stored an event after
+     * {@link #close(long)} was called. If the consumer thread has already
+     * made its final pass over the ring buffer, the events left in it are
+     * removed and counted as dropped, so that no event is left undelivered
+     * and uncounted.
+     * @param position The position at which the producer stored its event.
+     */
+    private void discardAfterDrain(long position){
+        //Publish the slot again with a volatile write, so that the consumer
+        //either sees the event in its final pass or has already set drained
+        //when it is read below. The compare-and-set fails if the event has
+        //already been taken.
+        sequences.compareAndSet((int)position & mask, position + 1, position + 1);
+        if(drained){
+            while(poll(null)){
+                droppedNewest.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Internal method that attempts to copy an event into the ring buffer.
+     * @param event The event to be placed in the ring buffer.
+     * @return The position at which the event was stored, or {@code -1} if
+     * the ring buffer is full.
+     */
+    private long offer(LogEvent event){
+        long position = enqueuePosition.get();
+        while(true){
+            int index = (int)position & mask;
+            long difference = sequences.get(index) - position;
+            if(difference == 0){
+                if(enqueuePosition.compareAndSet(position, position + 1)){
+                    event.copyInto(events[index]);
+                    sequences.lazySet(index, position + 1);
+                    return position;
+                }
+                position = enqueuePosition.get();
+            }
+            else if(difference < 0){
+                //The slot still holds an event from the previous lap
+                return -1;
+            }
+            else{
+                position = enqueuePosition.get();
+            }
+        }
+    }
+
+    /**
+     * Internal method that removes the oldest event from the ring buffer.
+     *
+     * This method is called by the consumer thread and, under the
+     * {@link OverflowPolicy#DROP_OLDEST} policy, by producers making room
+     * for a new event.
+     * @param target The LogEvent into which the oldest event is copied, or
+     * {@code null} to discard the oldest event.
+     * @return {@code true} if an event was removed, {@code false} if the
+     * ring buffer is empty.
+     */
+    private boolean poll(LogEvent target){
+        long position = dequeuePosition.get();
+        while(true){
+            int index = (int)position & mask;
+            long difference = sequences.get(index) - (position + 1);
+            if(difference == 0){
+                if(dequeuePosition.compareAndSet(position, position + 1)){
+                    if(target != null){
+                        events[index].copyInto(target);
+                    }
+                    sequences.lazySet(index, position + mask + 1);
+                    return true;
+                }
+                position = dequeuePosition.get();
+            }
+            else if(difference < 0){
+                //Nothing has been published to this slot yet
+                return false;
+            }
+            else{
+                position = dequeuePosition.get();
+            }
+        }
+    }
+
+    /**
+     * Internal method run by the consumer thread. Drains the ring buffer
+     * into the wrapped Handler until this AsyncHandler is closed.
+     */
+    private void consume(){
+        LogEvent event = new LogEvent();
+        int idle = 0;
+        while(running){
+            consuming = true;
+            if(!poll(event)){
+                consuming = false;
+                if(idle < IDLE_SPINS){
+                    idle++;
+                    Thread.yield();
+                }
+                else{
+                    LockSupport.parkNanos(IDLE_PARK_NANOS);
+                }
+                continue;
+            }
+            idle = 0;
+            dispatch(event);
+            consuming = false;
+        }
+        //Deliver whatever was submitted before close()
+        while(poll(event)){
+            dispatch(event);
+        }
+        //Producers that store an event after this point discard it
+        //themselves; events stored before it are delivered by this pass
+        drained = true;
+        while(poll(event)){
+            dispatch(event);
+        }
+    }
+
+    /**
+     * Internal method that passes an event to the wrapped Handler, keeping
+     * a misbehaving Handler from killing the consumer thread.
+     * @param event The event to be handled.
+     */
+    private void dispatch(LogEvent event){
+        try{
+            handler.handle(event);
+        }
+        catch(RuntimeException e){
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Waits until every event submitted before this call has been passed to
+     * the wrapped Handler, or until the timeout elapses.
+     * @param timeoutMillis The maximum time to wait in milliseconds.
+     * @return {@code true} if the ring buffer was drained, {@code false} if
+     * the timeout elapsed first.
+     */
+    public boolean flush(long timeoutMillis){
+        long target = enqueuePosition.get();
+        long deadline = System.nanoTime() + timeoutMillis * 1000000L;
+        while(dequeuePosition.get() < target || consuming){
+            if(System.nanoTime() - deadline > 0 || !consumer.isAlive()){
+                return false;
+            }
+            LockSupport.parkNanos(IDLE_PARK_NANOS / 10);
+        }
+        return true;
+    }
+    
+    /**
+     * Stops the consumer thread after it has delivered every event already in
+     * the ring buffer. Events submitted after this call are dropped and
+     * counted by {@link #getDroppedNewestCount()}.
+     * @param timeoutMillis The maximum time to wait for the consumer thread
+     * to finish, in milliseconds.
+     * @throws InterruptedException If the calling thread is interrupted while
+     * waiting for the consumer thread.
+     */
+    public void close(long timeoutMillis) throws InterruptedException {
+        running = false;
+        LockSupport.unpark(consumer);
+        consumer.join(timeoutMillis);
+    }
+
+    /**
+     * Stops the consumer thread after it has delivered every event already in
+     * the ring buffer, waiting up to one second for it to finish.
+     * @throws InterruptedException If the calling thread is interrupted while
+     * waiting for the consumer thread.
+     * @see #close(long)
+     */
+    public void close() throws InterruptedException {
+        close(1000);
+    }
+
+    /**
+     * Returns the Handler to which this AsyncHandler dispatches events.
+     * @return The wrapped Handler.
+     */
+    public Handler getHandler(){
+        return handler;
+    }
+
+    /**
+     * Returns the policy used when the ring buffer is full.
+     * @return The OverflowPolicy of this AsyncHandler.
+     */
+    public OverflowPolicy getOverflowPolicy(){
+        return policy;
+    }
+
+    /**
+     * Returns the number of events the ring buffer can hold.
+     * @return The capacity of the ring buffer.
+     */
+    public int getCapacity(){
+        return events.length;
+    }
+
+    /**
+     * Returns the approximate number of events waiting in the ring buffer.
+     * @return The approximate number of queued events.
+     */
+    public int getQueuedCount(){
+        long queued = enqueuePosition.get() - dequeuePosition.get();
+        return (int)Math.max(0, Math.min(queued, events.length));
+    }
+
+    /**
+     * Returns the number of new events that were discarded, either because
+     * the ring buffer was full or because this AsyncHandler was closed.
+     * @return The number of discarded new events.
+     */
+    public long getDroppedNewestCount(){
+        return droppedNewest.get();
+    }
+
+    /**
+     * Returns the number of queued events that were discarded to make room
+     * for newer events under {@link OverflowPolicy#DROP_OLDEST}.
+     * @return The number of discarded old events.
+     */
+    public long getDroppedOldestCount(){
+        return droppedOldest.get();
+    }
+
+    /**
+     * Returns the total number of events this AsyncHandler has discarded.
+     * @return The total number of discarded events.
+     */
+    public long getDroppedCount(){
+        return droppedNewest.get() + droppedOldest.get();
+    }
+
+    /**
+     * Returns a String representation of this AsyncHandler.
+     *
+     * This String representation is intended to be human-readable.
+     * @return A human-readable String representation of this AsyncHandler.
+     */
+    public String toString(){
+        return "<AsyncHandler: "+handler.toString()+", "+policy.toString()+", "+getCapacity()+">";
+    }
+
+    /**
+     * Selects what an AsyncHandler does with a new event when its ring
+     * buffer is full.
+     */
+    public enum OverflowPolicy {
+
+        /**
+         * Discards the oldest queued event to make room for the new one.
+         */
+        DROP_OLDEST("drop oldest"),
+
+        /**
+         * Discards the new event and keeps the queued events.
+         */
+        DROP_NEWEST("drop newest"),
+
+        /**
+         * Waits for the consumer thread to free a slot. The logging thread
+         * spins and parks, but never takes a lock.
+         */
+        BLOCK("block");
+
+        private final String name;
+
+        OverflowPolicy(String name){
+            this.name = name;
+        }
+
+        /**
+         * Returns a human-readable String representation of this
+         * OverflowPolicy.
+         * @return A human-readable String representation of this
+         * OverflowPolicy.
+         */
+        public String toString(){
+            return name;
+        }
+    }
+}
@@ -0,0 +1,509 @@
+package com.edinarobotics.utils.log.handlers;
+
+import com.edinarobotics.utils.log.Handler;
+import com.edinarobotics.utils.log.LogEvent;
+import com.edinarobotics.utils.log.Logger;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.BufferOverflowException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+
+/**
+ * The BinaryHandler writes LogEvents in a compact binary encoding to
+ * preallocated, memory-mapped segment files.
+ *
+ * Logger names, field names and repeated strings are written once per
+ * segment and referred to by small ids afterwards. Each event costs only a
+ * few bytes beyond any new text. A message or Throwable is only interned
+ * once it has been seen before, so one-off messages are written inline and
+ * do not fill the dictionary. The fields of structured events are written
+ * as raw numbers. When a segment is
+ * full a new one is started. Segments
+ * are named {@code <name>-<number>.blog} and can be turned back into text or
+ * CSV with {@link BinaryLogDecoder}.
+ *
+ * Writing is synchronized. Wrap this Handler in an {@link AsyncHandler} to
+ * keep the encoding off of the logging thread.
+ * @see BinaryLogFormat
+ */
+public class BinaryHandler implements Handler {
+
+    /**
+     * The default size of each segment file in bytes.
+     */
+    public static final int DEFAULT_SEGMENT_SIZE = 4 * 1024 * 1024;
+
+    /**
+     * The file extension of segment files.
+     */
+    public static final String SEGMENT_EXTENSION = ".blog";
+
+    private static final int MAXIMUM_INTERNED_STRINGS = 8192;
+    private static final int MAXIMUM_INTERNED_LENGTH = 256;
+    private static final int SEEN_SLOTS = 1024;
+
+    private final File directory;
+    private final String name;
+    private final int segmentSize;
+    private final IdentityHashMap<Logger, Integer> loggerIds;
+    private final HashMap<String, Integer> stringIds;
+    private final int[] seenHashes;
+    private int[] fieldReferences;
+    private RandomAccessFile file;
+    private MappedByteBuffer buffer;
+    private int segmentNumber;
+    private long lastTimestamp;
+    private long droppedEvents;
+    private boolean failed;
+
+    /**
+     * Constructs a new BinaryHandler that writes segments of
+     * {@link #DEFAULT_SEGMENT_SIZE} bytes to the given directory.
+     * @param directory The directory in which to create segment files.
+     * @param name The name prefix of the segment files.
+     * @throws IOException If the first segment file cannot be created.
+     */
+    public BinaryHandler(File directory, String name) throws IOException {
+        this(directory, name, DEFAULT_SEGMENT_SIZE);
+    }
+
+    /**
+     * Constructs a new BinaryHandler that writes segments of the given size
+     * to the given directory.
+     *
+     * Segment numbering continues after the highest-numbered existing
+     * segment with the same name, so earlier logs are never overwritten.
+     * @param directory The directory in which to create segment files.
+     * @param name The name prefix of the segment files.
+     * @param segmentSize The size of each segment file in bytes.
+     * @throws IOException If the first segment file cannot be created.
+     */
+    public BinaryHandler(File directory, String name, int segmentSize) throws IOException {
+        if(segmentSize < 1024){
+            throw new IllegalArgumentException("Segment size must be at least 1024 bytes (received: "+segmentSize+")");
+        }
+        this.directory = directory;
+        this.name = name;
+        this.segmentSize = segmentSize;
+        this.loggerIds = new IdentityHashMap<Logger, Integer>();
+        this.stringIds = new HashMap<String, Integer>();
+        this.seenHashes = new int[SEEN_SLOTS];
+        this.fieldReferences = new int[8];
+        this.segmentNumber = findLastSegmentNumber();
+        this.droppedEvents = 0;
+        this.failed = false;
+        openSegment();
+    }
+
+    /**
+     * Returns the file name used for the segment with the given number.
+     * @param name The name prefix of the segment files.
+     * @param segmentNumber The number of the segment.
+     * @return The file name of the segment.
+     */
+    public static String getSegmentFileName(String name, int segmentNumber){
+        String number = Integer.toString(segmentNumber);
+        while(number.length() < 4){
+            number = "0"+number;
+        }
+        return name+"-"+number+SEGMENT_EXTENSION;
+    }
+
+    /**
+     * Internal method that finds the number of the last existing segment
+     * with this BinaryHandler's name.
+     * @return The highest existing segment number, or {@code 0} if there are
+     * no segments.
+     */
+    private int findLastSegmentNumber(){
+        String[] files = directory.list();
+        int last = 0;
+        if(files == null){
+            return last;
+        }
+        String prefix = name+"-";
+        for(int i = 0; i < files.length; i++){
+            if(files[i].startsWith(prefix) && files[i].endsWith(SEGMENT_EXTENSION)){
+                try{
+                    int number = Integer.parseInt(files[i].substring(prefix.length(),
+                            files[i].length() - SEGMENT_EXTENSION.length()));
+                    last = Math.max(last, number);
+                }
+                catch(NumberFormatException e){
+                    //Not one of our segments
+                }
+            }
+        }
+        return last;
+    }
+
+    /**
+     * Internal method that maps a new, preallocated segment file and writes
+     * its header.
+     * @throws IOException If the segment file cannot be created or mapped.
+     */
+    private void openSegment() throws IOException {
+        segmentNumber++;
+        File segment = new File(directory, getSegmentFileName(name, segmentNumber));
+        file = new RandomAccessFile(segment, "rw");
+        file.setLength(segmentSize);
+        buffer = file.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        lastTimestamp = System.nanoTime();
+        loggerIds.clear();
+        stringIds.clear();
+        buffer.put(BinaryLogFormat.MAGIC);
+        buffer.put(BinaryLogFormat.VERSION);
+        buffer.put((byte)0);
+        buffer.put((byte)0);
+        buffer.put((byte)0);
+        buffer.putLong(lastTimestamp);
+        buffer.putLong(System.currentTimeMillis());
+        buffer.putInt(0);
+    }
+
+    /**
+     * Internal method that flushes and closes the current segment.
+     * @throws IOException If the segment file cannot be closed.
+     */
+    private void closeSegment() throws IOException {
+        if(buffer != null){
+            buffer.force();
+            buffer = null;
+        }
+        if(file != null){
+            file.close();
+            file = null;
+        }
+    }
+
+    /**
+     * Encodes the given LogEvent into the current segment, starting a new
+     * segment if the current one is full.
+     *
+     * Events too large to fit in an empty segment are dropped and counted.
+     * @param event The LogEvent to be written.
+     */
+    public synchronized void handle(LogEvent event){
+        if(failed){
+            droppedEvents++;
+            return;
+        }
+        if(write(event)){
+            return;
+        }
+        try{
+            closeSegment();
+            openSegment();
+        }
+        catch(IOException e){
+            failed = true;
+            droppedEvents++;
+            e.printStackTrace();
+            return;
+        }
+        if(!write(event)){
+            droppedEvents++;
+        }
+    }
+
+    /**
+     * Internal method that attempts to encode an event into the remaining
+     * space of the current segment.
+     * @param event The LogEvent to be written.
+     * @return {@code true} if the event was written, {@code false} if it did
+     * not fit.
+     */
+    private boolean write(LogEvent event){
+        int start = buffer.position();
+        long previousTimestamp = lastTimestamp;
+        int previousLoggers = loggerIds.size();
+        int previousStrings = stringIds.size();
+        try{
+            int loggerId = getLoggerId(event.getOriginalLogger());
+            int messageRef = getRepeatedStringReference(event.getMessage());
+            String thrown = event.hasThrowable() ? event.getThrowable().toString() : null;
+            int thrownRef = thrown == null ? BinaryLogFormat.INLINE_STRING : getRepeatedStringReference(thrown);
+            int fieldCount = event.getFieldCount();
+            if(fieldReferences.length < fieldCount){
+                fieldReferences = new int[fieldCount];
+            }
+            for(int i = 0; i < fieldCount; i++){
+                fieldReferences[i] = getStringReference(event.getFieldName(i));
+            }
+            int levelByte = event.getLevel().getIndex();
+            if(thrown != null){
+                levelByte |= BinaryLogFormat.THROWN_FLAG;
+            }
+            if(fieldCount > 0){
+                levelByte |= BinaryLogFormat.FIELDS_FLAG;
+            }
+            buffer.put(BinaryLogFormat.TAG_EVENT);
+            buffer.put((byte)levelByte);
+            putVarint(loggerId);
+            long delta = event.getTimestamp() - lastTimestamp;
+            putVarlong((delta << 1) ^ (delta >> 63));
+            lastTimestamp = event.getTimestamp();
+            putStringReference(messageRef, event.getMessage());
+            if(thrown != null){
+                putStringReference(thrownRef, thrown);
+            }
+            if(fieldCount > 0){
+                putVarint(fieldCount);
+                for(int i = 0; i < fieldCount; i++){
+                    putStringReference(fieldReferences[i], event.getFieldName(i));
+                    if(event.isDoubleField(i)){
+                        buffer.put(BinaryLogFormat.FIELD_DOUBLE);
+                        buffer.putDouble(event.getDoubleField(i));
+                    }
+                    else{
+                        long value = event.getLongField(i);
+                        buffer.put(BinaryLogFormat.FIELD_LONG);
+                        putVarlong((value << 1) ^ (value >> 63));
+                    }
+                }
+            }
+            return true;
+        }
+        catch(BufferOverflowException e){
+            //Erase the partial record so that decoders stop here, and forget
+            //any definitions that were part of it.
+            lastTimestamp = previousTimestamp;
+            if(loggerIds.size() > previousLoggers){
+                loggerIds.remove(event.getOriginalLogger());
+            }
+            if(stringIds.size() > previousStrings){
+                forgetString(event.getMessage(), previousStrings);
+                if(event.hasThrowable()){
+                    forgetString(event.getThrowable().toString(), previousStrings);
+                }
+                for(int i = 0; i < event.getFieldCount(); i++){
+                    forgetString(event.getFieldName(i), previousStrings);
+                }
+            }
+            buffer.position(start);
+            if(buffer.hasRemaining()){
+                buffer.put(start, BinaryLogFormat.TAG_END);
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Internal method that returns the id of a Logger in the current
+     * segment, writing its definition the first time it is seen.
+     * @param logger The Logger whose id is to be returned.
+     * @return The id of the Logger.
+     */
+    private int getLoggerId(Logger logger){
+        Integer id = loggerIds.get(logger);
+        if(id != null){
+            return id.intValue();
+        }
+        int newId = loggerIds.size();
+        buffer.put(BinaryLogFormat.TAG_LOGGER);
+        putVarint(newId);
+        putString(logger.getFullNameWithoutRoot());
+        loggerIds.put(logger, Integer.valueOf(newId));
+        return newId;
+    }
+
+    /**
+     * Internal method that returns the string reference for a String in the
+     * current segment, interning it if possible.
+     * @param value The String to be referenced.
+     * @return The string reference to be written, which is
+     * {@link BinaryLogFormat#INLINE_STRING} if the String is not interned.
+     */
+    private int getStringReference(String value){
+        Integer id = stringIds.get(value);
+        if(id != null){
+            return id.intValue() + 1;
+        }
+        if(value.length() > MAXIMUM_INTERNED_LENGTH || stringIds.size() >= MAXIMUM_INTERNED_STRINGS){
+            return BinaryLogFormat.INLINE_STRING;
+        }
+        int newId = stringIds.size();
+        buffer.put(BinaryLogFormat.TAG_STRING);
+        putVarint(newId);
+        putString(value);
+        stringIds.put(value, Integer.valueOf(newId));
+        return newId + 1;
+    }
+
+    /**
+     * Internal method that returns the string reference for a String which
+     * is only worth interning if it is repeated, such as a message.
+     *
+     * The hash of each String is remembered in a small table. A String is
+     * interned when its hash is found there, that is when it has most
+     * likely been written before, and is written inline otherwise. A hash
+     * collision only causes a String to be interned early.
+     * @param value The String to be referenced.
+     * @return The string reference to be written, which is
+     * {@link BinaryLogFormat#INLINE_STRING} if the String is not interned.
+     */
+    private int getRepeatedStringReference(String value){
+        Integer id = stringIds.get(value);
+        if(id != null){
+            return id.intValue() + 1;
+        }
+        int hash = value.hashCode();
+        int slot = (hash ^ (hash >>> 16)) & (SEEN_SLOTS - 1);
+        if(seenHashes[slot] != hash){
+            seenHashes[slot] = hash;
+            return BinaryLogFormat.INLINE_STRING;
+        }
+        return getStringReference(value);
+    }
+
+    /**
+     * Internal method that removes an interned String if it was interned
+     * after the dictionary had the given size.
+     * @param value The String to be removed.
+     * @param previousSize The size of the dictionary before the String may
+     * have been interned.
+     */
+    private void forgetString(String value, int previousSize){
+        Integer id = stringIds.get(value);
+        if(id != null && id.intValue() >= previousSize){
+            stringIds.remove(value);
+        }
+    }
+
+    /**
+     * Internal method that writes a string reference, followed by the string
+     * itself if it is not interned.
+     * @param reference The string reference to be written.
+     * @param value The referenced String.
+     */
+    private void putStringReference(int reference, String value){
+        putVarint(reference);
+        if(reference == BinaryLogFormat.INLINE_STRING){
+            putString(value);
+        }
+    }
+
+    /**
+     * Internal method that writes an unsigned variable-length integer.
+     * @param value The value to be written.
+     */
+    private void putVarint(int value){
+        while((value & ~0x7F) != 0){
+            buffer.put((byte)((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte)value);
+    }
+
+    /**
+     * Internal method that writes an unsigned variable-length long.
+     * @param value The value to be written.
+     */
+    private void putVarlong(long value){
+        while((value & ~0x7FL) != 0){
+            buffer.put((byte)((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte)value);
+    }
+
+    /**
+     * Internal method that writes a String as its UTF-8 byte length followed
+     * by its UTF-8 bytes, without creating a temporary byte array.
+     * @param value The String to be written.
+     */
+    private void putString(String value){
+        int length = value.length();
+        int byteLength = 0;
+        for(int i = 0; i < length; i++){
+            char c = value.charAt(i);
+            if(c < 0x80){
+                byteLength += 1;
+            }
+            else if(c < 0x800){
+                byteLength += 2;
+            }
+            else if(Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))){
+                byteLength += 4;
+                i++;
+            }
+            else{
+                byteLength += 3;
+            }
+        }
+        putVarint(byteLength);
+        for(int i = 0; i < length; i++){
+            char c = value.charAt(i);
+            if(c < 0x80){
+                buffer.put((byte)c);
+            }
+            else if(c < 0x800){
+                buffer.put((byte)(0xC0 | (c >> 6)));
+                buffer.put((byte)(0x80 | (c & 0x3F)));
+            }
+            else if(Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))){
+                int codePoint = Character.toCodePoint(c, value.charAt(i + 1));
+                buffer.put((byte)(0xF0 | (codePoint >> 18)));
+                buffer.put((byte)(0x80 | ((codePoint >> 12) & 0x3F)));
+                buffer.put((byte)(0x80 | ((codePoint >> 6) & 0x3F)));
+                buffer.put((byte)(0x80 | (codePoint & 0x3F)));
+                i++;
+            }
+            else{
+                buffer.put((byte)(0xE0 | (c >> 12)));
+                buffer.put((byte)(0x80 | ((c >> 6) & 0x3F)));
+                buffer.put((byte)(0x80 | (c & 0x3F)));
+            }
+        }
+    }
+
+    /**
+     * Forces everything written so far to the storage device.
+     */
+    public synchronized void flush(){
+        if(buffer != null){
+            buffer.force();
+        }
+    }
+
+    /**
+     * Flushes and closes the current segment. Events handled after this
+     * call are dropped.
+     * @throws IOException If the segment file cannot be closed.
+     */
+    public synchronized void close() throws IOException {
+        failed = true;
+        closeSegment();
+    }
+
+    /**
+     * Returns the number of events that could not be written, either
+     * because they were larger than a segment or because of an I/O error.
+     * @return The number of dropped events.
+     */
+    public synchronized long getDroppedCount(){
+        return droppedEvents;
+    }
+
+    /**
+     * Returns the number of the segment currently being written.
+     * @return The current segment number.
+     */
+    public synchronized int getSegmentNumber(){
+        return segmentNumber;
+    }
+
+    /**
+     * Returns a String representation of this BinaryHandler.
+     *
+     * This String representation is intended to be human-readable.
+     * @return A human-readable String representation of this BinaryHandler.
+     */
+    public String toString(){
+        return "<BinaryHandler: "+new File(directory, name).getPath()+", "+segmentSize+">";
+    }
+}
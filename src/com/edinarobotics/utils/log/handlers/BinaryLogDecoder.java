@@ -0,0 +1,384 @@
+package com.edinarobotics.utils.log.handlers;
+
+import com.edinarobotics.utils.log.Level;
+import com.edinarobotics.utils.log.formatters.PrintFormatter;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.RandomAccessFile;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The BinaryLogDecoder turns segment files written by {@link BinaryHandler}
+ * back into text.
+ *
+ * Events can be rendered as the same text that a {@link PrintFormatter}
+ * produces, or as CSV with the columns
+ * {@code time_ms,level,logger,message,throwable,fields}, where
+ * {@code time_ms} is the wall-clock time of the event in milliseconds since
+ * the epoch and {@code fields} holds the event's fields as
+ * {@code name=value} pairs separated by spaces.
+ *
+ * The decoder does not need a running robot program and can be run from
+ * the command line:
+ * <pre>
+ * java com.edinarobotics.utils.log.handlers.BinaryLogDecoder [--csv] segment...
+ * </pre>
+ */
+public class BinaryLogDecoder {
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private static final String CSV_HEADER = "time_ms,level,logger,message,throwable,fields";
+
+    private final boolean csv;
+    private final PrintFormatter formatter;
+
+    /**
+     * Constructs a new BinaryLogDecoder.
+     * @param csv {@code true} to produce CSV, {@code false} to produce
+     * {@link PrintFormatter} text.
+     */
+    public BinaryLogDecoder(boolean csv){
+        this.csv = csv;
+        this.formatter = new PrintFormatter();
+    }
+
+    /**
+     * Returns the header line to be printed before any decoded events.
+     * @return The CSV header if this decoder produces CSV, {@code null}
+     * otherwise.
+     */
+    public String getHeader(){
+        return csv ? CSV_HEADER : null;
+    }
+
+    /**
+     * Decodes every event in a segment file and prints each as a line to the
+     * given stream.
+     *
+     * Decoding stops at the end of the written data. A segment whose last
+     * record was cut short, for example by a power loss, is decoded up to
+     * that record.
+     * @param segment The segment file to decode.
+     * @param out The stream to which decoded events are printed.
+     * @return The number of events decoded.
+     * @throws IOException If the segment cannot be read or is not a segment
+     * written by {@link BinaryHandler}.
+     */
+    public int decode(File segment, PrintStream out) throws IOException {
+        RandomAccessFile file = new RandomAccessFile(segment, "r");
+        try{
+            ByteBuffer buffer = file.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, file.length());
+            return decode(buffer, out);
+        }
+        finally{
+            file.close();
+        }
+    }
+
+    /**
+     * Decodes every event in a buffer holding a complete segment and prints
+     * each as a line to the given stream.
+     * @param buffer The segment data, positioned at the start of the segment.
+     * @param out The stream to which decoded events are printed.
+     * @return The number of events decoded.
+     * @throws IOException If the data is not a segment written by
+     * {@link BinaryHandler}.
+     */
+    public int decode(ByteBuffer buffer, PrintStream out) throws IOException {
+        if(buffer.remaining() < BinaryLogFormat.HEADER_SIZE){
+            throw new IOException("Segment is too short to contain a header");
+        }
+        for(int i = 0; i < BinaryLogFormat.MAGIC.length; i++){
+            if(buffer.get() != BinaryLogFormat.MAGIC[i]){
+                throw new IOException("Segment does not start with the binary log magic number");
+            }
+        }
+        byte version = buffer.get();
+        if(version < BinaryLogFormat.MINIMUM_VERSION || version > BinaryLogFormat.VERSION){
+            throw new IOException("Unsupported binary log version "+version);
+        }
+        buffer.get();
+        buffer.get();
+        buffer.get();
+        long baseNanos = buffer.getLong();
+        long baseMillis = buffer.getLong();
+        buffer.getInt();
+
+        List<String> loggers = new ArrayList<String>();
+        List<String> strings = new ArrayList<String>();
+        long timestamp = baseNanos;
+        int events = 0;
+        try{
+            while(buffer.hasRemaining()){
+                byte tag = buffer.get();
+                if(tag == BinaryLogFormat.TAG_END){
+                    break;
+                }
+                else if(tag == BinaryLogFormat.TAG_LOGGER){
+                    define(loggers, getVarint(buffer), getString(buffer));
+                }
+                else if(tag == BinaryLogFormat.TAG_STRING){
+                    define(strings, getVarint(buffer), getString(buffer));
+                }
+                else if(tag == BinaryLogFormat.TAG_EVENT){
+                    int levelByte = buffer.get() & 0xFF;
+                    Level level = Level.forIndex(levelByte & BinaryLogFormat.LEVEL_MASK);
+                    String logger = loggers.get(getVarint(buffer));
+                    long zigzag = getVarlong(buffer);
+                    timestamp += (zigzag >>> 1) ^ -(zigzag & 1);
+                    String message = getStringReference(buffer, strings);
+                    String thrown = null;
+                    if((levelByte & BinaryLogFormat.THROWN_FLAG) != 0){
+                        thrown = getStringReference(buffer, strings);
+                    }
+                    String fields = null;
+                    if((levelByte & BinaryLogFormat.FIELDS_FLAG) != 0){
+                        fields = getFields(buffer, strings);
+                    }
+                    double timeMillis = baseMillis + (timestamp - baseNanos) / 1000000.0;
+                    out.println(render(timeMillis, level, logger, message, thrown, fields));
+                    events++;
+                }
+                else{
+                    //Unknown data, most likely a record cut short
+                    break;
+                }
+            }
+        }
+        catch(BufferUnderflowException e){
+            //The last record was cut short
+        }
+        catch(IndexOutOfBoundsException e){
+            //The last record was cut short
+        }
+        catch(IllegalArgumentException e){
+            //The last record was cut short
+        }
+        return events;
+    }
+
+    /**
+     * Renders one decoded event without fields.
+     * @param timeMillis The wall-clock time of the event in milliseconds
+     * since the epoch.
+     * @param level The severity level of the event.
+     * @param logger The full name of the original Logger, omitting the root
+     * Logger.
+     * @param message The message of the event.
+     * @param thrown The String form of the event's Throwable, or
+     * {@code null}.
+     * @return The rendered event, without a trailing line separator.
+     */
+    public String render(double timeMillis, Level level, String logger, String message, String thrown){
+        return render(timeMillis, level, logger, message, thrown, null);
+    }
+
+    /**
+     * Renders one decoded event.
+     * @param timeMillis The wall-clock time of the event in milliseconds
+     * since the epoch.
+     * @param level The severity level of the event.
+     * @param logger The full name of the original Logger, omitting the root
+     * Logger.
+     * @param message The message of the event.
+     * @param thrown The String form of the event's Throwable, or
+     * {@code null}.
+     * @param fields The event's fields as {@code name=value} pairs separated
+     * by spaces, or {@code null} if it has none.
+     * @return The rendered event, without a trailing line separator.
+     */
+    public String render(double timeMillis, Level level, String logger, String message, String thrown, String fields){
+        if(!csv){
+            //PrintFormatter places fields between the message and throwable
+            return formatter.format(level, logger, fields == null ? message : message+" "+fields, thrown);
+        }
+        StringBuilder line = new StringBuilder();
+        long micros = Math.round(timeMillis * 1000.0);
+        line.append(micros / 1000).append('.');
+        long fraction = micros % 1000;
+        if(fraction < 100){
+            line.append('0');
+        }
+        if(fraction < 10){
+            line.append('0');
+        }
+        line.append(fraction).append(',');
+        line.append(level.getName()).append(',');
+        appendCsvField(line, logger);
+        line.append(',');
+        appendCsvField(line, message);
+        line.append(',');
+        if(thrown != null){
+            appendCsvField(line, thrown);
+        }
+        line.append(',');
+        if(fields != null){
+            appendCsvField(line, fields);
+        }
+        return line.toString();
+    }
+
+    /**
+     * Internal method that appends a field to a CSV line, quoting it if
+     * necessary.
+     * @param line The line to which the field is appended.
+     * @param field The value of the field.
+     */
+    private static void appendCsvField(StringBuilder line, String field){
+        if(field.indexOf(',') < 0 && field.indexOf('"') < 0 && field.indexOf('\n') < 0 && field.indexOf('\r') < 0){
+            line.append(field);
+            return;
+        }
+        line.append('"');
+        for(int i = 0; i < field.length(); i++){
+            char c = field.charAt(i);
+            if(c == '"'){
+                line.append('"');
+            }
+            line.append(c);
+        }
+        line.append('"');
+    }
+
+    /**
+     * Internal method that records a dictionary definition.
+     * @param dictionary The dictionary to which the definition belongs.
+     * @param id The id being defined.
+     * @param value The value of the id.
+     */
+    private static void define(List<String> dictionary, int id, String value){
+        if(id != dictionary.size()){
+            throw new IllegalArgumentException("Out of order definition of id "+id);
+        }
+        dictionary.add(value);
+    }
+
+    /**
+     * Internal method that reads a string reference and resolves it.
+     * @param buffer The buffer from which to read.
+     * @param strings The interned strings of the segment.
+     * @return The referenced String.
+     */
+    private static String getStringReference(ByteBuffer buffer, List<String> strings){
+        int reference = getVarint(buffer);
+        if(reference == BinaryLogFormat.INLINE_STRING){
+            return getString(buffer);
+        }
+        return strings.get(reference - 1);
+    }
+
+    /**
+     * Internal method that reads the fields of an event and renders them as
+     * {@code name=value} pairs separated by spaces.
+     * @param buffer The buffer from which to read.
+     * @param strings The interned strings of the segment.
+     * @return The rendered fields.
+     * @throws IOException Never; declared by {@link PrintFormatter}.
+     */
+    private static String getFields(ByteBuffer buffer, List<String> strings) throws IOException {
+        int count = getVarint(buffer);
+        StringBuilder fields = new StringBuilder();
+        for(int i = 0; i < count; i++){
+            String name = getStringReference(buffer, strings);
+            byte type = buffer.get();
+            if(type == BinaryLogFormat.FIELD_DOUBLE){
+                PrintFormatter.appendField(name, buffer.getDouble(), fields);
+            }
+            else if(type == BinaryLogFormat.FIELD_LONG){
+                long zigzag = getVarlong(buffer);
+                PrintFormatter.appendField(name, (zigzag >>> 1) ^ -(zigzag & 1), fields);
+            }
+            else{
+                throw new IllegalArgumentException("Unknown field type "+type);
+            }
+        }
+        //Drop the space that precedes the first field
+        return fields.length() > 0 ? fields.substring(1) : "";
+    }
+
+    /**
+     * Internal method that reads a UTF-8 String preceded by its byte length.
+     * @param buffer The buffer from which to read.
+     * @return The String that was read.
+     */
+    private static String getString(ByteBuffer buffer){
+        int length = getVarint(buffer);
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, UTF_8);
+    }
+
+    /**
+     * Internal method that reads an unsigned variable-length integer.
+     * @param buffer The buffer from which to read.
+     * @return The value that was read.
+     */
+    private static int getVarint(ByteBuffer buffer){
+        return (int)getVarlong(buffer);
+    }
+
+    /**
+     * Internal method that reads an unsigned variable-length long.
+     * @param buffer The buffer from which to read.
+     * @return The value that was read.
+     */
+    private static long getVarlong(ByteBuffer buffer){
+        long value = 0;
+        int shift = 0;
+        while(true){
+            byte b = buffer.get();
+            value |= (long)(b & 0x7F) << shift;
+            if((b & 0x80) == 0){
+                return value;
+            }
+            shift += 7;
+            if(shift > 63){
+                throw new IllegalArgumentException("Malformed variable-length number");
+            }
+        }
+    }
+
+    /**
+     * Decodes the segment files named on the command line and prints them to
+     * standard output.
+     * @param args An optional {@code --csv} flag followed by the paths of
+     * the segment files to decode, in order.
+     */
+    public static void main(String[] args){
+        boolean csv = false;
+        List<String> paths = new ArrayList<String>();
+        for(int i = 0; i < args.length; i++){
+            if(args[i].equals("--csv")){
+                csv = true;
+            }
+            else{
+                paths.add(args[i]);
+            }
+        }
+        if(paths.isEmpty()){
+            System.err.println("Usage: BinaryLogDecoder [--csv] segment...");
+            System.exit(2);
+        }
+        BinaryLogDecoder decoder = new BinaryLogDecoder(csv);
+        if(decoder.getHeader() != null){
+            System.out.println(decoder.getHeader());
+        }
+        int status = 0;
+        for(int i = 0; i < paths.size(); i++){
+            try{
+                decoder.decode(new File(paths.get(i)), System.out);
+            }
+            catch(IOException e){
+                System.err.println(paths.get(i)+": "+e.getMessage());
+                status = 1;
+            }
+        }
+        System.out.flush();
+        System.exit(status);
+    }
+}
@@ -0,0 +1,113 @@
+package com.edinarobotics.utils.log.handlers;
+
+/**
+ * Describes the layout of the segment files written by
+ * {@link BinaryHandler} and read by {@link BinaryLogDecoder}.
+ *
+ * Each segment starts with a fixed-size header:
+ * <pre>
+ * 8 bytes  magic "1816BLOG"
+ * 1 byte   format version
+ * 3 bytes  reserved
+ * 8 bytes  System.nanoTime() when the segment was opened
+ * 8 bytes  System.currentTimeMillis() when the segment was opened
+ * 4 bytes  reserved
+ * </pre>
+ * The header is followed by a sequence of records, each starting with a
+ * tag byte. A tag of {@code 0} marks the end of the segment; the unused
+ * part of a preallocated segment is all zeros.
+ * <pre>
+ * LOGGER  varint id, string full logger name
+ * STRING  varint id, string value
+ * EVENT   byte level index (| THROWN_FLAG) (| FIELDS_FLAG),
+ *         varint logger id,
+ *         zigzag varlong nanoseconds since the previous event,
+ *         string reference message, [string reference throwable],
+ *         [varint field count, then for each field:
+ *          string reference name, byte type, value]
+ * </pre>
+ * A field value is an 8-byte big-endian IEEE 754 double if its type is
+ * FIELD_DOUBLE, or a zigzag varlong if its type is FIELD_LONG. Version 1
+ * segments are identical but never contain fields.
+ * Logger and string ids are assigned from zero in each segment, so every
+ * segment can be decoded on its own. Strings are written as a varint byte
+ * length followed by UTF-8 bytes. A string reference is a varint that is
+ * {@code 0} if the string follows inline, or one more than the id of a
+ * STRING record in the same segment.
+ */
+final class BinaryLogFormat {
+
+    private BinaryLogFormat(){
+        //Hide constructor
+    }
+
+    /**
+     * The bytes at the start of every segment.
+     */
+    static final byte[] MAGIC = {'1', '8', '1', '6', 'B', 'L', 'O', 'G'};
+
+    /**
+     * The version of the format described by this class.
+     */
+    static final byte VERSION = 2;
+
+    /**
+     * The oldest version of the format that can still be decoded.
+     */
+    static final byte MINIMUM_VERSION = 1;
+
+    /**
+     * The size of the segment header in bytes.
+     */
+    static final int HEADER_SIZE = 32;
+
+    /**
+     * Marks the end of the records in a segment.
+     */
+    static final byte TAG_END = 0;
+
+    /**
+     * Defines the id of a logger name.
+     */
+    static final byte TAG_LOGGER = 1;
+
+    /**
+     * Defines the id of an interned string.
+     */
+    static final byte TAG_STRING = 2;
+
+    /**
+     * A log event.
+     */
+    static final byte TAG_EVENT = 3;
+
+    /**
+     * Set in the level byte of an event that has a throwable.
+     */
+    static final int THROWN_FLAG = 0x80;
+
+    /**
+     * Set in the level byte of an event that has fields.
+     */
+    static final int FIELDS_FLAG = 0x40;
+
+    /**
+     * The type byte of a {@code double} field.
+     */
+    static final byte FIELD_DOUBLE = 1;
+
+    /**
+     * The type byte of a {@code long} field.
+     */
+    static final byte FIELD_LONG = 2;
+
+    /**
+     * Masks the level index out of the level byte of an event.
+     */
+    static final int LEVEL_MASK = 0x0F;
+
+    /**
+     * The string reference value indicating that the string follows inline.
+     */
+    static final int INLINE_STRING = 0;
+}
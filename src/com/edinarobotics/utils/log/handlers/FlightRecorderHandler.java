@@ -0,0 +1,227 @@
+package com.edinarobotics.utils.log.handlers;
+
+import com.edinarobotics.utils.log.Handler;
+import com.edinarobotics.utils.log.Level;
+import com.edinarobotics.utils.log.LogEvent;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * The FlightRecorderHandler keeps the most recent LogEvents in memory and
+ * only passes them to another Handler when something goes wrong.
+ *
+ * Every event is copied into a LogEvent preallocated in a fixed-size circular
+ * buffer, replacing the oldest event once the buffer is full. Storing an
+ * event takes a position with a single atomic increment, claims the slot
+ * with a compare-and-set of its state and never allocates or waits, so
+ * detailed events such as {@link Level#TRACE} can be recorded
+ * continuously at little cost. The state of a slot is odd while an event
+ * is being copied into it and even once the event is published. A dump
+ * copies a published slot without locking it and discards the copy if the
+ * state changed in the meantime. If writers wrap around the whole buffer
+ * while an older event is still being copied into a slot, the newer event
+ * is dropped rather than waiting for the slot.
+ *
+ * When an event at or above the trigger Level arrives, the recorded events
+ * are dumped, oldest first, to the sink Handler on the thread that logged
+ * the triggering event. The buffer can also be dumped on demand with
+ * {@link #dump()}. Each dump only contains events that were not part of an
+ * earlier dump. The LogEvent passed to the sink Handler is reused for the
+ * next dumped event.
+ */
+public class FlightRecorderHandler implements Handler {
+
+    /**
+     * The default number of events held by the circular buffer.
+     */
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    private final Handler sink;
+    private final Level trigger;
+    private final LogEvent[] events;
+    private final AtomicLongArray states;
+    private final int mask;
+    private final AtomicLong position;
+    private final Object dumpLock;
+    private final LogEvent dumped;
+    private long dumpedPosition;
+
+    /**
+     * Constructs a new FlightRecorderHandler holding the last
+     * {@link #DEFAULT_CAPACITY} events, which dumps to {@code sink} when a
+     * {@link Level#SEVERE} or more severe event arrives.
+     * @param sink The Handler to which recorded events are dumped.
+     */
+    public FlightRecorderHandler(Handler sink){
+        this(sink, DEFAULT_CAPACITY, Level.SEVERE);
+    }
+
+    /**
+     * Constructs a new FlightRecorderHandler.
+     * @param sink The Handler to which recorded events are dumped.
+     * @param capacity The number of events held by the circular buffer.
+     * This value is rounded up to the next power of two.
+     * @param trigger The least severe Level that causes the recorded events
+     * to be dumped, or {@code null} to only dump on demand.
+     */
+    public FlightRecorderHandler(Handler sink, int capacity, Level trigger){
+        if(sink == null){
+            throw new IllegalArgumentException("Provided sink Handler must not be null");
+        }
+        if(capacity < 2 || capacity > (1 << 30)){
+            throw new IllegalArgumentException("Capacity must be between 2 and 2^30 (received: "+capacity+")");
+        }
+        int size = Integer.highestOneBit(capacity - 1) << 1;
+        this.sink = sink;
+        this.trigger = trigger;
+        this.events = new LogEvent[size];
+        //A state of 0 marks a slot that has never been written
+        this.states = new AtomicLongArray(size);
+        for(int i = 0; i < size; i++){
+            events[i] = new LogEvent();
+        }
+        this.mask = size - 1;
+        this.position = new AtomicLong();
+        this.dumpLock = new Object();
+        this.dumped = new LogEvent();
+        this.dumpedPosition = 0;
+    }
+
+    /**
+     * Records the given LogEvent, and dumps the recorded events if it is at
+     * least as severe as the trigger Level.
+     * @param event The LogEvent to be recorded.
+     */
+    public void handle(LogEvent event){
+        if(event == null){
+            return;
+        }
+        long sequence = position.getAndIncrement();
+        int index = (int)sequence & mask;
+        if(claim(index, sequence)){
+            event.copyInto(events[index]);
+            states.set(index, getPublishedState(sequence));
+        }
+        if(trigger != null && event.getLevel().compareTo(trigger) >= 0){
+            dump();
+        }
+    }
+
+    /**
+     * Internal method that marks a slot as being written by the event at
+     * the given position. This never waits: the slot is not claimed if
+     * another writer is copying into it or already published a newer event
+     * there.
+     * @param index The index of the slot.
+     * @param sequence The position of the event.
+     * @return {@code true} if the slot was claimed, {@code false} if the
+     * event must be dropped.
+     */
+    private boolean claim(int index, long sequence){
+        long writing = getPublishedState(sequence) - 1;
+        while(true){
+            long state = states.get(index);
+            if((state & 1) != 0 || state >= writing){
+                return false;
+            }
+            if(states.compareAndSet(index, state, writing)){
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Internal method that returns the state of a slot holding the
+     * published event at the given position.
+     * @param sequence The position of the event.
+     * @return The even state of the slot.
+     */
+    private static long getPublishedState(long sequence){
+        return 2 * sequence + 2;
+    }
+
+    /**
+     * Passes every recorded event that has not been dumped before to the
+     * sink Handler, oldest first.
+     *
+     * Events recorded by other threads while the dump is in progress may
+     * be left for the next dump. Events that are overwritten before the
+     * dump reaches them are lost.
+     * @return The number of events passed to the sink Handler.
+     */
+    public int dump(){
+        synchronized(dumpLock){
+            long end = position.get();
+            long start = Math.max(dumpedPosition, end - events.length);
+            int count = 0;
+            for(long sequence = start; sequence < end; sequence++){
+                int index = (int)sequence & mask;
+                long state = getPublishedState(sequence);
+                if(states.get(index) != state){
+                    //This slot was overwritten or is not written yet
+                    continue;
+                }
+                try{
+                    events[index].copyInto(dumped);
+                }
+                catch(RuntimeException e){
+                    //A writer changed the slot during the copy, which is
+                    //caught by the check below
+                }
+                //The compare-and-set orders the copy before the check, so a
+                //writer that claimed the slot during the copy is noticed
+                if(!states.compareAndSet(index, state, state)){
+                    continue;
+                }
+                sink.handle(dumped);
+                count++;
+            }
+            dumpedPosition = end;
+            return count;
+        }
+    }
+
+    /**
+     * Returns the Handler to which recorded events are dumped.
+     * @return The sink Handler of this FlightRecorderHandler.
+     */
+    public Handler getSink(){
+        return sink;
+    }
+
+    /**
+     * Returns the least severe Level that causes the recorded events to be
+     * dumped.
+     * @return The trigger Level, or {@code null} if events are only dumped
+     * on demand.
+     */
+    public Level getTriggerLevel(){
+        return trigger;
+    }
+
+    /**
+     * Returns the number of events held by the circular buffer.
+     * @return The capacity of this FlightRecorderHandler.
+     */
+    public int getCapacity(){
+        return events.length;
+    }
+
+    /**
+     * Returns the total number of events recorded by this
+     * FlightRecorderHandler, including those that have since been
+     * overwritten.
+     * @return The number of recorded events.
+     */
+    public long getRecordedCount(){
+        return position.get();
+    }
+
+    /**
+     * Returns a String representation of this FlightRecorderHandler.
+     * @return A String representation of this FlightRecorderHandler.
+     */
+    public String toString(){
+        return "<FlightRecorderHandler: "+sink.toString()+", "+getCapacity()+", "+trigger+">";
+    }
+}
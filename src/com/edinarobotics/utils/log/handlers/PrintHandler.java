@@ -3,16 +3,25 @@ package com.edinarobotics.utils.log.handlers;
 import com.edinarobotics.utils.log.Formatter;
 import com.edinarobotics.utils.log.Handler;
 import com.edinarobotics.utils.log.LogEvent;
+import com.edinarobotics.utils.log.formatters.EventEncoder;
 import com.edinarobotics.utils.log.formatters.PrintFormatter;
 import java.io.OutputStream;
 import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
 
 /**
  * The PrintHandler formats LogEvents and prints them to an OutputStream.
+ * 
+ * Each event is formatted and encoded into reused buffers by an
+ * {@link EventEncoder}, and the resulting bytes are written in a single
+ * call, so printing an event does not create intermediate Strings when the
+ * Formatter is a {@link com.edinarobotics.utils.log.StreamingFormatter}.
  */
 public class PrintHandler implements Handler {
     private PrintStream outputStream;
     private Formatter formatter;
+    private final EventEncoder encoder;
     
     /**
      * Constructs a new PrintHandler which prints to the given OutputStream
@@ -36,6 +45,8 @@ public class PrintHandler implements Handler {
     public PrintHandler(OutputStream outputStream, Formatter formatter){
         this.outputStream = new PrintStream(outputStream);
         this.formatter = formatter;
+        //Match the encoding and line separator of PrintStream.println()
+        this.encoder = new EventEncoder(formatter, Charset.defaultCharset(), System.getProperty("line.separator"));
     }
     
     /**
@@ -44,7 +55,10 @@ public class PrintHandler implements Handler {
      * @param event The LogEvent to be printed to the given OutputStream.
      */
     public void handle(LogEvent event){
-        outputStream.println(formatter.format(event));
+        synchronized(encoder){
+            ByteBuffer bytes = encoder.encode(event);
+            outputStream.write(bytes.array(), bytes.arrayOffset() + bytes.position(), bytes.remaining());
+        }
     }
     
     /**
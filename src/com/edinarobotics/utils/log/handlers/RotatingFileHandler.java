@@ -0,0 +1,468 @@
+package com.edinarobotics.utils.log.handlers;
+
+import com.edinarobotics.utils.log.Formatter;
+import com.edinarobotics.utils.log.Handler;
+import com.edinarobotics.utils.log.LogEvent;
+import com.edinarobotics.utils.log.StackTraceCache;
+import com.edinarobotics.utils.log.formatters.EventEncoder;
+import com.edinarobotics.utils.log.formatters.PrintFormatter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * The RotatingFileHandler formats LogEvents and writes them to a series of
+ * size-limited text files.
+ *
+ * Each segment file is named {@code <name>-<number>.log}. Once a segment
+ * reaches the maximum segment size, it is closed and the next one is
+ * started. Segment numbering continues after the highest-numbered existing
+ * segment with the same name, so earlier logs are never overwritten.
+ *
+ * Events are formatted and encoded as UTF-8 by an {@link EventEncoder}
+ * directly into a large direct ByteBuffer, without intermediate Strings
+ * when the Formatter is a
+ * {@link com.edinarobotics.utils.log.StreamingFormatter}. The buffer is
+ * written to the file when it fills, when an event arrives more than a
+ * second after the last write, or when {@link #flush()} is called.
+ *
+ * Closed segments are compressed to {@code <name>-<number>.log.gz} and the
+ * oldest segments are deleted so that at most the maximum number of
+ * segments is kept. This is done by a low-priority background thread, so
+ * logging never waits for compression.
+ *
+ * Writing is synchronized. Wrap this Handler in an {@link AsyncHandler} to
+ * keep formatting and file writes off of the logging thread.
+ */
+public class RotatingFileHandler implements Handler {
+
+    /**
+     * The default maximum size of each segment file in bytes.
+     */
+    public static final long DEFAULT_SEGMENT_SIZE = 4 * 1024 * 1024;
+
+    /**
+     * The default maximum number of segment files kept.
+     */
+    public static final int DEFAULT_SEGMENT_COUNT = 10;
+
+    /**
+     * The default size of the write buffer in bytes.
+     */
+    public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * The file extension of segment files.
+     */
+    public static final String SEGMENT_EXTENSION = ".log";
+
+    /**
+     * The extension added to the names of compressed segment files.
+     */
+    public static final String COMPRESSED_EXTENSION = ".gz";
+
+    private static final long FLUSH_INTERVAL_NANOS = 1000000000L;
+    private static final File STOP = new File("");
+
+    private final File directory;
+    private final String name;
+    private final Formatter formatter;
+    private final long segmentSize;
+    private final int segmentCount;
+    private final boolean compress;
+    private final ByteBuffer buffer;
+    private final EventEncoder encoder;
+    private final LinkedBlockingQueue<File> closedSegments;
+    private final Thread maintainer;
+    private FileChannel channel;
+    private File segment;
+    private int segmentNumber;
+    private long segmentBytes;
+    private long lastWriteNanos;
+    private long droppedEvents;
+    private boolean failed;
+
+    /**
+     * Constructs a new RotatingFileHandler which formats events with a
+     * {@link PrintFormatter} and keeps up to {@link #DEFAULT_SEGMENT_COUNT}
+     * compressed segments of {@link #DEFAULT_SEGMENT_SIZE} bytes.
+     * 
+     * The PrintFormatter uses a {@link StackTraceCache}, so the full stack
+     * trace of each distinct exception is written once, and repeats are
+     * written as a one-line reference to it.
+     * @param directory The directory in which to create segment files.
+     * @param name The name prefix of the segment files.
+     * @throws IOException If the first segment file cannot be created.
+     */
+    public RotatingFileHandler(File directory, String name) throws IOException {
+        this(directory, name, new PrintFormatter(new StackTraceCache()));
+    }
+
+    /**
+     * Constructs a new RotatingFileHandler which keeps up to
+     * {@link #DEFAULT_SEGMENT_COUNT} compressed segments of
+     * {@link #DEFAULT_SEGMENT_SIZE} bytes.
+     * @param directory The directory in which to create segment files.
+     * @param name The name prefix of the segment files.
+     * @param formatter The Formatter used to format LogEvents.
+     * @throws IOException If the first segment file cannot be created.
+     */
+    public RotatingFileHandler(File directory, String name, Formatter formatter) throws IOException {
+        this(directory, name, formatter, DEFAULT_SEGMENT_SIZE, DEFAULT_SEGMENT_COUNT, true);
+    }
+
+    /**
+     * Constructs a new RotatingFileHandler.
+     *
+     * Uncompressed segments left behind by an earlier run, for example after
+     * a power loss, are compressed in the background as well.
+     * @param directory The directory in which to create segment files.
+     * @param name The name prefix of the segment files.
+     * @param formatter The Formatter used to format LogEvents.
+     * @param segmentSize The size in bytes at which a segment is closed.
+     * @param segmentCount The maximum number of segments kept, including
+     * the segment being written.
+     * @param compress {@code true} if closed segments are to be gzipped,
+     * {@code false} otherwise.
+     * @throws IOException If the first segment file cannot be created.
+     */
+    public RotatingFileHandler(File directory, String name, Formatter formatter, long segmentSize,
+            int segmentCount, boolean compress) throws IOException {
+        if(directory == null || name == null){
+            throw new IllegalArgumentException("Provided directory and name must not be null");
+        }
+        if(formatter == null){
+            throw new IllegalArgumentException("Provided Formatter must not be null");
+        }
+        if(segmentSize < 1024){
+            throw new IllegalArgumentException("Segment size must be at least 1024 bytes (received: "+segmentSize+")");
+        }
+        if(segmentCount < 1){
+            throw new IllegalArgumentException("Segment count must be positive (received: "+segmentCount+")");
+        }
+        this.directory = directory;
+        this.name = name;
+        this.formatter = formatter;
+        this.segmentSize = segmentSize;
+        this.segmentCount = segmentCount;
+        this.compress = compress;
+        this.buffer = ByteBuffer.allocateDirect((int)Math.min(DEFAULT_BUFFER_SIZE, segmentSize));
+        this.encoder = new EventEncoder(formatter);
+        this.closedSegments = new LinkedBlockingQueue<File>();
+        this.droppedEvents = 0;
+        this.failed = false;
+        List<Integer> existing = findSegmentNumbers();
+        this.segmentNumber = existing.isEmpty() ? 0 : existing.get(existing.size() - 1).intValue();
+        if(compress){
+            for(int i = 0; i < existing.size(); i++){
+                File leftover = new File(directory, getSegmentFileName(name, existing.get(i).intValue()));
+                if(leftover.exists()){
+                    closedSegments.offer(leftover);
+                }
+            }
+        }
+        openSegment();
+        this.maintainer = new Thread(new Runnable(){
+            public void run(){
+                maintain();
+            }
+        }, "RotatingFileHandler-"+name);
+        maintainer.setDaemon(true);
+        maintainer.setPriority(Thread.MIN_PRIORITY);
+        maintainer.start();
+    }
+
+    /**
+     * Returns the file name used for the uncompressed segment with the
+     * given number.
+     * @param name The name prefix of the segment files.
+     * @param segmentNumber The number of the segment.
+     * @return The file name of the segment.
+     */
+    public static String getSegmentFileName(String name, int segmentNumber){
+        String number = Integer.toString(segmentNumber);
+        while(number.length() < 4){
+            number = "0"+number;
+        }
+        return name+"-"+number+SEGMENT_EXTENSION;
+    }
+
+    /**
+     * Internal method that finds the numbers of the existing segments,
+     * compressed or not, with this RotatingFileHandler's name.
+     * @return The existing segment numbers in ascending order.
+     */
+    private List<Integer> findSegmentNumbers(){
+        List<Integer> numbers = new ArrayList<Integer>();
+        String[] files = directory.list();
+        if(files == null){
+            return numbers;
+        }
+        String prefix = name+"-";
+        String compressedExtension = SEGMENT_EXTENSION+COMPRESSED_EXTENSION;
+        for(int i = 0; i < files.length; i++){
+            String file = files[i];
+            int end;
+            if(file.endsWith(SEGMENT_EXTENSION)){
+                end = file.length() - SEGMENT_EXTENSION.length();
+            }
+            else if(file.endsWith(compressedExtension)){
+                end = file.length() - compressedExtension.length();
+            }
+            else{
+                continue;
+            }
+            if(!file.startsWith(prefix) || end <= prefix.length()){
+                continue;
+            }
+            try{
+                Integer number = Integer.valueOf(file.substring(prefix.length(), end));
+                if(!numbers.contains(number)){
+                    numbers.add(number);
+                }
+            }
+            catch(NumberFormatException e){
+                //Not one of our segments
+            }
+        }
+        Collections.sort(numbers);
+        return numbers;
+    }
+
+    /**
+     * Internal method that opens the next segment file.
+     * @throws IOException If the segment file cannot be created.
+     */
+    private void openSegment() throws IOException {
+        segmentNumber++;
+        segment = new File(directory, getSegmentFileName(name, segmentNumber));
+        channel = new FileOutputStream(segment).getChannel();
+        segmentBytes = 0;
+        lastWriteNanos = System.nanoTime();
+    }
+
+    /**
+     * Internal method that writes out the buffer and closes the current
+     * segment, handing it to the background thread.
+     * @throws IOException If the segment file cannot be written or closed.
+     */
+    private void closeSegment() throws IOException {
+        if(channel == null){
+            return;
+        }
+        try{
+            drain();
+        }
+        finally{
+            channel.close();
+            channel = null;
+            closedSegments.offer(segment);
+        }
+    }
+
+    /**
+     * Formats the given LogEvent and writes it to the current segment,
+     * starting a new segment if the current one is full.
+     * @param event The LogEvent to be written.
+     */
+    public synchronized void handle(LogEvent event){
+        if(failed){
+            droppedEvents++;
+            return;
+        }
+        try{
+            if(segmentBytes + buffer.position() >= segmentSize){
+                closeSegment();
+                openSegment();
+            }
+            encoder.format(event);
+            while(!encoder.encodeTo(buffer)){
+                drain();
+            }
+            if(event.getTimestamp() - lastWriteNanos >= FLUSH_INTERVAL_NANOS){
+                drain();
+            }
+        }
+        catch(IOException e){
+            failed = true;
+            droppedEvents++;
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Internal method that writes the contents of the buffer to the file.
+     * @throws IOException If the file cannot be written.
+     */
+    private void drain() throws IOException {
+        buffer.flip();
+        while(buffer.hasRemaining()){
+            segmentBytes += channel.write(buffer);
+        }
+        buffer.clear();
+        lastWriteNanos = System.nanoTime();
+    }
+
+    /**
+     * Writes all buffered events to the current segment file.
+     */
+    public synchronized void flush(){
+        if(failed || channel == null){
+            return;
+        }
+        try{
+            drain();
+        }
+        catch(IOException e){
+            failed = true;
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Writes all buffered events and closes the current segment. Events
+     * handled after this call are dropped.
+     *
+     * The last segment is compressed in the background; this method does
+     * not wait for it.
+     * @throws IOException If the segment file cannot be written or closed.
+     */
+    public synchronized void close() throws IOException {
+        if(channel == null){
+            return;
+        }
+        failed = true;
+        try{
+            closeSegment();
+        }
+        finally{
+            closedSegments.offer(STOP);
+        }
+    }
+
+    /**
+     * Internal method run by the background thread. It compresses closed
+     * segments and deletes the oldest segments beyond the maximum count.
+     */
+    private void maintain(){
+        prune();
+        while(true){
+            File closed;
+            try{
+                closed = closedSegments.take();
+            }
+            catch(InterruptedException e){
+                continue;
+            }
+            if(closed == STOP){
+                return;
+            }
+            if(compress){
+                try{
+                    compress(closed);
+                }
+                catch(IOException e){
+                    e.printStackTrace();
+                }
+            }
+            prune();
+        }
+    }
+
+    /**
+     * Internal method that gzips a closed segment and deletes the original.
+     * @param closed The closed segment file.
+     * @throws IOException If the segment cannot be compressed.
+     */
+    private static void compress(File closed) throws IOException {
+        File compressed = new File(closed.getPath()+COMPRESSED_EXTENSION);
+        File partial = new File(compressed.getPath()+".tmp");
+        InputStream input = new FileInputStream(closed);
+        try{
+            OutputStream output = new GZIPOutputStream(new FileOutputStream(partial), 64 * 1024);
+            try{
+                byte[] chunk = new byte[64 * 1024];
+                int read;
+                while((read = input.read(chunk)) >= 0){
+                    output.write(chunk, 0, read);
+                }
+            }
+            finally{
+                output.close();
+            }
+        }
+        finally{
+            input.close();
+        }
+        if(!partial.renameTo(compressed)){
+            partial.delete();
+            throw new IOException("Could not rename "+partial+" to "+compressed);
+        }
+        closed.delete();
+    }
+
+    /**
+     * Internal method that deletes the oldest segments, compressed or not,
+     * until at most the maximum number of segments remain. The segment
+     * currently being written is never deleted.
+     */
+    private void prune(){
+        List<Integer> numbers = findSegmentNumbers();
+        int current;
+        synchronized(this){
+            current = segmentNumber;
+        }
+        for(int i = 0; i < numbers.size() - segmentCount; i++){
+            int number = numbers.get(i).intValue();
+            if(number >= current){
+                break;
+            }
+            File plain = new File(directory, getSegmentFileName(name, number));
+            if(closedSegments.contains(plain)){
+                //Still waiting to be compressed
+                continue;
+            }
+            plain.delete();
+            new File(plain.getPath()+COMPRESSED_EXTENSION).delete();
+        }
+    }
+
+    /**
+     * Returns the number of events that could not be written because of an
+     * I/O error or because this RotatingFileHandler was closed.
+     * @return The number of dropped events.
+     */
+    public synchronized long getDroppedCount(){
+        return droppedEvents;
+    }
+
+    /**
+     * Returns the number of the segment currently being written.
+     * @return The current segment number.
+     */
+    public synchronized int getSegmentNumber(){
+        return segmentNumber;
+    }
+
+    /**
+     * Returns a String representation of this RotatingFileHandler.
+     *
+     * This String representation is intended to be human-readable.
+     * @return A human-readable String representation of this
+     * RotatingFileHandler.
+     */
+    public String toString(){
+        return "<RotatingFileHandler: "+new File(directory, name).getPath()+", "+formatter.toString()+", "+
+                segmentSize+", "+segmentCount+">";
+    }
+}
@@ -0,0 +1,399 @@
+package com.edinarobotics.utils.log.handlers;
+
+import com.edinarobotics.utils.log.Handler;
+import com.edinarobotics.utils.log.LogEvent;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+
+/**
+ * The UdpHandler streams LogEvents over UDP so that they can be watched live
+ * from another computer with a {@link UdpLogReceiver}.
+ *
+ * Events are packed into datagrams of at most the maximum datagram size,
+ * which by default fits in the MTU of a typical network. A datagram is sent
+ * by a background thread once the next event would not fit in it, or once
+ * its first event has waited for the flush deadline. The handler holds two
+ * fixed send buffers: while one is being sent, events are packed into the
+ * other. If both are full, new events are dropped and counted instead of
+ * waiting for the network.
+ *
+ * UDP does not guarantee delivery. The receiver reports datagrams that were
+ * lost on the way.
+ * @see UdpLogFormat
+ */
+public class UdpHandler implements Handler {
+
+    /**
+     * The default port to which datagrams are sent. Ports 5800 to 5810 are
+     * open for team use on the FRC field network.
+     */
+    public static final int DEFAULT_PORT = 5800;
+
+    /**
+     * The default maximum size of each datagram in bytes.
+     */
+    public static final int DEFAULT_DATAGRAM_SIZE = 1400;
+
+    /**
+     * The default time in milliseconds that an event may wait before its
+     * datagram is sent.
+     */
+    public static final long DEFAULT_FLUSH_MILLIS = 20;
+
+    private static final int MAXIMUM_NAME_BYTES = 256;
+    private static final int MAXIMUM_THROWN_BYTES = 512;
+
+    private final InetSocketAddress destination;
+    private final DatagramChannel channel;
+    private final long flushNanos;
+    private final Thread sender;
+    private ByteBuffer filling;
+    private ByteBuffer sending;
+    private boolean sendReady;
+    private long fillingStartNanos;
+    private int sequence;
+    private long droppedEvents;
+    private long failedDatagrams;
+    private boolean running;
+
+    /**
+     * Constructs a new UdpHandler which sends to the given host on
+     * {@link #DEFAULT_PORT}.
+     * @param host The name or address of the receiving computer.
+     * @throws IOException If the UDP socket cannot be opened.
+     */
+    public UdpHandler(String host) throws IOException {
+        this(new InetSocketAddress(host, DEFAULT_PORT));
+    }
+
+    /**
+     * Constructs a new UdpHandler which sends datagrams of up to
+     * {@link #DEFAULT_DATAGRAM_SIZE} bytes, flushed after at most
+     * {@link #DEFAULT_FLUSH_MILLIS} milliseconds.
+     * @param destination The address and port of the receiver.
+     * @throws IOException If the UDP socket cannot be opened.
+     */
+    public UdpHandler(InetSocketAddress destination) throws IOException {
+        this(destination, DEFAULT_DATAGRAM_SIZE, DEFAULT_FLUSH_MILLIS);
+    }
+
+    /**
+     * Constructs a new UdpHandler.
+     *
+     * Events too large to fit in a datagram on their own are truncated.
+     * @param destination The address and port of the receiver.
+     * @param datagramSize The maximum size of each datagram in bytes.
+     * @param flushMillis The time in milliseconds that an event may wait
+     * before its datagram is sent.
+     * @throws IOException If the UDP socket cannot be opened.
+     */
+    public UdpHandler(InetSocketAddress destination, int datagramSize, long flushMillis) throws IOException {
+        if(destination == null){
+            throw new IllegalArgumentException("Provided destination must not be null");
+        }
+        if(datagramSize < 1024 || datagramSize > 65507){
+            throw new IllegalArgumentException("Datagram size must be between 1024 and 65507 (received: "+datagramSize+")");
+        }
+        if(flushMillis < 0){
+            throw new IllegalArgumentException("Flush time must not be negative (received: "+flushMillis+")");
+        }
+        this.destination = destination;
+        this.flushNanos = flushMillis * 1000000L;
+        this.filling = ByteBuffer.allocateDirect(datagramSize);
+        this.sending = ByteBuffer.allocateDirect(datagramSize);
+        this.sendReady = false;
+        this.sequence = 0;
+        this.running = true;
+        putHeader(filling);
+        this.channel = DatagramChannel.open();
+        this.sender = new Thread(new Runnable(){
+            public void run(){
+                send();
+            }
+        }, "UdpHandler-"+destination.toString());
+        sender.setDaemon(true);
+        sender.start();
+    }
+
+    /**
+     * Packs the given LogEvent into the datagram being filled.
+     * @param event The LogEvent to be sent.
+     */
+    public void handle(LogEvent event){
+        String thrown = event.hasThrowable() ? event.getThrowable().toString() : null;
+        String logger = event.getOriginalLogger().getFullNameWithoutRoot();
+        int levelByte = event.getLevel().getIndex() | (thrown != null ? UdpLogFormat.THROWN_FLAG : 0);
+        int size = 1 + 2 + utf8Length(logger) + 2 + utf8Length(event.getMessage()) +
+                (thrown != null ? 2 + utf8Length(thrown) : 0);
+        synchronized(this){
+            if(!running){
+                droppedEvents++;
+                return;
+            }
+            if(size > filling.remaining() && filling.position() > UdpLogFormat.HEADER_SIZE){
+                if(!swap()){
+                    droppedEvents++;
+                    return;
+                }
+            }
+            if(filling.position() == UdpLogFormat.HEADER_SIZE){
+                fillingStartNanos = System.nanoTime();
+                //Let the sender start timing the flush deadline
+                notifyAll();
+            }
+            filling.put((byte)levelByte);
+            if(size <= filling.remaining() + 1){
+                putString(filling, logger, Integer.MAX_VALUE);
+                putString(filling, event.getMessage(), Integer.MAX_VALUE);
+                if(thrown != null){
+                    putString(filling, thrown, Integer.MAX_VALUE);
+                }
+            }
+            else{
+                //Too large for a datagram of its own, so truncate
+                putString(filling, logger, MAXIMUM_NAME_BYTES);
+                int reserved = thrown != null ? 2 + Math.min(utf8Length(thrown), MAXIMUM_THROWN_BYTES) : 0;
+                putString(filling, event.getMessage(), filling.remaining() - 2 - reserved);
+                if(thrown != null){
+                    putString(filling, thrown, filling.remaining() - 2);
+                }
+            }
+        }
+    }
+
+    /**
+     * Sends the datagram being filled without waiting for the flush
+     * deadline, unless the previous datagram is still being sent.
+     */
+    public synchronized void flush(){
+        if(filling.position() > UdpLogFormat.HEADER_SIZE){
+            swap();
+        }
+    }
+
+    /**
+     * Sends any remaining events and closes the UDP socket. Events handled
+     * after this call are dropped.
+     */
+    public void close(){
+        synchronized(this){
+            if(!running){
+                return;
+            }
+            running = false;
+            notifyAll();
+        }
+        try{
+            sender.join(1000);
+        }
+        catch(InterruptedException e){
+            Thread.currentThread().interrupt();
+        }
+        try{
+            channel.close();
+        }
+        catch(IOException e){
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Internal method that hands the datagram being filled to the sender
+     * thread. Callers must hold the lock on this UdpHandler.
+     * @return {@code true} if the datagram was handed over, {@code false}
+     * if the sender thread is still busy with the previous datagram.
+     */
+    private boolean swap(){
+        if(sendReady){
+            return false;
+        }
+        ByteBuffer full = filling;
+        filling = sending;
+        sending = full;
+        sending.putInt(UdpLogFormat.SEQUENCE_OFFSET, sequence++);
+        filling.clear();
+        putHeader(filling);
+        sendReady = true;
+        notifyAll();
+        return true;
+    }
+
+    /**
+     * Internal method run by the sender thread. It waits for full
+     * datagrams, or for the flush deadline of a partial datagram, and sends
+     * them.
+     */
+    private void send(){
+        while(true){
+            ByteBuffer datagram;
+            synchronized(this){
+                try{
+                    while(!sendReady){
+                        boolean pending = filling.position() > UdpLogFormat.HEADER_SIZE;
+                        if(!running && !pending){
+                            return;
+                        }
+                        if(pending){
+                            long remaining = fillingStartNanos + flushNanos - System.nanoTime();
+                            if(remaining <= 0 || !running){
+                                swap();
+                                continue;
+                            }
+                            wait(remaining / 1000000L, (int)(remaining % 1000000L));
+                        }
+                        else{
+                            wait();
+                        }
+                    }
+                }
+                catch(InterruptedException e){
+                    continue;
+                }
+                datagram = sending;
+            }
+            datagram.flip();
+            try{
+                channel.send(datagram, destination);
+            }
+            catch(IOException e){
+                synchronized(this){
+                    failedDatagrams++;
+                }
+            }
+            synchronized(this){
+                sending.clear();
+                sendReady = false;
+            }
+        }
+    }
+
+    /**
+     * Internal method that writes the datagram header, leaving the sequence
+     * number to be filled in when the datagram is sent.
+     * @param buffer The buffer into which to write.
+     */
+    private static void putHeader(ByteBuffer buffer){
+        buffer.put(UdpLogFormat.MAGIC);
+        buffer.put(UdpLogFormat.VERSION);
+        buffer.putInt(0);
+    }
+
+    /**
+     * Internal method that computes the length of a String in UTF-8.
+     * @param value The String to measure.
+     * @return The number of bytes needed to encode {@code value}.
+     */
+    private static int utf8Length(String value){
+        int length = 0;
+        for(int i = 0; i < value.length(); i++){
+            length += utf8Length(value.charAt(i));
+        }
+        return length;
+    }
+
+    /**
+     * Internal method that computes the length of one character in UTF-8.
+     * Each half of a surrogate pair counts for half of its four bytes.
+     * @param c The character to measure.
+     * @return The number of bytes needed to encode {@code c}.
+     */
+    private static int utf8Length(char c){
+        if(c < 0x80){
+            return 1;
+        }
+        if(c < 0x800 || Character.isSurrogate(c)){
+            return 2;
+        }
+        return 3;
+    }
+
+    /**
+     * Internal method that writes a String preceded by its byte length,
+     * truncating it if necessary.
+     * @param buffer The buffer into which to write.
+     * @param value The String to write.
+     * @param maximumBytes The largest number of bytes of {@code value} to
+     * write.
+     */
+    private static void putString(ByteBuffer buffer, String value, int maximumBytes){
+        int lengthPosition = buffer.position();
+        buffer.putShort((short)0);
+        int limit = Math.min(maximumBytes, 65535);
+        int written = 0;
+        for(int i = 0; i < value.length(); i++){
+            char c = value.charAt(i);
+            if(Character.isHighSurrogate(c) && i + 1 < value.length() && Character.isLowSurrogate(value.charAt(i + 1))){
+                if(written + 4 > limit){
+                    break;
+                }
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                buffer.put((byte)(0xF0 | (codePoint >> 18)));
+                buffer.put((byte)(0x80 | ((codePoint >> 12) & 0x3F)));
+                buffer.put((byte)(0x80 | ((codePoint >> 6) & 0x3F)));
+                buffer.put((byte)(0x80 | (codePoint & 0x3F)));
+                written += 4;
+                continue;
+            }
+            if(Character.isSurrogate(c)){
+                //Unpaired surrogate
+                c = '?';
+            }
+            int length = utf8Length(c);
+            if(written + length > limit){
+                break;
+            }
+            if(length == 1){
+                buffer.put((byte)c);
+            }
+            else if(length == 2){
+                buffer.put((byte)(0xC0 | (c >> 6)));
+                buffer.put((byte)(0x80 | (c & 0x3F)));
+            }
+            else{
+                buffer.put((byte)(0xE0 | (c >> 12)));
+                buffer.put((byte)(0x80 | ((c >> 6) & 0x3F)));
+                buffer.put((byte)(0x80 | (c & 0x3F)));
+            }
+            written += length;
+        }
+        buffer.putShort(lengthPosition, (short)written);
+    }
+
+    /**
+     * Returns the number of events dropped because both send buffers were
+     * full or because this UdpHandler was closed.
+     * @return The number of dropped events.
+     */
+    public synchronized long getDroppedCount(){
+        return droppedEvents;
+    }
+
+    /**
+     * Returns the number of datagrams that could not be sent because of a
+     * network error.
+     * @return The number of failed datagrams.
+     */
+    public synchronized long getFailedDatagramCount(){
+        return failedDatagrams;
+    }
+
+    /**
+     * Returns the address to which this UdpHandler sends datagrams.
+     * @return The address and port of the receiver.
+     */
+    public InetSocketAddress getDestination(){
+        return destination;
+    }
+
+    /**
+     * Returns a String representation of this UdpHandler.
+     *
+     * This String representation is intended to be human-readable.
+     * @return A human-readable String representation of this UdpHandler.
+     */
+    public String toString(){
+        return "<UdpHandler: "+destination.toString()+", "+filling.capacity()+">";
+    }
+}
@@ -0,0 +1,59 @@
+package com.edinarobotics.utils.log.handlers;
+
+/**
+ * Describes the layout of the datagrams sent by {@link UdpHandler} and read
+ * by {@link UdpLogReceiver}.
+ *
+ * Each datagram starts with a fixed-size header:
+ * <pre>
+ * 4 bytes  magic "1816"
+ * 1 byte   format version
+ * 4 bytes  datagram sequence number, counting from 0
+ * </pre>
+ * The header is followed by as many events as fit in the datagram:
+ * <pre>
+ * 1 byte   level index (| THROWN_FLAG)
+ * string   full logger name, omitting the root Logger
+ * string   message
+ * [string  String form of the Throwable]
+ * </pre>
+ * Strings are written as a 2-byte big-endian byte length followed by UTF-8
+ * bytes. The receiver detects lost datagrams from gaps in the sequence
+ * numbers.
+ */
+final class UdpLogFormat {
+
+    private UdpLogFormat(){
+        //Hide constructor
+    }
+
+    /**
+     * The bytes at the start of every datagram.
+     */
+    static final byte[] MAGIC = {'1', '8', '1', '6'};
+
+    /**
+     * The version of the format described by this class.
+     */
+    static final byte VERSION = 1;
+
+    /**
+     * The offset of the sequence number in the datagram header.
+     */
+    static final int SEQUENCE_OFFSET = 5;
+
+    /**
+     * The size of the datagram header in bytes.
+     */
+    static final int HEADER_SIZE = 9;
+
+    /**
+     * Set in the level byte of an event that has a throwable.
+     */
+    static final int THROWN_FLAG = 0x80;
+
+    /**
+     * Masks the level index out of the level byte of an event.
+     */
+    static final int LEVEL_MASK = 0x0F;
+}
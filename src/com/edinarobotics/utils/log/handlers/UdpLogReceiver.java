@@ -0,0 +1,181 @@
+package com.edinarobotics.utils.log.handlers;
+
+import com.edinarobotics.utils.log.Level;
+import com.edinarobotics.utils.log.formatters.PrintFormatter;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.InetSocketAddress;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.nio.charset.Charset;
+
+/**
+ * The UdpLogReceiver receives datagrams sent by a {@link UdpHandler} and
+ * prints the events they contain as the text produced by a
+ * {@link PrintFormatter}.
+ *
+ * The receiver does not need a running robot program and can be run from
+ * the command line:
+ * <pre>
+ * java com.edinarobotics.utils.log.handlers.UdpLogReceiver [port]
+ * </pre>
+ */
+public class UdpLogReceiver {
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private final DatagramChannel channel;
+    private final ByteBuffer buffer;
+    private final PrintFormatter formatter;
+    private long expectedSequence;
+    private long lostDatagrams;
+
+    /**
+     * Constructs a new UdpLogReceiver listening on the given port of every
+     * local address.
+     * @param port The port on which to listen, or {@code 0} to use any free
+     * port.
+     * @throws IOException If the port cannot be bound.
+     */
+    public UdpLogReceiver(int port) throws IOException {
+        this(new InetSocketAddress(port));
+    }
+
+    /**
+     * Constructs a new UdpLogReceiver listening on the given address.
+     * @param address The local address and port on which to listen.
+     * @throws IOException If the address cannot be bound.
+     */
+    public UdpLogReceiver(InetSocketAddress address) throws IOException {
+        this.channel = DatagramChannel.open();
+        channel.socket().bind(address);
+        this.buffer = ByteBuffer.allocate(65536);
+        this.formatter = new PrintFormatter();
+        this.expectedSequence = -1;
+        this.lostDatagrams = 0;
+    }
+
+    /**
+     * Returns the local port on which this UdpLogReceiver listens.
+     * @return The local port number.
+     */
+    public int getLocalPort(){
+        return channel.socket().getLocalPort();
+    }
+
+    /**
+     * Returns the number of datagrams that were detected as lost from gaps
+     * in their sequence numbers.
+     * @return The number of lost datagrams.
+     */
+    public long getLostCount(){
+        return lostDatagrams;
+    }
+
+    /**
+     * Waits for one datagram and prints each event it contains as a line to
+     * the given stream.
+     *
+     * Datagrams that were not sent by a {@link UdpHandler} are ignored.
+     * @param out The stream to which events are printed.
+     * @return The number of events printed.
+     * @throws IOException If the datagram cannot be received.
+     */
+    public int receive(PrintStream out) throws IOException {
+        buffer.clear();
+        channel.receive(buffer);
+        buffer.flip();
+        if(buffer.remaining() < UdpLogFormat.HEADER_SIZE){
+            return 0;
+        }
+        for(int i = 0; i < UdpLogFormat.MAGIC.length; i++){
+            if(buffer.get() != UdpLogFormat.MAGIC[i]){
+                return 0;
+            }
+        }
+        if(buffer.get() != UdpLogFormat.VERSION){
+            return 0;
+        }
+        long sequence = buffer.getInt() & 0xFFFFFFFFL;
+        if(expectedSequence >= 0 && sequence > expectedSequence){
+            lostDatagrams += sequence - expectedSequence;
+        }
+        expectedSequence = sequence + 1;
+        int events = 0;
+        try{
+            while(buffer.hasRemaining()){
+                int levelByte = buffer.get() & 0xFF;
+                Level level = Level.forIndex(levelByte & UdpLogFormat.LEVEL_MASK);
+                String logger = getString(buffer);
+                String message = getString(buffer);
+                String thrown = null;
+                if((levelByte & UdpLogFormat.THROWN_FLAG) != 0){
+                    thrown = getString(buffer);
+                }
+                out.println(formatter.format(level, logger, message, thrown));
+                events++;
+            }
+        }
+        catch(BufferUnderflowException e){
+            //Malformed datagram
+        }
+        catch(IllegalArgumentException e){
+            //Malformed datagram
+        }
+        return events;
+    }
+
+    /**
+     * Closes the UDP socket of this UdpLogReceiver.
+     * @throws IOException If the socket cannot be closed.
+     */
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Internal method that reads a UTF-8 String preceded by its byte length.
+     * @param buffer The buffer from which to read.
+     * @return The String that was read.
+     */
+    private static String getString(ByteBuffer buffer){
+        int length = buffer.getShort() & 0xFFFF;
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, UTF_8);
+    }
+
+    /**
+     * Listens for log datagrams and prints them to standard output until
+     * the program is stopped.
+     * @param args An optional port number, which defaults to
+     * {@link UdpHandler#DEFAULT_PORT}.
+     */
+    public static void main(String[] args){
+        int port = UdpHandler.DEFAULT_PORT;
+        if(args.length > 0){
+            try{
+                port = Integer.parseInt(args[0]);
+            }
+            catch(NumberFormatException e){
+                System.err.println("Usage: UdpLogReceiver [port]");
+                System.exit(2);
+            }
+        }
+        try{
+            UdpLogReceiver receiver = new UdpLogReceiver(port);
+            long reportedLost = 0;
+            while(true){
+                receiver.receive(System.out);
+                if(receiver.getLostCount() != reportedLost){
+                    reportedLost = receiver.getLostCount();
+                    System.err.println("UdpLogReceiver: "+reportedLost+" datagrams lost so far");
+                }
+            }
+        }
+        catch(IOException e){
+            System.err.println("UdpLogReceiver: "+e.getMessage());
+            System.exit(1);
+        }
+    }
+}
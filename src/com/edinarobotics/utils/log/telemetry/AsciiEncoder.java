@@ -0,0 +1,161 @@
+package com.edinarobotics.utils.log.telemetry;
+
+/**
+ * AsciiEncoder writes numbers as ASCII digits directly into a byte array.
+ *
+ * Unlike {@link Double#toString(double)}, encoding a number does not create
+ * any objects. Doubles are written in plain decimal notation rounded to a
+ * fixed number of decimal places, with trailing zeros removed. Doubles too
+ * large to be written this way fall back to {@link Double#toString(double)}.
+ */
+final class AsciiEncoder {
+
+    /**
+     * The largest number of bytes written by any one call to an encoding
+     * method.
+     */
+    static final int MAXIMUM_LENGTH = 32;
+
+    /**
+     * The largest number of decimal places that can be written.
+     */
+    static final int MAXIMUM_DECIMAL_PLACES = 9;
+
+    private static final long[] POWERS_OF_TEN = {
+        1L, 10L, 100L, 1000L, 10000L, 100000L, 1000000L, 10000000L,
+        100000000L, 1000000000L
+    };
+    private static final double FIXED_LIMIT = 1e18;
+    private static final byte[] LONG_MIN_VALUE = ascii(String.valueOf(Long.MIN_VALUE));
+    private static final byte[] NAN = ascii("NaN");
+    private static final byte[] INFINITY = ascii("Infinity");
+
+    private AsciiEncoder(){
+        //Hide constructor
+    }
+
+    /**
+     * Internal method that returns the ASCII bytes of a String.
+     * @param value The String, which must only contain ASCII characters.
+     * @return The bytes of {@code value}.
+     */
+    private static byte[] ascii(String value){
+        byte[] bytes = new byte[value.length()];
+        for(int i = 0; i < bytes.length; i++){
+            bytes[i] = (byte)value.charAt(i);
+        }
+        return bytes;
+    }
+
+    /**
+     * Internal method that copies bytes into the output array.
+     * @param out The array into which to write.
+     * @param position The index in {@code out} at which to start writing.
+     * @param bytes The bytes to copy.
+     * @return The index in {@code out} just after the last byte written.
+     */
+    private static int put(byte[] out, int position, byte[] bytes){
+        System.arraycopy(bytes, 0, out, position, bytes.length);
+        return position + bytes.length;
+    }
+
+    /**
+     * Writes a {@code long} as decimal digits.
+     * @param out The array into which to write. At least
+     * {@link #MAXIMUM_LENGTH} bytes must be available after
+     * {@code position}.
+     * @param position The index in {@code out} at which to start writing.
+     * @param value The value to write.
+     * @return The index in {@code out} just after the last byte written.
+     */
+    static int putLong(byte[] out, int position, long value){
+        if(value == Long.MIN_VALUE){
+            return put(out, position, LONG_MIN_VALUE);
+        }
+        if(value < 0){
+            out[position++] = '-';
+            value = -value;
+        }
+        int digits = 1;
+        for(long bound = 10; digits < 19 && value >= bound; bound *= 10){
+            digits++;
+        }
+        int end = position + digits;
+        for(int i = end - 1; i >= position; i--){
+            out[i] = (byte)('0' + (value % 10));
+            value /= 10;
+        }
+        return end;
+    }
+
+    /**
+     * Writes a {@code double} in decimal notation.
+     *
+     * The value is rounded to {@code decimalPlaces} digits after the decimal
+     * point and trailing zeros are removed, so {@code 2.50} is written as
+     * {@code 2.5} and {@code 3.0} is written as {@code 3}.
+     * @param out The array into which to write. At least
+     * {@link #MAXIMUM_LENGTH} bytes must be available after
+     * {@code position}.
+     * @param position The index in {@code out} at which to start writing.
+     * @param value The value to write.
+     * @param decimalPlaces The number of digits after the decimal point,
+     * from {@code 0} to {@link #MAXIMUM_DECIMAL_PLACES}.
+     * @return The index in {@code out} just after the last byte written.
+     */
+    static int putDouble(byte[] out, int position, double value, int decimalPlaces){
+        if(value != value){
+            return put(out, position, NAN);
+        }
+        boolean negative = value < 0;
+        double magnitude = negative ? -value : value;
+        if(magnitude == Double.POSITIVE_INFINITY){
+            if(negative){
+                out[position++] = '-';
+            }
+            return put(out, position, INFINITY);
+        }
+        long scale = POWERS_OF_TEN[decimalPlaces];
+        double scaled = magnitude * scale + 0.5;
+        if(scaled >= FIXED_LIMIT){
+            return putFallback(out, position, value);
+        }
+        long total = (long)scaled;
+        if(negative && total != 0){
+            out[position++] = '-';
+        }
+        position = putLong(out, position, total / scale);
+        long fraction = total % scale;
+        if(fraction == 0){
+            return position;
+        }
+        int digits = decimalPlaces;
+        while(fraction % 10 == 0){
+            fraction /= 10;
+            digits--;
+        }
+        out[position++] = '.';
+        int end = position + digits;
+        for(int i = end - 1; i >= position; i--){
+            out[i] = (byte)('0' + (fraction % 10));
+            fraction /= 10;
+        }
+        return end;
+    }
+
+    /**
+     * Internal method that writes a {@code double} too large for fixed
+     * notation using {@link Double#toString(double)}.
+     * @param out The array into which to write.
+     * @param position The index in {@code out} at which to start writing.
+     * @param value The value to write.
+     * @return The index in {@code out} just after the last byte written.
+     */
+    private static int putFallback(byte[] out, int position, double value){
+        String text = Double.toString(value);
+        for(int i = 0; i < text.length(); i++){
+            out[position++] = (byte)text.charAt(i);
+        }
+        return position;
+    }
+}
@@ -0,0 +1,152 @@
+package com.edinarobotics.utils.log.telemetry;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+
+/**
+ * The TelemetryDecoder turns files written by a {@link TelemetryWriter} in
+ * {@link TelemetryWriter.Format#BINARY} mode into CSV.
+ *
+ * Every value is printed exactly, {@code double} values in the form
+ * produced by {@link Double#toString(double)}. The decoder does not need a
+ * running robot program and can be run from the command line:
+ * <pre>
+ * java com.edinarobotics.utils.log.telemetry.TelemetryDecoder file
+ * </pre>
+ */
+public class TelemetryDecoder {
+
+    /**
+     * Decodes a binary telemetry file and prints it as CSV, starting with a
+     * header line of column names.
+     * @param file The file to decode.
+     * @param out The stream to which the CSV is printed.
+     * @return The number of rows decoded.
+     * @throws IOException If the file cannot be read or is not a file
+     * written by {@link TelemetryWriter}.
+     */
+    public int decode(File file, PrintStream out) throws IOException {
+        InputStream input = new BufferedInputStream(new FileInputStream(file));
+        try{
+            return decode(input, out);
+        }
+        finally{
+            input.close();
+        }
+    }
+
+    /**
+     * Decodes binary telemetry from a stream and prints it as CSV, starting
+     * with a header line of column names.
+     *
+     * A file whose last block was cut short, for example by a power loss,
+     * is decoded up to that block.
+     * @param input The stream from which the telemetry is read.
+     * @param out The stream to which the CSV is printed.
+     * @return The number of rows decoded.
+     * @throws IOException If the data cannot be read or is not telemetry
+     * written by {@link TelemetryWriter}.
+     */
+    public int decode(InputStream input, PrintStream out) throws IOException {
+        DataInputStream data = new DataInputStream(input);
+        for(int i = 0; i < TelemetryFormat.MAGIC.length; i++){
+            if(data.readByte() != TelemetryFormat.MAGIC[i]){
+                throw new IOException("File does not start with the telemetry magic number");
+            }
+        }
+        byte version = data.readByte();
+        if(version != TelemetryFormat.VERSION){
+            throw new IOException("Unsupported telemetry version "+version);
+        }
+        int columns = data.readUnsignedShort();
+        byte[] types = new byte[columns];
+        StringBuilder line = new StringBuilder();
+        for(int i = 0; i < columns; i++){
+            types[i] = data.readByte();
+            if(types[i] < TelemetryFormat.TYPE_DOUBLE || types[i] > TelemetryFormat.TYPE_BOOLEAN){
+                throw new IOException("Unknown column type "+types[i]);
+            }
+            byte[] name = new byte[data.readUnsignedShort()];
+            data.readFully(name);
+            if(i > 0){
+                line.append(',');
+            }
+            TelemetryWriter.appendCsvField(line, new String(name, "UTF-8"));
+        }
+        out.println(line.toString());
+
+        int rows = 0;
+        try{
+            while(true){
+                int blockRows;
+                try{
+                    blockRows = data.readInt();
+                }
+                catch(EOFException e){
+                    break;
+                }
+                long[] values = new long[blockRows * columns];
+                for(int c = 0; c < columns; c++){
+                    for(int r = 0; r < blockRows; r++){
+                        if(types[c] == TelemetryFormat.TYPE_BOOLEAN){
+                            values[r * columns + c] = data.readByte();
+                        }
+                        else{
+                            values[r * columns + c] = data.readLong();
+                        }
+                    }
+                }
+                for(int r = 0; r < blockRows; r++){
+                    line.setLength(0);
+                    for(int c = 0; c < columns; c++){
+                        if(c > 0){
+                            line.append(',');
+                        }
+                        long value = values[r * columns + c];
+                        if(types[c] == TelemetryFormat.TYPE_DOUBLE){
+                            line.append(Double.longBitsToDouble(value));
+                        }
+                        else if(types[c] == TelemetryFormat.TYPE_LONG){
+                            line.append(value);
+                        }
+                        else{
+                            line.append(value != 0 ? '1' : '0');
+                        }
+                    }
+                    out.println(line.toString());
+                    rows++;
+                }
+            }
+        }
+        catch(EOFException e){
+            //The last block was cut short
+        }
+        return rows;
+    }
+
+    /**
+     * Decodes the binary telemetry file named on the command line and
+     * prints it as CSV to standard output.
+     * @param args The path of the file to decode.
+     */
+    public static void main(String[] args){
+        if(args.length != 1){
+            System.err.println("Usage: TelemetryDecoder file");
+            System.exit(2);
+        }
+        try{
+            new TelemetryDecoder().decode(new File(args[0]), System.out);
+        }
+        catch(IOException e){
+            System.err.println(args[0]+": "+e.getMessage());
+            System.exit(1);
+        }
+        System.out.flush();
+    }
+}
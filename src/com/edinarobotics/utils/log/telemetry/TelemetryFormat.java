@@ -0,0 +1,57 @@
+package com.edinarobotics.utils.log.telemetry;
+
+/**
+ * Describes the layout of the binary files written by
+ * {@link TelemetryWriter} in {@link TelemetryWriter.Format#BINARY} mode and
+ * read by {@link TelemetryDecoder}.
+ *
+ * All multi-byte values are big-endian. A file starts with a header:
+ * <pre>
+ * 8 bytes  magic "1816TELM"
+ * 1 byte   format version
+ * 2 bytes  number of columns
+ * for each column:
+ *   1 byte   column type
+ *   2 bytes  byte length of the column name
+ *   n bytes  column name in UTF-8
+ * </pre>
+ * The header is followed by blocks of rows, stored column by column:
+ * <pre>
+ * 4 bytes  number of rows in the block
+ * for each column, the value of that column in every row of the block:
+ *   DOUBLE   8 bytes IEEE 754
+ *   LONG     8 bytes two's complement
+ *   BOOLEAN  1 byte, 0 or 1
+ * </pre>
+ */
+final class TelemetryFormat {
+
+    private TelemetryFormat(){
+        //Hide constructor
+    }
+
+    /**
+     * The bytes at the start of every file.
+     */
+    static final byte[] MAGIC = {'1', '8', '1', '6', 'T', 'E', 'L', 'M'};
+
+    /**
+     * The version of the format described by this class.
+     */
+    static final byte VERSION = 1;
+
+    /**
+     * The type of a column holding {@code double} values.
+     */
+    static final byte TYPE_DOUBLE = 1;
+
+    /**
+     * The type of a column holding {@code long} values.
+     */
+    static final byte TYPE_LONG = 2;
+
+    /**
+     * The type of a column holding {@code boolean} values.
+     */
+    static final byte TYPE_BOOLEAN = 3;
+}
@@ -0,0 +1,708 @@
+package com.edinarobotics.utils.log.telemetry;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+
+/**
+ * The TelemetryWriter records rows of numeric telemetry to a file.
+ *
+ * The columns of the file are declared once, before the writer is started,
+ * with {@link #addDoubleColumn(String)}, {@link #addLongColumn(String)} and
+ * {@link #addBooleanColumn(String)}. Each control cycle then records one row
+ * either with {@link #record(double...)} or by setting individual columns
+ * with the {@code set} methods followed by {@link #commitRow()}.
+ *
+ * Rows are copied into preallocated blocks of primitive values. Full blocks
+ * are handed to a background thread which encodes them and writes them to
+ * the file, so recording a row never performs I/O and never allocates. If
+ * the background thread falls behind and every block is waiting to be
+ * written, new rows are dropped and counted.
+ *
+ * Rows must be recorded from a single thread. The file can be written as
+ * CSV or in the compact {@link Format#BINARY} format, which can later be
+ * turned into CSV by the {@link TelemetryDecoder}.
+ */
+public class TelemetryWriter {
+
+    /**
+     * The directory in which files named by {@link #TelemetryWriter(String)}
+     * are placed.
+     */
+    public static final String DEFAULT_DIRECTORY = "/home/lvuser";
+
+    /**
+     * The default number of rows in each block.
+     */
+    public static final int DEFAULT_ROWS_PER_BLOCK = 512;
+
+    /**
+     * The default number of blocks.
+     */
+    public static final int DEFAULT_BLOCK_COUNT = 4;
+
+    /**
+     * The default number of digits written after the decimal point of
+     * {@code double} values in CSV files.
+     */
+    public static final int DEFAULT_DECIMAL_PLACES = 6;
+
+    private static final long FLUSH_INTERVAL_NANOS = 1000000000L;
+    private static final int OUTPUT_BUFFER_SIZE = 65536;
+    private static final Block END = new Block(0);
+
+    private final File file;
+    private final Format format;
+    private final FileOutputStream stream;
+    private final int rowsPerBlock;
+    private final int blockCount;
+    private final List<String> names;
+    private final List<Byte> typeList;
+    private int decimalPlaces;
+
+    private byte[] types;
+    private long[] row;
+    private Block current;
+    private long blockStartNanos;
+    private ArrayBlockingQueue<Block> free;
+    private ArrayBlockingQueue<Block> full;
+    private Thread writer;
+    private volatile long droppedRows;
+    private volatile boolean closed;
+
+    private byte[] out;
+    private int outPosition;
+    private boolean failed;
+
+    /**
+     * Constructs a new TelemetryWriter which writes CSV to the file
+     * {@code name + ".csv"} in {@link #DEFAULT_DIRECTORY}.
+     * @param name The name of the file, without an extension.
+     * @throws IOException If the file cannot be created.
+     */
+    public TelemetryWriter(String name) throws IOException {
+        this(new File(DEFAULT_DIRECTORY, name + ".csv"), Format.CSV);
+    }
+
+    /**
+     * Constructs a new TelemetryWriter with {@link #DEFAULT_ROWS_PER_BLOCK}
+     * rows in each of {@link #DEFAULT_BLOCK_COUNT} blocks.
+     * @param file The file to be written. An existing file is replaced.
+     * @param format The format in which the file is written.
+     * @throws IOException If the file cannot be created.
+     */
+    public TelemetryWriter(File file, Format format) throws IOException {
+        this(file, format, DEFAULT_ROWS_PER_BLOCK, DEFAULT_BLOCK_COUNT);
+    }
+
+    /**
+     * Constructs a new TelemetryWriter.
+     *
+     * The writer holds {@code blockCount} blocks of {@code rowsPerBlock}
+     * rows. Rows are only dropped when all of them are waiting to be
+     * written.
+     * @param file The file to be written. An existing file is replaced.
+     * @param format The format in which the file is written.
+     * @param rowsPerBlock The number of rows in each block.
+     * @param blockCount The number of blocks, at least 2.
+     * @throws IOException If the file cannot be created.
+     */
+    public TelemetryWriter(File file, Format format, int rowsPerBlock, int blockCount) throws IOException {
+        if(file == null){
+            throw new IllegalArgumentException("Provided File must not be null");
+        }
+        if(format == null){
+            throw new IllegalArgumentException("Provided Format must not be null");
+        }
+        if(rowsPerBlock < 1){
+            throw new IllegalArgumentException("Rows per block must be positive (received: "+rowsPerBlock+")");
+        }
+        if(blockCount < 2){
+            throw new IllegalArgumentException("Block count must be at least 2 (received: "+blockCount+")");
+        }
+        this.file = file;
+        this.format = format;
+        this.rowsPerBlock = rowsPerBlock;
+        this.blockCount = blockCount;
+        this.names = new ArrayList<String>();
+        this.typeList = new ArrayList<Byte>();
+        this.decimalPlaces = DEFAULT_DECIMAL_PLACES;
+        this.stream = new FileOutputStream(file);
+    }
+
+    /**
+     * Declares a column holding {@code double} values.
+     * @param name The name of the column.
+     * @return The index of the new column.
+     */
+    public int addDoubleColumn(String name){
+        return addColumn(name, TelemetryFormat.TYPE_DOUBLE);
+    }
+
+    /**
+     * Declares a column holding {@code long} values.
+     * @param name The name of the column.
+     * @return The index of the new column.
+     */
+    public int addLongColumn(String name){
+        return addColumn(name, TelemetryFormat.TYPE_LONG);
+    }
+
+    /**
+     * Declares a column holding {@code boolean} values.
+     * @param name The name of the column.
+     * @return The index of the new column.
+     */
+    public int addBooleanColumn(String name){
+        return addColumn(name, TelemetryFormat.TYPE_BOOLEAN);
+    }
+
+    /**
+     * Internal method that declares a column.
+     * @param name The name of the column.
+     * @param type The type of the column.
+     * @return The index of the new column.
+     */
+    private int addColumn(String name, byte type){
+        if(row != null){
+            throw new IllegalStateException("Columns cannot be added after the TelemetryWriter is started");
+        }
+        if(name == null || name.length() == 0){
+            throw new IllegalArgumentException("Column name must not be empty");
+        }
+        if(names.contains(name)){
+            throw new IllegalArgumentException("Duplicate column name \""+name+"\"");
+        }
+        names.add(name);
+        typeList.add(Byte.valueOf(type));
+        return names.size() - 1;
+    }
+
+    /**
+     * Sets the number of digits written after the decimal point of
+     * {@code double} values in CSV files. Values are rounded to this many
+     * digits and trailing zeros are omitted. This setting has no effect on
+     * binary files, which store every value exactly. The number of decimal
+     * places cannot be changed once the TelemetryWriter is started.
+     * @param decimalPlaces The number of digits, from 0 to 9.
+     */
+    public void setDecimalPlaces(int decimalPlaces){
+        if(row != null){
+            throw new IllegalStateException("Decimal places cannot be changed after the TelemetryWriter is started");
+        }
+        if(decimalPlaces < 0 || decimalPlaces > AsciiEncoder.MAXIMUM_DECIMAL_PLACES){
+            throw new IllegalArgumentException("Decimal places must be between 0 and "+
+                    AsciiEncoder.MAXIMUM_DECIMAL_PLACES+" (received: "+decimalPlaces+")");
+        }
+        this.decimalPlaces = decimalPlaces;
+    }
+
+    /**
+     * Allocates the row buffers and starts the background thread, which
+     * writes the file header. No more columns can be added once the
+     * TelemetryWriter is started.
+     */
+    public void start(){
+        if(row != null){
+            throw new IllegalStateException("TelemetryWriter is already started");
+        }
+        if(names.isEmpty()){
+            throw new IllegalStateException("TelemetryWriter has no columns");
+        }
+        int columns = names.size();
+        types = new byte[columns];
+        for(int i = 0; i < columns; i++){
+            types[i] = typeList.get(i).byteValue();
+        }
+        out = new byte[Math.max(OUTPUT_BUFFER_SIZE, getMaximumRowLength())];
+        free = new ArrayBlockingQueue<Block>(blockCount);
+        full = new ArrayBlockingQueue<Block>(blockCount + 1);
+        for(int i = 1; i < blockCount; i++){
+            free.offer(new Block(rowsPerBlock * columns));
+        }
+        current = new Block(rowsPerBlock * columns);
+        blockStartNanos = System.nanoTime();
+        row = new long[columns];
+        writer = new Thread(new Runnable(){
+            public void run(){
+                write();
+            }
+        }, "TelemetryWriter-"+file.getName());
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Records one row. Each value is stored in the column with the same
+     * index. Values for {@code long} columns are rounded to the nearest
+     * integer and values for {@code boolean} columns are {@code true} if
+     * they are not zero.
+     *
+     * To avoid allocating a new array on every call, callers can pass the
+     * same array each time.
+     * @param values The value of every column, in column order.
+     */
+    public void record(double... values){
+        checkStarted();
+        if(values.length != row.length){
+            throw new IllegalArgumentException("Expected "+row.length+" values (received: "+values.length+")");
+        }
+        for(int i = 0; i < values.length; i++){
+            store(i, values[i]);
+        }
+        commitRow();
+    }
+
+    /**
+     * Sets the value of a column in the row being built. The row is
+     * recorded by {@link #commitRow()}.
+     * @param column The index of the column.
+     * @param value The new value of the column. This value is rounded for
+     * {@code long} columns and compared to zero for {@code boolean} columns.
+     */
+    public void set(int column, double value){
+        checkStarted();
+        store(column, value);
+    }
+
+    /**
+     * Sets the value of a column in the row being built. The row is
+     * recorded by {@link #commitRow()}.
+     * @param column The index of the column.
+     * @param value The new value of the column. This value is compared to
+     * zero for {@code boolean} columns.
+     */
+    public void set(int column, long value){
+        checkStarted();
+        if(types[column] == TelemetryFormat.TYPE_DOUBLE){
+            row[column] = Double.doubleToRawLongBits(value);
+        }
+        else if(types[column] == TelemetryFormat.TYPE_LONG){
+            row[column] = value;
+        }
+        else{
+            row[column] = value != 0 ? 1 : 0;
+        }
+    }
+
+    /**
+     * Sets the value of a column in the row being built. The row is
+     * recorded by {@link #commitRow()}.
+     * @param column The index of the column.
+     * @param value The new value of the column. {@code true} is stored as
+     * {@code 1} in numeric columns.
+     */
+    public void set(int column, boolean value){
+        set(column, value ? 1L : 0L);
+    }
+
+    /**
+     * Records the row built by the {@code set} methods. Columns that were
+     * not set since the last row keep their previous value. The current
+     * block is handed to the background thread when it is full or was
+     * started more than a second ago.
+     */
+    public void commitRow(){
+        checkStarted();
+        if(closed){
+            return;
+        }
+        long now = System.nanoTime();
+        if(current == null){
+            current = free.poll();
+            if(current == null){
+                droppedRows++;
+                return;
+            }
+            blockStartNanos = now;
+        }
+        System.arraycopy(row, 0, current.values, current.rows * row.length, row.length);
+        current.rows++;
+        if(current.rows == rowsPerBlock || now - blockStartNanos >= FLUSH_INTERVAL_NANOS){
+            handOff(now);
+        }
+    }
+
+    /**
+     * Hands all recorded rows to the background thread to be written. This
+     * method does not wait for the rows to reach the file.
+     *
+     * Rows are also handed off by {@link #commitRow()} when a block fills or
+     * when the block was started more than a second earlier. That check only
+     * runs when a row is committed, so if rows stop being recorded, for
+     * example while the robot is disabled, the partial block stays in memory
+     * until this method or {@link #close()} is called.
+     */
+    public void flush(){
+        checkStarted();
+        if(current != null && current.rows > 0){
+            handOff(System.nanoTime());
+        }
+    }
+
+    /**
+     * Writes all recorded rows and closes the file. Rows recorded after
+     * this TelemetryWriter is closed are ignored.
+     *
+     * This method waits for the background thread to finish writing.
+     */
+    public void close(){
+        if(closed){
+            return;
+        }
+        if(row == null){
+            closed = true;
+            try{
+                stream.close();
+            }
+            catch(IOException e){
+                e.printStackTrace();
+            }
+            return;
+        }
+        flush();
+        closed = true;
+        full.offer(END);
+        boolean interrupted = false;
+        while(writer.isAlive()){
+            try{
+                writer.join();
+            }
+            catch(InterruptedException e){
+                interrupted = true;
+            }
+        }
+        if(interrupted){
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Returns the number of rows that were dropped because every block was
+     * waiting to be written.
+     * @return The number of dropped rows.
+     */
+    public long getDroppedRowCount(){
+        return droppedRows;
+    }
+
+    /**
+     * Returns the number of columns declared in this TelemetryWriter.
+     * @return The number of columns.
+     */
+    public int getColumnCount(){
+        return names.size();
+    }
+
+    /**
+     * Returns the file written by this TelemetryWriter.
+     * @return The file written by this TelemetryWriter.
+     */
+    public File getFile(){
+        return file;
+    }
+
+    /**
+     * Returns the format in which this TelemetryWriter writes its file.
+     * @return The format of the file.
+     */
+    public Format getFormat(){
+        return format;
+    }
+
+    /**
+     * Internal method that throws an exception if {@link #start()} has not
+     * been called.
+     */
+    private void checkStarted(){
+        if(row == null){
+            throw new IllegalStateException("TelemetryWriter has not been started");
+        }
+    }
+
+    /**
+     * Internal method that stores a {@code double} in a column of the row
+     * being built, converting it to the type of the column.
+     * @param column The index of the column.
+     * @param value The value to store.
+     */
+    private void store(int column, double value){
+        if(types[column] == TelemetryFormat.TYPE_DOUBLE){
+            row[column] = Double.doubleToRawLongBits(value);
+        }
+        else if(types[column] == TelemetryFormat.TYPE_LONG){
+            row[column] = Math.round(value);
+        }
+        else{
+            row[column] = value != 0 ? 1 : 0;
+        }
+    }
+
+    /**
+     * Internal method that gives the current block to the background thread
+     * and takes a free block to replace it.
+     * @param now The current value of {@link System#nanoTime()}.
+     */
+    private void handOff(long now){
+        full.offer(current);
+        current = free.poll();
+        blockStartNanos = now;
+    }
+
+    /**
+     * Internal method that returns an upper bound on the length of one
+     * encoded row.
+     * @return The largest number of bytes one row can take in the file.
+     */
+    private int getMaximumRowLength(){
+        return types.length * (AsciiEncoder.MAXIMUM_LENGTH + 1) + 1;
+    }
+
+    /**
+     * Internal method run by the background thread. It writes the header,
+     * then writes blocks until {@link #close()} is called.
+     */
+    private void write(){
+        try{
+            writeHeader();
+        }
+        catch(IOException e){
+            fail(e);
+        }
+        while(true){
+            Block block;
+            try{
+                block = full.take();
+            }
+            catch(InterruptedException e){
+                continue;
+            }
+            if(block == END){
+                break;
+            }
+            if(!failed){
+                try{
+                    if(format == Format.CSV){
+                        writeCsvBlock(block);
+                    }
+                    else{
+                        writeBinaryBlock(block);
+                    }
+                    drain();
+                }
+                catch(IOException e){
+                    fail(e);
+                }
+            }
+            block.rows = 0;
+            free.offer(block);
+        }
+        try{
+            stream.close();
+        }
+        catch(IOException e){
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Internal method that stops writing after an I/O error. Blocks are
+     * still recycled so that the recording thread is never held up.
+     * @param e The error that occurred.
+     */
+    private void fail(IOException e){
+        failed = true;
+        e.printStackTrace();
+    }
+
+    /**
+     * Internal method that writes the header of the file.
+     * @throws IOException If the header cannot be written.
+     */
+    private void writeHeader() throws IOException {
+        if(format == Format.CSV){
+            StringBuilder header = new StringBuilder();
+            for(int i = 0; i < names.size(); i++){
+                if(i > 0){
+                    header.append(',');
+                }
+                appendCsvField(header, names.get(i));
+            }
+            header.append('\n');
+            stream.write(header.toString().getBytes("UTF-8"));
+        }
+        else{
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream header = new DataOutputStream(bytes);
+            header.write(TelemetryFormat.MAGIC);
+            header.writeByte(TelemetryFormat.VERSION);
+            header.writeShort(names.size());
+            for(int i = 0; i < names.size(); i++){
+                byte[] name = names.get(i).getBytes("UTF-8");
+                header.writeByte(types[i]);
+                header.writeShort(name.length);
+                header.write(name);
+            }
+            header.flush();
+            bytes.writeTo(stream);
+        }
+    }
+
+    /**
+     * Internal method that appends a field to a CSV line, quoting it if
+     * necessary.
+     * @param line The line to which the field is appended.
+     * @param field The value of the field.
+     */
+    static void appendCsvField(StringBuilder line, String field){
+        if(field.indexOf(',') < 0 && field.indexOf('"') < 0 && field.indexOf('\n') < 0 && field.indexOf('\r') < 0){
+            line.append(field);
+            return;
+        }
+        line.append('"');
+        for(int i = 0; i < field.length(); i++){
+            char c = field.charAt(i);
+            if(c == '"'){
+                line.append('"');
+            }
+            line.append(c);
+        }
+        line.append('"');
+    }
+
+    /**
+     * Internal method that encodes a block as lines of CSV.
+     * @param block The block to encode.
+     * @throws IOException If the output buffer cannot be written.
+     */
+    private void writeCsvBlock(Block block) throws IOException {
+        int columns = types.length;
+        int maximumRowLength = getMaximumRowLength();
+        for(int r = 0; r < block.rows; r++){
+            if(out.length - outPosition < maximumRowLength){
+                drain();
+            }
+            int base = r * columns;
+            for(int c = 0; c < columns; c++){
+                if(c > 0){
+                    out[outPosition++] = ',';
+                }
+                long value = block.values[base + c];
+                if(types[c] == TelemetryFormat.TYPE_DOUBLE){
+                    outPosition = AsciiEncoder.putDouble(out, outPosition, Double.longBitsToDouble(value), decimalPlaces);
+                }
+                else if(types[c] == TelemetryFormat.TYPE_LONG){
+                    outPosition = AsciiEncoder.putLong(out, outPosition, value);
+                }
+                else{
+                    out[outPosition++] = (byte)(value != 0 ? '1' : '0');
+                }
+            }
+            out[outPosition++] = '\n';
+        }
+    }
+
+    /**
+     * Internal method that encodes a block column by column in the binary
+     * format.
+     * @param block The block to encode.
+     * @throws IOException If the output buffer cannot be written.
+     */
+    private void writeBinaryBlock(Block block) throws IOException {
+        int columns = types.length;
+        if(out.length - outPosition < 4){
+            drain();
+        }
+        putBigEndian(block.rows, 4);
+        for(int c = 0; c < columns; c++){
+            int width = types[c] == TelemetryFormat.TYPE_BOOLEAN ? 1 : 8;
+            for(int r = 0; r < block.rows; r++){
+                if(out.length - outPosition < width){
+                    drain();
+                }
+                putBigEndian(block.values[r * columns + c], width);
+            }
+        }
+    }
+
+    /**
+     * Internal method that writes the low bytes of a value to the output
+     * buffer, most significant byte first.
+     * @param value The value to write.
+     * @param width The number of bytes to write.
+     */
+    private void putBigEndian(long value, int width){
+        for(int shift = (width - 1) * 8; shift >= 0; shift -= 8){
+            out[outPosition++] = (byte)(value >>> shift);
+        }
+    }
+
+    /**
+     * Internal method that writes the contents of the output buffer to the
+     * file.
+     * @throws IOException If the file cannot be written.
+     */
+    private void drain() throws IOException {
+        if(outPosition > 0){
+            stream.write(out, 0, outPosition);
+            outPosition = 0;
+        }
+    }
+
+    /**
+     * Returns a String representation of this TelemetryWriter.
+     * @return A String representation of this TelemetryWriter.
+     */
+    public String toString(){
+        return "<TelemetryWriter: "+file.getPath()+", "+format.toString()+", "+names.size()+">";
+    }
+
+    /**
+     * A block of rows, stored row by row.
+     */
+    private static class Block {
+        final long[] values;
+        int rows;
+
+        Block(int size){
+            this.values = new long[size];
+            this.rows = 0;
+        }
+    }
+
+    /**
+     * Selects the format of the file written by a TelemetryWriter.
+     */
+    public enum Format {
+
+        /**
+         * Comma-separated values with a header line of column names.
+         */
+        CSV("csv"),
+
+        /**
+         * The compact column-oriented binary format read by
+         * {@link TelemetryDecoder}.
+         */
+        BINARY("binary");
+
+        private final String name;
+
+        Format(String name){
+            this.name = name;
+        }
+
+        /**
+         * Returns a human-readable String representation of this Format.
+         * @return A human-readable String representation of this Format.
+         */
+        public String toString(){
+            return name;
+        }
+    }
+}